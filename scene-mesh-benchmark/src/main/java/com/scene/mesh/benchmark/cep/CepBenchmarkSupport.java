@@ -0,0 +1,272 @@
+package com.scene.mesh.benchmark.cep;
+
+import com.scene.mesh.model.event.Event;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeinfo.Types;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.cep.CEPUtils;
+import org.apache.flink.cep.context.RuleFunctionContext;
+import org.apache.flink.cep.dynamic.condition.AviatorCondition;
+import org.apache.flink.cep.dynamic.impl.json.util.CepJsonUtils;
+import org.apache.flink.cep.event.EventRecord;
+import org.apache.flink.cep.event.RuleBinding;
+import org.apache.flink.cep.event.RuleUpdated;
+import org.apache.flink.cep.functions.AbstractPatternProcessFunction;
+import org.apache.flink.cep.functions.AbstractRuleProcessFunction;
+import org.apache.flink.cep.nfa.aftermatch.AfterMatchSkipStrategy;
+import org.apache.flink.cep.operator.CepRuleProcessorOperator;
+import org.apache.flink.cep.operator.RuleDistributorOperator;
+import org.apache.flink.cep.operator.UdfRuleProcessorOperator;
+import org.apache.flink.cep.pattern.Pattern;
+import org.apache.flink.cep.types.RuleRowKey;
+import org.apache.flink.streaming.api.windowing.time.Time;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.apache.flink.util.Collector;
+
+import java.util.*;
+
+/**
+ * 动态 CEP 算子基准测试的公共部分：规则、绑定、事件的生成以及基于 OperatorTestHarness 的算子装配。
+ * 算子与生产一致按 terminalId 分区，规则处理算子的分区键为 (ruleId, terminalId)。
+ */
+public final class CepBenchmarkSupport {
+
+    /**
+     * 事件类型数，事件按类型循环产生，保证 SEQUENCE、LOOP 规则能够完整匹配
+     */
+    static final int EVENT_TYPES = 3;
+
+    private static final KeySelector<Event, String> TERMINAL_KEY = Event::getTerminalId;
+
+    private CepBenchmarkSupport() {
+    }
+
+    /**
+     * 规则的模式复杂度
+     */
+    public enum PatternShape {
+        /**
+         * 单个条件
+         */
+        SINGLE,
+        /**
+         * 三个条件依次 followedBy
+         */
+        SEQUENCE,
+        /**
+         * 条件循环 3 次以上后 followedBy，部分匹配最多
+         */
+        LOOP
+    }
+
+    /**
+     * 规则与分区键的绑定方式
+     */
+    public enum BindingMode {
+        /**
+         * 不启用 Key 绑定，每个事件分发给所有规则
+         */
+        ALL,
+        /**
+         * 每个规则绑定一个精确的 Key
+         */
+        EXACT,
+        /**
+         * 每个规则绑定一个通配符，匹配约 1/10 的 Key
+         */
+        WILDCARD
+    }
+
+    public static String terminalId(int index) {
+        return String.format("terminal-%05d", index);
+    }
+
+    public static String ruleId(int index) {
+        return "rule-" + index;
+    }
+
+    /**
+     * 按 key、类型交错排列的事件，同一 key 的事件类型依次为 e0、e1、e2
+     */
+    public static Event[] events(int keyCount) {
+        Event[] events = new Event[keyCount * EVENT_TYPES];
+        int i = 0;
+        for (int type = 0; type < EVENT_TYPES; type++) {
+            for (int key = 0; key < keyCount; key++) {
+                Event event = new Event("e" + type);
+                event.setTerminalId(terminalId(key));
+                event.addPayloadEntry("value", key);
+                events[i++] = event;
+            }
+        }
+        return events;
+    }
+
+    /**
+     * 与 events 顺序一致，每个事件对每条规则各一条记录，即 RuleDistributorOperator 在不启用绑定时的输出
+     */
+    public static List<EventRecord<Event>> records(Event[] events, int ruleCount) {
+        List<EventRecord<Event>> records = new ArrayList<>(events.length * ruleCount);
+        for (Event event : events) {
+            for (int rule = 0; rule < ruleCount; rule++) {
+                EventRecord<Event> record = new EventRecord<>();
+                record.setEvent(event);
+                record.setSameEventAsPrevious(rule > 0);
+                record.setRuleId(ruleId(rule));
+                record.setRuleVersion(1);
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    public static String pattern(PatternShape shape, long windowMillis) throws Exception {
+        Pattern<Event, ?> pattern;
+        switch (shape) {
+            case SINGLE:
+                pattern = Pattern.<Event>begin("e0", AfterMatchSkipStrategy.skipPastLastEvent())
+                        .where(new AviatorCondition<>("type == 'e0'"));
+                break;
+            case SEQUENCE:
+                pattern = Pattern.<Event>begin("e0", AfterMatchSkipStrategy.skipPastLastEvent())
+                        .where(new AviatorCondition<>("type == 'e0'"))
+                        .followedBy("e1")
+                        .where(new AviatorCondition<>("type == 'e1'"))
+                        .followedBy("e2")
+                        .where(new AviatorCondition<>("type == 'e2'"));
+                break;
+            case LOOP:
+                pattern = Pattern.<Event>begin("e0", AfterMatchSkipStrategy.noSkip())
+                        .where(new AviatorCondition<>("type != 'e2'"))
+                        .timesOrMore(3)
+                        .followedBy("e2")
+                        .where(new AviatorCondition<>("type == 'e2'"));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown pattern shape: " + shape);
+        }
+        return CepJsonUtils.convertPatternToJSONString(pattern.within(Time.milliseconds(windowMillis)));
+    }
+
+    public static RuleUpdated cepRule(int index, int version, String pattern) {
+        RuleUpdated rule = new RuleUpdated();
+        rule.setId(ruleId(index));
+        rule.setVersion(version);
+        rule.setParameters("{}");
+        rule.setFunction(MatchCountingFunction.class.getName());
+        rule.setPattern(pattern);
+        rule.setLibs(Collections.emptySet());
+        return rule;
+    }
+
+    public static List<RuleUpdated> cepRules(int ruleCount, PatternShape shape, long windowMillis) throws Exception {
+        String pattern = pattern(shape, windowMillis);
+        List<RuleUpdated> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(cepRule(i, 1, pattern));
+        }
+        return rules;
+    }
+
+    public static List<RuleUpdated> udfRules(int ruleCount) {
+        List<RuleUpdated> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            RuleUpdated rule = new RuleUpdated();
+            rule.setId(ruleId(i));
+            rule.setVersion(1);
+            rule.setParameters("{}");
+            rule.setFunction(CountingRuleFunction.class.getName());
+            rule.setLibs(Collections.emptySet());
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    /**
+     * 规则版本加一，触发算子重建该规则的处理器
+     */
+    public static RuleUpdated bumpVersion(RuleUpdated rule) {
+        RuleUpdated updated = new RuleUpdated();
+        updated.setId(rule.getId());
+        updated.setVersion(rule.getVersion() + 1);
+        updated.setParameters(rule.getParameters());
+        updated.setFunction(rule.getFunction());
+        updated.setPattern(rule.getPattern());
+        updated.setLibs(rule.getLibs());
+        return updated;
+    }
+
+    public static List<RuleBinding> bindings(int ruleCount, int keyCount, BindingMode mode) {
+        List<RuleBinding> bindings = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            RuleBinding binding = new RuleBinding();
+            binding.setId(ruleId(i));
+            binding.setVersion(1);
+            Set<String> keys = new HashSet<>();
+            if (mode == BindingMode.WILDCARD) {
+                keys.add("terminal-*" + (i % 10));
+            } else {
+                keys.add(terminalId(i % keyCount));
+            }
+            binding.setBindingKeys(keys);
+            bindings.add(binding);
+        }
+        return bindings;
+    }
+
+    public static KeyedOneInputStreamOperatorTestHarness<String, Event, EventRecord<Event>> distributorHarness(
+            boolean keyBindingEnabled) throws Exception {
+        return new KeyedOneInputStreamOperatorTestHarness<>(
+                new RuleDistributorOperator<>(null, keyBindingEnabled), TERMINAL_KEY, Types.STRING);
+    }
+
+    public static KeyedOneInputStreamOperatorTestHarness<RuleRowKey<String>, EventRecord<Event>, Object> cepHarness()
+            throws Exception {
+        CepRuleProcessorOperator<Event, Object> operator = new CepRuleProcessorOperator<>(
+                null, TypeInformation.of(Event.class).createSerializer(new ExecutionConfig()),
+                true, null, null, "/");
+        return new KeyedOneInputStreamOperatorTestHarness<>(
+                operator, CEPUtils.ruleKeySelector(TERMINAL_KEY), ruleRowKeyType());
+    }
+
+    public static KeyedOneInputStreamOperatorTestHarness<RuleRowKey<String>, EventRecord<Event>, Object> udfHarness()
+            throws Exception {
+        return new KeyedOneInputStreamOperatorTestHarness<>(
+                new UdfRuleProcessorOperator<String, Event, Object>(null, "/"),
+                CEPUtils.ruleKeySelector(TERMINAL_KEY), ruleRowKeyType());
+    }
+
+    private static TypeInformation<RuleRowKey<String>> ruleRowKeyType() {
+        return TypeInformation.of(new TypeHint<RuleRowKey<String>>() {
+        });
+    }
+
+    /**
+     * CEP 规则的处理函数，只计数匹配结果
+     */
+    public static class MatchCountingFunction extends AbstractPatternProcessFunction<Event, Object> {
+
+        @Override
+        public void processMatch(Map<String, List<Event>> match, Context ctx, Collector<Object> out) {
+            out.collect(match.size());
+        }
+    }
+
+    /**
+     * 自定义函数规则，按 key 维护计数状态
+     */
+    public static class CountingRuleFunction extends AbstractRuleProcessFunction<String, Event, Object> {
+
+        @Override
+        public void process(Event value, RuleFunctionContext<String> ctx, Collector<Object> out) throws Exception {
+            Optional<Long> count = ctx.getState();
+            long next = count.orElse(0L) + 1;
+            ctx.updateState(next);
+            if (next % 100 == 0) {
+                out.collect(next);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.scene.mesh.benchmark.cep;
+
+import com.scene.mesh.benchmark.cep.CepBenchmarkSupport.PatternShape;
+import com.scene.mesh.model.event.Event;
+import org.apache.flink.cep.event.EventRecord;
+import org.apache.flink.cep.event.RuleUpdated;
+import org.apache.flink.cep.event.RuleUpdatedEvent;
+import org.apache.flink.cep.types.RuleRowKey;
+import org.apache.flink.runtime.operators.coordination.OperatorEventHandler;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CepRuleProcessorOperator 吞吐（events/s），每次操作处理一条已分发的 EventRecord。
+ * 处理时间每 {@link #TIME_STEP_RECORDS} 条记录前进 1ms，窗口较短时部分匹配会过期并被清理。
+ *
+ * 运行: java -jar scene-mesh-benchmark/target/benchmarks.jar CepRuleProcessorBenchmark -rf json -rff cep-rule-processor.json
+ * 状态大小见 {@link CepStateSizeReport}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CepRuleProcessorBenchmark {
+
+    static final int TIME_STEP_RECORDS = 100;
+
+    @Param({"1", "16", "64"})
+    private int ruleCount;
+
+    @Param({"16", "1024"})
+    private int keyCount;
+
+    @Param({"SINGLE", "SEQUENCE", "LOOP"})
+    private PatternShape pattern;
+
+    @Param({"1000", "60000"})
+    private long windowMillis;
+
+    /**
+     * 每处理多少条记录更新一条规则，0 表示规则不变
+     */
+    @Param({"0", "10000"})
+    private int churnInterval;
+
+    private KeyedOneInputStreamOperatorTestHarness<RuleRowKey<String>, EventRecord<Event>, Object> harness;
+
+    private OperatorEventHandler eventHandler;
+
+    private List<RuleUpdated> rules;
+
+    private List<EventRecord<Event>> records;
+
+    private int cursor;
+
+    private long processed;
+
+    private long now;
+
+    @Setup
+    public void setup() throws Exception {
+        harness = CepBenchmarkSupport.cepHarness();
+        harness.open();
+        harness.setProcessingTime(now);
+        eventHandler = (OperatorEventHandler) harness.getOperator();
+
+        rules = new ArrayList<>(CepBenchmarkSupport.cepRules(ruleCount, pattern, windowMillis));
+        eventHandler.handleOperatorEvent(new RuleUpdatedEvent(new ArrayList<>(rules)));
+        records = CepBenchmarkSupport.records(CepBenchmarkSupport.events(keyCount), ruleCount);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        harness.close();
+    }
+
+    @Benchmark
+    public void processElement() throws Exception {
+        harness.processElement(records.get(cursor), now);
+        if (++cursor == records.size()) {
+            cursor = 0;
+        }
+        processed++;
+        if (processed % TIME_STEP_RECORDS == 0) {
+            harness.setProcessingTime(++now);
+            harness.getOutput().clear();
+        }
+        if (churnInterval > 0 && processed % churnInterval == 0) {
+            churn();
+        }
+    }
+
+    private void churn() {
+        int index = (int) ((processed / churnInterval) % ruleCount);
+        rules.set(index, CepBenchmarkSupport.bumpVersion(rules.get(index)));
+        eventHandler.handleOperatorEvent(new RuleUpdatedEvent(new ArrayList<>(rules)));
+    }
+}
@@ -0,0 +1,122 @@
+package com.scene.mesh.benchmark.cep;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.scene.mesh.benchmark.cep.CepBenchmarkSupport.PatternShape;
+import com.scene.mesh.model.event.Event;
+import org.apache.flink.cep.event.EventRecord;
+import org.apache.flink.cep.event.RuleUpdated;
+import org.apache.flink.cep.event.RuleUpdatedEvent;
+import org.apache.flink.cep.types.RuleRowKey;
+import org.apache.flink.runtime.operators.coordination.OperatorEventHandler;
+import org.apache.flink.runtime.state.hashmap.HashMapStateBackend;
+import org.apache.flink.runtime.state.storage.JobManagerCheckpointStorage;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 规则处理算子的吞吐与状态大小报告。
+ * 每个场景向 OperatorTestHarness 输入固定条数的记录，记录 events/s、keyed state 条目数、
+ * 处理时间定时器数与一次 checkpoint 的状态字节数，结果以 JSON 数组写入文件，便于版本之间对比。
+ *
+ * 运行: java -cp scene-mesh-benchmark/target/benchmarks.jar com.scene.mesh.benchmark.cep.CepStateSizeReport [输出文件] [每个场景的记录数]
+ */
+public class CepStateSizeReport {
+
+    private static final int[] RULE_COUNTS = {1, 16, 64};
+
+    private static final int[] KEY_COUNTS = {16, 1024};
+
+    private static final long[] WINDOW_MILLIS = {1_000, 60_000};
+
+    private static final int[] CHURN_INTERVALS = {0, 10_000};
+
+    public static void main(String[] args) throws Exception {
+        File output = new File(args.length > 0 ? args[0] : "cep-state-report.json");
+        int recordCount = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int ruleCount : RULE_COUNTS) {
+            for (int keyCount : KEY_COUNTS) {
+                for (int churnInterval : CHURN_INTERVALS) {
+                    for (PatternShape pattern : PatternShape.values()) {
+                        for (long windowMillis : WINDOW_MILLIS) {
+                            Map<String, Object> result = scenario("CepRuleProcessorOperator", ruleCount, keyCount, churnInterval);
+                            result.put("pattern", pattern.name());
+                            result.put("windowMillis", windowMillis);
+                            run(CepBenchmarkSupport.cepHarness(),
+                                    CepBenchmarkSupport.cepRules(ruleCount, pattern, windowMillis),
+                                    keyCount, churnInterval, recordCount, result);
+                            results.add(result);
+                        }
+                    }
+                    Map<String, Object> result = scenario("UdfRuleProcessorOperator", ruleCount, keyCount, churnInterval);
+                    run(CepBenchmarkSupport.udfHarness(), CepBenchmarkSupport.udfRules(ruleCount),
+                            keyCount, churnInterval, recordCount, result);
+                    results.add(result);
+                }
+            }
+        }
+
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, results);
+        System.out.println("Wrote " + results.size() + " results to " + output.getAbsolutePath());
+    }
+
+    private static Map<String, Object> scenario(String operator, int ruleCount, int keyCount, int churnInterval) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("operator", operator);
+        result.put("ruleCount", ruleCount);
+        result.put("keyCount", keyCount);
+        result.put("churnInterval", churnInterval);
+        return result;
+    }
+
+    private static void run(KeyedOneInputStreamOperatorTestHarness<RuleRowKey<String>, EventRecord<Event>, Object> harness,
+                            List<RuleUpdated> initialRules, int keyCount, int churnInterval, int recordCount,
+                            Map<String, Object> result) throws Exception {
+        try {
+            // harness 默认的 MemoryStateBackend 限制 checkpoint 为 5MB，LOOP 等场景的状态会超过该限制
+            harness.setStateBackend(new HashMapStateBackend());
+            harness.setCheckpointStorage(new JobManagerCheckpointStorage(Integer.MAX_VALUE));
+            long now = 0;
+            harness.open();
+            harness.setProcessingTime(now);
+            OperatorEventHandler eventHandler = (OperatorEventHandler) harness.getOperator();
+            List<RuleUpdated> rules = new ArrayList<>(initialRules);
+            eventHandler.handleOperatorEvent(new RuleUpdatedEvent(new ArrayList<>(rules)));
+            List<EventRecord<Event>> records = CepBenchmarkSupport.records(CepBenchmarkSupport.events(keyCount), rules.size());
+
+            long outputs = 0;
+            long start = System.nanoTime();
+            for (int i = 1; i <= recordCount; i++) {
+                harness.processElement(records.get((i - 1) % records.size()), now);
+                if (i % CepRuleProcessorBenchmark.TIME_STEP_RECORDS == 0) {
+                    harness.setProcessingTime(++now);
+                    outputs += harness.getOutput().size();
+                    harness.getOutput().clear();
+                }
+                if (churnInterval > 0 && i % churnInterval == 0) {
+                    int index = (i / churnInterval) % rules.size();
+                    rules.set(index, CepBenchmarkSupport.bumpVersion(rules.get(index)));
+                    eventHandler.handleOperatorEvent(new RuleUpdatedEvent(new ArrayList<>(rules)));
+                }
+            }
+            long elapsedNanos = System.nanoTime() - start;
+            outputs += harness.getOutput().size();
+
+            result.put("records", recordCount);
+            result.put("eventsPerSecond", Math.round(recordCount * 1e9 / elapsedNanos));
+            result.put("outputs", outputs);
+            result.put("keyedStateEntries", harness.numKeyedStateEntries());
+            result.put("processingTimeTimers", harness.numProcessingTimeTimers());
+            result.put("checkpointBytes", harness.snapshot(1L, now).getStateSize());
+        } finally {
+            harness.close();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.scene.mesh.benchmark.cep;
+
+import com.scene.mesh.benchmark.cep.CepBenchmarkSupport.BindingMode;
+import com.scene.mesh.model.event.Event;
+import org.apache.flink.cep.event.EventRecord;
+import org.apache.flink.cep.event.RuleBinding;
+import org.apache.flink.cep.event.RuleBindingEvent;
+import org.apache.flink.runtime.operators.coordination.OperatorEventHandler;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RuleDistributorOperator 吞吐（events/s），每次操作分发一个事件。
+ * ALL 时每个事件分发给所有规则；EXACT、WILDCARD 时只分发给与事件 key 绑定的规则。
+ *
+ * 运行: java -jar scene-mesh-benchmark/target/benchmarks.jar RuleDistributorBenchmark -rf json -rff rule-distributor.json
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleDistributorBenchmark {
+
+    private static final int OUTPUT_CLEAR_RECORDS = 1024;
+
+    @Param({"16", "256", "1024"})
+    private int ruleCount;
+
+    @Param({"16", "1024"})
+    private int keyCount;
+
+    @Param({"ALL", "EXACT", "WILDCARD"})
+    private BindingMode binding;
+
+    /**
+     * 每处理多少个事件重新下发一次绑定，0 表示绑定不变
+     */
+    @Param({"0", "10000"})
+    private int churnInterval;
+
+    private KeyedOneInputStreamOperatorTestHarness<String, Event, EventRecord<Event>> harness;
+
+    private OperatorEventHandler eventHandler;
+
+    private List<RuleBinding> bindings;
+
+    private Event[] events;
+
+    private int cursor;
+
+    private long processed;
+
+    @Setup
+    public void setup() throws Exception {
+        harness = CepBenchmarkSupport.distributorHarness(binding != BindingMode.ALL);
+        harness.open();
+        eventHandler = (OperatorEventHandler) harness.getOperator();
+
+        bindings = CepBenchmarkSupport.bindings(ruleCount, keyCount, binding);
+        eventHandler.handleOperatorEvent(new RuleBindingEvent(bindings));
+        events = CepBenchmarkSupport.events(keyCount);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        harness.close();
+    }
+
+    @Benchmark
+    public void processElement() throws Exception {
+        harness.processElement(events[cursor], 0L);
+        if (++cursor == events.length) {
+            cursor = 0;
+        }
+        processed++;
+        if (processed % OUTPUT_CLEAR_RECORDS == 0) {
+            harness.getOutput().clear();
+        }
+        if (churnInterval > 0 && processed % churnInterval == 0) {
+            eventHandler.handleOperatorEvent(new RuleBindingEvent(bindings));
+        }
+    }
+}
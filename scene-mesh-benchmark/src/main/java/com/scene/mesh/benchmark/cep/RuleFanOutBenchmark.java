@@ -0,0 +1,93 @@
+package com.scene.mesh.benchmark.cep;
+
+import com.scene.mesh.model.event.Event;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.cep.event.EventRecord;
+import org.apache.flink.cep.types.EventRecordTypeInfo;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 规则分发的扇出开销，每次操作将一个事件扇出为 ruleCount 条 EventRecord 并序列化到缓冲区。
+ * POJO：每条规则新建一条记录，使用按 TypeHint 推断的序列化器（事件字段为泛型，走 Kryo）；
+ * REUSED：复用同一条记录，使用 EventRecordSerializer，按分发算子的方式标记同一事件，事件每次扇出只序列化一次。
+ * 每次操作的分配量看 gc.alloc.rate.norm；bytes 为每轮测量的输出字节总数，两种模式每条记录的字节数相同
+ * （每条记录都带完整的事件字节），差别只在序列化耗时与分配。
+ *
+ * 运行: java -jar scene-mesh-benchmark/target/benchmarks.jar RuleFanOutBenchmark -prof gc -rf json -rff rule-fan-out.json
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleFanOutBenchmark {
+
+    public enum FanOutMode {
+        POJO, REUSED
+    }
+
+    @Param({"16", "300"})
+    private int ruleCount;
+
+    @Param({"POJO", "REUSED"})
+    private FanOutMode mode;
+
+    private TypeSerializer<EventRecord<Event>> serializer;
+
+    private final DataOutputSerializer output = new DataOutputSerializer(64 * 1024);
+
+    private final EventRecord<Event> reused = new EventRecord<>();
+
+    private String[] ruleIds;
+
+    private Event[] events;
+
+    private int cursor;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Bytes {
+        public long bytes;
+    }
+
+    @Setup
+    public void setup() {
+        ExecutionConfig config = new ExecutionConfig();
+        if (mode == FanOutMode.POJO) {
+            serializer = TypeInformation.of(new TypeHint<EventRecord<Event>>() {
+            }).createSerializer(config);
+        } else {
+            serializer = new EventRecordTypeInfo<>(TypeInformation.of(Event.class)).createSerializer(config);
+        }
+        ruleIds = new String[ruleCount];
+        for (int i = 0; i < ruleCount; i++) {
+            ruleIds[i] = CepBenchmarkSupport.ruleId(i);
+        }
+        events = CepBenchmarkSupport.events(1024);
+    }
+
+    @Benchmark
+    public void fanOut(Bytes bytes) throws Exception {
+        Event event = events[cursor];
+        if (++cursor == events.length) {
+            cursor = 0;
+        }
+        output.clear();
+        for (int i = 0; i < ruleIds.length; i++) {
+            EventRecord<Event> record = mode == FanOutMode.POJO ? new EventRecord<>() : reused;
+            record.setEvent(event);
+            record.setSameEventAsPrevious(i > 0);
+            record.setRuleId(ruleIds[i]);
+            record.setRuleVersion(1);
+            serializer.serialize(record, output);
+        }
+        bytes.bytes += output.length();
+    }
+}
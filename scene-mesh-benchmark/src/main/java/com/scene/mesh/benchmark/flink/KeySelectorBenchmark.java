@@ -0,0 +1,67 @@
+package com.scene.mesh.benchmark.flink;
+
+import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
+import com.scene.mesh.foundation.impl.processor.flink.key.KeyPathSelector;
+import com.scene.mesh.model.event.Event;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CEP 分区键提取对比：Jackson 整体转换 Map 与按类型编译的 KeyPathSelector
+ *
+ * 运行: java -jar scene-mesh-benchmark/target/benchmarks.jar KeySelectorBenchmark -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeySelectorBenchmark {
+
+    @Param({"4", "32"})
+    private int payloadSize;
+
+    private Event event;
+
+    private KeyPathSelector terminalIdSelector;
+
+    private KeyPathSelector payloadSelector;
+
+    @Setup
+    public void setup() {
+        event = new Event("heartbeat");
+        event.setTerminalId("terminal-0001");
+        event.addPayloadEntry("deviceId", "device-0001");
+        for (int i = 0; i < payloadSize; i++) {
+            event.addPayloadEntry("field" + i, "value-" + i);
+        }
+        terminalIdSelector = new KeyPathSelector("terminalId");
+        payloadSelector = new KeyPathSelector("payload.deviceId");
+    }
+
+    @Benchmark
+    public String jacksonTerminalId() {
+        Map<String, Object> objectMap = SimpleObjectHelper.obj2Map(event);
+        return objectMap.get("terminalId").toString();
+    }
+
+    @Benchmark
+    public String compiledTerminalId() throws Exception {
+        return terminalIdSelector.getKey(event);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String jacksonPayloadKey() {
+        Map<String, Object> objectMap = SimpleObjectHelper.obj2Map(event);
+        return ((Map<String, Object>) objectMap.get("payload")).get("deviceId").toString();
+    }
+
+    @Benchmark
+    public String compiledPayloadKey() throws Exception {
+        return payloadSelector.getKey(event);
+    }
+}
@@ -0,0 +1,133 @@
+package com.scene.mesh.benchmark.ingress;
+
+import com.scene.mesh.benchmark.support.CountingMessageProducer;
+import com.scene.mesh.benchmark.support.InMemoryCache;
+import com.scene.mesh.facade.impl.common.DefaultMessageExchanger;
+import com.scene.mesh.facade.impl.inbound.ComputableFieldCalculator;
+import com.scene.mesh.facade.impl.inbound.DefaultInboundMessageHandler;
+import com.scene.mesh.facade.impl.inbound.MessageLegalityChecker;
+import com.scene.mesh.facade.impl.inbound.MessageToEventConvertor;
+import com.scene.mesh.facade.spec.inboud.InboundMessageInterceptor;
+import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
+import com.scene.mesh.foundation.spec.api.ApiClient;
+import com.scene.mesh.foundation.spec.message.MessageTopic;
+import com.scene.mesh.foundation.spec.parameter.CalculatorDescriptor;
+import com.scene.mesh.foundation.spec.parameter.MetaParameterDescriptor;
+import com.scene.mesh.foundation.spec.parameter.data.IntParameterDataType;
+import com.scene.mesh.foundation.spec.parameter.data.StringParameterDataType;
+import com.scene.mesh.model.event.DefaultMetaEvent;
+import com.scene.mesh.model.event.IMetaEvent;
+import com.scene.mesh.module.api.calculate.BaseParameterCalculator;
+import com.scene.mesh.module.api.calculate.IParameterCalculator;
+import com.scene.mesh.module.engine.impl.extension.SmExtensionInvoker;
+import com.scene.mesh.module.engine.impl.extension.SmExtensionManager;
+import com.scene.mesh.module.engine.impl.extension.SmExtensionPlugin;
+import com.scene.mesh.module.engine.impl.extension.SmSlotRegistrar;
+import com.scene.mesh.service.impl.cache.event.MetaEventCacheProvider;
+import com.scene.mesh.service.impl.event.DefaultMetaEventService;
+import com.scene.mesh.service.impl.event.SttParameterCalculator;
+import com.scene.mesh.service.spec.cache.MutableCacheService;
+import com.scene.mesh.service.spec.event.IMetaEventService;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 终端上行链路的内存装配：
+ * 元事件写入内存缓存并经 MutableCacheService 读取，计算字段通过 SmExtensionInvoker 调用内存插件，
+ * 事件最终交给只计数的生产者，除去外部依赖外与 FacadeConfig 的装配一致
+ */
+@Getter
+public class IngressFixture {
+
+    public static final String META_EVENT_ID = "benchmark-event";
+
+    public static final String TERMINAL_ID = "terminal-0001";
+
+    static final String CALCULATOR_ID = "TEXT_LENGTH";
+
+    private final IMetaEventService metaEventService;
+
+    private final MessageLegalityChecker legalityChecker;
+
+    private final MessageToEventConvertor eventConvertor;
+
+    private final ComputableFieldCalculator fieldCalculator;
+
+    private final CountingMessageProducer messageProducer;
+
+    private final DefaultMessageExchanger messageExchanger;
+
+    private final DefaultInboundMessageHandler inboundMessageHandler;
+
+    private final String message;
+
+    /**
+     * @param payloadFields 载荷中的普通字段数
+     */
+    public IngressFixture(int payloadFields) {
+        InMemoryCache cache = new InMemoryCache();
+        new MetaEventCacheProvider(cache).refresh(List.of(metaEvent(payloadFields)));
+        this.metaEventService = new DefaultMetaEventService(new MutableCacheService(cache, new ApiClient(Map.of())));
+
+        SmExtensionManager extensionManager = new SmExtensionManager();
+        SmSlotRegistrar.registerAllBuiltinSlots(extensionManager);
+        extensionManager.registerExtensionPlugin(new SmExtensionPlugin(CALCULATOR_ID, "Text Length Calculator",
+                SmSlotRegistrar.CALCULATE_SLOT_ID, "benchmark", new TextLengthCalculator(), IParameterCalculator.class));
+
+        this.legalityChecker = new MessageLegalityChecker(metaEventService);
+        this.eventConvertor = new MessageToEventConvertor(metaEventService);
+        this.fieldCalculator = new ComputableFieldCalculator(metaEventService, new SmExtensionInvoker(extensionManager),
+                // 元事件不含 STT 字段，不需要语音服务
+                new SttParameterCalculator(null));
+        List<InboundMessageInterceptor> interceptors = List.of(legalityChecker, eventConvertor, fieldCalculator);
+
+        this.messageProducer = new CountingMessageProducer();
+        this.messageExchanger = new DefaultMessageExchanger(outboundMessage -> {
+        }, messageProducer, new MessageTopic("inbound-event"));
+        this.inboundMessageHandler = new DefaultInboundMessageHandler(interceptors, messageExchanger);
+        this.inboundMessageHandler.init();
+
+        this.message = message(payloadFields);
+    }
+
+    private static IMetaEvent metaEvent(int payloadFields) {
+        DefaultMetaEvent metaEvent = new DefaultMetaEvent(META_EVENT_ID, "benchmark", "ingress benchmark", "product-0001");
+        for (int i = 0; i < payloadFields; i++) {
+            metaEvent.addParameterDescriptor(new MetaParameterDescriptor(
+                    "field" + i, "field" + i, null, new StringParameterDataType(), false));
+        }
+        metaEvent.addParameterDescriptor(new MetaParameterDescriptor(
+                "text", "text", null, new StringParameterDataType(), false));
+        metaEvent.addParameterDescriptor(new MetaParameterDescriptor(
+                "textLength", "textLength", null, new IntParameterDataType(),
+                new CalculatorDescriptor(CALCULATOR_ID, "text"), false));
+        return metaEvent;
+    }
+
+    private static String message(int payloadFields) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i < payloadFields; i++) {
+            payload.put("field" + i, "value-" + i + "-abcdefghijklmnop");
+        }
+        payload.put("text", "turn on the light in the living room");
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", META_EVENT_ID);
+        message.put("payload", payload);
+        return SimpleObjectHelper.map2json(message);
+    }
+
+    /**
+     * 计算字段插件：写入来源字段的长度
+     */
+    public static class TextLengthCalculator extends BaseParameterCalculator {
+
+        @Override
+        protected void doCalculate(String sourceField, Map<String, Object> payload) {
+            Object value = payload.get(sourceField);
+            payload.put(sourceField + "Length", value == null ? 0 : value.toString().length());
+        }
+    }
+}
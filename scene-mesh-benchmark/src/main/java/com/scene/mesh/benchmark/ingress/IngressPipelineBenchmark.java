@@ -0,0 +1,120 @@
+package com.scene.mesh.benchmark.ingress;
+
+import com.scene.mesh.benchmark.support.DirectInboundMessageDispatcher;
+import com.scene.mesh.facade.impl.protocol.mqtt.PublishMessageInterceptor;
+import com.scene.mesh.facade.spec.inboud.InboundMessage;
+import com.scene.mesh.facade.spec.inboud.InboundMessageInterceptor.InboundMessageRequest;
+import com.scene.mesh.facade.spec.inboud.InboundMessageInterceptor.InboundMessageResponse;
+import com.scene.mesh.model.event.Event;
+import io.moquette.interception.messages.InterceptPublishMessage;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.mqtt.MqttMessageBuilders;
+import io.netty.handler.codec.mqtt.MqttPublishMessage;
+import io.netty.handler.codec.mqtt.MqttQoS;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 终端上行链路各阶段吞吐与分配：
+ * PublishMessageInterceptor.onPublish -> DefaultInboundMessageHandler（分发器在调用线程上直接处理）
+ * (MessageLegalityChecker -> MessageToEventConvertor -> ComputableFieldCalculator) -> DefaultMessageExchanger
+ *
+ * 运行: java -jar scene-mesh-benchmark/target/benchmarks.jar IngressPipelineBenchmark -prof gc
+ * 每次操作的分配字节数见 gc.alloc.rate.norm
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngressPipelineBenchmark {
+
+    /**
+     * 载荷字段数，对应约 0.2KB / 1.2KB / 4.5KB 的消息
+     */
+    @Param({"4", "32", "128"})
+    private int payloadFields;
+
+    private IngressFixture fixture;
+
+    private InboundMessage inboundMessage;
+
+    private PublishMessageInterceptor publishInterceptor;
+
+    private InterceptPublishMessage publishMessage;
+
+    private InboundMessageResponse checkedResponse;
+
+    private InboundMessageResponse convertedResponse;
+
+    private Event event;
+
+    @Setup
+    public void setup() {
+        fixture = new IngressFixture(payloadFields);
+        inboundMessage = new InboundMessage(IngressFixture.TERMINAL_ID, fixture.getMessage());
+
+        // onPublish 只使用 inboundMessageDispatcher，连接状态相关的依赖不参与
+        publishInterceptor = new PublishMessageInterceptor(
+                new DirectInboundMessageDispatcher(fixture.getInboundMessageHandler()), null, null, null);
+        MqttPublishMessage mqttMessage = MqttMessageBuilders.publish()
+                .topicName("scene-mesh/" + IngressFixture.TERMINAL_ID + "/event")
+                .payload(Unpooled.copiedBuffer(fixture.getMessage(), StandardCharsets.UTF_8))
+                .qos(MqttQoS.AT_LEAST_ONCE)
+                .build();
+        publishMessage = new InterceptPublishMessage(mqttMessage, IngressFixture.TERMINAL_ID, IngressFixture.TERMINAL_ID);
+
+        // 各阶段的输入取自前一阶段的真实输出
+        checkedResponse = legalityCheck();
+        if (!checkedResponse.isSuccess()) {
+            throw new IllegalStateException("benchmark message rejected: " + checkedResponse.getOpinion());
+        }
+        convertedResponse = new InboundMessageResponse();
+        convertedResponse.addPropEntry("metaParameters", checkedResponse.getPropVal("metaParameters"));
+        fixture.getEventConvertor().intercept(new InboundMessageRequest(inboundMessage), convertedResponse);
+        event = (Event) convertedResponse.getPropVal("event");
+    }
+
+    @Benchmark
+    public long onPublish() {
+        publishInterceptor.onPublish(publishMessage);
+        return fixture.getMessageProducer().getSentCount();
+    }
+
+    @Benchmark
+    public long handle() {
+        fixture.getInboundMessageHandler().handle(new InboundMessage(IngressFixture.TERMINAL_ID, fixture.getMessage()));
+        return fixture.getMessageProducer().getSentCount();
+    }
+
+    @Benchmark
+    public InboundMessageResponse legalityCheck() {
+        InboundMessageResponse response = new InboundMessageResponse();
+        fixture.getLegalityChecker().intercept(new InboundMessageRequest(inboundMessage), response);
+        return response;
+    }
+
+    @Benchmark
+    public InboundMessageResponse convert() {
+        InboundMessageResponse response = new InboundMessageResponse();
+        response.addPropEntry("metaParameters", checkedResponse.getPropVal("metaParameters"));
+        fixture.getEventConvertor().intercept(new InboundMessageRequest(inboundMessage), response);
+        return response;
+    }
+
+    @Benchmark
+    public Event calculate() {
+        // 计算字段写回同一个键，重复执行不会改变载荷大小
+        fixture.getFieldCalculator().intercept(new InboundMessageRequest(inboundMessage), convertedResponse);
+        return event;
+    }
+
+    @Benchmark
+    public long exchange() {
+        fixture.getMessageExchanger().handleInboundEvent(event);
+        return fixture.getMessageProducer().getSentCount();
+    }
+}
@@ -0,0 +1,34 @@
+package com.scene.mesh.benchmark.support;
+
+import com.scene.mesh.foundation.spec.message.IMessageProducer;
+import com.scene.mesh.foundation.spec.message.IMessageSerializer;
+import com.scene.mesh.foundation.spec.message.MessageTopic;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 只计数不投递的生产者，替代 Redis Stream 生产者
+ */
+public class CountingMessageProducer implements IMessageProducer {
+
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    @Getter
+    private long sentCount;
+
+    @Override
+    public void setSerializer(IMessageSerializer serializer) {
+    }
+
+    @Override
+    public void send(MessageTopic topic, Object... messages) {
+        sentCount += messages.length;
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageTopic topic, Object message) {
+        sentCount++;
+        return COMPLETED;
+    }
+}
@@ -0,0 +1,31 @@
+package com.scene.mesh.benchmark.support;
+
+import com.scene.mesh.facade.spec.inboud.InboundMessage;
+import com.scene.mesh.facade.spec.inboud.InboundMessageDispatcher;
+import com.scene.mesh.facade.spec.inboud.InboundMessageHandler;
+
+/**
+ * 在调用线程上直接处理的分发器，使 onPublish 基准测试覆盖完整的入站链路
+ */
+public class DirectInboundMessageDispatcher implements InboundMessageDispatcher {
+
+    private final InboundMessageHandler inboundMessageHandler;
+
+    private long dispatched;
+
+    public DirectInboundMessageDispatcher(InboundMessageHandler inboundMessageHandler) {
+        this.inboundMessageHandler = inboundMessageHandler;
+    }
+
+    @Override
+    public boolean dispatch(InboundMessage inboundMessage) {
+        dispatched++;
+        inboundMessageHandler.handle(inboundMessage);
+        return true;
+    }
+
+    @Override
+    public DispatchStats stats() {
+        return new DispatchStats(0, 0, new int[0], dispatched, 0, 0);
+    }
+}
@@ -0,0 +1,101 @@
+package com.scene.mesh.benchmark.support;
+
+import com.scene.mesh.foundation.spec.cache.ICache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于 ConcurrentHashMap 的缓存，替代 Redis 以排除网络开销
+ */
+public class InMemoryCache implements ICache<String, Object> {
+
+    private final Map<String, Object> store = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean set(String key, Object value) {
+        store.put(key, value);
+        return true;
+    }
+
+    @Override
+    public boolean set(String key, Object value, long expireSeconds) {
+        return set(key, value);
+    }
+
+    @Override
+    public Object get(String key) {
+        return store.get(key);
+    }
+
+    @Override
+    public List<Object> getAll(String keyPrefix) {
+        // 与 RedisCache 一致，keyPrefix 以通配符结尾
+        String prefix = keyPrefix.substring(0, keyPrefix.length() - 1);
+        List<Object> values = new ArrayList<>();
+        store.forEach((k, v) -> {
+            if (k.startsWith(prefix)) {
+                values.add(v);
+            }
+        });
+        return values.isEmpty() ? null : values;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public String hashGet(String key, String field) {
+        Object hash = store.get(key);
+        return hash instanceof Map ? ((Map<String, String>) hash).get(field) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, String> hashGetAll(String key) {
+        Object hash = store.get(key);
+        return hash instanceof Map ? (Map<String, String>) hash : Map.of();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean hashUpdate(String key, Map<String, String> puts, Collection<String> removes) {
+        // 整体替换为新的不可变 Map，读取方只会看到更新前或更新后的哈希表
+        store.compute(key, (k, hash) -> {
+            Map<String, String> next = hash instanceof Map ? new HashMap<>((Map<String, String>) hash) : new HashMap<>();
+            next.putAll(puts);
+            removes.forEach(next::remove);
+            return next.isEmpty() ? null : Map.copyOf(next);
+        });
+        return true;
+    }
+
+    @Override
+    public boolean delete(String key) {
+        return store.remove(key) != null;
+    }
+
+    @Override
+    public boolean deleteByKeyPrefix(String keyPrefix) {
+        String prefix = keyPrefix.substring(0, keyPrefix.length() - 1);
+        return store.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return store.containsKey(key);
+    }
+
+    @Override
+    public boolean expire(String key, long expireSeconds) {
+        return store.containsKey(key);
+    }
+
+    @Override
+    public boolean clear() {
+        store.clear();
+        return true;
+    }
+}
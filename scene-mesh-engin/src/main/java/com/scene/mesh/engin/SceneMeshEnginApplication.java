@@ -6,9 +6,11 @@ import com.scene.mesh.engin.config.McpConfig;
 import com.scene.mesh.engin.config.ServiceConfig;
 import com.scene.mesh.engin.model.SceneMatchedResult;
 import com.scene.mesh.engin.model.ThenRequest;
+import com.scene.mesh.engin.processor.then.operator.AsyncAgentExecutor;
 import com.scene.mesh.foundation.spec.processor.config.CepModeDescriptor;
 import com.scene.mesh.foundation.spec.processor.config.ProcessorGraph;
 import com.scene.mesh.foundation.spec.processor.config.ProcessorGraphBuilder;
+import com.scene.mesh.foundation.spec.processor.config.ProcessorLinkType;
 import com.scene.mesh.foundation.spec.processor.config.ProcessorNodeBuilder;
 import com.scene.mesh.foundation.spec.processor.execute.IProcessManager;
 import com.scene.mesh.foundation.impl.component.SpringApplicationContextUtils;
@@ -17,6 +19,7 @@ import com.scene.mesh.model.event.Event;
 import com.scene.mesh.service.impl.scene.DefaultSceneService;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.flink.api.java.typeutils.GenericTypeInfo;
+import org.apache.flink.cep.TimeBehaviour;
 
 import java.time.Duration;
 import java.util.ArrayList;
@@ -63,7 +66,9 @@ public class SceneMeshEnginApplication {
         log.info("Graph: {} 已注册， graph信息: {}", whenGraph.getGraphId(), whenGraph);
 
         //注册 then graph
-        ProcessorGraph thenGraph = thenGraph();
+        ProcessorGraph thenGraph = thenGraph(SpringApplicationContextUtils
+                .getApplicationContext()
+                .getBean(AsyncAgentExecutor.class));
         processManager.registerProcess(thenGraph);
         log.info("Graph: {} 已注册， graph信息: {}", thenGraph.getGraphId(), thenGraph);
 
@@ -97,19 +102,43 @@ public class SceneMeshEnginApplication {
                         .enabled(true)
                         .discoverComponent("sceneService")
                         .period(Duration.ofSeconds(60))
-                        .keyed(new String[]{"terminalId"})
+                        // 按产品 + 终端分区，场景规则绑定 productId:*，每个事件只分发给所属产品的场景规则；
+                        // 未带 productId 的事件分区键为 ":terminalId"，不匹配任何产品规则，由分发算子计数（numUnboundRecords）
+                        .keyed(new String[]{"productId", "terminalId"})
+                        // 分区键由 terminalId 改为 productId:terminalId，旧的 NFA/SharedBuffer 状态不再可用：
+                        // 更换状态版本后 cep 算子使用新的 uid，从旧 checkpoint 恢复时其状态被丢弃（SAVEPOINT_IGNORE_UNCLAIMED_STATE），
+                        // 进行中的部分匹配从头开始。再次改变分区键时需同时更换版本
+                        .stateVersion("product-terminal")
+                        .keyBindingEnabled(true)
                         .parallelism(1)
-                        .cepMatchedResultType(new GenericTypeInfo<>(SceneMatchedResult.class)))
+                        .cepMatchedResultType(new GenericTypeInfo<>(SceneMatchedResult.class))
+                        // 事件时间：优先使用终端上报时间，缺失时使用接入时间
+                        .timeBehaviour(TimeBehaviour.EventTime)
+                        .timestampPaths(new String[]{"deviceTimestamp", "ingressTimestamp"})
+                        .maxOutOfOrderness(Duration.ofSeconds(30))
+                        // 终端时钟最多超前接入时间 30s；离线补传的历史事件不限制，超出乱序范围时进入迟到事件输出
+                        .maxFutureSkew(Duration.ofSeconds(30))
+                        .idleness(Duration.ofSeconds(10))
+                        .lateEventNodeId("scene-late-event-sink"))
                 .addNode(ProcessorNodeBuilder.createWithId("scene-match-sink")
                         .withComponentId("scene-match-sinker")
                         .withParallelism(1)
                         .withOutputType(Event.class)
                         .from("scene-event-source")
                 )
+                .addNode(ProcessorNodeBuilder.createWithId("scene-late-event-sink")
+                        .withComponentId("scene-late-event-sinker")
+                        .withParallelism(1)
+                        .withOutputType(Object.class)
+                        .from("scene-event-source")
+                )
                 .build();
     }
 
-    private static ProcessorGraph thenGraph(){
+    private static ProcessorGraph thenGraph(AsyncAgentExecutor agentExecutor){
+        // Async I/O 超时包含在执行器中排队的时间，取单次调用超时的两倍
+        long asyncTimeoutMillis = agentExecutor.getTimeoutMillis() <= 0 ? 0 : agentExecutor.getTimeoutMillis() * 2;
+        // 四个节点并行度均为 1，一对一连接后链接为同一任务执行
         return ProcessorGraphBuilder.createWithId("then")
                 .addNode(ProcessorNodeBuilder.createWithId("matched-scene-source")
                         .withComponentId("matched-scene-producer")
@@ -120,19 +149,22 @@ public class SceneMeshEnginApplication {
                         .withComponentId("scene-selector")
                         .withParallelism(1)
                         .withOutputType(ThenRequest.class)
-                        .from("matched-scene-source")
+                        .from("matched-scene-source", ProcessorLinkType.FORWARD)
                 )
                 .addNode(ProcessorNodeBuilder.createWithId("then-handler")
                         .withComponentId("then-handler")
                         .withParallelism(1)
                         .withOutputType(Action.class)
-                        .from("scene-handler")
+                        // agent 调用以 Async I/O 执行：未完成的调用数达到 capacity 时对上游反压，未完成的调用随 checkpoint 保存
+                        .withAsync(agentExecutor.getMaxInFlight(), asyncTimeoutMillis,
+                                agentExecutor.getOutputMode() == AsyncAgentExecutor.OutputMode.ORDERED)
+                        .from("scene-handler", ProcessorLinkType.FORWARD)
                 )
                 .addNode(ProcessorNodeBuilder.createWithId("action-sink")
                         .withComponentId("action-sinker")
                         .withParallelism(1)
                         .withOutputType(Action.class)
-                        .from("then-handler")
+                        .from("then-handler", ProcessorLinkType.FORWARD)
                 )
                 .build();
     }
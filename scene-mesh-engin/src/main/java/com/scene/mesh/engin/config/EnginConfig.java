@@ -4,6 +4,7 @@ import com.scene.mesh.engin.model.SceneMatchedResult;
 import com.scene.mesh.engin.processor.cache.CacheProcessor;
 import com.scene.mesh.engin.processor.cache.CacheTrigger;
 import com.scene.mesh.engin.processor.then.operator.AgentThenOperator;
+import com.scene.mesh.engin.processor.then.operator.AsyncAgentExecutor;
 import com.scene.mesh.engin.processor.then.operator.NonAgentThenOperator;
 import com.scene.mesh.engin.processor.then.operator.ThenOperatorManager;
 import com.scene.mesh.foundation.impl.component.SpringApplicationContextUtils;
@@ -33,7 +34,9 @@ import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
 import org.springframework.core.io.ClassPathResource;
 
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Configuration
@@ -62,6 +65,25 @@ public class EnginConfig {
     @Value("${scene-mesh.infrastructure.flink-web.port}")
     private String webPort;
 
+    @Value("${scene-mesh.infrastructure.flink-state.checkpoint-interval-millis:60000}")
+    private long checkpointInterval;
+
+    // Redis Stream 源在下一次读取时确认上一批消息，不随 checkpoint 确认，EXACTLY_ONCE 无法保证，默认 AT_LEAST_ONCE
+    @Value("${scene-mesh.infrastructure.flink-state.checkpoint-mode:AT_LEAST_ONCE}")
+    private String checkpointMode;
+
+    @Value("${scene-mesh.infrastructure.flink-state.checkpoint-dir:file:///tmp/scene-mesh/checkpoints}")
+    private String checkpointDir;
+
+    @Value("${scene-mesh.infrastructure.flink-state.backend:rocksdb}")
+    private String stateBackend;
+
+    @Value("${scene-mesh.infrastructure.flink-state.incremental:true}")
+    private boolean incrementalCheckpoints;
+
+    @Value("${scene-mesh.infrastructure.flink-state.restore-from-latest:true}")
+    private boolean restoreFromLatest;
+
     @Value("${scene-mesh.topics.inbound-events}")
     private String inboundEventsTopic;
 
@@ -71,6 +93,9 @@ public class EnginConfig {
     @Value("${scene-mesh.topics.outbound-actions}")
     private String outboundActionsTopic;
 
+    @Value("${scene-mesh.topics.late-events:late_events}")
+    private String lateEventsTopic;
+
     // 消息类配置
     @Value("${scene-mesh.message-classes.event}")
     private String eventMessageClass;
@@ -78,11 +103,36 @@ public class EnginConfig {
     @Value("${scene-mesh.message-classes.scene-matched-result}")
     private String sceneMatchedResultClass;
 
+    // agent 调用配置
+    @Value("${scene-mesh.agent.max-in-flight:64}")
+    private int agentMaxInFlight;
+
+    @Value("${scene-mesh.agent.default-provider-concurrency:16}")
+    private int agentDefaultProviderConcurrency;
+
+    /**
+     * 各供应商并发数，格式: provider1:8,provider2:4
+     */
+    @Value("${scene-mesh.agent.provider-concurrency:}")
+    private String agentProviderConcurrency;
+
+    @Value("${scene-mesh.agent.timeout-millis:60000}")
+    private long agentTimeoutMillis;
+
+    @Value("${scene-mesh.agent.output-mode:UNORDERED}")
+    private String agentOutputMode;
+
     @Bean
     public FlinkProcessExecutor executor(SpringComponentProvider springComponentProvider) {
         FlinkProcessExecutor executor = new FlinkProcessExecutor(springComponentProvider);
         executor.setWebHost(webHost);
         executor.setWebPort(Integer.parseInt(webPort));
+        executor.setCheckpointInterval(checkpointInterval);
+        executor.setCheckpointMode(checkpointMode);
+        executor.setCheckpointDir(checkpointDir);
+        executor.setStateBackend(stateBackend);
+        executor.setIncrementalCheckpoints(incrementalCheckpoints);
+        executor.setRestoreFromLatest(restoreFromLatest);
         executor.__init__();
         return executor;
     }
@@ -94,11 +144,31 @@ public class EnginConfig {
         return manager;
     }
 
+    @Bean(destroyMethod = "shutdown")
+    public AsyncAgentExecutor agentExecutor() {
+        Map<String, Integer> providerConcurrency = new HashMap<>();
+        for (String item : agentProviderConcurrency.split(",")) {
+            int index = item.lastIndexOf(':');
+            if (index > 0) {
+                providerConcurrency.put(item.substring(0, index).trim(), Integer.parseInt(item.substring(index + 1).trim()));
+            }
+        }
+        AsyncAgentExecutor executor = new AsyncAgentExecutor();
+        executor.setMaxInFlight(agentMaxInFlight);
+        executor.setDefaultProviderConcurrency(agentDefaultProviderConcurrency);
+        executor.setProviderConcurrency(providerConcurrency);
+        executor.setTimeoutMillis(agentTimeoutMillis);
+        executor.setOutputMode(AsyncAgentExecutor.OutputMode.valueOf(agentOutputMode));
+        executor.__init__();
+        return executor;
+    }
+
     @Bean
     public AgentThenOperator agentThenOperator(ILLmConfigService llmConfigService,
                                                IToolsService toolsService,
-                                               IMetaEventService metaEventService, IAdvisorFactory advisorFactory) {
-        return new AgentThenOperator(llmConfigService, toolsService, metaEventService, advisorFactory);
+                                               IMetaEventService metaEventService, IAdvisorFactory advisorFactory,
+                                               AsyncAgentExecutor agentExecutor) {
+        return new AgentThenOperator(llmConfigService, toolsService, metaEventService, advisorFactory, agentExecutor);
     }
 
     @Bean
@@ -131,6 +201,14 @@ public class EnginConfig {
         return sinker;
     }
 
+    @Bean(name = "scene-late-event-sinker")
+    public EventSinker sceneLateEventSinker(IMessageProducer messageProducer) {
+        EventSinker sinker = new EventSinker();
+        sinker.setTopicName(lateEventsTopic);
+        sinker.setMessageProducer(messageProducer);
+        return sinker;
+    }
+
     // ===== Then Graph component =====
 
     @Bean(name = "matched-scene-producer")
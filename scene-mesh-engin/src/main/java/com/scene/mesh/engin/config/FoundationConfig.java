@@ -30,6 +30,9 @@ public class FoundationConfig {
     @Value("${scene-mesh.infrastructure.message.timeout-seconds}")
     private String timeoutSeconds;
 
+    @Value("${scene-mesh.infrastructure.message.consumer-name:}")
+    private String consumerName;
+
     @Value("${scene-mesh.api-client.urls.product}")
     private String productUrl;
 
@@ -60,6 +63,7 @@ public class FoundationConfig {
         consumer.setHost(redisHost);
         consumer.setPort(redisPort);
         consumer.setTimeoutSeconds(Integer.parseInt(timeoutSeconds));
+        consumer.setConsumerName(consumerName);
         consumer.setSerializer(new JsonMessageSerializer());
         consumer.__init__();
         return consumer;
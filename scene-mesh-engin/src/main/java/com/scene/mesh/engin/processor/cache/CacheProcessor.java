@@ -3,6 +3,7 @@ package com.scene.mesh.engin.processor.cache;
 import com.scene.mesh.foundation.impl.processor.BaseProcessor;
 import com.scene.mesh.foundation.spec.processor.IProcessInput;
 import com.scene.mesh.foundation.spec.processor.IProcessOutput;
+import com.scene.mesh.service.spec.cache.CacheRefreshResult;
 import com.scene.mesh.service.spec.cache.MutableCacheService;
 import lombok.extern.slf4j.Slf4j;
 
@@ -18,7 +19,12 @@ public class CacheProcessor extends BaseProcessor {
     @Override
     protected boolean process(Object inputObject, IProcessInput input, IProcessOutput output) throws Exception {
         log.info(">>>>>>>> {}",inputObject.toString());
-        this.mutableCacheService.refreshAll();
+        for (CacheRefreshResult result : this.mutableCacheService.refreshAll()) {
+            log.info("cache refreshed: {}", result);
+        }
+        if (this.mutableCacheService.getNearCache() != null) {
+            log.info("near cache stats: {}", this.mutableCacheService.getNearCache());
+        }
         return true;
     }
 }
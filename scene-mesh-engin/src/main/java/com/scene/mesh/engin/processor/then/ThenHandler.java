@@ -3,6 +3,7 @@ package com.scene.mesh.engin.processor.then;
 import com.scene.mesh.engin.model.ThenRequest;
 import com.scene.mesh.engin.processor.then.operator.IThenOperator;
 import com.scene.mesh.engin.processor.then.operator.ThenOperatorManager;
+import com.scene.mesh.foundation.spec.processor.IAsyncProcessor;
 import com.scene.mesh.foundation.spec.processor.IProcessActivateContext;
 import com.scene.mesh.foundation.spec.processor.IProcessInput;
 import com.scene.mesh.foundation.spec.processor.IProcessOutput;
@@ -13,9 +14,14 @@ import com.scene.mesh.service.spec.scene.ISceneService;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * then 处理器
+ * 节点配置为异步时由 Flink Async I/O 调用 {@link #processAsync}，agent 调用不阻塞任务线程
+ */
 @Slf4j
-public class ThenHandler extends BaseProcessor {
+public class ThenHandler extends BaseProcessor implements IAsyncProcessor {
 
     private final ISceneService sceneService;
 
@@ -33,7 +39,15 @@ public class ThenHandler extends BaseProcessor {
 
     @Override
     protected boolean process(Object inputObject, IProcessInput input, IProcessOutput output) throws Exception {
-        ThenRequest thenRequest = (ThenRequest) inputObject;
+        return processThen((ThenRequest) inputObject, output).join();
+    }
+
+    @Override
+    public CompletableFuture<Void> processAsync(IProcessInput input, IProcessOutput output) throws Exception {
+        return processThen((ThenRequest) input.getInputObject(), output).thenApply(result -> null);
+    }
+
+    private CompletableFuture<Boolean> processThen(ThenRequest thenRequest, IProcessOutput output) {
         String terminalId = thenRequest.getTerminalId();
         String sceneId = thenRequest.getSceneId();
         String thenId = thenRequest.getThenId();
@@ -42,13 +56,13 @@ public class ThenHandler extends BaseProcessor {
         if (scene == null) {
             log.error("not found scene when process thenRequest. sceneId:{}, thenId:{} ",
                     sceneId, thenId);
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
         List<WhenThen> whenThens = scene.getWhenThenList();
         if (whenThens == null || whenThens.isEmpty()) {
             log.error("not found 'whenThenList' when process thenRequest. sceneId:{}, thenId:{} ",
                     sceneId, thenId);
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         WhenThen.Then then = null;
@@ -61,7 +75,7 @@ public class ThenHandler extends BaseProcessor {
         if (then == null) {
             log.error("not found 'then' when process thenRequest. sceneId:{}, thenId:{} ",
                     sceneId, thenId);
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
         IThenOperator thenOperator = this.operatorManager.getOperator(then.getType());
@@ -69,10 +83,10 @@ public class ThenHandler extends BaseProcessor {
         if (thenOperator == null) {
             log.error("not found 'thenOperator' when process thenRequest. sceneId:{}, thenId:{}, thenType:{} ",
                     sceneId, thenId ,then.getType());
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
-        return thenOperator.process(terminalId,scene,then,thenRequest.getEventsInScene(),output);
+        return thenOperator.processAsync(terminalId,scene,then,thenRequest.getEventsInScene(),output);
 
 //        Terminalthis.terminalService.getTerminalWithTerminalId(terminalId);
 //
@@ -83,7 +97,7 @@ public class ThenHandler extends BaseProcessor {
 //        IOperator operator = this.operatorManager.getOperator(operationType);
 //        if (operator == null) {
 //            log.error("未找到对应的 operator - operationType: {}", operationType);
-//            return false;
+//            return CompletableFuture.completedFuture(false);
 //        }
 //        OperationResponse operationResponse = new OperationResponse();
 //        TerminalSession session = this.cacheService.getTerminalSessionByTerminalId(operationRequest.getTerminalId());
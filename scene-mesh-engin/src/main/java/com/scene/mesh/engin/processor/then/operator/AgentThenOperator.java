@@ -15,29 +15,35 @@ import com.scene.mesh.service.impl.ai.chat.DefaultChatClientFactory;
 import com.scene.mesh.service.spec.ai.config.ILLmConfigService;
 import com.scene.mesh.service.spec.ai.mcp.IToolsService;
 import com.scene.mesh.service.spec.event.IMetaEventService;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.SerializationUtils;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * agent 代理类操作员
+ * 模型调用提交到 {@link AsyncAgentExecutor} 异步执行，单个慢响应不会阻塞其他终端的 then 处理；
+ * then-handler 节点以 Flink Async I/O 调用 {@link #processAsync}，未完成的调用受节点 capacity 限制并随 checkpoint 保存
  */
+@Slf4j
 public class AgentThenOperator implements IThenOperator{
 
     private final IAgentService agentService;
 
     private final IMetaEventService metaEventService;
 
-    private final IAdvisorFactory advisorFactory;
+    private final AsyncAgentExecutor agentExecutor;
 
-    public AgentThenOperator(ILLmConfigService llmConfigService, IToolsService toolsService, IMetaEventService metaEventService, IAdvisorFactory advisorFactory) {
-        this.advisorFactory = advisorFactory;
+    public AgentThenOperator(ILLmConfigService llmConfigService, IToolsService toolsService, IMetaEventService metaEventService,
+                             IAdvisorFactory advisorFactory, AsyncAgentExecutor agentExecutor) {
         IChatClientFactory chatClientFactory = new DefaultChatClientFactory(llmConfigService);
         this.agentService = new DefaultAgentService(chatClientFactory,advisorFactory, toolsService);
         this.metaEventService = metaEventService;
+        this.agentExecutor = agentExecutor;
     }
 
     @Override
@@ -47,6 +53,12 @@ public class AgentThenOperator implements IThenOperator{
 
     @Override
     public boolean process(String terminalId, Scene scene, WhenThen.Then then, List<Event> eventsInScene, IProcessOutput output) {
+        return processAsync(terminalId, scene, then, eventsInScene, output).join();
+    }
+
+    @Override
+    public CompletableFuture<Boolean> processAsync(String terminalId, Scene scene, WhenThen.Then then,
+                                                   List<Event> eventsInScene, IProcessOutput output) {
         // find input field in event
         List<Event> inputEvents = new ArrayList<>();
         for (Event event : eventsInScene) {
@@ -63,7 +75,15 @@ public class AgentThenOperator implements IThenOperator{
             inputEvent.setPayload(inputPayload);
             inputEvents.add(inputEvent);
         }
-        return this.agentService.callAgent(then,inputEvents);
+        return this.agentExecutor.submit(terminalId, then.getModelProvider(), () -> this.agentService.callAgent(then, inputEvents))
+                .handle((result, error) -> {
+                    if (error != null) {
+                        log.error("agent 调用失败, terminalId: {}, thenId: {}, error: {}",
+                                terminalId, then.getId(), error.getMessage());
+                        return false;
+                    }
+                    return Boolean.TRUE.equals(result);
+                });
     }
 
 //    @Override
@@ -0,0 +1,268 @@
+package com.scene.mesh.engin.processor.then.operator;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * agent 调用的异步执行器
+ * 1. 每个模型供应商单独限制并发数，全局最多 maxInFlight 个执行中的调用；
+ * 2. 提交不阻塞、不拒绝：调用先进入所属供应商的等待队列，供应商许可和全局许可都空闲时才开始执行，
+ *    等待慢供应商的调用不占用全局许可，不影响其他供应商；未完成的调用总数由上游 Flink Async I/O 的 capacity 限制；
+ * 3. 开始执行后计时，超过 timeoutMillis 的调用以 TimeoutException 结束并中断工作线程；
+ * 4. ORDERED 模式下同一终端的调用按提交顺序依次执行，前一个调用结束后后一个调用才进入等待队列、取得许可，
+ *    UNORDERED 模式下互不等待。
+ */
+@Slf4j
+public class AsyncAgentExecutor {
+
+    public enum OutputMode {
+        /**
+         * 同一终端按提交顺序执行、完成
+         */
+        ORDERED,
+        /**
+         * 先完成先输出
+         */
+        UNORDERED
+    }
+
+    /**
+     * 全局最大执行中调用数
+     */
+    @Setter
+    @Getter
+    private int maxInFlight = 64;
+
+    /**
+     * 未单独配置的供应商的最大并发数
+     */
+    @Setter
+    @Getter
+    private int defaultProviderConcurrency = 16;
+
+    /**
+     * 各供应商的最大并发数
+     */
+    @Setter
+    @Getter
+    private Map<String, Integer> providerConcurrency = new HashMap<>();
+
+    /**
+     * 单次调用超时时间（毫秒），小于等于 0 表示不超时
+     */
+    @Setter
+    @Getter
+    private long timeoutMillis = 60_000;
+
+    @Setter
+    @Getter
+    private OutputMode outputMode = OutputMode.UNORDERED;
+
+    private Semaphore inFlight;
+
+    private ExecutorService workers;
+
+    private final Map<String, ProviderQueue> providers = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<Boolean>> terminalTails = new ConcurrentHashMap<>();
+
+    public void __init__() {
+        this.inFlight = new Semaphore(maxInFlight);
+        AtomicInteger index = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(maxInFlight, maxInFlight, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "agent-executor-" + index.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        ((ThreadPoolExecutor) this.workers).allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 提交一次调用，不阻塞调用方
+     *
+     * @param terminalId 终端 id，ORDERED 模式下用于保证顺序
+     * @param provider   模型供应商，用于并发限制
+     * @param task       调用
+     * @return 调用结果
+     */
+    public CompletableFuture<Boolean> submit(String terminalId, String provider, Callable<Boolean> task) {
+        if (outputMode == OutputMode.UNORDERED || terminalId == null) {
+            return enqueue(provider, task);
+        }
+
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        CompletableFuture<Boolean> previous = this.terminalTails.put(terminalId, result);
+        // 前一个调用结束后才排队取许可，排在同一终端之后的调用不占用供应商和全局许可
+        Runnable run = () -> enqueue(provider, task).whenComplete((value, error) -> {
+            this.terminalTails.remove(terminalId, result);
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+        if (previous == null) {
+            run.run();
+        } else {
+            // 前一个调用无论成功与否都继续执行
+            previous.whenComplete((value, error) -> run.run());
+        }
+        return result;
+    }
+
+    /**
+     * 当前执行中的调用数
+     */
+    public int inFlightCount() {
+        return maxInFlight - this.inFlight.availablePermits();
+    }
+
+    /**
+     * 当前等待许可的调用数
+     */
+    public int pendingCount() {
+        int pending = 0;
+        for (ProviderQueue queue : this.providers.values()) {
+            pending += queue.waiting.size();
+        }
+        return pending;
+    }
+
+    public void shutdown() {
+        this.workers.shutdownNow();
+        for (ProviderQueue queue : this.providers.values()) {
+            PendingCall call;
+            while ((call = queue.waiting.poll()) != null) {
+                call.result.completeExceptionally(new RejectedExecutionException("agent 执行器已关闭"));
+            }
+        }
+    }
+
+    private CompletableFuture<Boolean> enqueue(String provider, Callable<Boolean> task) {
+        PendingCall call = new PendingCall(providerQueue(provider), task);
+        call.queue.waiting.add(call);
+        dispatch();
+        return call.result;
+    }
+
+    /**
+     * 按供应商依次启动等待中的调用，直到供应商许可或全局许可用完
+     */
+    private synchronized void dispatch() {
+        for (ProviderQueue queue : this.providers.values()) {
+            while (!queue.waiting.isEmpty() && queue.permits.tryAcquire()) {
+                if (!this.inFlight.tryAcquire()) {
+                    queue.permits.release();
+                    return;
+                }
+                start(queue.waiting.poll());
+            }
+        }
+    }
+
+    /**
+     * 执行已取得供应商许可和全局许可的调用，调用结束后释放两个许可并启动等待中的调用
+     */
+    private void start(PendingCall call) {
+        CompletableFuture<Boolean> result = call.result;
+        // 已开始执行或已被超时取消，二者只有一方负责释放许可
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<?> future;
+        try {
+            future = this.workers.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return;
+                }
+                Boolean value = null;
+                Throwable error = null;
+                try {
+                    value = call.task.call();
+                } catch (Throwable e) {
+                    error = e;
+                } finally {
+                    // 先释放许可再完成，调用方看到结果时许可已归还
+                    release(call.queue);
+                }
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+        } catch (Exception e) {
+            call.queue.permits.release();
+            this.inFlight.release();
+            result.completeExceptionally(e);
+            return;
+        }
+
+        if (timeoutMillis > 0) {
+            result.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+                if (error instanceof TimeoutException) {
+                    log.warn("agent 调用超时, provider: {}, timeout: {}ms", call.queue.provider, timeoutMillis);
+                    future.cancel(true);
+                    if (claimed.compareAndSet(false, true)) {
+                        release(call.queue);
+                    }
+                }
+            });
+        }
+    }
+
+    private void release(ProviderQueue queue) {
+        queue.permits.release();
+        this.inFlight.release();
+        dispatch();
+    }
+
+    private ProviderQueue providerQueue(String provider) {
+        String key = provider == null ? "" : provider;
+        return this.providers.computeIfAbsent(key,
+                k -> new ProviderQueue(k, this.providerConcurrency.getOrDefault(k, defaultProviderConcurrency)));
+    }
+
+    /**
+     * 单个供应商的并发许可和等待队列
+     */
+    private static final class ProviderQueue {
+        private final String provider;
+        private final Semaphore permits;
+        private final Queue<PendingCall> waiting = new ConcurrentLinkedQueue<>();
+
+        private ProviderQueue(String provider, int concurrency) {
+            this.provider = provider;
+            this.permits = new Semaphore(concurrency);
+        }
+    }
+
+    private static final class PendingCall {
+        private final ProviderQueue queue;
+        private final Callable<Boolean> task;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        private PendingCall(ProviderQueue queue, Callable<Boolean> task) {
+            this.queue = queue;
+            this.task = task;
+        }
+    }
+}
@@ -8,10 +8,19 @@ import com.scene.mesh.model.scene.Scene;
 import com.scene.mesh.model.scene.WhenThen;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface IThenOperator {
 
     String getOperatorType();
 
     boolean process(String terminalId, Scene scene, WhenThen.Then then, List<Event> eventsInScene, IProcessOutput output);
+
+    /**
+     * 异步处理，future 完成前写入 output；默认在调用线程中同步处理
+     */
+    default CompletableFuture<Boolean> processAsync(String terminalId, Scene scene, WhenThen.Then then,
+                                                    List<Event> eventsInScene, IProcessOutput output) {
+        return CompletableFuture.completedFuture(process(terminalId, scene, then, eventsInScene, output));
+    }
 }
\ No newline at end of file
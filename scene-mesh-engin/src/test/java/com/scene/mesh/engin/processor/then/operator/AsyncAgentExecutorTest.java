@@ -0,0 +1,262 @@
+package com.scene.mesh.engin.processor.then.operator;
+
+import com.scene.mesh.model.event.Event;
+import com.scene.mesh.model.scene.WhenThen;
+import com.scene.mesh.service.impl.ai.chat.DefaultAgentService;
+import com.scene.mesh.service.spec.ai.chat.IAgentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * agent 异步执行测试，使用带固定延迟的本地 ChatModel
+ */
+public class AsyncAgentExecutorTest {
+
+    private static final long LATENCY_MILLIS = 50;
+
+    private final List<AsyncAgentExecutor> executors = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executors.forEach(AsyncAgentExecutor::shutdown);
+    }
+
+    @Test
+    void testCallsRunConcurrentlyUpToMaxInFlight() throws Exception {
+        int maxInFlight = 8;
+        AsyncAgentExecutor executor = newExecutor(maxInFlight, AsyncAgentExecutor.OutputMode.UNORDERED, 10_000);
+        CountDownLatch started = new CountDownLatch(maxInFlight);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < maxInFlight; i++) {
+            futures.add(executor.submit("t-" + i, "stub", () -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                started.countDown();
+                release.await();
+                running.decrementAndGet();
+                return true;
+            }));
+        }
+        // 所有调用同时处于执行中，latch 才会归零
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(maxInFlight, executor.inFlightCount());
+
+        // 全局许可已满时提交不阻塞，调用排队等待许可
+        CompletableFuture<Boolean> queued = executor.submit("t-x", "stub", () -> true);
+        assertFalse(queued.isDone());
+        assertEquals(1, executor.pendingCount());
+
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+        assertEquals(maxInFlight, peak.get());
+        assertEquals(0, executor.inFlightCount());
+    }
+
+    @Test
+    void testSlowProviderDoesNotHoldGlobalPermits() throws Exception {
+        AsyncAgentExecutor executor = newExecutor(4, AsyncAgentExecutor.OutputMode.UNORDERED, 10_000);
+        executor.setProviderConcurrency(Map.of("slow", 2));
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<CompletableFuture<Boolean>> slow = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            slow.add(executor.submit("s-" + i, "slow", () -> {
+                release.await();
+                return true;
+            }));
+        }
+        // 慢供应商的并发已满：排队的调用不占用全局许可
+        for (int i = 0; i < 8; i++) {
+            slow.add(executor.submit("s-x", "slow", () -> true));
+        }
+        assertEquals(2, executor.inFlightCount());
+        assertEquals(8, executor.pendingCount());
+
+        // 其他供应商仍可使用剩余的全局许可
+        List<CompletableFuture<Boolean>> fast = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            fast.add(executor.submit("f-" + i, "fast", () -> true));
+        }
+        CompletableFuture.allOf(fast.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertFalse(slow.get(0).isDone());
+
+        release.countDown();
+        CompletableFuture.allOf(slow.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(0, executor.inFlightCount());
+        assertEquals(0, executor.pendingCount());
+    }
+
+    @Test
+    void testProviderConcurrencyLimit() throws Exception {
+        StubChatModel chatModel = new StubChatModel(LATENCY_MILLIS);
+        IAgentService agentService = agentService(chatModel);
+        AsyncAgentExecutor executor = newExecutor(32, AsyncAgentExecutor.OutputMode.UNORDERED, 10_000);
+        executor.setProviderConcurrency(Map.of("slow", 2));
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(executor.submit("t-" + i, "slow", () -> agentService.callAgent(then("slow"), events("t"))));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(2, chatModel.maxConcurrent.get());
+    }
+
+    @Test
+    void testTimeout() {
+        AsyncAgentExecutor executor = newExecutor(4, AsyncAgentExecutor.OutputMode.UNORDERED, 50);
+        CompletableFuture<Boolean> future = executor.submit("t", "stub", () -> {
+            Thread.sleep(5_000);
+            return true;
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+        assertInstanceOf(TimeoutException.class, e.getCause());
+    }
+
+    @Test
+    void testTimeoutStartsAfterPermitIsHeld() throws Exception {
+        AsyncAgentExecutor executor = newExecutor(4, AsyncAgentExecutor.OutputMode.UNORDERED, 1_000);
+        executor.setProviderConcurrency(Map.of("single", 1));
+        CompletableFuture<Boolean> first = executor.submit("t-1", "single", () -> {
+            Thread.sleep(800);
+            return true;
+        });
+        // 等待供应商许可约 800ms，执行 500ms：从提交算起超过超时时间，从取得许可算起未超过
+        CompletableFuture<Boolean> second = executor.submit("t-2", "single", () -> {
+            Thread.sleep(500);
+            return true;
+        });
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testOrderedModeKeepsTerminalOrder() throws Exception {
+        AsyncAgentExecutor executor = newExecutor(16, AsyncAgentExecutor.OutputMode.ORDERED, 10_000);
+        List<Integer> completed = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            int seq = i;
+            // 先提交的调用耗时更长
+            futures.add(executor.submit("t", "stub", () -> {
+                Thread.sleep((8 - seq) * 10L);
+                completed.add(seq);
+                return true;
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7), completed);
+        assertEquals(0, executor.inFlightCount());
+    }
+
+    @Test
+    void testOrderedModeTakesPermitsWhenCallStarts() throws Exception {
+        AsyncAgentExecutor executor = newExecutor(2, AsyncAgentExecutor.OutputMode.ORDERED, 10_000);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> first = executor.submit("t", "stub", () -> {
+            release.await();
+            return true;
+        });
+        // 排在同一终端之后的调用既不占用许可也不进入等待队列
+        List<CompletableFuture<Boolean>> queued = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            queued.add(executor.submit("t", "stub", () -> true));
+        }
+        assertEquals(1, executor.inFlightCount());
+        assertEquals(0, executor.pendingCount());
+
+        // 其他终端仍可使用剩余的全局许可
+        assertTrue(executor.submit("other", "stub", () -> true).get(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        CompletableFuture.allOf(queued.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(0, executor.inFlightCount());
+    }
+
+    private AsyncAgentExecutor newExecutor(int maxInFlight, AsyncAgentExecutor.OutputMode mode, long timeoutMillis) {
+        AsyncAgentExecutor executor = new AsyncAgentExecutor();
+        executor.setMaxInFlight(maxInFlight);
+        executor.setDefaultProviderConcurrency(maxInFlight);
+        executor.setOutputMode(mode);
+        executor.setTimeoutMillis(timeoutMillis);
+        executor.__init__();
+        executors.add(executor);
+        return executor;
+    }
+
+    private static IAgentService agentService(ChatModel chatModel) {
+        ChatClient chatClient = ChatClient.create(chatModel);
+        return new DefaultAgentService((providerName, modelName) -> chatClient,
+                advisorsInput -> List.of(),
+                (actionIds, mcps) -> List.of());
+    }
+
+    private static WhenThen.Then then(String provider) {
+        WhenThen.Then then = new WhenThen.Then();
+        then.setId("then-1");
+        then.setType("LLM_INFERENCE");
+        then.setModelProvider(provider);
+        then.setModel("stub-model");
+        then.setPromptTemplate("stub");
+        then.setTemperature(0.5);
+        then.setTopP(1);
+        then.setMcps(new String[0]);
+        return then;
+    }
+
+    private static List<Event> events(String terminalId) {
+        Event event = new Event("stub-event");
+        event.setTerminalId(terminalId);
+        return List.of(event);
+    }
+
+    /**
+     * 固定延迟的 ChatModel，记录最大并发调用数
+     */
+    private static class StubChatModel implements ChatModel {
+
+        private final long latencyMillis;
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private StubChatModel(long latencyMillis) {
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            return new ChatResponse(List.of(new Generation(new AssistantMessage("ok"))));
+        }
+    }
+}
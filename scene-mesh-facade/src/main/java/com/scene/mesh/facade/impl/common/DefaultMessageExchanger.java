@@ -31,11 +31,12 @@ public class DefaultMessageExchanger implements IMessageExchanger {
     @Override
     public void handleInboundEvent(Event event) {
         log.debug("handle inbound event: {}", event.toString());
-        try {
-            this.messageProducer.send(inboundEventTopic, event);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+        // 异步写入入站队列，不阻塞接入线程等待 Redis 确认，发送失败时记录日志
+        this.messageProducer.sendAsync(inboundEventTopic, event).whenComplete((ignored, e) -> {
+            if (e != null) {
+                log.error("send inbound event failed, event id: {}, terminalId: {}", event.getId(), event.getTerminalId(), e);
+            }
+        });
     }
 
     @Override
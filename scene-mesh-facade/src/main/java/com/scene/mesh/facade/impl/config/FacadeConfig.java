@@ -2,7 +2,10 @@ package com.scene.mesh.facade.impl.config;
 
 import com.scene.mesh.facade.impl.common.DefaultTerminalAuthenticator;
 import com.scene.mesh.facade.impl.inbound.ComputableFieldCalculator;
+import com.scene.mesh.facade.impl.inbound.StripedInboundMessageDispatcher;
 import com.scene.mesh.facade.spec.common.ITerminalAuthenticator;
+import com.scene.mesh.facade.spec.inboud.InboundMessageDispatcher;
+import com.scene.mesh.facade.spec.inboud.InboundMessageHandler;
 import com.scene.mesh.facade.spec.inboud.InboundMessageInterceptor;
 import com.scene.mesh.facade.impl.inbound.MessageLegalityChecker;
 import com.scene.mesh.facade.impl.inbound.MessageToEventConvertor;
@@ -15,6 +18,7 @@ import com.scene.mesh.module.engine.spec.ISmModuleLoader;
 import com.scene.mesh.module.engine.spec.ISmModuleManager;
 import com.scene.mesh.module.engine.spec.extension.ISmExtensionInvoker;
 import com.scene.mesh.module.engine.spec.extension.ISmExtensionManager;
+import com.scene.mesh.service.impl.event.SttParameterCalculator;
 import com.scene.mesh.service.spec.event.IMetaEventService;
 import com.scene.mesh.service.spec.product.IProductService;
 import com.scene.mesh.service.spec.terminal.ITerminalService;
@@ -36,17 +40,39 @@ public class FacadeConfig {
     @Value("${topic.outbound-action}")
     private String outboundActionTopic;
 
+    @Value("${inbound.dispatch.lanes:8}")
+    private int inboundDispatchLanes;
+
+    @Value("${inbound.dispatch.queue-capacity:1024}")
+    private int inboundDispatchQueueCapacity;
+
+    @Value("${inbound.dispatch.overflow-policy:BLOCK}")
+    private InboundMessageDispatcher.OverflowPolicy inboundDispatchOverflowPolicy;
+
+    @Value("${inbound.dispatch.block-timeout-millis:100}")
+    private long inboundDispatchBlockTimeoutMillis;
+
+    @Value("${inbound.validation.strict:false}")
+    private boolean inboundStrictValidation;
+
     @Bean
     public List<InboundMessageInterceptor> messageInterceptors(
             IMetaEventService metaEventService,
-            ISmExtensionInvoker extensionInvoker) {
+            ISmExtensionInvoker extensionInvoker,
+            SttParameterCalculator sttParameterCalculator) {
         List<InboundMessageInterceptor> interceptors = new ArrayList<>();
-        interceptors.add(new MessageLegalityChecker(metaEventService));
-        interceptors.add(new MessageToEventConvertor());
-        interceptors.add(new ComputableFieldCalculator(metaEventService, extensionInvoker));
+        interceptors.add(new MessageLegalityChecker(metaEventService, inboundStrictValidation));
+        interceptors.add(new MessageToEventConvertor(metaEventService));
+        interceptors.add(new ComputableFieldCalculator(metaEventService, extensionInvoker, sttParameterCalculator));
         return interceptors;
     }
 
+    @Bean(destroyMethod = "close")
+    public InboundMessageDispatcher inboundMessageDispatcher(InboundMessageHandler inboundMessageHandler) {
+        return new StripedInboundMessageDispatcher(inboundMessageHandler, inboundDispatchLanes,
+                inboundDispatchQueueCapacity, inboundDispatchOverflowPolicy, inboundDispatchBlockTimeoutMillis);
+    }
+
     @Bean
     public ISmExtensionManager smExtensionManager(){
         return new SmExtensionManager();
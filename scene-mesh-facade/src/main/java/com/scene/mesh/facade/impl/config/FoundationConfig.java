@@ -20,6 +20,9 @@ public class FoundationConfig {
     @Value("${redis.connection.port}")
     private int redisPort;
 
+    @Value("${redis.consumer-name:}")
+    private String consumerName;
+
     @Bean
     public ICache<String,Object> redisCache(){
         return new RedisCache<>(redisHost,redisPort);
@@ -40,6 +43,7 @@ public class FoundationConfig {
         RedisMessageConsumer messageConsumer = new RedisMessageConsumer();
         messageConsumer.setHost(redisHost);
         messageConsumer.setPort(redisPort);
+        messageConsumer.setConsumerName(consumerName);
         messageConsumer.setSerializer(new JsonMessageSerializer());
         messageConsumer.__init__();
         return messageConsumer;
@@ -4,6 +4,7 @@ import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.terminal.TerminalRepository;
 import com.scene.mesh.service.impl.event.DefaultMetaEventService;
 import com.scene.mesh.service.impl.scene.DefaultSceneService;
+import com.scene.mesh.service.impl.event.SttParameterCalculator;
 import com.scene.mesh.service.impl.speech.DefaultSpeechService;
 import com.scene.mesh.service.impl.speech.VoskSttProcessor;
 import com.scene.mesh.service.spec.cache.MutableCacheService;
@@ -15,9 +16,11 @@ import com.scene.mesh.service.spec.speech.ISpeechService;
 import com.scene.mesh.service.spec.terminal.ITerminalService;
 import com.scene.mesh.service.impl.product.DefaultProductService;
 import com.scene.mesh.service.impl.terminal.DefaultTerminalService;
+import com.scene.mesh.service.impl.terminal.TerminalStatusWriter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.vosk.Model;
 
 import java.io.IOException;
@@ -29,14 +32,34 @@ public class ServiceConfig {
     @Value("${audio.model.vosk}")
     private String voskModel;
 
+    @Value("${audio.model.vosk-pool-size:4}")
+    private int voskPoolSize;
+
+    @Value("${audio.model.vosk-borrow-timeout-millis:1000}")
+    private long voskBorrowTimeoutMillis;
+
+    @Value("${terminal.status.batch-size:500}")
+    private int statusBatchSize;
+
+    @Value("${terminal.status.max-pending:100000}")
+    private int statusMaxPending;
+
+    @Value("${terminal.status.flush-interval-millis:200}")
+    private long statusFlushIntervalMillis;
+
     @Bean
     public IProductService productService(MutableCacheService mutableCacheService) {
         return new DefaultProductService(mutableCacheService);
     }
 
     @Bean
-    public ITerminalService terminalService(TerminalRepository terminalRepository){
-        return new DefaultTerminalService(terminalRepository);
+    public ITerminalService terminalService(TerminalRepository terminalRepository, TerminalStatusWriter terminalStatusWriter){
+        return new DefaultTerminalService(terminalRepository, terminalStatusWriter);
+    }
+
+    @Bean(destroyMethod = "close")
+    public TerminalStatusWriter terminalStatusWriter(JdbcTemplate jdbcTemplate) {
+        return new TerminalStatusWriter(jdbcTemplate, statusBatchSize, statusMaxPending, statusFlushIntervalMillis);
     }
 
     @Bean
@@ -63,7 +86,7 @@ public class ServiceConfig {
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-        audioProcessorManager.registerSttProcessor(new VoskSttProcessor(model));
+        audioProcessorManager.registerSttProcessor(new VoskSttProcessor(model, voskPoolSize, voskBorrowTimeoutMillis));
         return audioProcessorManager;
     }
 
@@ -75,4 +98,9 @@ public class ServiceConfig {
         return new DefaultSpeechService(audioProcessorManager,productService,terminalService);
     }
 
+    @Bean
+    public SttParameterCalculator sttParameterCalculator(ISpeechService speechService) {
+        return new SttParameterCalculator(speechService);
+    }
+
 }
@@ -10,27 +10,39 @@ import com.scene.mesh.module.engine.impl.extension.SmExtensionInvoker;
 import com.scene.mesh.module.engine.impl.extension.SmSlotRegistrar;
 import com.scene.mesh.module.engine.spec.extension.ISmExtensionInvoker;
 import com.scene.mesh.module.engine.spec.extension.ISmExtensionManager;
+import com.scene.mesh.service.impl.event.SttParameterCalculator;
 import com.scene.mesh.service.spec.event.IMetaEventService;
 
 import java.util.List;
 import java.util.Map;
 
+/**
+ * 计算字段
+ * STT 字段由平台的语音服务识别，需要终端 id 与识别会话，不经过扩展插件；其余计算类型调用扩展插件。
+ * 流式语音的中间帧只输入识别会话，不产生事件。
+ * 拦截链运行在入站分发线程上，识别（包括等待空闲识别器）不占用 broker 与 WebSocket 的 I/O 线程。
+ */
 public class ComputableFieldCalculator extends BaseInboundMessageInterceptor {
 
     private final IMetaEventService metaEventService;
     private final ISmExtensionInvoker extensionInvoker;
+    private final SttParameterCalculator sttParameterCalculator;
 
-    public ComputableFieldCalculator(IMetaEventService metaEventService, ISmExtensionInvoker extensionInvoker) {
+    public ComputableFieldCalculator(IMetaEventService metaEventService, ISmExtensionInvoker extensionInvoker,
+                                     SttParameterCalculator sttParameterCalculator) {
         this.metaEventService = metaEventService;
         this.extensionInvoker = extensionInvoker;
+        this.sttParameterCalculator = sttParameterCalculator;
     }
 
     @Override
     protected void doIntercept(InboundMessageRequest request, InboundMessageResponse response) {
         Event event = (Event) response.getPropVal("event");
         String metaEventId = event.getType();
-        IMetaEvent metaEvent = this.metaEventService.getIMetaEvent(metaEventId);
+        // 与 MessageLegalityChecker 共用同一条消息上下文中已获取的元事件
+        IMetaEvent metaEvent = request.getContext().getMetaEvent(metaEventId, this.metaEventService);
         Map<String, Object> payload = event.getPayload();
+        boolean eventCompleted = true;
 
         MetaParameterDescriptorCollection collection = metaEvent.getParameterCollection();
         for (MetaParameterDescriptor parameterDescriptor : collection.getParameterDescriptors()) {
@@ -41,14 +53,24 @@ public class ComputableFieldCalculator extends BaseInboundMessageInterceptor {
             String calculatorType = calculatorDescriptor.getCalculatorType();
             String sourceField = calculatorDescriptor.getSourceField();
 
-            // 直接调用扩展插件的calculate方法
-            extensionInvoker.invokeExtension(
+            if (SttParameterCalculator.CALCULATOR_TYPE.equals(calculatorType)) {
+                eventCompleted &= this.sttParameterCalculator.calculate(
+                        event.getTerminalId(), sourceField, parameterDescriptor.getName(), payload);
+                continue;
+            }
+
+            // 以计算器接口直接调用扩展插件的calculate方法
+            IParameterCalculator calculator = extensionInvoker.getExtension(
                     SmSlotRegistrar.CALCULATE_SLOT_ID,
                     calculatorType,
-                    "calculate",
-                    sourceField,
-                    event.getPayload()
+                    IParameterCalculator.class
             );
+            calculator.calculate(sourceField, payload);
+        }
+        if (!eventCompleted) {
+            // 语音帧已输入识别会话，本条消息不再作为事件下发
+            response.addPropEntry("event", null);
+            return;
         }
         event.setPayload(payload);
     }
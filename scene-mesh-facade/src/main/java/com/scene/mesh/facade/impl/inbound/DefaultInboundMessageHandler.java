@@ -55,6 +55,10 @@ public class DefaultInboundMessageHandler implements InboundMessageHandler{
 
         //handle interception result - true
         Event event = (Event) response.getPropVal("event");
+        if (event == null) {
+            // 消息已被拦截器消费（如流式语音的中间帧）
+            return;
+        }
         this.messageExchanger.handleInboundEvent(event);
     }
 
@@ -2,6 +2,7 @@ package com.scene.mesh.facade.impl.inbound;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.scene.mesh.facade.spec.inboud.InboundMessage;
+import com.scene.mesh.facade.spec.inboud.InboundMessageContext;
 import com.scene.mesh.foundation.spec.parameter.MetaParameters;
 import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
 import com.scene.mesh.foundation.impl.helper.StringHelper;
@@ -15,14 +16,25 @@ public class MessageLegalityChecker extends BaseInboundMessageInterceptor {
 
     private final IMetaEventService metaEventService;
 
+    /**
+     * 是否同时校验必填字段与值的类型，关闭时只拒绝元事件中未声明的字段
+     */
+    private final boolean strictValidation;
+
     public MessageLegalityChecker(IMetaEventService metaEventService) {
+        this(metaEventService, false);
+    }
+
+    public MessageLegalityChecker(IMetaEventService metaEventService, boolean strictValidation) {
         this.metaEventService = metaEventService;
+        this.strictValidation = strictValidation;
     }
 
     @Override
     protected void doIntercept(InboundMessageRequest request, InboundMessageResponse response) {
 
         InboundMessage inboundMessage = request.getMessage();
+        InboundMessageContext context = request.getContext();
 
         // verify message
         String message = inboundMessage.getMessage();
@@ -34,7 +46,7 @@ public class MessageLegalityChecker extends BaseInboundMessageInterceptor {
 
         MetaParameters metaParameters = null;
         try {
-            metaParameters = new MetaParameters(message);
+            metaParameters = context.getMetaParameters();
         } catch (JsonProcessingException e) {
             response.setSuccess(Boolean.FALSE);
             response.setOpinion(StringHelper.format("Illegal json message - {0}", e.getMessage()));
@@ -50,7 +62,7 @@ public class MessageLegalityChecker extends BaseInboundMessageInterceptor {
         }
 
         //Verify the existence of the metaEvent
-        IMetaEvent metaEvent = this.metaEventService.getIMetaEvent(metaEventId);
+        IMetaEvent metaEvent = context.getMetaEvent(metaEventId, this.metaEventService);
         if (metaEvent == null) {
             response.setSuccess(Boolean.FALSE);
             response.setOpinion(StringHelper.format("Illegal metaEventId - The metaEvent model cannot be found : metaEvent id {0}", metaEventId));
@@ -59,7 +71,7 @@ public class MessageLegalityChecker extends BaseInboundMessageInterceptor {
 
         //Verify whether the payload conforms to the specification of the metaEvent model
         Map<String, Object> payload = metaParameters.getMap("payload");
-        if (!metaEvent.validate(payload)) {
+        if (!metaEvent.validate(payload, this.strictValidation)) {
             response.setSuccess(Boolean.FALSE);
             response.setOpinion(StringHelper.format(
                     "Illegal payload - Does not conform to the specification of the metaEvent model. - payload: {0}, metaEvent: {1}",
@@ -2,6 +2,7 @@ package com.scene.mesh.facade.impl.inbound;
 
 import com.scene.mesh.foundation.spec.parameter.MetaParameters;
 import com.scene.mesh.model.event.Event;
+import com.scene.mesh.model.event.IMetaEvent;
 import com.scene.mesh.service.spec.event.IMetaEventService;
 
 /**
@@ -9,6 +10,12 @@ import com.scene.mesh.service.spec.event.IMetaEventService;
  */
 public class MessageToEventConvertor extends BaseInboundMessageInterceptor {
 
+    private final IMetaEventService metaEventService;
+
+    public MessageToEventConvertor(IMetaEventService metaEventService) {
+        this.metaEventService = metaEventService;
+    }
+
     @Override
     public void doIntercept(InboundMessageRequest request, InboundMessageResponse response) {
         MetaParameters metaParameters = (MetaParameters) response.getPropVal("metaParameters");
@@ -20,6 +27,16 @@ public class MessageToEventConvertor extends BaseInboundMessageInterceptor {
 
         Event event = new Event(metaEventId);
         event.setTerminalId(terminalId);
+        // 事件所属产品，场景规则按产品绑定分区键（productId:terminalId）
+        IMetaEvent metaEvent = request.getContext().getMetaEvent(metaEventId, this.metaEventService);
+        if (metaEvent != null) {
+            event.setProductId(metaEvent.getProductId());
+        }
+        // 终端上报时间（毫秒），离线缓存补传的数据以此作为事件时间
+        long deviceTimestamp = metaParameters.getLong("timestamp", -1L);
+        if (deviceTimestamp > 0) {
+            event.setDeviceTimestamp(deviceTimestamp);
+        }
 
         //set payload of event
         event.setPayload(metaParameters.getMap("payload"));
@@ -0,0 +1,192 @@
+package com.scene.mesh.facade.impl.inbound;
+
+import com.scene.mesh.facade.spec.inboud.InboundMessage;
+import com.scene.mesh.facade.spec.inboud.InboundMessageDispatcher;
+import com.scene.mesh.facade.spec.inboud.InboundMessageHandler;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按终端分道的入站消息分发
+ * 1. 按 terminalId 哈希分配到固定的工作线程（lane），同一终端的消息在同一线程上按到达顺序处理，不同终端互不阻塞；
+ * 2. 每个 lane 一个有界队列，队列满时按 {@link OverflowPolicy} 处理；
+ * 3. {@link #close()} 停止接收新消息，在超时时间内处理完已入队的消息。
+ */
+@Slf4j
+public class StripedInboundMessageDispatcher implements InboundMessageDispatcher, AutoCloseable {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final InboundMessageHandler inboundMessageHandler;
+
+    private final Lane[] lanes;
+
+    @Getter
+    private final OverflowPolicy overflowPolicy;
+
+    private final long blockTimeoutMillis;
+
+    private final AtomicLong dispatched = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    public StripedInboundMessageDispatcher(InboundMessageHandler inboundMessageHandler, int laneCount, int queueCapacity,
+                                           OverflowPolicy overflowPolicy, long blockTimeoutMillis) {
+        if (laneCount <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("invalid dispatcher size - lanes:" + laneCount + ", queueCapacity:" + queueCapacity);
+        }
+        this.inboundMessageHandler = inboundMessageHandler;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            this.lanes[i] = new Lane(i, queueCapacity);
+            this.lanes[i].thread.start();
+        }
+        log.info("inbound dispatcher started - lanes:{}, queueCapacity:{}, overflowPolicy:{}", laneCount, queueCapacity, overflowPolicy);
+    }
+
+    @Override
+    public boolean dispatch(InboundMessage inboundMessage) {
+        if (!this.running) {
+            this.drop(inboundMessage, "dispatcher closed");
+            return false;
+        }
+        this.dispatched.incrementAndGet();
+        ArrayBlockingQueue<InboundMessage> queue = this.laneOf(inboundMessage.getTerminalId()).queue;
+        if (queue.offer(inboundMessage)) {
+            return true;
+        }
+
+        switch (this.overflowPolicy) {
+            case DROP_OLDEST:
+                while (!queue.offer(inboundMessage)) {
+                    InboundMessage oldest = queue.poll();
+                    if (oldest != null) {
+                        this.drop(oldest, "queue full");
+                    }
+                }
+                return true;
+            case BLOCK:
+                try {
+                    if (queue.offer(inboundMessage, this.blockTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                this.drop(inboundMessage, "queue full");
+                return false;
+            case DROP_NEWEST:
+            default:
+                this.drop(inboundMessage, "queue full");
+                return false;
+        }
+    }
+
+    @Override
+    public DispatchStats stats() {
+        int[] depths = new int[this.lanes.length];
+        int queued = 0;
+        for (int i = 0; i < this.lanes.length; i++) {
+            depths[i] = this.lanes[i].queue.size();
+            queued += depths[i];
+        }
+        return new DispatchStats(this.lanes.length, queued, depths, this.dispatched.get(), this.dropped.get(), this.failed.get());
+    }
+
+    private Lane laneOf(String terminalId) {
+        int hash = terminalId == null ? 0 : terminalId.hashCode();
+        return this.lanes[Math.floorMod(hash ^ (hash >>> 16), this.lanes.length)];
+    }
+
+    private void drop(InboundMessage message, String reason) {
+        long count = this.dropped.incrementAndGet();
+        // 队列持续满时避免日志刷屏
+        if (count == 1 || count % 1000 == 0) {
+            log.warn("inbound message dropped - reason:{}, terminal id:{}, dropped total:{}", reason, message.getTerminalId(), count);
+        }
+    }
+
+    private void handle(InboundMessage message) {
+        try {
+            this.inboundMessageHandler.handle(message);
+        } catch (Exception e) {
+            this.failed.incrementAndGet();
+            log.error("inbound message handle failed - terminal id:{}", message.getTerminalId(), e);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.close(5_000);
+    }
+
+    /**
+     * 停止接收新消息，等待已入队消息处理完成，超时后丢弃剩余消息
+     */
+    public void close(long timeoutMillis) {
+        if (!this.running) {
+            return;
+        }
+        this.running = false;
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Lane lane : this.lanes) {
+            try {
+                lane.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        int remaining = 0;
+        for (Lane lane : this.lanes) {
+            lane.thread.interrupt();
+            remaining += lane.queue.size();
+            lane.queue.clear();
+        }
+        if (remaining > 0) {
+            this.dropped.addAndGet(remaining);
+            log.warn("inbound dispatcher closed with {} unprocessed messages", remaining);
+        }
+        log.info("inbound dispatcher closed - {}", this.stats());
+    }
+
+    private final class Lane implements Runnable {
+
+        private final ArrayBlockingQueue<InboundMessage> queue;
+
+        private final Thread thread;
+
+        private Lane(int index, int capacity) {
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.thread = new Thread(this, "inbound-dispatch-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                InboundMessage message;
+                try {
+                    message = this.queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (message != null) {
+                    handle(message);
+                } else if (!running) {
+                    return;
+                }
+            }
+        }
+    }
+}
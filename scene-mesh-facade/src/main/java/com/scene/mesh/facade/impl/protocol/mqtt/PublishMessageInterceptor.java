@@ -3,11 +3,12 @@ package com.scene.mesh.facade.impl.protocol.mqtt;
 import com.scene.mesh.facade.spec.protocol.TerminalProtocolStateManager;
 import com.scene.mesh.model.protocol.ProtocolType;
 import com.scene.mesh.facade.spec.inboud.InboundMessage;
-import com.scene.mesh.facade.spec.inboud.InboundMessageHandler;
+import com.scene.mesh.facade.spec.inboud.InboundMessageDispatcher;
 import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
 import com.scene.mesh.foundation.impl.helper.StringHelper;
 import com.scene.mesh.model.terminal.TerminalStatus;
 import com.scene.mesh.service.spec.product.IProductService;
+import com.scene.mesh.service.spec.speech.ISpeechService;
 import com.scene.mesh.service.spec.terminal.ITerminalService;
 import io.moquette.interception.InterceptHandler;
 import io.moquette.interception.messages.*;
@@ -19,16 +20,19 @@ import org.springframework.stereotype.Component;
 @Component
 public class PublishMessageInterceptor implements InterceptHandler {
 
-    private final InboundMessageHandler inboundMessageHandler;
+    private final InboundMessageDispatcher inboundMessageDispatcher;
 
     private final TerminalProtocolStateManager terminalProtocolStateManager;
 
     private final ITerminalService terminalService;
 
-    public PublishMessageInterceptor(InboundMessageHandler inboundMessageHandler, TerminalProtocolStateManager terminalProtocolStateManager, ITerminalService terminalService) {
-        this.inboundMessageHandler = inboundMessageHandler;
+    private final ISpeechService speechService;
+
+    public PublishMessageInterceptor(InboundMessageDispatcher inboundMessageDispatcher, TerminalProtocolStateManager terminalProtocolStateManager, ITerminalService terminalService, ISpeechService speechService) {
+        this.inboundMessageDispatcher = inboundMessageDispatcher;
         this.terminalProtocolStateManager = terminalProtocolStateManager;
         this.terminalService = terminalService;
+        this.speechService = speechService;
     }
 
     @Override
@@ -52,6 +56,7 @@ public class PublishMessageInterceptor implements InterceptHandler {
     public void onDisconnect(InterceptDisconnectMessage msg) {
         this.terminalService.updateStatus(msg.getUsername(),msg.getClientID(), TerminalStatus.OFFLINE);
         this.terminalProtocolStateManager.removeProtocolState(msg.getClientID());
+        this.speechService.release(msg.getClientID());
         log.info("The terminal has disconnected - protocol:{}, terminal id: {}", ProtocolType.MQTT, msg.getClientID());
     }
 
@@ -59,6 +64,7 @@ public class PublishMessageInterceptor implements InterceptHandler {
     public void onConnectionLost(InterceptConnectionLostMessage msg) {
         this.terminalService.updateStatus(msg.getUsername(), msg.getClientID(), TerminalStatus.OFFLINE);
         this.terminalProtocolStateManager.removeProtocolState(msg.getClientID());
+        this.speechService.release(msg.getClientID());
         log.info("The terminal has been lost - protocol:{}, terminal id: {}", ProtocolType.MQTT, msg.getClientID());
     }
 
@@ -73,10 +79,10 @@ public class PublishMessageInterceptor implements InterceptHandler {
         log.debug("Received terminal message - protocol:{}, terminal id - {}, topic - {}, payload - {}",
                 ProtocolType.MQTT, clientId, topicName, messageContent);
 
-        //交给 inboundMessageHandler 处理
+        //交给 inboundMessageDispatcher 按终端顺序异步处理，不占用 broker 线程
         InboundMessage inboundMessage = new InboundMessage(
                 clientId,messageContent);
-        this.inboundMessageHandler.handle(inboundMessage);
+        this.inboundMessageDispatcher.dispatch(inboundMessage);
     }
 
     @Override
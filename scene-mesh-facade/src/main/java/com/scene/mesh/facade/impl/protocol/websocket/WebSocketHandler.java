@@ -2,10 +2,11 @@ package com.scene.mesh.facade.impl.protocol.websocket;
 
 
 import com.scene.mesh.facade.spec.inboud.InboundMessage;
-import com.scene.mesh.facade.spec.inboud.InboundMessageHandler;
+import com.scene.mesh.facade.spec.inboud.InboundMessageDispatcher;
 import com.scene.mesh.facade.spec.protocol.TerminalProtocolStateManager;
 import com.scene.mesh.model.protocol.ProtocolType;
 import com.scene.mesh.model.terminal.TerminalStatus;
+import com.scene.mesh.service.spec.speech.ISpeechService;
 import com.scene.mesh.service.spec.terminal.ITerminalService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -19,7 +20,7 @@ import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 @Slf4j
 public class WebSocketHandler extends AbstractWebSocketHandler {
 
-    private final InboundMessageHandler inboundMessageHandler;
+    private final InboundMessageDispatcher inboundMessageDispatcher;
 
     private final TerminalProtocolStateManager terminalProtocolStateManager;
 
@@ -27,11 +28,14 @@ public class WebSocketHandler extends AbstractWebSocketHandler {
 
     private final TerminalSessionManager terminalSessionManager;
 
-    public WebSocketHandler(InboundMessageHandler inboundMessageHandler, TerminalProtocolStateManager terminalProtocolStateManager, ITerminalService terminalService, TerminalSessionManager terminalSessionManager) {
-        this.inboundMessageHandler = inboundMessageHandler;
+    private final ISpeechService speechService;
+
+    public WebSocketHandler(InboundMessageDispatcher inboundMessageDispatcher, TerminalProtocolStateManager terminalProtocolStateManager, ITerminalService terminalService, TerminalSessionManager terminalSessionManager, ISpeechService speechService) {
+        this.inboundMessageDispatcher = inboundMessageDispatcher;
         this.terminalProtocolStateManager = terminalProtocolStateManager;
         this.terminalService = terminalService;
         this.terminalSessionManager = terminalSessionManager;
+        this.speechService = speechService;
     }
 
     @Override
@@ -57,10 +61,10 @@ public class WebSocketHandler extends AbstractWebSocketHandler {
         String terminalId = (String) session.getAttributes().get("terminalId");
         log.debug("Received terminal text message - protocol:{}, product id - {}, terminal id - {}, payload - {}",
                 ProtocolType.WEBSOCKET, productId, terminalId, text);
-        //交给 inboundMessageHandler 处理
+        //交给 inboundMessageDispatcher 按终端顺序异步处理，不占用 WebSocket I/O 线程
         InboundMessage inboundMessage = new InboundMessage(
                 terminalId, text);
-        this.inboundMessageHandler.handle(inboundMessage);
+        this.inboundMessageDispatcher.dispatch(inboundMessage);
     }
 
 
@@ -75,6 +79,8 @@ public class WebSocketHandler extends AbstractWebSocketHandler {
         this.terminalProtocolStateManager.removeProtocolState(terminalId);
         // unregister terminal session
         this.terminalSessionManager.unregisterSession(terminalId);
+        // release speech codecs
+        this.speechService.release(terminalId);
         log.info("The terminal is disconnected - protocol:{}, terminal id: {}", ProtocolType.WEBSOCKET, terminalId);
     }
 
@@ -0,0 +1,66 @@
+package com.scene.mesh.facade.spec.inboud;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.scene.mesh.foundation.spec.parameter.MetaParameters;
+import com.scene.mesh.model.event.IMetaEvent;
+import com.scene.mesh.service.spec.event.IMetaEventService;
+import lombok.Getter;
+
+/**
+ * 单条入站消息的处理上下文，随拦截链传递
+ * 消息解析结果与元事件在首次使用时解析并保留，同一条消息的各个拦截器共用，每条消息最多各获取一次。
+ * 同一条消息只在一个线程上处理，上下文不做并发控制。
+ */
+public class InboundMessageContext {
+
+    @Getter
+    private final InboundMessage message;
+
+    private MetaParameters metaParameters;
+
+    private JsonProcessingException parseError;
+
+    private IMetaEvent metaEvent;
+
+    private String resolvedMetaEventId;
+
+    public InboundMessageContext(InboundMessage message) {
+        this.message = message;
+    }
+
+    public String getTerminalId() {
+        return this.message.getTerminalId();
+    }
+
+    /**
+     * 解析后的消息，解析失败时每次抛出同一个异常
+     */
+    public MetaParameters getMetaParameters() throws JsonProcessingException {
+        if (this.metaParameters == null) {
+            if (this.parseError != null) {
+                throw this.parseError;
+            }
+            try {
+                this.metaParameters = new MetaParameters(this.message.getMessage());
+            } catch (JsonProcessingException e) {
+                this.parseError = e;
+                throw e;
+            }
+        }
+        return this.metaParameters;
+    }
+
+    /**
+     * 元事件，同一 metaEventId 只获取一次，不存在时返回 null
+     */
+    public IMetaEvent getMetaEvent(String metaEventId, IMetaEventService metaEventService) {
+        if (metaEventId == null) {
+            return null;
+        }
+        if (!metaEventId.equals(this.resolvedMetaEventId)) {
+            this.metaEvent = metaEventService.getIMetaEvent(metaEventId);
+            this.resolvedMetaEventId = metaEventId;
+        }
+        return this.metaEvent;
+    }
+}
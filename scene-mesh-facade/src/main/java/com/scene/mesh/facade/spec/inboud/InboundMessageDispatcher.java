@@ -0,0 +1,47 @@
+package com.scene.mesh.facade.spec.inboud;
+
+/**
+ * dispatch inbound message from protocol I/O threads to workers, messages of the same terminal are handled in order
+ */
+public interface InboundMessageDispatcher {
+
+    /**
+     * 提交消息，不在调用线程上执行拦截链与事件发送
+     * @return 消息因队列已满被丢弃时返回 false
+     */
+    boolean dispatch(InboundMessage inboundMessage);
+
+    /**
+     * 当前队列状态
+     */
+    DispatchStats stats();
+
+    /**
+     * 队列已满时的处理策略
+     */
+    enum OverflowPolicy {
+        /**
+         * 丢弃新消息
+         */
+        DROP_NEWEST,
+        /**
+         * 丢弃队列中最早的消息，接收新消息
+         */
+        DROP_OLDEST,
+        /**
+         * 调用线程等待队列空位，超时后丢弃新消息
+         */
+        BLOCK
+    }
+
+    /**
+     * @param lanes          工作线程数
+     * @param queuedMessages 所有队列中等待处理的消息数
+     * @param laneDepths     每个工作线程的队列深度
+     * @param dispatched     提交的消息数，含被丢弃的消息
+     * @param dropped        因队列已满丢弃的消息数
+     * @param failed         处理时抛出异常的消息数
+     */
+    record DispatchStats(int lanes, int queuedMessages, int[] laneDepths, long dispatched, long dropped, long failed) {
+    }
+}
@@ -29,11 +29,15 @@ public interface InboundMessageInterceptor {
         @Getter
         private final InboundMessage message;
 
+        @Getter
+        private final InboundMessageContext context;
+
         private final Map<String, Object> properties;
 
         public InboundMessageRequest(InboundMessage message) {
             this.properties = new HashMap<>();
             this.message = message;
+            this.context = new InboundMessageContext(message);
         }
 
         public Object getPropVal(String key) {
@@ -0,0 +1,127 @@
+package com.scene.mesh.facade.impl.inbound;
+
+import com.scene.mesh.facade.spec.inboud.InboundMessage;
+import com.scene.mesh.facade.spec.inboud.InboundMessageInterceptor;
+import com.scene.mesh.facade.spec.inboud.InboundMessageInterceptor.InboundMessageRequest;
+import com.scene.mesh.facade.spec.inboud.InboundMessageInterceptor.InboundMessageResponse;
+import com.scene.mesh.foundation.spec.parameter.CalculatorDescriptor;
+import com.scene.mesh.foundation.spec.parameter.MetaParameterDescriptor;
+import com.scene.mesh.foundation.spec.parameter.data.IntParameterDataType;
+import com.scene.mesh.foundation.spec.parameter.data.StringParameterDataType;
+import com.scene.mesh.model.event.DefaultMetaEvent;
+import com.scene.mesh.model.event.Event;
+import com.scene.mesh.model.event.IMetaEvent;
+import com.scene.mesh.module.api.calculate.IParameterCalculator;
+import com.scene.mesh.module.engine.spec.extension.ISmExtensionInvoker;
+import com.scene.mesh.service.impl.event.SttParameterCalculator;
+import com.scene.mesh.service.spec.event.IMetaEventService;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 拦截链共用消息上下文：每条消息只获取一次元事件
+ */
+class InboundMessageContextTest {
+
+    private static final String META_EVENT_ID = "speech";
+
+    private final CountingMetaEventService metaEventService = new CountingMetaEventService();
+
+    private final List<InboundMessageInterceptor> interceptors = List.of(
+            new MessageLegalityChecker(metaEventService),
+            new MessageToEventConvertor(metaEventService),
+            new ComputableFieldCalculator(metaEventService, new LengthCalculatorInvoker(), new SttParameterCalculator(null)));
+
+    @Test
+    void metaEventIsResolvedOncePerMessage() {
+        for (int i = 1; i <= 3; i++) {
+            InboundMessageResponse response = intercept("{\"type\":\"speech\",\"payload\":{\"text\":\"hello\"}}");
+
+            assertTrue(response.isSuccess(), response.getOpinion());
+            Event event = (Event) response.getPropVal("event");
+            assertEquals(5, event.getPayloadVal("length"));
+            assertEquals("p-1", event.getProductId());
+            assertEquals(i, metaEventService.lookups.get());
+        }
+    }
+
+    @Test
+    void missingMetaEventIsLookedUpOnce() {
+        InboundMessageResponse response = intercept("{\"type\":\"unknown\",\"payload\":{}}");
+
+        assertFalse(response.isSuccess());
+        assertEquals(1, metaEventService.lookups.get());
+    }
+
+    private InboundMessageResponse intercept(String message) {
+        InboundMessageRequest request = new InboundMessageRequest(new InboundMessage("t-1", message));
+        InboundMessageResponse response = new InboundMessageResponse();
+        for (InboundMessageInterceptor interceptor : interceptors) {
+            interceptor.intercept(request, response);
+            if (!response.isSuccess()) {
+                break;
+            }
+        }
+        return response;
+    }
+
+    private static class CountingMetaEventService implements IMetaEventService {
+        private final AtomicInteger lookups = new AtomicInteger();
+        private final DefaultMetaEvent metaEvent = new DefaultMetaEvent(META_EVENT_ID, "speech", "", "p-1");
+
+        private CountingMetaEventService() {
+            metaEvent.addParameterDescriptor(new MetaParameterDescriptor("text", "", "", new StringParameterDataType(), true));
+            metaEvent.addParameterDescriptor(new MetaParameterDescriptor("length", "", "", new IntParameterDataType(),
+                    new CalculatorDescriptor("LENGTH", "text"), false));
+        }
+
+        @Override
+        public IMetaEvent getIMetaEvent(String metaEventId) {
+            lookups.incrementAndGet();
+            return META_EVENT_ID.equals(metaEventId) ? metaEvent : null;
+        }
+
+        @Override
+        public List<IMetaEvent> getAllMetaEvents() {
+            return List.of(metaEvent);
+        }
+    }
+
+    /**
+     * 只提供计算文本长度的计算器插件
+     */
+    private static class LengthCalculatorInvoker implements ISmExtensionInvoker {
+        private final IParameterCalculator calculator =
+                (sourceField, payload) -> payload.put("length", ((String) payload.get(sourceField)).length());
+
+        @Override
+        public List<Object> getExtensionInstances(String slotId) {
+            return List.of(calculator);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getExtension(String slotId, String pluginId, Class<T> type) {
+            return (T) calculator;
+        }
+
+        @Override
+        public List<Object> invokeAllExtensions(String slotId, String methodName, Object... args) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object invokeExtension(String slotId, String pluginId, String methodName, Object... args) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object invokeExtension(String pluginId, String methodName, Object... args) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.scene.mesh.facade.impl.inbound;
+
+import com.scene.mesh.facade.spec.inboud.InboundMessage;
+import com.scene.mesh.facade.spec.inboud.InboundMessageDispatcher.DispatchStats;
+import com.scene.mesh.facade.spec.inboud.InboundMessageDispatcher.OverflowPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedInboundMessageDispatcherTest {
+
+    @Test
+    void keepsPerTerminalOrder() {
+        Map<String, List<String>> received = new ConcurrentHashMap<>();
+        StripedInboundMessageDispatcher dispatcher = new StripedInboundMessageDispatcher(
+                message -> received.computeIfAbsent(message.getTerminalId(), k -> new ArrayList<>()).add(message.getMessage()),
+                4, 10_000, OverflowPolicy.BLOCK, 1_000);
+
+        for (int i = 0; i < 1000; i++) {
+            for (int t = 0; t < 8; t++) {
+                assertTrue(dispatcher.dispatch(new InboundMessage("terminal-" + t, String.valueOf(i))));
+            }
+        }
+        dispatcher.close();
+
+        assertEquals(8, received.size());
+        for (List<String> messages : received.values()) {
+            assertEquals(1000, messages.size());
+            for (int i = 0; i < messages.size(); i++) {
+                assertEquals(String.valueOf(i), messages.get(i));
+            }
+        }
+    }
+
+    @Test
+    void slowTerminalDoesNotBlockOtherLanes() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastHandled = new CountDownLatch(1);
+        StripedInboundMessageDispatcher dispatcher = new StripedInboundMessageDispatcher(message -> {
+            if ("slow".equals(message.getMessage())) {
+                awaitQuietly(release);
+            } else {
+                fastHandled.countDown();
+            }
+        }, 2, 16, OverflowPolicy.DROP_NEWEST, 0);
+
+        String slowTerminal = terminalOnLane(0, 2);
+        String fastTerminal = terminalOnLane(1, 2);
+        dispatcher.dispatch(new InboundMessage(slowTerminal, "slow"));
+        dispatcher.dispatch(new InboundMessage(fastTerminal, "fast"));
+
+        assertTrue(fastHandled.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        dispatcher.close();
+    }
+
+    @Test
+    void overflowPolicies() {
+        for (OverflowPolicy policy : OverflowPolicy.values()) {
+            CountDownLatch release = new CountDownLatch(1);
+            List<String> handled = new ArrayList<>();
+            StripedInboundMessageDispatcher dispatcher = new StripedInboundMessageDispatcher(message -> {
+                awaitQuietly(release);
+                synchronized (handled) {
+                    handled.add(message.getMessage());
+                }
+            }, 1, 2, policy, 10);
+
+            // 第一条被工作线程取走并阻塞，随后的消息占满容量为 2 的队列
+            dispatcher.dispatch(new InboundMessage("t", "0"));
+            awaitQueued(dispatcher, 0);
+            dispatcher.dispatch(new InboundMessage("t", "1"));
+            dispatcher.dispatch(new InboundMessage("t", "2"));
+            boolean accepted = dispatcher.dispatch(new InboundMessage("t", "3"));
+
+            DispatchStats stats = dispatcher.stats();
+            assertEquals(4, stats.dispatched());
+            assertEquals(1, stats.dropped());
+            assertEquals(2, stats.queuedMessages());
+
+            release.countDown();
+            dispatcher.close();
+            if (policy == OverflowPolicy.DROP_OLDEST) {
+                assertTrue(accepted);
+                assertEquals(List.of("0", "2", "3"), handled);
+            } else {
+                assertFalse(accepted);
+                assertEquals(List.of("0", "1", "2"), handled);
+            }
+        }
+    }
+
+    private static String terminalOnLane(int lane, int lanes) {
+        for (int i = 0; ; i++) {
+            String terminalId = "terminal-" + i;
+            int hash = terminalId.hashCode();
+            if (Math.floorMod(hash ^ (hash >>> 16), lanes) == lane) {
+                return terminalId;
+            }
+        }
+    }
+
+    private static void awaitQueued(StripedInboundMessageDispatcher dispatcher, int depth) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (dispatcher.stats().queuedMessages() != depth) {
+            assertTrue(System.currentTimeMillis() < deadline);
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,590 @@
+package com.scene.mesh.foundation.impl.cache;
+
+import com.scene.mesh.foundation.spec.cache.ICache;
+import com.scene.mesh.foundation.spec.cache.ICacheInvalidationBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 二级缓存：进程内 L1 缓存对象序列化后的字节，L2 为远端缓存（如 RedisCache）
+ * 1. 只缓存指定前缀的键，每个前缀一个分区，分区内按 LRU 淘汰，其余键直接透传到 L2；
+ *    每次读取时反序列化出新的实例（字符串、数值等不可变值直接缓存），调用方修改返回值不会影响本地缓存和其他调用方；
+ * 2. 通过本实例写入、删除时，先写 L2，再失效本地分区并通过 {@link ICacheInvalidationBus} 广播，
+ *    其他进程收到通知后失效各自的 L1；
+ * 3. 每个分区维护一个版本号，回源期间发生失效时不回填，避免旧值覆盖失效结果；
+ * 4. 失效通知不保证送达（发布失败、订阅断开期间的通知会丢失），因此本地条目最多保留 maxStalenessMillis，
+ *    且每次（重新）订阅失效通道成功时清空本地缓存。
+ * 本地缓存不感知 L2 的过期时间，只适用于不设置过期时间的键（如产品、场景等元数据）。
+ *
+ * @param <V> 缓存值类型
+ */
+@Slf4j
+public class NearCache<V> implements ICache<String, V> {
+
+    public static final String INVALIDATION_CHANNEL = "sm:cache:invalidation";
+
+    private static final String WILDCARD = "*";
+
+    private static final String TARGET_SEPARATOR = "\n";
+
+    /**
+     * 哈希表字段在本地缓存中的键：{key}#{field}
+     */
+    private static final String FIELD_SEPARATOR = "#";
+
+    private static final Object NULL_LIST = new Object();
+
+    /**
+     * 默认本地条目最长保留时间（毫秒）
+     */
+    public static final long DEFAULT_MAX_STALENESS_MILLIS = 60_000;
+
+    private final ICache<String, V> delegate;
+
+    private final ICacheInvalidationBus invalidationBus;
+
+    private final Partition[] partitions;
+
+    private final long maxStalenessNanos;
+
+    private final LongSupplier ticker;
+
+    /**
+     * 本地条目的序列化方式，与 RedisCache 的值序列化一致
+     */
+    private final RedisSerializer<Object> serializer = new GenericJackson2JsonRedisSerializer();
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param delegate             L2 缓存
+     * @param invalidationBus      失效通知通道
+     * @param prefixes             需要本地缓存的键前缀
+     * @param maxEntriesPerPrefix  每个前缀本地缓存的最大条目数
+     */
+    public NearCache(ICache<String, V> delegate, ICacheInvalidationBus invalidationBus,
+                     Set<String> prefixes, int maxEntriesPerPrefix) {
+        this(delegate, invalidationBus, prefixes, maxEntriesPerPrefix, DEFAULT_MAX_STALENESS_MILLIS);
+    }
+
+    /**
+     * @param delegate             L2 缓存
+     * @param invalidationBus      失效通知通道
+     * @param prefixes             需要本地缓存的键前缀
+     * @param maxEntriesPerPrefix  每个前缀本地缓存的最大条目数
+     * @param maxStalenessMillis   本地条目自回源起的最长保留时间，丢失失效通知时旧值最多保留这么久
+     */
+    public NearCache(ICache<String, V> delegate, ICacheInvalidationBus invalidationBus,
+                     Set<String> prefixes, int maxEntriesPerPrefix, long maxStalenessMillis) {
+        this(delegate, invalidationBus, prefixes, maxEntriesPerPrefix, maxStalenessMillis, System::nanoTime);
+    }
+
+    NearCache(ICache<String, V> delegate, ICacheInvalidationBus invalidationBus,
+              Set<String> prefixes, int maxEntriesPerPrefix, long maxStalenessMillis, LongSupplier ticker) {
+        this.delegate = delegate;
+        this.invalidationBus = invalidationBus;
+        this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+        this.ticker = ticker;
+        this.partitions = new Partition[prefixes.size()];
+        int i = 0;
+        for (String prefix : prefixes) {
+            this.partitions[i++] = new Partition(prefix, maxEntriesPerPrefix, evictionCount);
+        }
+        this.invalidationBus.subscribe(INVALIDATION_CHANNEL, this::onInvalidation, this::onSubscribed);
+    }
+
+    @Override
+    public boolean set(String key, V value) {
+        boolean result = delegate.set(key, value);
+        invalidate(key);
+        return result;
+    }
+
+    @Override
+    public boolean set(String key, V value, long expireSeconds) {
+        boolean result = delegate.set(key, value, expireSeconds);
+        invalidate(key);
+        return result;
+    }
+
+    @Override
+    public boolean multiSet(Map<String, V> entries) {
+        boolean result = delegate.multiSet(entries);
+        if (!entries.isEmpty()) {
+            invalidate(String.join(TARGET_SEPARATOR, entries.keySet()));
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(String key) {
+        Partition partition = partitionOf(key);
+        if (partition == null) {
+            return delegate.get(key);
+        }
+
+        long generation;
+        Object stored;
+        synchronized (partition) {
+            stored = getFresh(partition.entries, key);
+            generation = partition.generation;
+        }
+        if (stored != null) {
+            hitCount.increment();
+            return (V) decode(stored);
+        }
+
+        missCount.increment();
+        V value = delegate.get(key);
+        // RedisCache 出错时同样返回 null，因此不缓存空值
+        Object encoded = value == null ? null : encode(value);
+        if (encoded != null) {
+            synchronized (partition) {
+                if (partition.generation == generation) {
+                    partition.entries.put(key, new Entry(encoded, ticker.getAsLong()));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * 先读本地缓存，未命中的键一次批量回源
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> multiGet(Collection<String> keys) {
+        List<Object> values = new ArrayList<>(keys.size());
+        List<String> missedKeys = new ArrayList<>();
+        List<Integer> missedIndexes = new ArrayList<>();
+        Map<Partition, Long> generations = new HashMap<>();
+        for (String key : keys) {
+            Partition partition = partitionOf(key);
+            Object value = null;
+            if (partition != null) {
+                synchronized (partition) {
+                    value = getFresh(partition.entries, key);
+                    generations.putIfAbsent(partition, partition.generation);
+                }
+            }
+            if (value != null) {
+                hitCount.increment();
+                value = decode(value);
+            } else {
+                missedKeys.add(key);
+                missedIndexes.add(values.size());
+            }
+            values.add(value);
+        }
+        if (missedKeys.isEmpty()) {
+            return (List<V>) values;
+        }
+
+        missCount.add(missedKeys.size());
+        List<V> fetched = delegate.multiGet(missedKeys);
+        if (fetched == null) {
+            return null;
+        }
+        long loadedAt = ticker.getAsLong();
+        for (int i = 0; i < missedKeys.size(); i++) {
+            V value = fetched.get(i);
+            values.set(missedIndexes.get(i), value);
+            Partition partition = partitionOf(missedKeys.get(i));
+            Object encoded = value == null || partition == null ? null : encode(value);
+            if (encoded != null) {
+                synchronized (partition) {
+                    if (partition.generation == generations.get(partition)) {
+                        partition.entries.put(missedKeys.get(i), new Entry(encoded, loadedAt));
+                    }
+                }
+            }
+        }
+        return (List<V>) values;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> getAll(String keyPrefix) {
+        Partition partition = partitionOf(keyPrefix);
+        if (partition == null) {
+            return delegate.getAll(keyPrefix);
+        }
+
+        long generation;
+        Object stored;
+        synchronized (partition) {
+            stored = getFresh(partition.lists, keyPrefix);
+            generation = partition.generation;
+        }
+        if (stored != null) {
+            hitCount.increment();
+            if (stored == NULL_LIST) {
+                return null;
+            }
+            List<Object> encodedValues = (List<Object>) stored;
+            List<V> values = new ArrayList<>(encodedValues.size());
+            for (Object value : encodedValues) {
+                values.add((V) decode(value));
+            }
+            return values;
+        }
+
+        missCount.increment();
+        List<V> values = delegate.getAll(keyPrefix);
+        Object encodedValues = values == null ? NULL_LIST : encodeAll(values);
+        if (encodedValues != null) {
+            synchronized (partition) {
+                if (partition.generation == generation) {
+                    partition.lists.put(keyPrefix, new Entry(encodedValues, ticker.getAsLong()));
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 按字段缓存，哈希表更新时失效该哈希表的所有字段
+     */
+    @Override
+    public String hashGet(String key, String field) {
+        Partition partition = partitionOf(key);
+        if (partition == null) {
+            return delegate.hashGet(key, field);
+        }
+
+        String localKey = key + FIELD_SEPARATOR + field;
+        long generation;
+        synchronized (partition) {
+            Object value = getFresh(partition.entries, localKey);
+            if (value != null) {
+                hitCount.increment();
+                return (String) value;
+            }
+            generation = partition.generation;
+        }
+
+        missCount.increment();
+        String value = delegate.hashGet(key, field);
+        if (value != null) {
+            synchronized (partition) {
+                if (partition.generation == generation) {
+                    partition.entries.put(localKey, new Entry(value, ticker.getAsLong()));
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, String> hashGetAll(String key) {
+        Partition partition = partitionOf(key);
+        if (partition == null) {
+            return delegate.hashGetAll(key);
+        }
+
+        long generation;
+        synchronized (partition) {
+            Object value = getFresh(partition.entries, key);
+            if (value != null) {
+                hitCount.increment();
+                return (Map<String, String>) value;
+            }
+            generation = partition.generation;
+        }
+
+        missCount.increment();
+        Map<String, String> value = delegate.hashGetAll(key);
+        if (value == null) {
+            return Map.of();
+        }
+        value = Map.copyOf(value);
+        synchronized (partition) {
+            if (partition.generation == generation) {
+                partition.entries.put(key, new Entry(value, ticker.getAsLong()));
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public boolean hashUpdate(String key, Map<String, String> puts, Collection<String> removes) {
+        boolean result = delegate.hashUpdate(key, puts, removes);
+        invalidate(key);
+        return result;
+    }
+
+    @Override
+    public boolean delete(String key) {
+        boolean result = delegate.delete(key);
+        invalidate(key);
+        return result;
+    }
+
+    @Override
+    public boolean deleteByKeyPrefix(String keyPrefix) {
+        boolean result = delegate.deleteByKeyPrefix(keyPrefix);
+        invalidate(keyPrefix);
+        return result;
+    }
+
+    /**
+     * 存在性判断直接查询 L2，不以本地缓存作答：本地条目可能已在 L2 过期或被其他进程删除
+     */
+    @Override
+    public boolean exists(String key) {
+        return delegate.exists(key);
+    }
+
+    @Override
+    public boolean expire(String key, long expireSeconds) {
+        boolean result = delegate.expire(key, expireSeconds);
+        invalidate(key);
+        return result;
+    }
+
+    @Override
+    public boolean clear() {
+        boolean result = delegate.clear();
+        invalidate(WILDCARD);
+        return result;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * 本地缓存的条目数
+     */
+    public int size() {
+        int size = 0;
+        for (Partition partition : partitions) {
+            synchronized (partition) {
+                size += partition.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 各前缀本地缓存的条目数
+     */
+    public Map<String, Integer> sizeByPrefix() {
+        Map<String, Integer> sizes = new HashMap<>();
+        for (Partition partition : partitions) {
+            synchronized (partition) {
+                sizes.put(partition.prefix, partition.entries.size());
+            }
+        }
+        return sizes;
+    }
+
+    @Override
+    public String toString() {
+        return "NearCache{hit=" + getHitCount() + ", miss=" + getMissCount()
+                + ", eviction=" + getEvictionCount() + ", size=" + size() + "}";
+    }
+
+    /**
+     * 失效本地缓存并广播，多个键以换行分隔
+     */
+    private void invalidate(String target) {
+        invalidateLocal(target);
+        try {
+            invalidationBus.publish(INVALIDATION_CHANNEL, instanceId + " " + target);
+        } catch (Exception e) {
+            log.error("发布缓存失效通知失败, key: {}, error: {}", target, e.getMessage());
+        }
+    }
+
+    private void onInvalidation(String message) {
+        int index = message.indexOf(' ');
+        if (index < 0) {
+            return;
+        }
+        if (message.regionMatches(0, instanceId, 0, index) && index == instanceId.length()) {
+            // 本实例发出的通知，已在本地失效
+            return;
+        }
+        invalidateLocal(message.substring(index + 1));
+    }
+
+    /**
+     * 订阅断开期间的失效通知已丢失，（重新）订阅成功后清空本地缓存
+     */
+    private void onSubscribed() {
+        log.info("缓存失效通道已订阅, 清空本地缓存, {}", this);
+        invalidateLocal(WILDCARD);
+    }
+
+    private void invalidateLocal(String targets) {
+        if (targets.contains(TARGET_SEPARATOR)) {
+            for (String target : targets.split(TARGET_SEPARATOR)) {
+                invalidateLocal(target);
+            }
+            return;
+        }
+
+        String target = targets;
+        if (target.endsWith(WILDCARD)) {
+            String prefix = target.substring(0, target.length() - 1);
+            for (Partition partition : partitions) {
+                if (partition.prefix.startsWith(prefix) || prefix.startsWith(partition.prefix)) {
+                    synchronized (partition) {
+                        partition.clear();
+                    }
+                }
+            }
+            return;
+        }
+
+        Partition partition = partitionOf(target);
+        if (partition != null) {
+            String fieldPrefix = target + FIELD_SEPARATOR;
+            synchronized (partition) {
+                partition.entries.remove(target);
+                partition.entries.keySet().removeIf(key -> key.startsWith(fieldPrefix));
+                partition.lists.clear();
+                partition.generation++;
+            }
+        }
+    }
+
+    /**
+     * 本地条目的存储形式：不可变值直接保存，其余对象保存序列化后的字节；无法序列化时返回 null，不缓存
+     */
+    private Object encode(Object value) {
+        if (value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Long) {
+            return value;
+        }
+        try {
+            return new Serialized(serializer.serialize(value));
+        } catch (Exception e) {
+            log.warn("本地缓存序列化失败, 不缓存, type: {}, error: {}", value.getClass().getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private List<Object> encodeAll(List<?> values) {
+        List<Object> encoded = new ArrayList<>(values.size());
+        for (Object value : values) {
+            Object item = value == null ? null : encode(value);
+            if (value != null && item == null) {
+                return null;
+            }
+            encoded.add(item);
+        }
+        return encoded;
+    }
+
+    private Object decode(Object stored) {
+        return stored instanceof Serialized serialized ? serializer.deserialize(serialized.bytes) : stored;
+    }
+
+    /**
+     * 读取未超过最长保留时间的本地条目，超时的条目直接移除
+     */
+    private Object getFresh(Map<String, Entry> map, String key) {
+        Entry entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (ticker.getAsLong() - entry.loadedAt >= maxStalenessNanos) {
+            map.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private Partition partitionOf(String key) {
+        for (Partition partition : partitions) {
+            if (key.startsWith(partition.prefix)) {
+                return partition;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 单个前缀的本地缓存分区
+     */
+    private static final class Partition {
+        private final String prefix;
+        private final Map<String, Entry> entries;
+        private final Map<String, Entry> lists = new HashMap<>();
+        private long generation;
+
+        private Partition(String prefix, int maxEntries, LongAdder evictionCount) {
+            this.prefix = prefix;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    if (size() > maxEntries) {
+                        evictionCount.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private void clear() {
+            entries.clear();
+            lists.clear();
+            generation++;
+        }
+    }
+
+    /**
+     * 序列化后保存的本地值
+     */
+    private static final class Serialized {
+        private final byte[] bytes;
+
+        private Serialized(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * 本地缓存条目，记录回源时间
+     */
+    private static final class Entry {
+        private final Object value;
+        private final long loadedAt;
+
+        private Entry(Object value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -5,32 +5,45 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.scene.mesh.foundation.spec.cache.ICache;
+import com.scene.mesh.foundation.spec.cache.ICacheInvalidationBus;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.SubscriptionListener;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.*;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Redis缓存实现
  * 使用Spring Framework的RedisTemplate实现Redis缓存功能
  */
 @Slf4j
-public class RedisCache<K, V> implements ICache<K, V> {
+public class RedisCache<K, V> implements ICache<K, V>, ICacheInvalidationBus {
 
     @Setter
     @Getter
@@ -42,6 +55,7 @@ public class RedisCache<K, V> implements ICache<K, V> {
 
     private final RedisConnectionFactory connectionFactory;
     private final RedisTemplate<K, V> redisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
 
     /**
      * 初始化Redis连接
@@ -91,6 +105,13 @@ public class RedisCache<K, V> implements ICache<K, V> {
      * 关闭资源
      */
     public void shutdown() {
+        if (listenerContainer != null) {
+            try {
+                listenerContainer.destroy();
+            } catch (Exception e) {
+                log.warn("关闭 Redis 订阅失败: {}", e.getMessage());
+            }
+        }
         if (connectionFactory instanceof LettuceConnectionFactory) {
             ((LettuceConnectionFactory) connectionFactory).destroy();
         }
@@ -118,6 +139,23 @@ public class RedisCache<K, V> implements ICache<K, V> {
         }
     }
 
+    /**
+     * 使用 MSET 一次写入
+     */
+    @Override
+    public boolean multiSet(Map<K, V> entries) {
+        if (entries.isEmpty()) {
+            return true;
+        }
+        try {
+            redisTemplate.opsForValue().multiSet(entries);
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     @Override
     public V get(K key) {
         try {
@@ -128,6 +166,22 @@ public class RedisCache<K, V> implements ICache<K, V> {
         }
     }
 
+    /**
+     * 使用 MGET 一次读取
+     */
+    @Override
+    public List<V> multiGet(Collection<K> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return redisTemplate.opsForValue().multiGet(keys);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     @Override
     public List<V> getAll(K keyPrefix) {
         Set<K> keys = this.redisTemplate.keys(keyPrefix);
@@ -137,6 +191,57 @@ public class RedisCache<K, V> implements ICache<K, V> {
         return null;
     }
 
+    @Override
+    public String hashGet(K key, String field) {
+        try {
+            return redisTemplate.<String, String>opsForHash().get(key, field);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public Map<String, String> hashGetAll(K key) {
+        try {
+            return redisTemplate.<String, String>opsForHash().entries(key);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Map.of();
+        }
+    }
+
+    /**
+     * 使用 MULTI/EXEC 在一个事务中执行 HSET 与 HDEL
+     */
+    @Override
+    public boolean hashUpdate(K key, Map<String, String> puts, Collection<String> removes) {
+        if (puts.isEmpty() && removes.isEmpty()) {
+            return true;
+        }
+        try {
+            List<Object> results = redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <OK, OV> List<Object> execute(RedisOperations<OK, OV> operations) {
+                    RedisOperations<K, V> redisOperations = (RedisOperations<K, V>) operations;
+                    redisOperations.multi();
+                    if (!puts.isEmpty()) {
+                        redisOperations.<String, String>opsForHash().putAll(key, puts);
+                    }
+                    if (!removes.isEmpty()) {
+                        redisOperations.<String, String>opsForHash().delete(key, removes.toArray());
+                    }
+                    return redisOperations.exec();
+                }
+            });
+            return results != null && !results.isEmpty();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
     @Override
     public boolean delete(K key) {
         try {
@@ -188,4 +293,44 @@ public class RedisCache<K, V> implements ICache<K, V> {
             return false;
         }
     }
-} 
\ No newline at end of file
+
+    @Override
+    public void publish(String channel, String message) {
+        redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(
+                channel.getBytes(StandardCharsets.UTF_8), message.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public synchronized void subscribe(String channel, Consumer<String> listener, Runnable onSubscribed) {
+        if (listenerContainer == null) {
+            listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(connectionFactory);
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+        }
+        listenerContainer.addMessageListener(new InvalidationListener(listener, onSubscribed), new ChannelTopic(channel));
+    }
+
+    /**
+     * 监听容器在订阅成功（包括连接断开后自动恢复订阅）时回调 {@link SubscriptionListener#onChannelSubscribed}
+     */
+    private static final class InvalidationListener implements MessageListener, SubscriptionListener {
+        private final Consumer<String> listener;
+        private final Runnable onSubscribed;
+
+        private InvalidationListener(Consumer<String> listener, Runnable onSubscribed) {
+            this.listener = listener;
+            this.onSubscribed = onSubscribed;
+        }
+
+        @Override
+        public void onMessage(Message message, byte[] pattern) {
+            listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void onChannelSubscribed(byte[] channel, long count) {
+            onSubscribed.run();
+        }
+    }
+}
@@ -3,7 +3,10 @@ package com.scene.mesh.foundation.impl.message;
 import com.scene.mesh.foundation.spec.message.IMessageConsumer;
 import com.scene.mesh.foundation.spec.message.IMessageSerializer;
 import com.scene.mesh.foundation.spec.message.MessageTopic;
-import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAutoClaimArgs;
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
+import io.lettuce.core.models.stream.ClaimedMessages;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +16,7 @@ import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
 import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
@@ -21,15 +25,39 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static org.apache.commons.lang3.SystemUtils.getHostName;
 
+/**
+ * Redis Stream 消息消费者
+ * 1. 每个 topic 只在首次消费时创建一次消费者组；
+ * 2. 读取数量在 [batchSize, maxBatchSize] 之间按上一次读取结果自适应调整；
+ * 3. 一批消息在下一次 receive 时（即调用方处理完成后）通过一次 XACK 批量确认；
+ * 4. 启动时先补发本消费者未确认的消息，并定期通过 XAUTOCLAIM 接管其他消费者长时间未确认的消息；
+ * 5. 接管检查时删除组内已无 pending 消息且空闲超过 consumerExpireMillis 的消费者，避免废弃的消费者堆积。
+ * 同一实例可被多个线程（如同一进程内的多个 source 子任务）共用：每个线程对每个 topic 租用一个序号，
+ * 以 consumerName-序号 作为组内消费者名称，各自拥有独立的 pending 列表，互不重复投递、互不提前确认。
+ * 序号取当前未被占用的最小值，线程退出后释放，其未确认的消息由下一个租用该序号的线程补发；
+ * consumerName 由配置给出（未配置时为 consumer-主机名），重启后名称与序号不变，可以补发重启前未确认的消息。
+ * 同一主机上运行多个进程时需为每个进程配置不同的 consumerName。
+ */
 @Slf4j
 public class RedisMessageConsumer implements IMessageConsumer {
 
+    private static final String DATA_FIELD = "data";
+
+    private static final byte[] DATA_FIELD_BYTES = DATA_FIELD.getBytes(StandardCharsets.UTF_8);
+
+    private static final String INITIAL_ID = "0-0";
+
     @Setter
     @Getter
     private String host;
@@ -43,16 +71,53 @@ public class RedisMessageConsumer implements IMessageConsumer {
     private RedisTemplate<String, Object> redisTemplate;
     private StreamOperations<String, Object, Object> streamOperations;
 
+    /**
+     * 单次读取的最小（初始）数量
+     */
     @Setter
     private int batchSize = 10;
 
+    /**
+     * 单次读取的最大数量
+     */
+    @Setter
+    private int maxBatchSize = 500;
+
     @Setter
     private int timeoutSeconds = 1;
 
-    private String consumerGroup;
+    /**
+     * 消息未确认超过该时长后可被其他消费者接管（毫秒）
+     */
+    @Setter
+    private long claimMinIdleMillis = 60_000;
+
+    /**
+     * 接管检查间隔（毫秒）
+     */
+    @Setter
+    private long claimIntervalMillis = 30_000;
+
+    /**
+     * 没有 pending 消息的消费者空闲超过该时长后从消费者组删除（毫秒）
+     */
+    @Setter
+    private long consumerExpireMillis = 600_000;
+
+    @Setter
+    @Getter
+    private String consumerGroup = "sm-group";
+
+    @Setter
+    @Getter
     private String consumerName;
 
-    private boolean isShutdown = false;
+    /**
+     * (topic, 线程) -> 消费状态，线程退出后移除
+     */
+    private final Map<String, TopicState> topicStates = new ConcurrentHashMap<>();
+
+    private volatile boolean isShutdown = false;
 
     public void __init__() {
 
@@ -96,12 +161,23 @@ public class RedisMessageConsumer implements IMessageConsumer {
         // get StreamOperations
         this.streamOperations = this.redisTemplate.opsForStream();
 
-        this.consumerGroup = "sm-group";
-        this.consumerName = "consumer-" + getHostName();
+        if (this.consumerName == null || this.consumerName.isBlank()) {
+            this.consumerName = "consumer-" + getHostName();
+        }
     }
 
     public void shutdown() {
         if (connectionFactory instanceof LettuceConnectionFactory) {
+            // 确认最后一批已交付的消息
+            for (TopicState state : topicStates.values()) {
+                try {
+                    synchronized (state) {
+                        acknowledge(state);
+                    }
+                } catch (Exception e) {
+                    log.warn("acknowledge on shutdown failed, topic: {}, error: {}", state.streamKey, e.getMessage());
+                }
+            }
             ((LettuceConnectionFactory) connectionFactory).destroy();
             isShutdown = true;
         }
@@ -119,49 +195,286 @@ public class RedisMessageConsumer implements IMessageConsumer {
             throw new Exception("message consumer is shutdown");
         }
 
-        String streamKey = topic.getTopicName();
+        TopicState state = stateOf(topic.getTopicName());
+        // 状态只由所属线程读写，shutdown 时由其它线程确认最后一批
+        synchronized (state) {
+            return receive(state, messageType);
+        }
+    }
+
+    /**
+     * 当前线程在 topic 上的消费状态，首次消费时租用未被占用的最小序号
+     */
+    private TopicState stateOf(String topicName) {
+        Thread thread = Thread.currentThread();
+        String key = topicName + "@" + thread.getId();
+        TopicState state = topicStates.get(key);
+        if (state != null) {
+            return state;
+        }
+        synchronized (topicStates) {
+            releaseExitedStates();
+            Set<Integer> leased = new HashSet<>();
+            for (TopicState other : topicStates.values()) {
+                if (other.streamKey.equals(topicName)) {
+                    leased.add(other.ordinal);
+                }
+            }
+            int ordinal = 0;
+            while (leased.contains(ordinal)) {
+                ordinal++;
+            }
+            state = new TopicState(topicName, ordinal, thread);
+            topicStates.put(key, state);
+            return state;
+        }
+    }
+
+    /**
+     * 移除读取线程已退出的消费状态，未确认的消息保留在该消费者的 pending 列表中，由下一个租用该序号的线程补发
+     */
+    private void releaseExitedStates() {
+        synchronized (topicStates) {
+            Iterator<TopicState> it = topicStates.values().iterator();
+            while (it.hasNext()) {
+                TopicState state = it.next();
+                if (!state.owner.isAlive()) {
+                    it.remove();
+                    log.info("release consumer {} of exited thread, topic: {}, unacknowledged: {}",
+                            state.consumerName, state.streamKey, state.pendingAcks.size());
+                }
+            }
+        }
+    }
+
+    private <T> List<T> receive(TopicState state, Class<T> messageType) {
         List<T> messages = new ArrayList<>();
 
         try {
-            try {
-                // 创建消费者组
-                redisTemplate.opsForStream().createGroup(streamKey, consumerGroup);
-            }catch (Exception e){
-                // 消费者组存在
+            // 调用方再次 receive 说明上一批已处理完成，批量确认
+            acknowledge(state);
+
+            // 创建消费者组
+            if (!state.groupReady) {
+                createGroup(state);
+            }
+
+            // 补发本消费者重启前未确认的消息
+            if (!state.recovered) {
+                List<MapRecord<String, Object, Object>> pendingRecords = streamOperations.read(
+                        Consumer.from(consumerGroup, state.consumerName),
+                        StreamReadOptions.empty().count(state.readCount),
+                        StreamOffset.create(state.streamKey, ReadOffset.from(INITIAL_ID))
+                );
+                if (pendingRecords == null || pendingRecords.isEmpty()) {
+                    state.recovered = true;
+                } else {
+                    log.info("redeliver {} pending messages, topic: {}", pendingRecords.size(), state.streamKey);
+                    collect(state, pendingRecords, messageType, messages);
+                    return messages.isEmpty() ? null : messages;
+                }
             }
+
+            // 接管其他消费者长时间未确认的消息
+            long now = System.currentTimeMillis();
+            if (now - state.lastClaimTime >= claimIntervalMillis) {
+                state.lastClaimTime = now;
+                releaseExitedStates();
+                removeExpiredConsumers(state);
+                claim(state, messageType, messages);
+                if (!messages.isEmpty()) {
+                    return messages;
+                }
+            }
+
             // 从Stream读取消息
             List<MapRecord<String, Object, Object>> streamRecords = streamOperations.read(
-                    Consumer.from(consumerGroup, consumerName),
+                    Consumer.from(consumerGroup, state.consumerName),
                     StreamReadOptions.empty()
-                            .count(batchSize)
+                            .count(state.readCount)
                             .block(Duration.ofSeconds(timeoutSeconds)),
-                    StreamOffset.create(streamKey, ReadOffset.lastConsumed())
+                    StreamOffset.create(state.streamKey, ReadOffset.lastConsumed())
             );
 
-            if (streamRecords != null && !streamRecords.isEmpty()) {
-                for (MapRecord<String, Object, Object> record : streamRecords) {
-                    // 获取消息内容
-                    Map<Object, Object> body = record.getValue();
+            int size = streamRecords == null ? 0 : streamRecords.size();
+            adaptReadCount(state, size);
+            if (size > 0) {
+                collect(state, streamRecords, messageType, messages);
+            }
+
+            return messages.isEmpty() ? null : messages;
+
+        } catch (Exception e) {
+            log.error("receive message failed, topic: {}, error: {}", state.streamKey, e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void createGroup(TopicState state) {
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(state.rawKey, consumerGroup, ReadOffset.latest(), true));
+        } catch (Exception e) {
+            // 消费者组已存在
+            if (!String.valueOf(e.getMessage()).contains("BUSYGROUP")
+                    && !(e.getCause() != null && String.valueOf(e.getCause().getMessage()).contains("BUSYGROUP"))) {
+                throw e;
+            }
+        }
+        state.groupReady = true;
+    }
 
-                    // 获取"data"字段的值
-                    if (body.containsKey("data")) {
-                        String data = (String) body.get("data");
+    /**
+     * 删除组内没有 pending 消息、空闲超时且不属于本实例在用序号的消费者；
+     * 仍在读取的消费者空闲时间不会超过一次阻塞读取的时长，被删除后再次读取时也会由 Redis 重新创建
+     */
+    private void removeExpiredConsumers(TopicState state) {
+        Set<String> inUse = new HashSet<>();
+        for (TopicState other : topicStates.values()) {
+            if (other.streamKey.equals(state.streamKey)) {
+                inUse.add(other.consumerName);
+            }
+        }
+        try {
+            StreamInfo.XInfoConsumers consumers = streamOperations.consumers(state.streamKey, consumerGroup);
+            if (consumers == null) {
+                return;
+            }
+            consumers.forEach(consumer -> {
+                if (consumer.pendingCount() == 0 && consumer.idleTimeMs() >= consumerExpireMillis
+                        && !inUse.contains(consumer.consumerName())) {
+                    streamOperations.deleteConsumer(state.streamKey, Consumer.from(consumerGroup, consumer.consumerName()));
+                    log.info("removed expired consumer {}, topic: {}", consumer.consumerName(), state.streamKey);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("remove expired consumers failed, topic: {}, error: {}", state.streamKey, e.getMessage());
+        }
+    }
+
+    private <T> void claim(TopicState state, Class<T> messageType, List<T> messages) {
+        ClaimedMessages<byte[], byte[]> claimed = redisTemplate.execute((RedisCallback<ClaimedMessages<byte[], byte[]>>) connection -> {
+            @SuppressWarnings("unchecked")
+            RedisStreamAsyncCommands<byte[], byte[]> commands =
+                    (RedisStreamAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            XAutoClaimArgs<byte[]> args = XAutoClaimArgs.Builder
+                    .xautoclaim(io.lettuce.core.Consumer.from(
+                                    consumerGroup.getBytes(StandardCharsets.UTF_8),
+                                    state.consumerName.getBytes(StandardCharsets.UTF_8)),
+                            Duration.ofMillis(claimMinIdleMillis), state.claimCursor)
+                    .count(state.readCount);
+            try {
+                return commands.xautoclaim(state.rawKey, args).get(timeoutSeconds + 3L, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (Exception e) {
+                throw new IllegalStateException("XAUTOCLAIM failed: " + e.getMessage(), e);
+            }
+        });
+        if (claimed == null) {
+            return;
+        }
 
-                        // 反序列化消息
-                        T msg = this.serializer.deserialize(data.getBytes(StandardCharsets.UTF_8), messageType);
+        // 游标回到起点说明已扫描完整个 pending 列表
+        state.claimCursor = claimed.getId() == null ? INITIAL_ID : claimed.getId();
+        if (!INITIAL_ID.equals(state.claimCursor)) {
+            state.lastClaimTime = 0;
+        }
+
+        List<StreamMessage<byte[], byte[]>> claimedMessages = claimed.getMessages();
+        if (claimedMessages == null || claimedMessages.isEmpty()) {
+            return;
+        }
+        log.info("claimed {} idle messages, topic: {}", claimedMessages.size(), state.streamKey);
+        for (StreamMessage<byte[], byte[]> message : claimedMessages) {
+            state.pendingAcks.add(message.getId());
+            Map<byte[], byte[]> body = message.getBody();
+            if (body == null) {
+                continue;
+            }
+            for (Map.Entry<byte[], byte[]> entry : body.entrySet()) {
+                if (Arrays.equals(DATA_FIELD_BYTES, entry.getKey())) {
+                    T msg = deserialize(entry.getValue(), messageType, message.getId());
+                    if (msg != null) {
                         messages.add(msg);
                     }
-
-                    // 确认消息已处理(ACK)
-                    streamOperations.acknowledge(consumerGroup, record);
                 }
             }
+        }
+    }
 
-            return messages.isEmpty() ? null : messages;
+    private <T> void collect(TopicState state, List<MapRecord<String, Object, Object>> records,
+                             Class<T> messageType, List<T> messages) {
+        for (MapRecord<String, Object, Object> record : records) {
+            state.pendingAcks.add(record.getId().getValue());
 
+            // 获取"data"字段的值
+            Map<Object, Object> body = record.getValue();
+            Object data = body == null ? null : body.get(DATA_FIELD);
+            if (data == null) {
+                continue;
+            }
+            byte[] bytes = data instanceof byte[] ? (byte[]) data : data.toString().getBytes(StandardCharsets.UTF_8);
+            T msg = deserialize(bytes, messageType, record.getId().getValue());
+            if (msg != null) {
+                messages.add(msg);
+            }
+        }
+    }
+
+    private <T> T deserialize(byte[] data, Class<T> messageType, String recordId) {
+        try {
+            return this.serializer.deserialize(data, messageType);
         } catch (Exception e) {
-            e.printStackTrace();
+            // 无法反序列化的消息同样确认，避免反复投递
+            log.error("deserialize message failed, record: {}, error: {}", recordId, e.getMessage());
             return null;
         }
     }
-}
\ No newline at end of file
+
+    private void acknowledge(TopicState state) {
+        if (state.pendingAcks.isEmpty()) {
+            return;
+        }
+        streamOperations.acknowledge(state.streamKey, consumerGroup, state.pendingAcks.toArray(new String[0]));
+        state.pendingAcks.clear();
+    }
+
+    /**
+     * 读满则翻倍，读取不足四分之一则减半
+     */
+    private void adaptReadCount(TopicState state, int size) {
+        if (size >= state.readCount) {
+            state.readCount = Math.min(maxBatchSize, state.readCount * 2);
+        } else if (size < state.readCount / 4) {
+            state.readCount = Math.max(batchSize, state.readCount / 2);
+        }
+    }
+
+    /**
+     * 单个 topic 的消费状态
+     */
+    private final class TopicState {
+        private final String streamKey;
+        private final byte[] rawKey;
+        private final String consumerName;
+        private final int ordinal;
+        private final Thread owner;
+        private final List<String> pendingAcks = new ArrayList<>();
+        private boolean groupReady;
+        private boolean recovered;
+        private int readCount;
+        private String claimCursor = INITIAL_ID;
+        private long lastClaimTime;
+
+        private TopicState(String streamKey, int ordinal, Thread owner) {
+            this.streamKey = streamKey;
+            this.rawKey = streamKey.getBytes(StandardCharsets.UTF_8);
+            this.consumerName = RedisMessageConsumer.this.consumerName + "-" + ordinal;
+            this.ordinal = ordinal;
+            this.owner = owner;
+            this.readCount = Math.max(1, batchSize);
+        }
+    }
+}
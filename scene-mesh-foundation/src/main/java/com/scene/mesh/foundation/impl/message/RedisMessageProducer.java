@@ -1,28 +1,52 @@
 // Redis Stream消息生产者 - 使用Spring Framework Redis
 package com.scene.mesh.foundation.impl.message;
 
-import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
 import com.scene.mesh.foundation.spec.message.IMessageProducer;
 import com.scene.mesh.foundation.spec.message.IMessageSerializer;
 import com.scene.mesh.foundation.spec.message.MessageTopic;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPipelineException;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.StreamOperations;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Redis Stream 消息生产者
+ * 消息先进入发送队列，由后台线程按 topic 分别攒批，某个 topic 攒满 batchSize 条
+ * 或其第一条消息等待超过 lingerMillis 时发送该 topic 的一批，一批消息的 XADD 通过 Lettuce pipeline 在一次往返中提交。
+ * 已入队但未确认的消息字节数受 maxInFlightBytes 限制，超出时发送方阻塞等待。
+ * 关闭时先停止入队，后台线程不再等待 linger，发送完队列与各 topic 中剩余的消息后自行退出；
+ * 超过 shutdownTimeoutMillis 仍未退出时才中断后台线程，未能发送的消息以失败结束。
+ */
+@Slf4j
 public class RedisMessageProducer implements IMessageProducer {
 
+    private static final byte[] DATA_FIELD = "data".getBytes(StandardCharsets.UTF_8);
+
     @Setter
     @Getter
     private String host;
@@ -31,9 +55,55 @@ public class RedisMessageProducer implements IMessageProducer {
     @Getter
     private int port;
 
+    /**
+     * 单批最大消息数
+     */
+    @Setter
+    private int batchSize = 256;
+
+    /**
+     * 攒批等待时间（毫秒）
+     */
+    @Setter
+    private long lingerMillis = 2;
+
+    /**
+     * 未确认消息的最大字节数
+     */
+    @Setter
+    private int maxInFlightBytes = 8 * 1024 * 1024;
+
+    /**
+     * 等待发送窗口的最长时间（毫秒）
+     */
+    @Setter
+    private long sendTimeoutMillis = 3000;
+
+    /**
+     * 同步发送等待确认的最长时间（毫秒）
+     */
+    @Setter
+    private long ackTimeoutMillis = 10000;
+
+    /**
+     * 关闭时等待后台线程发送完剩余消息的最长时间（毫秒）
+     */
+    @Setter
+    private long shutdownTimeoutMillis = 10000;
+
     private IMessageSerializer serializer;
     private RedisConnectionFactory connectionFactory;
-    private StreamOperations<String, Object, Object> streamOperations;
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private LinkedBlockingQueue<PendingRecord> pendingQueue;
+    private Semaphore inFlightBytes;
+    private Thread flushThread;
+    private volatile boolean isShutdown = false;
+
+    /**
+     * 保证入队与关闭互斥：关闭后不再有消息入队
+     */
+    private final Object queueLock = new Object();
 
     public void __init__(){
 
@@ -59,7 +129,7 @@ public class RedisMessageProducer implements IMessageProducer {
         ((LettuceConnectionFactory) this.connectionFactory).afterPropertiesSet();
 
         // create redis template
-        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        this.redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(connectionFactory);
 
         StringRedisSerializer stringSerializer = new StringRedisSerializer();
@@ -74,11 +144,39 @@ public class RedisMessageProducer implements IMessageProducer {
         // init RedisTemplate
         redisTemplate.afterPropertiesSet();
 
-        // get StreamOperations
-        this.streamOperations = redisTemplate.opsForStream();
+        // 发送队列与后台批量发送线程
+        this.pendingQueue = new LinkedBlockingQueue<>();
+        this.inFlightBytes = new Semaphore(maxInFlightBytes);
+        this.flushThread = new Thread(this::flushLoop, "redis-producer-flusher");
+        this.flushThread.setDaemon(true);
+        this.flushThread.start();
     }
 
     public void shutdown() {
+        synchronized (queueLock) {
+            isShutdown = true;
+        }
+        if (flushThread != null) {
+            // 后台线程发现关闭后发送完剩余消息自行退出，不中断正在提交的 pipeline
+            try {
+                flushThread.join(shutdownTimeoutMillis);
+                if (flushThread.isAlive()) {
+                    log.warn("Redis Stream producer did not drain within {}ms, interrupting flusher", shutdownTimeoutMillis);
+                    flushThread.interrupt();
+                    flushThread.join(TimeUnit.SECONDS.toMillis(1));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 后台线程未能在关闭超时内发送完的消息
+        List<PendingRecord> remaining = new ArrayList<>();
+        if (pendingQueue != null) {
+            pendingQueue.drainTo(remaining);
+        }
+        for (PendingRecord record : remaining) {
+            complete(record, new IllegalStateException("message producer is shutdown"));
+        }
         if (connectionFactory instanceof LettuceConnectionFactory) {
             ((LettuceConnectionFactory) connectionFactory).destroy();
         }
@@ -95,17 +193,189 @@ public class RedisMessageProducer implements IMessageProducer {
             return;
         }
 
-        String streamKey = topic.getTopicName();
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[messages.length];
+        for (int i = 0; i < messages.length; i++) {
+            futures[i] = sendAsync(topic, messages[i]);
+        }
+
+        try {
+            CompletableFuture.allOf(futures).get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new RuntimeException("Failed to send message to Redis Stream: " + cause.getMessage(), cause);
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Timed out waiting for Redis Stream ack after " + ackTimeoutMillis
+                    + "ms, topic: " + topic.getTopicName(), e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sendAsync(MessageTopic topic, Object message) {
+        if (isShutdown) {
+            return CompletableFuture.failedFuture(new IllegalStateException("message producer is shutdown"));
+        }
+
+        PendingRecord record;
+        try {
+            byte[] body = this.serializer.serialize(message);
+            record = new PendingRecord(topic.getTopicName(), body, Math.min(body.length, maxInFlightBytes));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-        for (Object message : messages) {
+        // 占用发送窗口，窗口已满时阻塞等待
+        try {
+            if (!inFlightBytes.tryAcquire(record.permits, sendTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(new IllegalStateException(
+                        "Redis Stream producer in-flight window is full, topic: " + topic.getTopicName()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        synchronized (queueLock) {
+            if (isShutdown) {
+                inFlightBytes.release(record.permits);
+                return CompletableFuture.failedFuture(new IllegalStateException("message producer is shutdown"));
+            }
+            pendingQueue.offer(record);
+        }
+        return record.future;
+    }
+
+    private void flushLoop() {
+        // topic -> 攒批中的消息
+        Map<String, TopicBatch> batches = new LinkedHashMap<>();
+        List<PendingRecord> polled = new ArrayList<>(batchSize);
+        boolean interrupted = false;
+        while (!isShutdown || !pendingQueue.isEmpty() || !batches.isEmpty()) {
             try {
-                Map<String, Object> record = new HashMap<>();
-                record.put("data", this.serializer.serialize(message));
+                long waitNanos = batches.isEmpty() || isShutdown
+                        ? TimeUnit.MILLISECONDS.toNanos(100) : nextDeadline(batches) - System.nanoTime();
+                PendingRecord first = waitNanos > 0 && !interrupted
+                        ? pendingQueue.poll(waitNanos, TimeUnit.NANOSECONDS) : pendingQueue.poll();
+                if (first != null) {
+                    polled.add(first);
+                    pendingQueue.drainTo(polled, batchSize * 4);
+                }
+            } catch (InterruptedException e) {
+                // 关闭超时后被中断，不再等待，发送剩余的消息后退出
+                interrupted = true;
+                pendingQueue.drainTo(polled);
+            }
+            for (PendingRecord record : polled) {
+                batches.computeIfAbsent(record.topic, t -> new TopicBatch()).add(record);
+            }
+            polled.clear();
+
+            // 发送攒满或等待超时的 topic，关闭时发送全部
+            long now = System.nanoTime();
+            boolean draining = isShutdown || interrupted;
+            Iterator<TopicBatch> it = batches.values().iterator();
+            while (it.hasNext()) {
+                TopicBatch batch = it.next();
+                boolean flushedFull = false;
+                while (batch.records.size() >= batchSize) {
+                    List<PendingRecord> chunk = batch.records.subList(0, batchSize);
+                    flush(new ArrayList<>(chunk));
+                    chunk.clear();
+                    flushedFull = true;
+                }
+                if (!batch.records.isEmpty() && (draining || now - batch.firstNanos >= lingerNanos())) {
+                    flush(new ArrayList<>(batch.records));
+                    batch.records.clear();
+                }
+                if (batch.records.isEmpty()) {
+                    it.remove();
+                } else if (flushedFull) {
+                    // 剩余不足一批的消息重新开始计算 linger
+                    batch.firstNanos = now;
+                }
+            }
+        }
+    }
+
+    private long lingerNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+    }
+
+    private long nextDeadline(Map<String, TopicBatch> batches) {
+        long deadline = Long.MAX_VALUE;
+        for (TopicBatch batch : batches.values()) {
+            deadline = Math.min(deadline, batch.firstNanos + lingerNanos());
+        }
+        return deadline;
+    }
+
+    private void flush(List<PendingRecord> batch) {
+        List<Object> results;
+        try {
+            results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (PendingRecord record : batch) {
+                    connection.streamCommands().xAdd(
+                            MapRecord.create(record.streamKey, Collections.singletonMap(DATA_FIELD, record.body)));
+                }
+                return null;
+            });
+        } catch (RedisPipelineException e) {
+            results = e.getPipelineResult();
+        } catch (Throwable e) {
+            log.error("Failed to send {} messages to Redis Stream: {}", batch.size(), e.getMessage());
+            for (PendingRecord record : batch) {
+                complete(record, e);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Object result = i < results.size() ? results.get(i) : null;
+            complete(batch.get(i), result instanceof Throwable ? (Throwable) result : null);
+        }
+    }
+
+    private void complete(PendingRecord record, Throwable error) {
+        inFlightBytes.release(record.permits);
+        if (error == null) {
+            record.future.complete(null);
+        } else {
+            record.future.completeExceptionally(error);
+        }
+    }
+
+    /**
+     * 待发送的消息
+     */
+    private static final class PendingRecord {
+        private final String topic;
+        private final byte[] streamKey;
+        private final byte[] body;
+        private final int permits;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PendingRecord(String topic, byte[] body, int permits) {
+            this.topic = topic;
+            this.streamKey = topic.getBytes(StandardCharsets.UTF_8);
+            this.body = body;
+            this.permits = permits;
+        }
+    }
+
+    /**
+     * 单个 topic 攒批中的消息
+     */
+    private static final class TopicBatch {
+        private final List<PendingRecord> records = new ArrayList<>();
+        /**
+         * 当前批第一条消息加入的时间
+         */
+        private long firstNanos;
 
-                streamOperations.add(streamKey, record);
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to send message to Redis Stream: " + e.getMessage(), e);
+        private void add(PendingRecord record) {
+            if (records.isEmpty()) {
+                firstNanos = System.nanoTime();
             }
+            records.add(record);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package com.scene.mesh.foundation.impl.processor.flink;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.net.URI;
+
+/**
+ * 本地文件系统 checkpoint 查找
+ * checkpoint 目录结构为 {dir}/{jobId}/chk-{n}/_metadata，每次启动 jobId 不同，
+ * 因此遍历所有 job 目录，取完成时间最新（_metadata 已写入）的 checkpoint。
+ */
+@Slf4j
+public class CheckpointLocator {
+
+    private static final String CHECKPOINT_PREFIX = "chk-";
+
+    private static final String METADATA_FILE = "_metadata";
+
+    /**
+     * @return 最新 checkpoint 目录的 URI，不存在时返回 null
+     */
+    public static String findLatest(String checkpointDir) {
+        File root = toFile(checkpointDir);
+        File[] jobDirs = root.listFiles(File::isDirectory);
+        if (jobDirs == null) {
+            return null;
+        }
+
+        File latest = null;
+        long latestModified = Long.MIN_VALUE;
+        for (File jobDir : jobDirs) {
+            File[] checkpoints = jobDir.listFiles(f -> f.isDirectory() && f.getName().startsWith(CHECKPOINT_PREFIX));
+            if (checkpoints == null) {
+                continue;
+            }
+            for (File checkpoint : checkpoints) {
+                File metadata = new File(checkpoint, METADATA_FILE);
+                // 没有 _metadata 的是未完成的 checkpoint
+                if (metadata.isFile() && metadata.lastModified() > latestModified) {
+                    latest = checkpoint;
+                    latestModified = metadata.lastModified();
+                }
+            }
+        }
+        return latest == null ? null : latest.toURI().toString();
+    }
+
+    /**
+     * 支持 file:// URI 与普通本地路径
+     */
+    public static File toFile(String dir) {
+        if (dir.startsWith("file:")) {
+            return new File(URI.create(dir));
+        }
+        return new File(dir);
+    }
+}
@@ -0,0 +1,111 @@
+package com.scene.mesh.foundation.impl.processor.flink;
+
+import com.scene.mesh.foundation.impl.processor.ProcessActivateContext;
+import com.scene.mesh.foundation.impl.processor.ProcessInput;
+import com.scene.mesh.foundation.impl.processor.ProcessOutput;
+import com.scene.mesh.foundation.spec.component.IComponentProvider;
+import com.scene.mesh.foundation.spec.processor.IAsyncProcessor;
+import com.scene.mesh.foundation.spec.processor.IProcessor;
+import com.scene.mesh.foundation.spec.processor.config.ProcessorNode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.streaming.api.functions.async.ResultFuture;
+import org.apache.flink.streaming.api.functions.async.RichAsyncFunction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 以 Flink Async I/O 执行的节点
+ * 组件实现 {@link IAsyncProcessor} 时异步处理，否则在任务线程中同步处理。
+ * 处理失败或超时时记录日志，该输入不产生输出，与 {@link FlinkProcessConsumer} 一致，不使作业失败。
+ */
+@Slf4j
+public class FlinkAsyncProcessConsumer extends RichAsyncFunction<Object, Object> implements IFlinkProcessorAgent {
+
+    private final boolean asProducer;
+    private final ProcessorNode processorNode;
+    private final IComponentProvider componentProvider;
+    private IProcessor processor;
+    private String env;
+
+    public FlinkAsyncProcessConsumer(ProcessorNode processorNode, IComponentProvider componentProvider) {
+        this.processorNode = processorNode;
+        this.componentProvider = componentProvider;
+        this.asProducer = false;
+    }
+
+    @Override
+    public void asyncInvoke(Object input, ResultFuture<Object> resultFuture) throws Exception {
+        // 输出可能在其他线程写入，future 完成后一次性交给 Flink
+        List<Object> outputs = Collections.synchronizedList(new ArrayList<>());
+        ProcessInput processInput = new ProcessInput();
+        processInput.setInputObject(input);
+        ProcessOutput processOutput = new ProcessOutput();
+        processOutput.setCollector(outputs::add);
+
+        CompletableFuture<Void> future;
+        try {
+            if (this.processor instanceof IAsyncProcessor asyncProcessor) {
+                future = asyncProcessor.processAsync(processInput, processOutput);
+            } else {
+                this.processor.process(processInput, processOutput);
+                future = CompletableFuture.completedFuture(null);
+            }
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.error("异步处理失败, node: {}, input: {}", this.processorNode.getId(), input, error);
+                resultFuture.complete(Collections.emptyList());
+                return;
+            }
+            synchronized (outputs) {
+                resultFuture.complete(new ArrayList<>(outputs));
+            }
+        });
+    }
+
+    @Override
+    public void timeout(Object input, ResultFuture<Object> resultFuture) {
+        log.error("异步处理超时, node: {}, timeout: {}ms, input: {}",
+                this.processorNode.getId(), this.processorNode.getAsyncTimeoutMillis(), input);
+        resultFuture.complete(Collections.emptyList());
+    }
+
+    @Override
+    public void open() throws Exception {
+        this.processor = (IProcessor) this.componentProvider.getComponent(this.processorNode.getComponentId());
+        ProcessActivateContext activateContext = new ProcessActivateContext();
+        this.processor.activate(activateContext);
+    }
+
+    @Override
+    public void open(Configuration parameters) throws Exception {
+        System.setProperty("execute.env", env);
+        super.open(parameters);
+        this.open();
+    }
+
+    @Override
+    public boolean isAsProducer() {
+        return this.asProducer;
+    }
+
+    @Override
+    public ProcessorNode getProcessorNode() {
+        return this.processorNode;
+    }
+
+    @Override
+    public Class getOutputType() {
+        return this.processorNode.getOutputType() == null ? Object.class : this.processorNode.getOutputType();
+    }
+
+    public void setEnv(String env) {
+        this.env = env;
+    }
+}
@@ -2,28 +2,38 @@ package com.scene.mesh.foundation.impl.processor.flink;
 
 import com.scene.mesh.foundation.impl.processor.flink.cep.discover.IRuleDiscoverer;
 import com.scene.mesh.foundation.impl.processor.flink.cep.discover.ScenePeriodicWhenDiscovererFactory;
+import com.scene.mesh.foundation.impl.processor.flink.key.KeyPathSelector;
+import com.scene.mesh.foundation.impl.processor.flink.key.KeyPathTimestampAssigner;
 import com.scene.mesh.foundation.spec.component.IComponentProvider;
 import com.scene.mesh.foundation.spec.processor.IProcessActuator;
 import com.scene.mesh.foundation.spec.processor.config.CepModeDescriptor;
 import com.scene.mesh.foundation.spec.processor.config.ProcessorGraph;
+import com.scene.mesh.foundation.spec.processor.config.ProcessorLinkType;
 import com.scene.mesh.foundation.spec.processor.config.ProcessorLinker;
 import com.scene.mesh.foundation.spec.processor.config.ProcessorNode;
-import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.api.common.eventtime.WatermarkStrategy;
 import org.apache.flink.cep.CEPUtils;
 import org.apache.flink.cep.TimeBehaviour;
+import org.apache.flink.cep.event.EventRecord;
+import org.apache.flink.cep.types.EventRecordTypeInfo;
 import org.apache.flink.configuration.*;
+import org.apache.flink.streaming.api.datastream.AsyncDataStream;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.KeyedStream;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
 import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.util.OutputTag;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class FlinkProcessActuator implements IProcessActuator {
 
+    private static final String LATE_EVENT_OUTPUT_ID = "cep-late-events";
+
     private ProcessorGraph processorGraph;
     private String[] processorArgs;
     private boolean launched;
@@ -47,14 +57,28 @@ public class FlinkProcessActuator implements IProcessActuator {
     @Override
     public void launch() throws Exception {
         this.launched = false;
-        if (this.processorGraph == null) return;
+        StreamExecutionEnvironment env = this.buildEnvironment();
+        if (env == null) return;
+
+        System.out.println(">>>>>>>>>> " + env.getExecutionPlan());
+
+        env.execute("Execute graph plan : GraphId[" + this.processorGraph.getGraphId() + "]");
+    }
 
+    /**
+     * 按 graph 构建执行环境中的数据流，不提交执行；graph 为空或没有生产者节点时返回 null
+     */
+    StreamExecutionEnvironment buildEnvironment() {
+        if (this.processorGraph == null) return null;
 
         List<ProcessorNode> producerNodes = this.processorGraph.getProducerNodes();
-        if (producerNodes == null || producerNodes.isEmpty()) return;
+        if (producerNodes == null || producerNodes.isEmpty()) return null;
 
         StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment(configuration);
-        env.disableOperatorChaining();
+        //默认允许链接：并行度相同且未指定分区方式的相邻节点合并为同一任务，省去序列化与网络缓冲
+        if (!this.processorGraph.isOperatorChaining()) {
+            env.disableOperatorChaining();
+        }
 
         for (ProcessorNode pn : this.processorGraph.getNodes()) {
             if (this.processorGraph.isProducerNode(pn.getId())) {
@@ -62,6 +86,11 @@ public class FlinkProcessActuator implements IProcessActuator {
                 producer.setEnv(System.getProperty("execute.env"));
                 FlinkProcessorChainNode chainNode = new FlinkProcessorChainNode(producer);
                 this.chainNodeMap.put(pn.getId(), chainNode);
+            } else if (pn.isAsync()) {
+                FlinkAsyncProcessConsumer consumer = new FlinkAsyncProcessConsumer(pn, this.componentProvider);
+                consumer.setEnv(System.getProperty("execute.env"));
+                FlinkProcessorChainNode chainNode = new FlinkProcessorChainNode(consumer);
+                this.chainNodeMap.put(pn.getId(), chainNode);
             } else {
                 FlinkProcessConsumer consumer = new FlinkProcessConsumer(pn, this.componentProvider);
                 consumer.setEnv(System.getProperty("execute.env"));
@@ -73,10 +102,7 @@ public class FlinkProcessActuator implements IProcessActuator {
         for (String chainNodeId : this.chainNodeMap.keySet()) {
             this.setupChainObjectNode(chainNodeId, env);
         }
-
-        System.out.println(">>>>>>>>>> " + env.getExecutionPlan());
-
-        env.execute("Execute graph plan : GraphId[" + this.processorGraph.getGraphId() + "]");
+        return env;
     }
 
     private DataStream setupChainObjectNode(String nodeId, StreamExecutionEnvironment env) {
@@ -89,30 +115,34 @@ public class FlinkProcessActuator implements IProcessActuator {
 
         List<ProcessorLinker> linkers = this.processorGraph.findLinkersByNodeId(nodeId, false); //find upstreams
         if (linkers.size() == 0 && processorGraph.isProducerNode(nodeId)) {
-            DataStream dataStreamSource = env
+            SingleOutputStreamOperator sourceStream = env
                     .addSource((FlinkProcessProducer) chainNode.getAgent())
                     .returns(chainNode.getAgent().getOutputType())
                     .name(nodeId)
-                    .setParallelism(chainNode.getAgent().getProcessorNode().getParallelism())
-                    .shuffle();
+                    .uid(nodeId)
+                    .setParallelism(chainNode.getAgent().getProcessorNode().getParallelism());
+            this.applyNodeSettings(sourceStream, chainNode.getAgent().getProcessorNode());
             //如果有 cep 处理，在 source 后添加 cep table
             if (this.processorGraph.isEnableCepMode()) {
                 CepModeDescriptor descriptor = this.processorGraph.getCepModeDescriptor();
 
                 //校验 cep 分区键
-                if (descriptor.getKeyed() == null || descriptor.getKeyed().length != 1) {
+                if (descriptor.getKeyed() == null || descriptor.getKeyed().length == 0) {
                     throw new RuntimeException("Cep 模式 - keyed 设置无效.");
                 }
 
-                // source stream 分区处理
-                KeyedStream keyedStream = dataStreamSource.keyBy(new KeySelector<Object, String>() {
-                    @Override
-                    public String getKey(Object obj) throws Exception {
-                        Map<String, Object> objectMap = SimpleObjectHelper.obj2Map(obj);
-                        String[] keyeds = descriptor.getKeyed();
-                        return objectMap.get(keyeds[0]).toString();
-                    }
-                });
+                //事件时间：在 source 上分配时间戳与 watermark
+                TimeBehaviour timeBehaviour = descriptor.getTimeBehaviour() == null
+                        ? TimeBehaviour.ProcessingTime : descriptor.getTimeBehaviour();
+                if (timeBehaviour == TimeBehaviour.EventTime) {
+                    sourceStream = sourceStream
+                            .assignTimestampsAndWatermarks(this.watermarkStrategy(descriptor))
+                            .name(nodeId + "-watermarks")
+                            .uid(nodeId + "-watermarks")
+                            .setParallelism(chainNode.getAgent().getProcessorNode().getParallelism());
+                }
+                // source stream 分区处理，分区键读取器按类型编译一次，不再逐条转换为 Map
+                KeyedStream keyedStream = sourceStream.keyBy(new KeyPathSelector(descriptor.getKeyed()));
 
                 //设置定时 cep 规则
 //                SingleOutputStreamOperator<Object> cepResultStream = CEPUtils.dynamicCepRules(keyedStream,
@@ -136,49 +166,65 @@ public class FlinkProcessActuator implements IProcessActuator {
 //                        false
 //                );
 
+                //迟到事件旁路输出，元素为 EventRecord（事件及其对应的规则）
+                OutputTag<EventRecord<Object>> lateEventTag = descriptor.getLateEventNodeId() == null ? null
+                        : new OutputTag<>(LATE_EVENT_OUTPUT_ID, new EventRecordTypeInfo<Object>(keyedStream.getType()));
+
                 SingleOutputStreamOperator<Object> cepResultStream = CEPUtils.dynamicCepRules(keyedStream,
                         new ScenePeriodicWhenDiscovererFactory(
                                 Collections.emptyList(),
                                 descriptor.getPeriod().toMillis(),
                                 descriptor.getDiscoverComponent(),
                                 componentProvider),
-                        TimeBehaviour.ProcessingTime,
+                        timeBehaviour,
                         descriptor.getCepMatchedResultType(),
-                        "event-cep",
+                        descriptor.getStateVersion() == null ? "event-cep" : "event-cep-" + descriptor.getStateVersion(),
                         "/",
                         descriptor.getParallelism(),
-                        false
+                        descriptor.isKeyBindingEnabled(),
+                        lateEventTag
                 );
 
+                if (lateEventTag != null) {
+                    chainNode.setLateEventStream(cepResultStream.getSideOutput(lateEventTag));
+                }
                 chainNode.setChainObject(cepResultStream);
                 return cepResultStream;
             } else {
-                chainNode.setChainObject(dataStreamSource);
-                return dataStreamSource;
+                //分区方式由下游连接决定
+                chainNode.setChainObject(sourceStream);
+                return sourceStream;
             }
         } else if (linkers.size() > 0 && !processorGraph.isProducerNode(nodeId)) {
             List<DataStream> streams = new ArrayList<>();
             for (ProcessorLinker linker : linkers) {
                 DataStream dataStream = this.setupChainObjectNode(linker.getFromNodeId(), env);
+                if (dataStream != null && this.isLateEventNode(nodeId)) {
+                    //迟到事件节点读取上游 cep 的迟到事件旁路输出
+                    dataStream = this.chainNodeMap.get(linker.getFromNodeId()).getLateEventStream();
+                }
                 if (dataStream != null) {
-                    streams.add(dataStream);
+                    streams.add(this.partition(dataStream, linker));
                 }
             }
             if (streams.size() == 1) {
-                DataStream ds = streams.get(0)
-                        .flatMap((FlinkProcessConsumer) chainNode.getAgent())
+                SingleOutputStreamOperator ds = this.consume(streams.get(0), chainNode.getAgent())
                         .returns(chainNode.getAgent().getOutputType())
                         .setParallelism(chainNode.getAgent().getProcessorNode().getParallelism())
-                        .name(nodeId);
+                        .name(nodeId)
+                        .uid(nodeId);
+                this.applyNodeSettings(ds, chainNode.getAgent().getProcessorNode());
                 chainNode.setChainObject(ds);
                 return ds;
             } else if (streams.size() > 1) {
-                DataStream ds = streams.get(0)
-                        .union(streams.subList(1, streams.size()).toArray(new DataStream[streams.size() - 1]))
-                        .flatMap((FlinkProcessConsumer) chainNode.getAgent())
+                DataStream union = streams.get(0)
+                        .union(streams.subList(1, streams.size()).toArray(new DataStream[streams.size() - 1]));
+                SingleOutputStreamOperator ds = this.consume(union, chainNode.getAgent())
                         .returns(chainNode.getAgent().getOutputType())
                         .setParallelism(chainNode.getAgent().getProcessorNode().getParallelism())
-                        .name(nodeId);
+                        .name(nodeId)
+                        .uid(nodeId);
+                this.applyNodeSettings(ds, chainNode.getAgent().getProcessorNode());
                 chainNode.setChainObject(ds);
                 return ds;
             } else {
@@ -191,6 +237,90 @@ public class FlinkProcessActuator implements IProcessActuator {
 
     }
 
+    /**
+     * 上游数据流交给节点处理：异步节点使用 Async I/O，未完成的输入数受 asyncCapacity 限制（满时反压上游）
+     * 并随 checkpoint 保存；其他节点使用 flatMap
+     */
+    private SingleOutputStreamOperator consume(DataStream stream, IFlinkProcessorAgent agent) {
+        ProcessorNode node = agent.getProcessorNode();
+        if (!node.isAsync()) {
+            return stream.flatMap((FlinkProcessConsumer) agent);
+        }
+        FlinkAsyncProcessConsumer consumer = (FlinkAsyncProcessConsumer) agent;
+        // 超时时间小于等于 0 时 Flink 不注册超时定时器
+        long timeoutMillis = Math.max(0, node.getAsyncTimeoutMillis());
+        return node.isAsyncOrdered()
+                ? AsyncDataStream.orderedWait(stream, consumer, timeoutMillis, TimeUnit.MILLISECONDS, node.getAsyncCapacity())
+                : AsyncDataStream.unorderedWait(stream, consumer, timeoutMillis, TimeUnit.MILLISECONDS, node.getAsyncCapacity());
+    }
+
+    /**
+     * 事件时间 watermark 策略：有界乱序 + 按路径提取时间戳 + 可选空闲超时
+     */
+    private WatermarkStrategy<Object> watermarkStrategy(CepModeDescriptor descriptor) {
+        if (descriptor.getTimestampPaths() == null || descriptor.getTimestampPaths().length == 0) {
+            throw new RuntimeException("Cep 模式 - 事件时间未设置 timestampPaths.");
+        }
+        Duration maxOutOfOrderness = descriptor.getMaxOutOfOrderness() == null
+                ? Duration.ZERO : descriptor.getMaxOutOfOrderness();
+        WatermarkStrategy<Object> strategy = WatermarkStrategy.<Object>forBoundedOutOfOrderness(maxOutOfOrderness)
+                // 只限制超前的设备时间，补传的历史事件保留原时间，超出乱序范围时作为迟到事件输出
+                .withTimestampAssigner(new KeyPathTimestampAssigner(
+                        descriptor.getMaxFutureSkew() == null ? -1 : descriptor.getMaxFutureSkew().toMillis(),
+                        descriptor.getTimestampPaths()));
+        if (descriptor.getIdleness() != null && !descriptor.getIdleness().isZero()) {
+            strategy = strategy.withIdleness(descriptor.getIdleness());
+        }
+        log.info("Cep 模式 - 事件时间, timestampPaths:{}, maxOutOfOrderness:{}, maxFutureSkew:{}, idleness:{}",
+                Arrays.toString(descriptor.getTimestampPaths()), maxOutOfOrderness, descriptor.getMaxFutureSkew(),
+                descriptor.getIdleness());
+        return strategy;
+    }
+
+    /**
+     * 按连接类型对上游输出分区
+     */
+    private DataStream partition(DataStream stream, ProcessorLinker linker) {
+        switch (ProcessorLinkType.of(linker.getLinkType())) {
+            case FORWARD:
+                return stream.forward();
+            case REBALANCE:
+                return stream.rebalance();
+            case RESCALE:
+                return stream.rescale();
+            case SHUFFLE:
+                return stream.shuffle();
+            case KEY:
+                String keyPath = linker.getLinkParameters() == null ? null
+                        : linker.getLinkParameters().get(ProcessorLinkType.KEY_PATH_PARAMETER);
+                if (keyPath == null) {
+                    throw new RuntimeException("连接 " + linker.getFromNodeId() + " -> " + linker.getToNodeId()
+                            + " 未设置分区键: " + ProcessorLinkType.KEY_PATH_PARAMETER);
+                }
+                return stream.keyBy(new KeyPathSelector(keyPath));
+            case AUTO:
+            default:
+                return stream;
+        }
+    }
+
+    /**
+     * 节点级的链接与 slot 共享组设置
+     */
+    private void applyNodeSettings(SingleOutputStreamOperator operator, ProcessorNode node) {
+        if (Boolean.FALSE.equals(node.getChaining())) {
+            operator.disableChaining();
+        }
+        if (node.getSlotSharingGroup() != null) {
+            operator.slotSharingGroup(node.getSlotSharingGroup());
+        }
+    }
+
+    private boolean isLateEventNode(String nodeId) {
+        return this.processorGraph.isEnableCepMode()
+                && nodeId.equals(this.processorGraph.getCepModeDescriptor().getLateEventNodeId());
+    }
+
     @Override
     public void shutdown() throws Exception {
 
@@ -205,6 +335,7 @@ public class FlinkProcessActuator implements IProcessActuator {
 
         private final IFlinkProcessorAgent agent;
         private DataStream chainObject;
+        private DataStream lateEventStream;
 
         public FlinkProcessorChainNode(IFlinkProcessorAgent agent) {
             this.agent = agent;
@@ -221,5 +352,13 @@ public class FlinkProcessActuator implements IProcessActuator {
         public void setChainObject(DataStream chainObject) {
             this.chainObject = chainObject;
         }
+
+        public DataStream getLateEventStream() {
+            return lateEventStream;
+        }
+
+        public void setLateEventStream(DataStream lateEventStream) {
+            this.lateEventStream = lateEventStream;
+        }
     }
 }
@@ -7,6 +7,7 @@ import com.scene.mesh.foundation.spec.processor.execute.IProcessExecutor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.flink.configuration.*;
+import org.apache.flink.core.execution.CheckpointingMode;
 
 import java.time.Duration;
 
@@ -22,6 +23,26 @@ public class FlinkProcessExecutor implements IProcessExecutor {
     private String webHost;
     @Setter
     private int webPort;
+    // checkpoint 间隔（毫秒），不大于 0 时不开启 checkpoint
+    @Setter
+    private long checkpointInterval;
+    // checkpoint 模式：EXACTLY_ONCE / AT_LEAST_ONCE
+    // 消息源在读取下一批时确认上一批，确认早于 checkpoint 完成，确认后到下一次 checkpoint 完成前失败的消息不会重放（至多一次），
+    // 因此默认 AT_LEAST_ONCE；EXACTLY_ONCE 只影响算子状态的对齐方式，不能提供端到端的精确一次
+    @Setter
+    private String checkpointMode = CheckpointingMode.AT_LEAST_ONCE.name();
+    // checkpoint 存储目录（本地文件系统），每个 graph 使用其下的子目录
+    @Setter
+    private String checkpointDir;
+    // 状态后端：rocksdb / hashmap
+    @Setter
+    private String stateBackend = "rocksdb";
+    // 是否开启增量 checkpoint（仅 rocksdb）
+    @Setter
+    private boolean incrementalCheckpoints = true;
+    // 启动时是否从最新的 checkpoint 恢复
+    @Setter
+    private boolean restoreFromLatest = true;
 
     public void __init__() {
         this.configuration = new Configuration();
@@ -37,6 +58,20 @@ public class FlinkProcessExecutor implements IProcessExecutor {
         configuration.set(TaskManagerOptions.MANAGED_MEMORY_SIZE, MemorySize.ofMebiBytes(256)); // 256MB
         configuration.set(TaskManagerOptions.TASK_HEAP_MEMORY, MemorySize.ofMebiBytes(512)); // 512MB
         configuration.set(TaskManagerOptions.TASK_OFF_HEAP_MEMORY, MemorySize.ofMebiBytes(128)); // 128MB
+        // 状态后端与 checkpoint
+        configuration.set(StateBackendOptions.STATE_BACKEND, stateBackend);
+        if (checkpointInterval > 0) {
+            if (checkpointDir == null || checkpointDir.isBlank()) {
+                throw new IllegalArgumentException("checkpoint 已开启, 未设置 checkpoint 存储目录.");
+            }
+            configuration.set(CheckpointingOptions.CHECKPOINTING_INTERVAL, Duration.ofMillis(checkpointInterval));
+            configuration.set(CheckpointingOptions.CHECKPOINTING_CONSISTENCY_MODE, CheckpointingMode.valueOf(checkpointMode));
+            configuration.set(CheckpointingOptions.CHECKPOINT_STORAGE, "filesystem");
+            configuration.set(CheckpointingOptions.INCREMENTAL_CHECKPOINTS, incrementalCheckpoints);
+            // 作业取消或进程退出后保留 checkpoint，供下次启动恢复
+            configuration.set(CheckpointingOptions.EXTERNALIZED_CHECKPOINT_RETENTION,
+                    ExternalizedCheckpointRetention.RETAIN_ON_CANCELLATION);
+        }
     }
 
     public FlinkProcessExecutor(IComponentProvider componentProvider) {
@@ -53,8 +88,34 @@ public class FlinkProcessExecutor implements IProcessExecutor {
             log.info("传递环境变量到 Flink Configuration: execute.env={}", env);
         }
         FlinkProcessActuator actuator =
-                new FlinkProcessActuator(this.componentProvider, this.configuration);
+                new FlinkProcessActuator(this.componentProvider, this.graphConfiguration(processorGraph));
         actuator.initialize(processorGraph, args);
         actuator.launch();
     }
+
+    /**
+     * graph 级配置：checkpoint 目录按 graphId 隔离，开启恢复时从该 graph 最新的 checkpoint 启动
+     */
+    private Configuration graphConfiguration(ProcessorGraph processorGraph) {
+        if (checkpointInterval <= 0) {
+            return this.configuration;
+        }
+        Configuration graphConfiguration = new Configuration(this.configuration);
+        String graphCheckpointDir = CheckpointLocator.toFile(checkpointDir)
+                .toPath().resolve(processorGraph.getGraphId()).toUri().toString();
+        graphConfiguration.set(CheckpointingOptions.CHECKPOINTS_DIRECTORY, graphCheckpointDir);
+
+        if (restoreFromLatest) {
+            String latest = CheckpointLocator.findLatest(graphCheckpointDir);
+            if (latest != null) {
+                graphConfiguration.set(StateRecoveryOptions.SAVEPOINT_PATH, latest);
+                // graph 调整后（如新增节点、cep 更换状态版本）仍允许恢复，不再存在的算子 uid 的状态被丢弃
+                graphConfiguration.set(StateRecoveryOptions.SAVEPOINT_IGNORE_UNCLAIMED_STATE, true);
+                log.info("graph: {} 从 checkpoint 恢复: {}", processorGraph.getGraphId(), latest);
+            } else {
+                log.info("graph: {} 未找到可恢复的 checkpoint, 目录: {}", processorGraph.getGraphId(), graphCheckpointDir);
+            }
+        }
+        return graphConfiguration;
+    }
 }
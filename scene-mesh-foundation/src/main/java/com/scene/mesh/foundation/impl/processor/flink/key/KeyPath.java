@@ -0,0 +1,86 @@
+package com.scene.mesh.foundation.impl.processor.flink.key;
+
+import java.io.Serializable;
+
+/**
+ * 属性路径读取器
+ * 路径以 “.” 分隔，支持嵌套，例如 terminalId、payload.deviceId。
+ * 每一级属性按运行时类型编译一次读取器（POJO 使用 MethodHandle，Map 直接取值），
+ * 同一类型的后续记录直接复用。
+ */
+public class KeyPath implements Serializable {
+
+    private static final long serialVersionUID = -2310618270346617034L;
+
+    private final String path;
+
+    private final String[] properties;
+
+    private transient Segment[] segments;
+
+    public KeyPath(String path) {
+        if (path == null || path.isBlank()) {
+            throw new IllegalArgumentException("key path 不能为空.");
+        }
+        this.path = path;
+        this.properties = path.split("\\.");
+    }
+
+    /**
+     * 读取路径上的值，任一级为空时返回 null
+     */
+    public Object read(Object value) {
+        if (segments == null) {
+            Segment[] compiled = new Segment[properties.length];
+            for (int i = 0; i < properties.length; i++) {
+                compiled[i] = new Segment(properties[i]);
+            }
+            segments = compiled;
+        }
+
+        Object current = value;
+        for (Segment segment : segments) {
+            if (current == null) {
+                break;
+            }
+            current = segment.get(current);
+        }
+        return current;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 路径中的一级属性，缓存最近一次出现的类型及其读取器
+     */
+    private static final class Segment {
+        private final String property;
+        private Resolved resolved;
+
+        private Segment(String property) {
+            this.property = property;
+        }
+
+        private Object get(Object target) {
+            Resolved r = resolved;
+            Class<?> type = target.getClass();
+            if (r == null || r.type != type) {
+                r = new Resolved(type, PropertyGetters.compile(type, property));
+                resolved = r;
+            }
+            return r.getter.get(target);
+        }
+    }
+
+    private static final class Resolved {
+        private final Class<?> type;
+        private final PropertyGetter getter;
+
+        private Resolved(Class<?> type, PropertyGetter getter) {
+            this.type = type;
+            this.getter = getter;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.scene.mesh.foundation.impl.processor.flink.key;
+
+import org.apache.flink.api.java.functions.KeySelector;
+
+/**
+ * 按属性路径提取分区键的 KeySelector
+ * 路径以 “.” 分隔，支持嵌套，例如 terminalId、payload.deviceId。
+ * 多个路径时分区键为各路径的值以 “:” 连接，例如 productId、terminalId 得到 p1:t1，
+ * 除最后一个路径外缺失的值按空串处理（如升级前写入队列、未带 productId 的事件），最后一个路径缺失时抛出异常。
+ * 每一级属性按运行时类型编译一次读取器（POJO 使用 MethodHandle，Map 直接取值），
+ * 同一类型的后续记录直接复用，避免每条记录都把对象整体转换为 Map。
+ */
+public class KeyPathSelector implements KeySelector<Object, String> {
+
+    private static final long serialVersionUID = 6208736317405913524L;
+
+    /**
+     * 多个路径的值之间的分隔符
+     */
+    public static final char KEY_SEPARATOR = ':';
+
+    private final KeyPath[] keyPaths;
+
+    public KeyPathSelector(String... keyPaths) {
+        if (keyPaths == null || keyPaths.length == 0) {
+            throw new IllegalArgumentException("key path 不能为空.");
+        }
+        this.keyPaths = new KeyPath[keyPaths.length];
+        for (int i = 0; i < keyPaths.length; i++) {
+            this.keyPaths[i] = new KeyPath(keyPaths[i]);
+        }
+    }
+
+    @Override
+    public String getKey(Object value) throws Exception {
+        if (keyPaths.length == 1) {
+            return read(keyPaths[0], value);
+        }
+        StringBuilder key = new StringBuilder();
+        int last = keyPaths.length - 1;
+        for (int i = 0; i < last; i++) {
+            Object part = keyPaths[i].read(value);
+            if (part != null) {
+                key.append(part);
+            }
+            key.append(KEY_SEPARATOR);
+        }
+        return key.append(read(keyPaths[last], value)).toString();
+    }
+
+    private static String read(KeyPath keyPath, Object value) {
+        Object key = keyPath.read(value);
+        if (key == null) {
+            throw new NullPointerException("分区键为空, key path: " + keyPath.getPath());
+        }
+        return key instanceof String ? (String) key : key.toString();
+    }
+
+    public String getKeyPath() {
+        if (keyPaths.length == 1) {
+            return keyPaths[0].getPath();
+        }
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < keyPaths.length; i++) {
+            if (i > 0) {
+                path.append(',');
+            }
+            path.append(keyPaths[i].getPath());
+        }
+        return path.toString();
+    }
+}
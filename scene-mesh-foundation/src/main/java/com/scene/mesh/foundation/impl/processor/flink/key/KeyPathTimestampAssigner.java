@@ -0,0 +1,62 @@
+package com.scene.mesh.foundation.impl.processor.flink.key;
+
+import org.apache.flink.api.common.eventtime.SerializableTimestampAssigner;
+
+/**
+ * 按属性路径提取事件时间（毫秒）的时间戳分配器
+ * 按配置顺序读取各路径，取第一个正数值，非数值或不大于 0 的值视为缺失；例如先取设备上报时间，缺失时退回接入时间。
+ * 设置了 maxFutureSkewMillis 时，以最后一个路径（如接入时间）为参照，前面路径取到的时间最多超前参照时间 maxFutureSkewMillis，
+ * 避免设备时钟超前的事件把水位线推到未来，使其他事件迟到；早于参照时间的值不做限制（如离线缓存后补传的事件），
+ * 超出乱序范围时按迟到事件处理。
+ * 所有路径均无值时使用记录已有的时间戳，仍没有时使用当前时间。
+ */
+public class KeyPathTimestampAssigner implements SerializableTimestampAssigner<Object> {
+
+    private static final long serialVersionUID = -5518207375213602189L;
+
+    private final KeyPath[] paths;
+
+    /**
+     * 相对参照时间最多超前的时间（毫秒），小于 0 时不限制
+     */
+    private final long maxFutureSkewMillis;
+
+    public KeyPathTimestampAssigner(String... paths) {
+        this(-1, paths);
+    }
+
+    public KeyPathTimestampAssigner(long maxFutureSkewMillis, String... paths) {
+        if (paths == null || paths.length == 0) {
+            throw new IllegalArgumentException("timestamp path 不能为空.");
+        }
+        this.paths = new KeyPath[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            this.paths[i] = new KeyPath(paths[i]);
+        }
+        this.maxFutureSkewMillis = maxFutureSkewMillis;
+    }
+
+    @Override
+    public long extractTimestamp(Object element, long recordTimestamp) {
+        int last = paths.length - 1;
+        for (int i = 0; i <= last; i++) {
+            long timestamp = read(paths[i], element);
+            if (timestamp <= 0) {
+                continue;
+            }
+            if (maxFutureSkewMillis >= 0 && i < last) {
+                long reference = read(paths[last], element);
+                if (reference > 0) {
+                    return Math.min(reference + maxFutureSkewMillis, timestamp);
+                }
+            }
+            return timestamp;
+        }
+        return recordTimestamp > 0 ? recordTimestamp : System.currentTimeMillis();
+    }
+
+    private static long read(KeyPath path, Object element) {
+        Object value = path.read(element);
+        return value instanceof Number ? ((Number) value).longValue() : -1;
+    }
+}
@@ -0,0 +1,11 @@
+package com.scene.mesh.foundation.impl.processor.flink.key;
+
+/**
+ * 属性读取器，由 {@link PropertyGetters} 针对具体类型编译生成
+ */
+@FunctionalInterface
+public interface PropertyGetter {
+
+    Object get(Object target);
+
+}
@@ -0,0 +1,87 @@
+package com.scene.mesh.foundation.impl.processor.flink.key;
+
+import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+
+/**
+ * 属性读取器编译工具
+ * 按 “Map 直接取值 -> getter 方法 -> 字段 -> Jackson 转换” 的顺序为指定类型的属性生成读取器，
+ * getter 与字段均编译为 MethodHandle，只在类型首次出现时解析一次。
+ */
+@Slf4j
+public class PropertyGetters {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    public static PropertyGetter compile(Class<?> type, String property) {
+        if (Map.class.isAssignableFrom(type)) {
+            return target -> ((Map<?, ?>) target).get(property);
+        }
+
+        MethodHandle handle = findGetter(type, property);
+        if (handle == null) {
+            handle = findField(type, property);
+        }
+        if (handle != null) {
+            final MethodHandle getter = handle.asType(GETTER_TYPE);
+            return target -> {
+                try {
+                    return getter.invokeExact(target);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException("读取属性失败: " + type.getName() + "." + property, t);
+                }
+            };
+        }
+
+        log.warn("类型 {} 未找到属性 {} 的 getter 或字段，使用 Jackson 转换读取.", type.getName(), property);
+        return target -> SimpleObjectHelper.obj2Map(target).get(property);
+    }
+
+    private static MethodHandle findGetter(Class<?> type, String property) {
+        String suffix = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (String name : new String[]{"get" + suffix, "is" + suffix}) {
+            try {
+                Method method = type.getMethod(name);
+                if (method.getReturnType() == void.class || Modifier.isStatic(method.getModifiers())) {
+                    continue;
+                }
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method);
+            } catch (NoSuchMethodException ignored) {
+                // try next
+            } catch (IllegalAccessException | RuntimeException e) {
+                log.debug("getter {}.{} 不可访问: {}", type.getName(), name, e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private static MethodHandle findField(Class<?> type, String property) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(property);
+                if (Modifier.isStatic(field.getModifiers())) {
+                    return null;
+                }
+                field.setAccessible(true);
+                return MethodHandles.lookup().unreflectGetter(field);
+            } catch (NoSuchFieldException ignored) {
+                // try super class
+            } catch (IllegalAccessException | RuntimeException e) {
+                log.debug("字段 {}.{} 不可访问: {}", c.getName(), property, e.getMessage());
+                return null;
+            }
+        }
+        return null;
+    }
+}
@@ -1,6 +1,9 @@
 package com.scene.mesh.foundation.spec.cache;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 缓存接口
@@ -27,6 +30,20 @@ public interface ICache<K, V> {
      * @return 是否设置成功
      */
     boolean set(K key, V value, long expireSeconds);
+
+    /**
+     * 批量设置缓存
+     *
+     * @param entries 缓存键值
+     * @return 是否设置成功
+     */
+    default boolean multiSet(Map<K, V> entries) {
+        boolean result = true;
+        for (Map.Entry<K, V> entry : entries.entrySet()) {
+            result &= set(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
     
     /**
      * 获取缓存
@@ -36,12 +53,53 @@ public interface ICache<K, V> {
      */
     V get(K key);
 
+    /**
+     * 批量获取缓存
+     *
+     * @param keys 缓存键
+     * @return 与键顺序一致的缓存值，不存在的键对应 null
+     */
+    default List<V> multiGet(Collection<K> keys) {
+        List<V> values = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
     /**
      * 根据前缀获取所有 V
      * @param keyPrefix
      * @return
      */
     List<V> getAll(K keyPrefix);
+
+    /**
+     * 获取哈希表中的字段
+     *
+     * @param key   哈希表键
+     * @param field 字段
+     * @return 字段值，不存在时返回 null
+     */
+    String hashGet(K key, String field);
+
+    /**
+     * 获取哈希表的全部字段
+     *
+     * @param key 哈希表键
+     * @return 字段与值，哈希表不存在时返回空 Map
+     */
+    Map<String, String> hashGetAll(K key);
+
+    /**
+     * 原子地写入和删除哈希表中的字段，读取方只会看到更新前或更新后的哈希表
+     *
+     * @param key     哈希表键
+     * @param puts    写入的字段与值
+     * @param removes 删除的字段
+     * @return 是否更新成功
+     */
+    boolean hashUpdate(K key, Map<String, String> puts, Collection<String> removes);
     
     /**
      * 删除缓存
@@ -0,0 +1,28 @@
+package com.scene.mesh.foundation.spec.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 缓存失效通知通道
+ * 用于在多个进程的本地缓存之间广播缓存键的变更
+ */
+public interface ICacheInvalidationBus {
+
+    /**
+     * 发布失效通知
+     *
+     * @param channel 通道名称
+     * @param message 通知内容
+     */
+    void publish(String channel, String message);
+
+    /**
+     * 订阅失效通知
+     * 通知不持久化，订阅断开期间发布的通知会丢失，订阅方应在每次（重新）订阅成功后重新同步状态
+     *
+     * @param channel      通道名称
+     * @param listener     通知处理
+     * @param onSubscribed 每次订阅成功（包括断线重连后重新订阅）时回调
+     */
+    void subscribe(String channel, Consumer<String> listener, Runnable onSubscribed);
+}
@@ -1,6 +1,8 @@
 
 package com.scene.mesh.foundation.spec.message;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 消息生产者
  */
@@ -10,4 +12,17 @@ public interface IMessageProducer {
 
     void send(MessageTopic topic, Object... messages) throws Exception;
 
+    /**
+     * 异步发送单条消息，通过返回的 future 获取发送结果
+     * 默认实现同步调用 send，支持批量发送的生产者应覆盖该方法
+     */
+    default CompletableFuture<Void> sendAsync(MessageTopic topic, Object message) {
+        try {
+            send(topic, message);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
 }
@@ -5,7 +5,9 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 参数描述集合
@@ -14,6 +16,9 @@ public class MetaParameterDescriptorCollection implements Serializable {
 
     private final List<MetaParameterDescriptor> parameterDescriptors;
 
+    // 按名称的索引，参数列表变化后重建
+    private transient volatile NameIndex nameIndex;
+
     public MetaParameterDescriptorCollection() {
         this.parameterDescriptors = new ArrayList<>();
     }
@@ -31,20 +36,37 @@ public class MetaParameterDescriptorCollection implements Serializable {
     }
 
     public MetaParameterDescriptor findParameterDescriptorByName(String name) {
-        for (MetaParameterDescriptor dr : this.parameterDescriptors) {
-            if (dr.getName().equals(name)) {
-                return dr;
-            }
+        NameIndex index = this.nameIndex;
+        if (index == null || index.size != this.parameterDescriptors.size()) {
+            index = new NameIndex(this.parameterDescriptors);
+            this.nameIndex = index;
         }
-        return null;
+        return index.descriptors.get(name);
     }
 
     public void addParameterDescriptor(MetaParameterDescriptor dr) {
         this.parameterDescriptors.add(dr);
+        this.nameIndex = null;
     }
 
     public Collection<MetaParameterDescriptor> getParameterDescriptors() {
         return this.parameterDescriptors;
     }
 
+    private static final class NameIndex {
+
+        private final int size;
+
+        private final Map<String, MetaParameterDescriptor> descriptors;
+
+        private NameIndex(List<MetaParameterDescriptor> ls) {
+            this.size = ls.size();
+            this.descriptors = new HashMap<>(Math.max(16, ls.size() * 2));
+            for (MetaParameterDescriptor dr : ls) {
+                // 同名参数以第一个为准
+                this.descriptors.putIfAbsent(dr.getName(), dr);
+            }
+        }
+    }
+
 }
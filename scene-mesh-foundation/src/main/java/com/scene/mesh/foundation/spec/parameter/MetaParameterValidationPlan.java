@@ -0,0 +1,155 @@
+package com.scene.mesh.foundation.spec.parameter;
+
+import com.scene.mesh.foundation.spec.parameter.data.IParameterDataType;
+
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 参数校验计划
+ * 由参数描述集合编译一次，之后每次校验按参数名哈希查找描述符下标，替代逐个比较名称的线性查找，一次遍历完成校验。
+ * 默认只拒绝元事件中未声明的字段；严格校验（inbound.validation.strict）另外检查：
+ * 1. 必填字段，以位图记录，遍历载荷时统计命中数；计算字段由服务端计算得到，不作为必填字段；
+ * 2. 值的类型与参数数据类型一致（按 JSON 解析后的 Java 类型判断）。
+ * 校验通过时不分配对象，未通过时才生成错误描述。
+ */
+public final class MetaParameterValidationPlan {
+
+    private final MetaParameterDescriptorCollection source;
+
+    private final int sourceSize;
+
+    private final Map<String, Integer> indexes;
+
+    private final String[] names;
+
+    private final IParameterDataType.DataType[] dataTypes;
+
+    private final long[] requiredBits;
+
+    private final int requiredCount;
+
+    private MetaParameterValidationPlan(MetaParameterDescriptorCollection source) {
+        Collection<MetaParameterDescriptor> descriptors = source.getParameterDescriptors();
+        int size = descriptors.size();
+        this.source = source;
+        this.sourceSize = size;
+        this.indexes = new HashMap<>(Math.max(16, size * 2));
+        this.names = new String[size];
+        this.dataTypes = new IParameterDataType.DataType[size];
+        this.requiredBits = new long[(size + 63) >>> 6];
+
+        int required = 0;
+        int i = 0;
+        for (MetaParameterDescriptor descriptor : descriptors) {
+            if (this.indexes.putIfAbsent(descriptor.getName(), i) != null) {
+                // 同名参数以第一个为准，与按名称查找的结果一致
+                continue;
+            }
+            this.names[i] = descriptor.getName();
+            this.dataTypes[i] = descriptor.getDataType() == null ? null : descriptor.getDataType().getDataType();
+            if (descriptor.isRequired() && descriptor.getCalculatorDescriptor() == null) {
+                this.requiredBits[i >>> 6] |= 1L << i;
+                required++;
+            }
+            i++;
+        }
+        this.requiredCount = required;
+    }
+
+    public static MetaParameterValidationPlan compile(MetaParameterDescriptorCollection collection) {
+        return new MetaParameterValidationPlan(collection);
+    }
+
+    /**
+     * 计划是否由该参数集合的当前内容编译
+     */
+    public boolean compiledFrom(MetaParameterDescriptorCollection collection) {
+        return this.source == collection && this.sourceSize == collection.getParameterDescriptors().size();
+    }
+
+    /**
+     * 参数在描述集合中的下标，不存在时返回 -1
+     */
+    public int indexOf(String name) {
+        Integer index = this.indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * 校验载荷，只拒绝未声明的字段
+     * @return 通过时返回 null，否则返回第一个不符合规范的原因
+     */
+    public String check(Map<String, Object> payload) {
+        return check(payload, false);
+    }
+
+    /**
+     * 校验载荷
+     * @param strict 是否同时校验必填字段与值的类型
+     * @return 通过时返回 null，否则返回第一个不符合规范的原因
+     */
+    public String check(Map<String, Object> payload, boolean strict) {
+        int requiredHits = 0;
+        if (payload != null) {
+            for (Map.Entry<String, Object> entry : payload.entrySet()) {
+                Integer index = this.indexes.get(entry.getKey());
+                if (index == null) {
+                    return "无法匹配相应的事件元属性: json Key - " + entry.getKey();
+                }
+                if (!strict) {
+                    continue;
+                }
+                int i = index;
+                Object value = entry.getValue();
+                if (isRequired(i)) {
+                    if (value == null) {
+                        return "必填参数为空: " + this.names[i];
+                    }
+                    requiredHits++;
+                }
+                if (value != null && !matchesType(this.dataTypes[i], value)) {
+                    return "参数值不符合数据类型: " + this.names[i] + " - " + this.dataTypes[i];
+                }
+            }
+        }
+        if (strict && requiredHits < this.requiredCount) {
+            return "缺少必填参数: " + missingRequired(payload);
+        }
+        return null;
+    }
+
+    private boolean isRequired(int index) {
+        return (this.requiredBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * 值是否为数据类型对应的 JSON 解析结果
+     */
+    private static boolean matchesType(IParameterDataType.DataType dataType, Object value) {
+        if (dataType == null) {
+            return true;
+        }
+        return switch (dataType) {
+            case STRING, BINARY -> value instanceof String;
+            case INTEGER, TIME -> value instanceof Integer || value instanceof Long
+                    || value instanceof Short || value instanceof Byte || value instanceof BigInteger;
+            case DOUBLE -> value instanceof Number;
+            case BOOLEAN -> value instanceof Boolean;
+            case JSON -> value instanceof Map;
+            case ARRAY -> value instanceof List || value.getClass().isArray();
+        };
+    }
+
+    private String missingRequired(Map<String, Object> payload) {
+        for (int i = 0; i < this.names.length; i++) {
+            if (this.names[i] != null && isRequired(i) && (payload == null || !payload.containsKey(this.names[i]))) {
+                return this.names[i];
+            }
+        }
+        return "";
+    }
+}
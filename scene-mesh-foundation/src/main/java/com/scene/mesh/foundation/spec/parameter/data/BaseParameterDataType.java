@@ -18,9 +18,10 @@ public abstract class BaseParameterDataType<T> implements IParameterDataType<T>{
 
     @Override
     public boolean validate(T value) {
-        log.debug("校验参数值: 数据类型 - {}, 值 - {}", dataType, value);
         boolean result = doValidate(value);
-        log.debug("校验结果: {}", result);
+        if (log.isDebugEnabled()) {
+            log.debug("校验参数值: 数据类型 - {}, 值 - {}, 结果 - {}", dataType, value, result);
+        }
         return result;
     }
 
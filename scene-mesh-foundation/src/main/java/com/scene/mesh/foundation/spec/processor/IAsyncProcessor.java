@@ -0,0 +1,16 @@
+package com.scene.mesh.foundation.spec.processor;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步处理器
+ * 节点配置为异步时（{@link com.scene.mesh.foundation.spec.processor.config.ProcessorNode#isAsync()}），
+ * Flink 执行器以 Async I/O 调用 processAsync：未完成的调用数受节点的 asyncCapacity 限制，满时对上游反压，
+ * 未完成的输入随 checkpoint 保存，恢复后重新处理。
+ * 输出在返回的 future 完成前写入 output，完成后统一发往下游。
+ */
+public interface IAsyncProcessor extends IProcessor {
+
+    CompletableFuture<Void> processAsync(IProcessInput input, IProcessOutput output) throws Exception;
+
+}
@@ -4,6 +4,7 @@ import com.scene.mesh.foundation.impl.processor.flink.cep.discover.IRuleDiscover
 import lombok.Builder;
 import lombok.Data;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.cep.TimeBehaviour;
 
 import java.io.Serializable;
 import java.time.Duration;
@@ -16,8 +17,10 @@ import java.time.Duration;
 public class CepModeDescriptor implements Serializable {
     //是否开启 cep 模式
     private boolean enabled;
-    //计算分区键
+    //计算分区键，多个路径时分区键为各路径的值以 “:” 连接
     private String[] keyed = new String[1];
+    //cep 算子状态版本，作为算子 uid 的后缀。分区键等改变 keyed 状态含义的调整需更换版本，恢复时旧版本算子的状态被丢弃，不会按新分区键读到旧状态
+    private String stateVersion;
     //规则表源
     private String ruleSource;
     //驱动名称
@@ -36,4 +39,19 @@ public class CepModeDescriptor implements Serializable {
     private int parallelism;
     //cep discoverer
     private String discoverComponent;
+    //是否按规则绑定的 key 分发事件，关闭时每个事件分发给所有规则。开启时规则需发布与分区键匹配的绑定 key（支持通配符）
+    private boolean keyBindingEnabled;
+    //时间语义，默认处理时间
+    @Builder.Default
+    private TimeBehaviour timeBehaviour = TimeBehaviour.ProcessingTime;
+    //事件时间读取路径，按顺序取第一个数值（毫秒）
+    private String[] timestampPaths;
+    //事件时间允许的最大乱序时间
+    private Duration maxOutOfOrderness;
+    //前面路径的时间相对最后一个路径（如接入时间）最多超前的时间，超出时取上限，为空时不限制；落后的时间不限制，超出乱序范围时按迟到处理
+    private Duration maxFutureSkew;
+    //source 空闲超时，超时后不再阻塞 watermark 推进
+    private Duration idleness;
+    //迟到事件输出节点，为空时迟到事件只计数后丢弃
+    private String lateEventNodeId;
 }
@@ -21,6 +21,11 @@ public class ProcessorGraph implements Serializable {
     // cep mode 描述
     private CepModeDescriptor cepModeDescriptor;
 
+    @Getter
+    @Setter
+    // 是否允许算子链接，关闭后所有节点各自独立为任务；节点可单独设置
+    private boolean operatorChaining = true;
+
     public String getGraphId() {
         return graphId;
     }
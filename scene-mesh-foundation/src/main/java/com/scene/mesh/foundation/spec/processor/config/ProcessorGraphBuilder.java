@@ -31,6 +31,11 @@ public class ProcessorGraphBuilder {
         return this;
     }
 
+    public ProcessorGraphBuilder withOperatorChaining(boolean operatorChaining) {
+        this.graph.setOperatorChaining(operatorChaining);
+        return this;
+    }
+
     public ProcessorGraph build() {
 
         List<ProcessorNode> nodes = new ArrayList<>();
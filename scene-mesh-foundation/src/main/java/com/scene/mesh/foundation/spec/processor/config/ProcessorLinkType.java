@@ -0,0 +1,55 @@
+package com.scene.mesh.foundation.spec.processor.config;
+
+/**
+ * 节点连接的分区方式，对应 {@link ProcessorLinker#getLinkType()}
+ */
+public enum ProcessorLinkType {
+    /**
+     * 不指定分区方式：上下游并行度相同时一对一传递并可链接为同一任务，否则轮询分发
+     */
+    AUTO("auto"),
+    /**
+     * 一对一传递，要求上下游并行度相同
+     */
+    FORWARD("forward"),
+    /**
+     * 轮询分发到所有下游实例
+     */
+    REBALANCE("rebalance"),
+    /**
+     * 轮询分发到本地的部分下游实例
+     */
+    RESCALE("rescale"),
+    /**
+     * 随机分发
+     */
+    SHUFFLE("shuffle"),
+    /**
+     * 按属性路径分区，路径由连接参数 {@link #KEY_PATH_PARAMETER} 指定
+     */
+    KEY("key");
+
+    public static final String KEY_PATH_PARAMETER = "keyPath";
+
+    private final String name;
+
+    ProcessorLinkType(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public static ProcessorLinkType of(String linkType) {
+        if (linkType == null || linkType.isBlank()) {
+            return AUTO;
+        }
+        for (ProcessorLinkType type : values()) {
+            if (type.name.equalsIgnoreCase(linkType)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("未知的连接类型: " + linkType);
+    }
+}
@@ -12,6 +12,16 @@ public class ProcessorNode implements Serializable {
     private String componentId;
     private Class outputType;
     private int parallelism;
+    // 是否允许与上下游链接为同一任务，null 时由 graph 配置决定
+    private Boolean chaining;
+    // slot 共享组，null 时继承上游
+    private String slotSharingGroup;
+    // 异步执行时每个并行实例最多未完成的输入数，0 表示同步执行
+    private int asyncCapacity;
+    // 异步执行时单条输入的超时时间（毫秒）
+    private long asyncTimeoutMillis;
+    // 异步执行时是否按输入顺序输出
+    private boolean asyncOrdered;
 
     public String getId() {
         return id;
@@ -37,6 +47,50 @@ public class ProcessorNode implements Serializable {
         this.parallelism = parallelism;
     }
 
+    public Boolean getChaining() {
+        return chaining;
+    }
+
+    public void setChaining(Boolean chaining) {
+        this.chaining = chaining;
+    }
+
+    public String getSlotSharingGroup() {
+        return slotSharingGroup;
+    }
+
+    public void setSlotSharingGroup(String slotSharingGroup) {
+        this.slotSharingGroup = slotSharingGroup;
+    }
+
+    public int getAsyncCapacity() {
+        return asyncCapacity;
+    }
+
+    public void setAsyncCapacity(int asyncCapacity) {
+        this.asyncCapacity = asyncCapacity;
+    }
+
+    public long getAsyncTimeoutMillis() {
+        return asyncTimeoutMillis;
+    }
+
+    public void setAsyncTimeoutMillis(long asyncTimeoutMillis) {
+        this.asyncTimeoutMillis = asyncTimeoutMillis;
+    }
+
+    public boolean isAsyncOrdered() {
+        return asyncOrdered;
+    }
+
+    public void setAsyncOrdered(boolean asyncOrdered) {
+        this.asyncOrdered = asyncOrdered;
+    }
+
+    public boolean isAsync() {
+        return asyncCapacity > 0;
+    }
+
     public Class getOutputType() {
         return outputType;
     }
@@ -66,6 +120,11 @@ public class ProcessorNode implements Serializable {
         String sb = "ProcessorNode{" + "id='" + id + '\'' +
                 ", componentId='" + componentId + '\'' +
                 ", parallelism=" + parallelism +
+                ", chaining=" + chaining +
+                ", slotSharingGroup='" + slotSharingGroup + '\'' +
+                ", asyncCapacity=" + asyncCapacity +
+                ", asyncTimeoutMillis=" + asyncTimeoutMillis +
+                ", asyncOrdered=" + asyncOrdered +
                 '}';
         return sb;
     }
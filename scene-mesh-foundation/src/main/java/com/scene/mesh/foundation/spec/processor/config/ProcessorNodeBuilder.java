@@ -2,6 +2,7 @@
 package com.scene.mesh.foundation.spec.processor.config;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -37,6 +38,30 @@ public class ProcessorNodeBuilder {
         return this;
     }
 
+    public ProcessorNodeBuilder withChaining(boolean chaining) {
+        this.node.setChaining(chaining);
+        return this;
+    }
+
+    public ProcessorNodeBuilder withSlotSharingGroup(String slotSharingGroup) {
+        this.node.setSlotSharingGroup(slotSharingGroup);
+        return this;
+    }
+
+    /**
+     * 以 Flink Async I/O 执行节点，组件需实现 IAsyncProcessor
+     *
+     * @param capacity      每个并行实例最多未完成的输入数，满时对上游反压
+     * @param timeoutMillis 单条输入的超时时间（毫秒）
+     * @param ordered       是否按输入顺序输出
+     */
+    public ProcessorNodeBuilder withAsync(int capacity, long timeoutMillis, boolean ordered) {
+        this.node.setAsyncCapacity(capacity);
+        this.node.setAsyncTimeoutMillis(timeoutMillis);
+        this.node.setAsyncOrdered(ordered);
+        return this;
+    }
+
     public ProcessorNodeBuilder withOutputType(Class outputType){
         this.node.setOutputType(outputType);
         return this;
@@ -51,6 +76,18 @@ public class ProcessorNodeBuilder {
         return this;
     }
 
+    public ProcessorNodeBuilder from(String fromNodeId, ProcessorLinkType linkType) {
+        return this.from(fromNodeId, linkType.getName());
+    }
+
+    /**
+     * 按属性路径分区连接上游
+     */
+    public ProcessorNodeBuilder fromKeyed(String fromNodeId, String keyPath) {
+        return this.from(fromNodeId, ProcessorLinkType.KEY.getName(),
+                Collections.singletonMap(ProcessorLinkType.KEY_PATH_PARAMETER, keyPath));
+    }
+
     public ProcessorNodeBuilder from(String fromNodeId, String linkType) {
         ProcessorLinker linker = new ProcessorLinker();
         linker.setFromNodeId(fromNodeId);
@@ -18,7 +18,6 @@
 
 package org.apache.flink.cep;
 
-import org.apache.flink.api.common.typeinfo.TypeHint;
 import org.apache.flink.api.common.typeinfo.TypeInformation;
 import org.apache.flink.api.java.functions.KeySelector;
 import org.apache.flink.cep.discover.RuleDiscovererFactory;
@@ -26,10 +25,14 @@ import org.apache.flink.cep.event.EventRecord;
 import org.apache.flink.cep.operator.CepRuleProcessorOperatorFactory;
 import org.apache.flink.cep.operator.RuleDistributorOperatorFactory;
 import org.apache.flink.cep.operator.UdfRuleProcessorOperatorFactory;
+import org.apache.flink.cep.types.EventRecordTypeInfo;
 import org.apache.flink.cep.types.RuleRowKey;
 import org.apache.flink.streaming.api.datastream.DataStream;
 import org.apache.flink.streaming.api.datastream.KeyedStream;
 import org.apache.flink.streaming.api.datastream.SingleOutputStreamOperator;
+import org.apache.flink.util.OutputTag;
+
+import javax.annotation.Nullable;
 
 /**
  * Utility class for complex event processing.
@@ -56,9 +59,8 @@ public class CEPUtils {
         final UdfRuleProcessorOperatorFactory<T, R> processorDiscovererFactory =
                 new UdfRuleProcessorOperatorFactory<>(ruleQueueId, userLibDir);
 
-        TypeHint<EventRecord<T>> typeHint = new TypeHint<EventRecord<T>>() {
-        };
-        TypeInformation<EventRecord<T>> eventTypeInformation = TypeInformation.of(typeHint);
+        // 分发记录使用专用序列化器，同一事件分发给多条规则时只序列化一次
+        TypeInformation<EventRecord<T>> eventTypeInformation = new EventRecordTypeInfo<>(input.getType());
         if (input instanceof KeyedStream<T, ?> keyedStream) {
             KeySelector<T, ?> keySelector = keyedStream.getKeySelector();
             return keyedStream.transform("RuleDistributorOperator", eventTypeInformation, distributorOperatorFactory)
@@ -82,6 +84,24 @@ public class CEPUtils {
             String userLibDir,
             int parallelism,
             boolean keyBindingEnabled
+    ) {
+        return dynamicCepRules(input, discovererFactory, timeBehaviour, outTypeInfo, ruleQueueId, userLibDir,
+                parallelism, keyBindingEnabled, null);
+    }
+
+    /**
+     * @param lateDataOutputTag 事件时间下迟到事件（时间戳不大于当前 watermark）的旁路输出，为空时迟到事件只计数后丢弃
+     */
+    public static <T, R> SingleOutputStreamOperator<R> dynamicCepRules(
+            DataStream<T> input,
+            RuleDiscovererFactory discovererFactory,
+            TimeBehaviour timeBehaviour,
+            TypeInformation<R> outTypeInfo,
+            String ruleQueueId,
+            String userLibDir,
+            int parallelism,
+            boolean keyBindingEnabled,
+            @Nullable OutputTag<EventRecord<T>> lateDataOutputTag
     ) {
         final RuleDistributorOperatorFactory<T> distributorOperatorFactory =
                 new RuleDistributorOperatorFactory<>(
@@ -96,25 +116,28 @@ public class CEPUtils {
                         userLibDir,
                         timeBehaviour,
                         null,
-                        null
+                        lateDataOutputTag
                 );
-        TypeHint<EventRecord<T>> typeHint = new TypeHint<EventRecord<T>>() {
-        };
-        TypeInformation<EventRecord<T>> eventTypeInformation = TypeInformation.of(typeHint);
+        // 分发记录使用专用序列化器，同一事件分发给多条规则时只序列化一次
+        TypeInformation<EventRecord<T>> eventTypeInformation = new EventRecordTypeInfo<>(input.getType());
         if (input instanceof KeyedStream<T, ?> keyedStream) {
             KeySelector<T, ?> keySelector = keyedStream.getKeySelector();
             return keyedStream.transform("RuleDistributorOperator", eventTypeInformation, distributorOperatorFactory)
+                    .uid(ruleQueueId + "-rule-distributor")
                     .setParallelism(parallelism)
                     .keyBy(ruleKeySelector(keySelector))
                     .transform("CepRuleProcessorOperator", outTypeInfo, processorDiscovererFactory)
+                    .uid(ruleQueueId + "-cep-rule-processor")
                     .setParallelism(parallelism);
         } else {
             return input.keyBy(RuleRowKey.nullRowKeySelector())
                     .transform("RuleDistributorOperator", eventTypeInformation, distributorOperatorFactory)
+                    .uid(ruleQueueId + "-rule-distributor")
                     .forceNonParallel()
                     .setParallelism(parallelism)
                     .keyBy((KeySelector<EventRecord<T>, RuleRowKey<?>>) value -> RuleRowKey.of(value.getRuleId()))
                     .transform("CepRuleProcessorOperator", outTypeInfo, processorDiscovererFactory)
+                    .uid(ruleQueueId + "-cep-rule-processor")
                     .setParallelism(parallelism);
         }
     }
@@ -34,6 +34,9 @@ import org.apache.flink.cep.pattern.conditions.SimpleCondition;
 import org.apache.flink.types.Row;
 
 import javax.annotation.Nullable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.List;
@@ -51,6 +54,8 @@ public class AviatorCondition<T> extends SimpleCondition<T> {
 
     private static final long serialVersionUID = 1L;
 
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+
     /**
      * The filter expression of the condition.
      */
@@ -58,6 +63,7 @@ public class AviatorCondition<T> extends SimpleCondition<T> {
 
     private final ObjectConfiguration parameters;
     private transient Expression compiledExpression;
+    private transient BindingPlan bindingPlan;
 
     public AviatorCondition(String expression) {
         this(expression, null);
@@ -80,29 +86,15 @@ public class AviatorCondition<T> extends SimpleCondition<T> {
             AviatorEvaluator.addFunction(new JsonPathFunction());
             // Compile the expression when it is null to allow static CEPUtils to use AviatorCondition.
             compiledExpression = AviatorEvaluator.compile(expression, false);
+            bindingPlan = new BindingPlan(compiledExpression.getVariableNames(), parameters);
         }
         try {
-            List<String> variableNames = compiledExpression.getVariableNames();
-            if (variableNames.isEmpty()) {
+            if (bindingPlan.isEmpty()) {
                 return true;
             }
 
-            Map<String, Object> variables = new HashMap<>();
-            for (String variableName : variableNames) {
-
-                // 尝试从参数中取出变量
-                Object variableValue = parameters.getObject(variableName);
-
-                if (Objects.isNull(variableValue)) {
-                    variableValue = getVariableValue(eventBean, variableName);
-                }
-
-                if (!Objects.isNull(variableValue)) {
-                    variables.put(variableName, variableValue);
-                }
-            }
-
-            if (!variableNames.isEmpty() && variables.isEmpty()) {
+            Map<String, Object> variables = bindingPlan.bind(eventBean);
+            if (variables == null) {
                 return false;
             }
 
@@ -125,14 +117,98 @@ public class AviatorCondition<T> extends SimpleCondition<T> {
         }
     }
 
-    private Object getVariableValue(T propertyBean, String variableName)
-            throws NoSuchFieldException, IllegalAccessException {
-        if (propertyBean instanceof Row) {
-            return ((Row) propertyBean).getField(variableName);
-        } else {
-            Field field = propertyBean.getClass().getDeclaredField(variableName);
-            field.setAccessible(true);
-            return field.get(propertyBean);
+    /**
+     * 变量绑定计划，表达式编译时构建一次。
+     * 只绑定表达式实际引用的变量：参数中存在的变量视为常量直接绑定，其余变量按事件类型
+     * 解析一次字段读取器（MethodHandle），之后同类型事件直接复用；变量 Map 在每次求值时清空复用。
+     */
+    private static final class BindingPlan {
+
+        private final String[] names;
+
+        /** 参数中的常量值，为 null 表示需要从事件中读取 */
+        private final Object[] constants;
+
+        private final Map<String, Object> env;
+
+        private Class<?> boundType;
+
+        private MethodHandle[] accessors;
+
+        private BindingPlan(List<String> variableNames, ObjectConfiguration parameters) {
+            this.names = variableNames.toArray(new String[0]);
+            this.constants = new Object[names.length];
+            for (int i = 0; i < names.length; i++) {
+                // 尝试从参数中取出变量
+                constants[i] = parameters.getObject(names[i]);
+            }
+            this.env = new HashMap<>(Math.max(4, names.length * 2));
+        }
+
+        private boolean isEmpty() {
+            return names.length == 0;
+        }
+
+        /**
+         * 绑定变量，事件缺少引用的字段或所有变量都没有取到值时返回 null
+         */
+        private Map<String, Object> bind(Object eventBean) throws Exception {
+            env.clear();
+            MethodHandle[] handles = null;
+            boolean row = eventBean instanceof Row;
+            for (int i = 0; i < names.length; i++) {
+                Object variableValue = constants[i];
+                if (variableValue == null) {
+                    if (row) {
+                        variableValue = ((Row) eventBean).getField(names[i]);
+                    } else {
+                        if (handles == null) {
+                            handles = accessorsOf(eventBean.getClass());
+                        }
+                        if (handles[i] == null) {
+                            // 事件中不存在该字段，等价于条件不成立
+                            return null;
+                        }
+                        variableValue = read(handles[i], eventBean);
+                    }
+                }
+                if (variableValue != null) {
+                    env.put(names[i], variableValue);
+                }
+            }
+            return env.isEmpty() ? null : env;
+        }
+
+        private static Object read(MethodHandle accessor, Object eventBean) throws Exception {
+            try {
+                return (Object) accessor.invokeExact(eventBean);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        private MethodHandle[] accessorsOf(Class<?> type) throws IllegalAccessException {
+            if (type != boundType) {
+                MethodHandle[] resolved = new MethodHandle[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    if (constants[i] == null) {
+                        try {
+                            Field field = type.getDeclaredField(names[i]);
+                            field.setAccessible(true);
+                            resolved[i] = MethodHandles.lookup()
+                                    .unreflectGetter(field)
+                                    .asType(ACCESSOR_TYPE);
+                        } catch (NoSuchFieldException e) {
+                            resolved[i] = null;
+                        }
+                    }
+                }
+                accessors = resolved;
+                boundType = type;
+            }
+            return accessors;
         }
     }
 
@@ -10,4 +10,8 @@ public class EventRecord<T> {
     private T event;
     private String ruleId;
     private Integer ruleVersion;
+    /**
+     * 事件与上一条分发记录为同一事件且未变化，由规则分发算子在同一事件扇出时设置，不参与序列化
+     */
+    private transient boolean sameEventAsPrevious;
 }
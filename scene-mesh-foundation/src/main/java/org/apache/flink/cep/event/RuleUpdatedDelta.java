@@ -0,0 +1,88 @@
+package org.apache.flink.cep.event;
+
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * 规则更新增量
+ * 将协调器下发的全量规则与算子当前持有的规则按 id、version 比较，得到新增、修改、删除三类变化，
+ * 算子只处理变化的规则，内容未变的规则保持原有处理器及状态不动。
+ *
+ *
+ */
+@Getter
+public class RuleUpdatedDelta {
+
+    private static final RuleUpdatedDelta EMPTY =
+            new RuleUpdatedDelta(Collections.emptyList(), Collections.emptyList(), Collections.emptySet());
+
+    /**
+     * 新增的规则
+     */
+    private final List<RuleUpdated> added;
+
+    /**
+     * 版本发生变化的规则
+     */
+    private final List<RuleUpdated> modified;
+
+    /**
+     * 已删除的规则id
+     */
+    private final Set<String> removed;
+
+    private RuleUpdatedDelta(List<RuleUpdated> added, List<RuleUpdated> modified, Set<String> removed) {
+        this.added = added;
+        this.modified = modified;
+        this.removed = removed;
+    }
+
+    /**
+     * 计算规则增量
+     *
+     * @param currentVersions 当前持有的规则 id -> version
+     * @param updates         最新的全量规则
+     * @return 规则增量
+     */
+    public static RuleUpdatedDelta of(Map<String, Integer> currentVersions, List<RuleUpdated> updates) {
+        if (updates == null) {
+            updates = Collections.emptyList();
+        }
+        List<RuleUpdated> added = new ArrayList<>();
+        List<RuleUpdated> modified = new ArrayList<>();
+        Set<String> latestIds = new HashSet<>(updates.size());
+
+        for (RuleUpdated updated : updates) {
+            latestIds.add(updated.getId());
+            if (!currentVersions.containsKey(updated.getId())) {
+                added.add(updated);
+            } else if (!Objects.equals(currentVersions.get(updated.getId()), updated.getVersion())) {
+                modified.add(updated);
+            }
+        }
+
+        Set<String> removed = new HashSet<>();
+        for (String id : currentVersions.keySet()) {
+            if (!latestIds.contains(id)) {
+                removed.add(id);
+            }
+        }
+
+        if (added.isEmpty() && modified.isEmpty() && removed.isEmpty()) {
+            return EMPTY;
+        }
+        return new RuleUpdatedDelta(added, modified, removed);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && modified.isEmpty() && removed.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "RuleUpdatedDelta{added=" + added.size()
+                + ", modified=" + modified.size()
+                + ", removed=" + removed.size() + "}";
+    }
+}
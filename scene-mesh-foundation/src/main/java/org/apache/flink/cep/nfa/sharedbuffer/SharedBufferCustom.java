@@ -351,6 +351,8 @@ public class SharedBufferCustom<V> extends SharedBuffer<V> {
     }
 
     public void releaseCacheStatisticsTimer() {
+        // 父类构造时也启动了自己的统计定时器，一并取消，否则每次重建处理器都会遗留一个定时器线程
+        super.releaseCacheStatisticsTimer();
         if (cacheStatisticsTimer != null) {
             cacheStatisticsTimer.cancel();
         }
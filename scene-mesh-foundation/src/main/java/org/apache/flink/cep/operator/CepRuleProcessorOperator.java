@@ -2,6 +2,7 @@ package org.apache.flink.cep.operator;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.api.common.functions.RuntimeContext;
 import org.apache.flink.api.common.functions.util.FunctionUtils;
 import org.apache.flink.api.common.state.MapState;
@@ -18,6 +19,7 @@ import org.apache.flink.cep.configuration.SharedBufferCacheConfig;
 import org.apache.flink.cep.dynamic.impl.json.util.CepJsonUtils;
 import org.apache.flink.cep.event.EventRecord;
 import org.apache.flink.cep.event.RuleUpdated;
+import org.apache.flink.cep.event.RuleUpdatedDelta;
 import org.apache.flink.cep.event.RuleUpdatedEvent;
 import org.apache.flink.cep.functions.PatternProcessFunction;
 import org.apache.flink.cep.functions.TimedOutPartialMatchHandler;
@@ -75,6 +77,10 @@ public class CepRuleProcessorOperator<IN, OUT> extends AbstractStreamOperator<OU
 
     private static final String LATE_ELEMENTS_DROPPED_METRIC_NAME = "numLateRecordsDropped";
 
+    private static final String PROCESSOR_OPENS_METRIC_NAME = "numRuleProcessorOpens";
+
+    private static final String PROCESSOR_OPEN_FAILURES_METRIC_NAME = "numRuleProcessorOpenFailures";
+
     private final boolean isProcessingTime;
 
     private final TypeSerializer<IN> inputSerializer;
@@ -128,11 +134,26 @@ public class CepRuleProcessorOperator<IN, OUT> extends AbstractStreamOperator<OU
 
     private transient Counter numLateRecordsDropped;
 
+    /**
+     * 规则处理器打开次数，每个子任务上每个规则版本只打开一次
+     */
+    private transient Counter numProcessorOpens;
+
+    /**
+     * 规则处理器打开失败次数
+     */
+    private transient Counter numProcessorOpenFailures;
+
     private final String userLibDir;
     private StateInitializationContext stateInitializationContext;
 
     private transient Map<String, CepRuleProcessor> processors;
 
+    /**
+     * 打开失败的规则 id -> version，同一版本不再重试，规则版本变化或删除后解除
+     */
+    private transient Map<String, Integer> quarantinedRules;
+
 
     public CepRuleProcessorOperator(
             ProcessingTimeService processingTimeService,
@@ -194,8 +215,11 @@ public class CepRuleProcessorOperator<IN, OUT> extends AbstractStreamOperator<OU
 
         // metrics
         this.numLateRecordsDropped = metrics.counter(LATE_ELEMENTS_DROPPED_METRIC_NAME);
+        this.numProcessorOpens = metrics.counter(PROCESSOR_OPENS_METRIC_NAME);
+        this.numProcessorOpenFailures = metrics.counter(PROCESSOR_OPEN_FAILURES_METRIC_NAME);
 
         this.processors = new HashMap<>();
+        this.quarantinedRules = new HashMap<>();
     }
 
     @Override
@@ -213,42 +237,83 @@ public class CepRuleProcessorOperator<IN, OUT> extends AbstractStreamOperator<OU
     @Override
     public void handleOperatorEvent(OperatorEvent evt) {
         RuleUpdatedEvent updatedEvent = (RuleUpdatedEvent) evt;
-        List<RuleUpdated> updates = updatedEvent.getUpdates();
 
-        List<String> newIds = new ArrayList<>(updates.size());
-        for (RuleUpdated ruleUpdated : updates) {
-            newIds.add(ruleUpdated.getId());
-            if (processors.containsKey(ruleUpdated.getId())) {
-                processors.get(ruleUpdated.getId()).update(ruleUpdated);
-            } else {
-                processors.put(ruleUpdated.getId(), new CepRuleProcessor(ruleUpdated));
-            }
+        // 隔离中的规则按失败的版本参与比较，版本不变时不重复打开
+        Map<String, Integer> currentVersions = new HashMap<>(quarantinedRules);
+        processors.forEach((id, processor) -> currentVersions.put(id, processor.rule.getVersion()));
+        RuleUpdatedDelta delta = RuleUpdatedDelta.of(currentVersions, updatedEvent.getUpdates());
+        if (delta.isEmpty()) {
+            return;
+        }
+        log.info("Apply rule delta: {}", delta);
+
+        for (RuleUpdated ruleUpdated : delta.getAdded()) {
+            openProcessor(ruleUpdated);
+        }
+        for (RuleUpdated ruleUpdated : delta.getModified()) {
+            // 规则内容变化，清理旧的处理器及其状态后重建
+            closeProcessor(processors.remove(ruleUpdated.getId()));
+            openProcessor(ruleUpdated);
         }
         // 清理无用的规则状态
-        Iterator<Map.Entry<String, CepRuleProcessor>> iterator = processors.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<String, CepRuleProcessor> entry = iterator.next();
-            if (!newIds.contains(entry.getKey())) {
-                try {
-                    entry.getValue().close();
-                } catch (Exception e) {
-                    throw new FlinkRuntimeException("Failed to close old processor.");
-                }
-                iterator.remove();
+        for (String removedId : delta.getRemoved()) {
+            quarantinedRules.remove(removedId);
+            closeProcessor(processors.remove(removedId));
+        }
+    }
+
+    /**
+     * 创建并打开规则处理器，Pattern 与 NFA 在此编译，事件处理时直接使用。
+     * 打开失败时隔离该规则版本，其事件被忽略，其他规则照常运行，不因单条规则使作业失败重启
+     */
+    private void openProcessor(RuleUpdated ruleUpdated) {
+        quarantinedRules.remove(ruleUpdated.getId());
+        CepRuleProcessor processor = null;
+        try {
+            processor = new CepRuleProcessor(ruleUpdated);
+            processor.open();
+        } catch (Exception e) {
+            numProcessorOpenFailures.inc();
+            quarantinedRules.put(ruleUpdated.getId(), ruleUpdated.getVersion());
+            log.error("Failed to open cep rule processor, rule is quarantined until its version changes. ruleId: {}, version: {}",
+                    ruleUpdated.getId(), ruleUpdated.getVersion(), e);
+            if (processor != null) {
+                processor.abort();
             }
+            return;
+        }
+        numProcessorOpens.inc();
+        processors.put(ruleUpdated.getId(), processor);
+    }
+
+    private void closeProcessor(CepRuleProcessor processor) {
+        if (processor == null) {
+            return;
+        }
+        try {
+            processor.close();
+        } catch (Exception e) {
+            log.error("Failed to close cep rule processor. ruleId: {}, version: {}",
+                    processor.rule.getId(), processor.rule.getVersion(), e);
         }
     }
 
+    @VisibleForTesting
+    Counter getNumProcessorOpens() {
+        return numProcessorOpens;
+    }
+
+    @VisibleForTesting
+    Counter getNumProcessorOpenFailures() {
+        return numProcessorOpenFailures;
+    }
+
     @Override
     public void processElement(StreamRecord<EventRecord<IN>> element) throws Exception {
-        final String ruleId = element.getValue().getRuleId();
-        CepRuleProcessor processor;
-        if (processors.containsKey(ruleId)) {
-            processor = processors.get(ruleId);
-        } else {
+        CepRuleProcessor processor = processors.get(element.getValue().getRuleId());
+        if (processor == null) {
             return;
         }
-        processor.open();
 
         if (isProcessingTime) {
             if (comparator == null) {
@@ -319,11 +384,10 @@ public class CepRuleProcessorOperator<IN, OUT> extends AbstractStreamOperator<OU
         // 5) update the last seen watermark.
 
         RuleRowKey<?> rowKey = timer.getKey();
-        final String ruleId = rowKey.getRuleKey();
-        if (!processors.containsKey(ruleId)) {
+        CepRuleProcessor processor = processors.get(rowKey.getRuleKey());
+        if (processor == null) {
             return;
         }
-        CepRuleProcessor processor = processors.get(ruleId);
 
 
         // STEP 1
@@ -364,11 +428,10 @@ public class CepRuleProcessorOperator<IN, OUT> extends AbstractStreamOperator<OU
         //		have state to be used later.
 
         RuleRowKey<?> rowKey = timer.getKey();
-        final String ruleId = rowKey.getRuleKey();
-        if (!processors.containsKey(ruleId)) {
+        CepRuleProcessor processor = processors.get(rowKey.getRuleKey());
+        if (processor == null) {
             return;
         }
-        CepRuleProcessor processor = processors.get(ruleId);
 
 
         // STEP 1
@@ -604,54 +667,73 @@ public class CepRuleProcessorOperator<IN, OUT> extends AbstractStreamOperator<OU
             }
         }
 
+        /**
+         * 打开处理器，只在规则新增或变更时调用一次
+         */
         @SuppressWarnings("unchecked")
-
         public void open() {
-            if (partialMatches == null) {
-                try {
-                    // 1. 初始化SharedBuffer
-                    partialMatches = new SharedBufferCustom<>(
-                            stateInitializationContext.getKeyedStateStore(),
-                            inputSerializer,
-                            SharedBufferCacheConfig.of(getOperatorConfig().getConfiguration()));
-
-                    if (stateInitializationContext.isRestored()) {
-                        partialMatches.migrateOldState(getKeyedStateBackend(), computationStates);
-                    }
-                    // 2. 创建ClassLoader
-                    ClassLoader classLoader = UserClassLoaderUtils.getClassLoader(userLibDir, rule.getLibs(), rule.getVersion(), getUserCodeClassloader());
-
-                    // 3. 创建Pattern
-                    pattern = (Pattern<IN, ?>) CepJsonUtils.convertJSONStringToPattern(rule.getPattern(),
-                            classLoader, configuration);
-                    afterMatchSkipStrategy = Optional.ofNullable(pattern.getAfterMatchSkipStrategy()).orElse(AfterMatchSkipStrategy.noSkip());
-
-                    // 4. 创建处理函数
-                    function = (PatternProcessFunction<IN, OUT>) classLoader
-                            .loadClass(rule.getFunction())
-                            .getConstructor().newInstance();
-                    // 将ruleId添加到configuration中，以便PatternProcessFunction可以获取
-                    configuration.setString("ruleId", rule.getId());
-
-                    function.open(configuration);
-
-                    // 5. 创建NFA
-                    final NFACompiler.NFAFactory<IN> nfaFactory =
-                            NFACompiler.compileFactory(pattern,
-                                    function instanceof TimedOutPartialMatchHandler);
-                    nfa = nfaFactory.createNFA();
-                    nfa.open(cepRuntimeContext, new Configuration());
-                } catch (Exception e) {
-                    throw new FlinkRuntimeException(e);
+            Preconditions.checkState(nfa == null, "Processor of rule %s is already open.", rule.getId());
+            try {
+                // 1. 初始化SharedBuffer
+                partialMatches = new SharedBufferCustom<>(
+                        stateInitializationContext.getKeyedStateStore(),
+                        inputSerializer,
+                        SharedBufferCacheConfig.of(getOperatorConfig().getConfiguration()));
+
+                if (stateInitializationContext.isRestored()) {
+                    partialMatches.migrateOldState(getKeyedStateBackend(), computationStates);
                 }
+                // 2. 创建ClassLoader
+                ClassLoader classLoader = UserClassLoaderUtils.getClassLoader(userLibDir, rule.getLibs(), rule.getVersion(), getUserCodeClassloader());
+
+                // 3. 创建Pattern
+                pattern = (Pattern<IN, ?>) CepJsonUtils.convertJSONStringToPattern(rule.getPattern(),
+                        classLoader, configuration);
+                afterMatchSkipStrategy = Optional.ofNullable(pattern.getAfterMatchSkipStrategy()).orElse(AfterMatchSkipStrategy.noSkip());
+
+                // 4. 创建处理函数
+                function = (PatternProcessFunction<IN, OUT>) classLoader
+                        .loadClass(rule.getFunction())
+                        .getConstructor().newInstance();
+                // 将ruleId添加到configuration中，以便PatternProcessFunction可以获取
+                configuration.setString("ruleId", rule.getId());
+
+                function.open(configuration);
+
+                // 5. 创建NFA
+                final NFACompiler.NFAFactory<IN> nfaFactory =
+                        NFACompiler.compileFactory(pattern,
+                                function instanceof TimedOutPartialMatchHandler);
+                nfa = nfaFactory.createNFA();
+                nfa.open(cepRuntimeContext, new Configuration());
+            } catch (Exception e) {
+                throw new FlinkRuntimeException("Failed to open cep rule processor " + rule.getId() + ".", e);
             }
         }
 
-        public void update(RuleUpdated updated) {
-            if (updated.getVersion() > rule.getVersion()) {
-                close();
-                this.rule = updated;
+        /**
+         * 打开失败时释放已创建的资源，保留规则的状态，规则恢复后可继续使用
+         */
+        public void abort() {
+            try {
+                if (nfa != null) {
+                    nfa.close();
+                }
+                if (partialMatches != null) {
+                    partialMatches.releaseCacheStatisticsTimer();
+                }
+                if (function != null) {
+                    FunctionUtils.closeFunction(function);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to release cep rule processor. ruleId: {}, version: {}", rule.getId(), rule.getVersion(), e);
             }
+
+            nfa = null;
+            partialMatches = null;
+            pattern = null;
+            afterMatchSkipStrategy = null;
+            function = null;
         }
 
         public void close() {
@@ -663,17 +745,17 @@ public class CepRuleProcessorOperator<IN, OUT> extends AbstractStreamOperator<OU
                     partialMatches.releaseCacheStatisticsTimer();
                     // 清理状态，清理所当前规则的所有状态
                     KeyedStateBackend<RuleRowKey<?>> keyedStateBackend = getKeyedStateBackend();
-                    keyedStateBackend.getKeys(NFA_STATE_NAME, VoidNamespace.INSTANCE).forEach(key -> {
-
-                        String ruleId = key.getRuleKey();
-                        if (rule.getId().equals(ruleId)) {
-                            keyedStateBackend.setCurrentKey(key);
-                            partialMatches.clear();
-                            computationStates.clear();
-                            elementQueueState.clear();
-                        }
-
-                    });
+                    // 先收集当前规则的 key 再清理，边遍历边清理堆状态会抛出 ConcurrentModificationException
+                    List<RuleRowKey<?>> ruleKeys = new ArrayList<>();
+                    try (Stream<RuleRowKey<?>> keys = keyedStateBackend.getKeys(NFA_STATE_NAME, VoidNamespace.INSTANCE)) {
+                        keys.filter(key -> rule.getId().equals(key.getRuleKey())).forEach(ruleKeys::add);
+                    }
+                    for (RuleRowKey<?> key : ruleKeys) {
+                        keyedStateBackend.setCurrentKey(key);
+                        partialMatches.clear();
+                        computationStates.clear();
+                        elementQueueState.clear();
+                    }
 
 
                 }
@@ -687,6 +769,7 @@ public class CepRuleProcessorOperator<IN, OUT> extends AbstractStreamOperator<OU
             nfa = null;
             partialMatches = null;
             pattern = null;
+            afterMatchSkipStrategy = null;
             function = null;
         }
 
@@ -0,0 +1,239 @@
+package org.apache.flink.cep.operator;
+
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.cep.event.RuleBinding;
+import org.apache.flink.cep.utils.WildcardMatchUtils;
+
+import java.util.*;
+
+/**
+ * Key 与规则的绑定索引
+ * 1. 精确 Key 使用哈希查找；
+ * 2. 通配符按第一个通配字符之前的字面前缀建立前缀树，查找时沿 Key 的字符下行，
+ * 只对前缀命中的通配符做匹配，通配符在建立索引时预先拆分；
+ * 3. 每个 Key 的匹配结果（精确 + 通配符，按规则去重）解析一次后缓存为不可变列表，绑定变化时失效。
+ * 绑定按规则增量更新，规则未变化（版本与绑定 Key 均相同）时索引与缓存保持不变。
+ * 非线程安全，由算子线程访问。
+ */
+public class KeyBindingIndex {
+
+    /**
+     * 缓存的 Key 数量上限，超过后清空重新缓存
+     */
+    private static final int MAX_RESOLVED_KEYS = 65536;
+
+    /**
+     * 规则ID -> 当前绑定
+     */
+    private final Map<String, RuleBinding> bindings = new HashMap<>();
+
+    /**
+     * 精确 Key -> 绑定的规则ID
+     */
+    private final Map<String, Set<String>> exactBindings = new HashMap<>();
+
+    /**
+     * 通配符 -> 绑定的规则ID
+     */
+    private final Map<String, Set<String>> wildcardBindings = new HashMap<>();
+
+    /**
+     * 通配符前缀树
+     */
+    private WildcardTrie wildcardTrie = new WildcardTrie();
+
+    /**
+     * Key -> 匹配的规则（规则ID、版本）
+     */
+    private final Map<String, List<Tuple2<String, Integer>>> resolved = new HashMap<>();
+
+    /**
+     * 按全量绑定增量更新索引
+     *
+     * @return 索引是否发生变化
+     */
+    public boolean update(List<RuleBinding> newBindings) {
+        Map<String, RuleBinding> newById = new HashMap<>(newBindings.size() * 2);
+        for (RuleBinding binding : newBindings) {
+            newById.put(binding.getId(), binding);
+        }
+
+        boolean wildcardChanged = false;
+        int changed = 0;
+        Iterator<Map.Entry<String, RuleBinding>> it = bindings.entrySet().iterator();
+        while (it.hasNext()) {
+            RuleBinding old = it.next().getValue();
+            RuleBinding current = newById.get(old.getId());
+            if (current == null || !sameBinding(old, current)) {
+                wildcardChanged |= unbind(old);
+                it.remove();
+                changed++;
+            }
+        }
+        for (RuleBinding binding : newById.values()) {
+            if (!bindings.containsKey(binding.getId())) {
+                wildcardChanged |= bind(binding);
+                bindings.put(binding.getId(), binding);
+                changed++;
+            }
+        }
+
+        if (wildcardChanged) {
+            wildcardTrie = WildcardTrie.build(wildcardBindings.keySet());
+        }
+        if (changed > 0) {
+            resolved.clear();
+        }
+        return changed > 0;
+    }
+
+    /**
+     * Key 绑定的规则，无绑定时返回空列表，返回的列表不可修改
+     */
+    public List<Tuple2<String, Integer>> get(String key) {
+        List<Tuple2<String, Integer>> rules = resolved.get(key);
+        if (rules == null) {
+            rules = resolve(key);
+            if (resolved.size() >= MAX_RESOLVED_KEYS) {
+                resolved.clear();
+            }
+            resolved.put(key, rules);
+        }
+        return rules;
+    }
+
+    public void clear() {
+        bindings.clear();
+        exactBindings.clear();
+        wildcardBindings.clear();
+        wildcardTrie = new WildcardTrie();
+        resolved.clear();
+    }
+
+    private List<Tuple2<String, Integer>> resolve(String key) {
+        Set<String> ruleIds = null;
+        Set<String> exact = exactBindings.get(key);
+        if (exact != null) {
+            ruleIds = new LinkedHashSet<>(exact);
+        }
+        for (CompiledWildcard wildcard : wildcardTrie.candidates(key)) {
+            if (WildcardMatchUtils.match(key, wildcard.tokens)) {
+                if (ruleIds == null) {
+                    ruleIds = new LinkedHashSet<>();
+                }
+                ruleIds.addAll(wildcardBindings.get(wildcard.pattern));
+            }
+        }
+        if (ruleIds == null || ruleIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Tuple2<String, Integer>> rules = new ArrayList<>(ruleIds.size());
+        for (String ruleId : ruleIds) {
+            rules.add(Tuple2.of(ruleId, bindings.get(ruleId).getVersion()));
+        }
+        return Collections.unmodifiableList(rules);
+    }
+
+    /**
+     * @return 是否涉及通配符
+     */
+    private boolean bind(RuleBinding binding) {
+        boolean wildcard = false;
+        for (String key : bindingKeys(binding)) {
+            if (WildcardMatchUtils.isWildcard(key)) {
+                wildcardBindings.computeIfAbsent(key, k -> new HashSet<>()).add(binding.getId());
+                wildcard = true;
+            } else {
+                exactBindings.computeIfAbsent(key, k -> new HashSet<>()).add(binding.getId());
+            }
+        }
+        return wildcard;
+    }
+
+    /**
+     * @return 是否涉及通配符
+     */
+    private boolean unbind(RuleBinding binding) {
+        boolean wildcard = false;
+        for (String key : bindingKeys(binding)) {
+            if (WildcardMatchUtils.isWildcard(key)) {
+                remove(wildcardBindings, key, binding.getId());
+                wildcard = true;
+            } else {
+                remove(exactBindings, key, binding.getId());
+            }
+        }
+        return wildcard;
+    }
+
+    private static void remove(Map<String, Set<String>> index, String key, String ruleId) {
+        Set<String> ruleIds = index.get(key);
+        if (ruleIds != null && ruleIds.remove(ruleId) && ruleIds.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static Set<String> bindingKeys(RuleBinding binding) {
+        return binding.getBindingKeys() == null ? Collections.emptySet() : binding.getBindingKeys();
+    }
+
+    private static boolean sameBinding(RuleBinding a, RuleBinding b) {
+        return Objects.equals(a.getVersion(), b.getVersion()) && bindingKeys(a).equals(bindingKeys(b));
+    }
+
+    private static final class CompiledWildcard {
+        private final String pattern;
+        private final String[] tokens;
+
+        private CompiledWildcard(String pattern) {
+            this.pattern = pattern;
+            this.tokens = WildcardMatchUtils.compile(pattern);
+        }
+    }
+
+    /**
+     * 按通配符字面前缀建立的前缀树，节点上挂载前缀恰好到此结束的通配符
+     */
+    private static final class WildcardTrie {
+
+        private final Map<Character, WildcardTrie> children = new HashMap<>();
+
+        private final List<CompiledWildcard> wildcards = new ArrayList<>();
+
+        private static WildcardTrie build(Collection<String> patterns) {
+            WildcardTrie root = new WildcardTrie();
+            for (String pattern : patterns) {
+                WildcardTrie node = root;
+                for (int i = 0; i < pattern.length(); i++) {
+                    char c = pattern.charAt(i);
+                    if (c == '*' || c == '?') {
+                        break;
+                    }
+                    node = node.children.computeIfAbsent(c, k -> new WildcardTrie());
+                }
+                node.wildcards.add(new CompiledWildcard(pattern));
+            }
+            return root;
+        }
+
+        /**
+         * 字面前缀是 key 前缀的通配符
+         */
+        private List<CompiledWildcard> candidates(String key) {
+            List<CompiledWildcard> candidates = null;
+            WildcardTrie node = this;
+            int i = 0;
+            while (node != null) {
+                if (!node.wildcards.isEmpty()) {
+                    if (candidates == null) {
+                        candidates = new ArrayList<>();
+                    }
+                    candidates.addAll(node.wildcards);
+                }
+                node = i < key.length() ? node.children.get(key.charAt(i++)) : null;
+            }
+            return candidates == null ? Collections.emptyList() : candidates;
+        }
+    }
+}
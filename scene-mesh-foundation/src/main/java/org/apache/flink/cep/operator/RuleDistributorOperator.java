@@ -6,7 +6,7 @@ import org.apache.flink.api.java.tuple.Tuple2;
 import org.apache.flink.cep.event.EventRecord;
 import org.apache.flink.cep.event.RuleBinding;
 import org.apache.flink.cep.event.RuleBindingEvent;
-import org.apache.flink.cep.utils.WildcardMatchUtils;
+import org.apache.flink.metrics.Counter;
 import org.apache.flink.runtime.operators.coordination.OperatorEvent;
 import org.apache.flink.runtime.operators.coordination.OperatorEventHandler;
 import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
@@ -15,9 +15,7 @@ import org.apache.flink.streaming.api.operators.TimestampedCollector;
 import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
 import org.apache.flink.streaming.runtime.tasks.ProcessingTimeService;
 
-import java.io.Serializable;
 import java.util.*;
-import java.util.function.Function;
 
 /**
  * 规则分发算子
@@ -26,17 +24,30 @@ import java.util.function.Function;
 public class RuleDistributorOperator<IN> extends AbstractStreamOperator<EventRecord<IN>>
         implements OneInputStreamOperator<IN, EventRecord<IN>>,
         OperatorEventHandler {
+
+    private static final String UNBOUND_RECORDS_METRIC_NAME = "numUnboundRecords";
+
+    /**
+     * 未绑定规则的记录的日志间隔，避免逐条打印
+     */
+    private static final long UNBOUND_LOG_INTERVAL_MILLIS = 60_000;
+
     private transient TimestampedCollector<EventRecord<IN>> collector;
 
+    /**
+     * 复用的输出记录：下游按规则重新分区，输出立即序列化到网络缓冲，不会持有该对象
+     */
+    private transient EventRecord<IN> outputRecord;
+
     /**
      * 全量的与节点绑定的规则列表
      */
     private List<RuleBinding> bindings;
 
     /**
-     * Key绑定的规则映射，一个Key可能绑定多个规则
+     * Key绑定的规则索引，一个Key可能绑定多个规则
      */
-    private KeyBindingMap keyBindings;
+    private transient KeyBindingIndex keyBindings;
 
     /**
      * 规则分发器，Key规则绑定分发器、全量规则分发器
@@ -48,6 +59,15 @@ public class RuleDistributorOperator<IN> extends AbstractStreamOperator<EventRec
      */
     private final boolean keyBindingEnabled;
 
+    /**
+     * Key 绑定模式下没有任何规则绑定的记录数，如分区键缺少 productId（形如 ":terminalId"）的事件
+     */
+    private transient Counter numUnboundRecords;
+
+    private transient long unboundSinceLastLog;
+
+    private transient long lastUnboundLogMillis;
+
     public RuleDistributorOperator(ProcessingTimeService processingTimeService, boolean keyBindingEnabled) {
         this.processingTimeService = processingTimeService;
         this.keyBindingEnabled = keyBindingEnabled;
@@ -58,50 +78,70 @@ public class RuleDistributorOperator<IN> extends AbstractStreamOperator<EventRec
     public void open() throws Exception {
         super.open();
         collector = new TimestampedCollector<>(output);
+        outputRecord = new EventRecord<>();
         bindings = Collections.emptyList();
-        keyBindings = new KeyBindingMap();
+        keyBindings = new KeyBindingIndex();
+        numUnboundRecords = getMetricGroup().counter(UNBOUND_RECORDS_METRIC_NAME);
         if (keyBindingEnabled) {
             distributor = element -> {
                 Object key = getCurrentKey();
                 // 只分发Key绑定的规则
-                Set<Tuple2<String, Integer>> keyedBindings = keyBindings.get(key.toString());
-                if (keyedBindings != null) {
-                    for (Tuple2<String, Integer> keyedBinding : keyedBindings) {
-                        sendRecord(element, keyedBinding.f0, keyedBinding.f1);
-                    }
+                List<Tuple2<String, Integer>> keyedBindings = keyBindings.get(key.toString());
+                if (keyedBindings.isEmpty()) {
+                    unbound(key);
+                    return;
+                }
+                for (int i = 0, n = keyedBindings.size(); i < n; i++) {
+                    Tuple2<String, Integer> keyedBinding = keyedBindings.get(i);
+                    sendRecord(element, keyedBinding.f0, keyedBinding.f1, i > 0);
                 }
-
             };
         } else {
             distributor = element -> {
                 // 分发所有的规则
-                for (RuleBinding binding : bindings) {
-                    sendRecord(element, binding.getId(), binding.getVersion());
+                List<RuleBinding> current = bindings;
+                for (int i = 0, n = current.size(); i < n; i++) {
+                    RuleBinding binding = current.get(i);
+                    sendRecord(element, binding.getId(), binding.getVersion(), i > 0);
                 }
             };
         }
     }
 
-    public void sendRecord(StreamRecord<IN> element, String ruleId, Integer version) {
-        EventRecord<IN> record = new EventRecord<>();
+    /**
+     * @param sameEventAsPrevious 是否为同一事件扇出的后续记录，序列化器据此复用上一条记录的事件字节
+     */
+    public void sendRecord(StreamRecord<IN> element, String ruleId, Integer version, boolean sameEventAsPrevious) {
+        EventRecord<IN> record = outputRecord;
         record.setEvent(element.getValue());
+        record.setSameEventAsPrevious(sameEventAsPrevious);
         record.setRuleId(ruleId);
         record.setRuleVersion(version);
         collector.collect(record);
     }
 
+    /**
+     * 计数未绑定规则的记录，按间隔汇总打印一次
+     */
+    private void unbound(Object key) {
+        numUnboundRecords.inc();
+        unboundSinceLastLog++;
+        long now = System.currentTimeMillis();
+        if (now - lastUnboundLogMillis >= UNBOUND_LOG_INTERVAL_MILLIS) {
+            log.warn("{} 条记录没有绑定的规则，已跳过，最近一条的 key: {}（key 缺少前缀时检查事件是否带有分区字段，如 productId）",
+                    unboundSinceLastLog, key);
+            unboundSinceLastLog = 0;
+            lastUnboundLogMillis = now;
+        }
+    }
+
     @Override
     public void handleOperatorEvent(OperatorEvent evt) {
         RuleBindingEvent bindingEvent = ((RuleBindingEvent) evt);
         bindings = bindingEvent.getBindings();
-        // 清空之前的绑定映射
-        keyBindings.clear();
-        log.info("Update discover bindings: {}", bindings);
-        for (RuleBinding binding : bindings) {
-            Tuple2<String, Integer> ruleVersion = Tuple2.of(binding.getId(), binding.getVersion());
-            for (String bindingKey : binding.getBindingKeys()) {
-                keyBindings.computeIfAbsent(bindingKey, s -> new HashSet<>()).add(ruleVersion);
-            }
+        // 按规则增量更新绑定索引
+        if (keyBindings.update(bindings)) {
+            log.info("Update discover bindings: {}", bindings);
         }
     }
 
@@ -114,51 +154,4 @@ public class RuleDistributorOperator<IN> extends AbstractStreamOperator<EventRec
     public interface RuleDistributor<IN> {
         void distribute(StreamRecord<IN> element);
     }
-
-    public static class KeyBindingMap implements Serializable {
-        /**
-         * Key与规则的映射关系
-         */
-        private final Map<String, Set<Tuple2<String, Integer>>> keyBindingsMapping;
-
-        /**
-         * 通配符与绑定规则的映射关系
-         */
-        private final Map<String, Set<Tuple2<String, Integer>>> wildcardBindingsMapping;
-
-        public KeyBindingMap() {
-            keyBindingsMapping = new HashMap<>();
-            wildcardBindingsMapping = new HashMap<>();
-        }
-
-        public Set<Tuple2<String, Integer>> get(String key) {
-            Set<Tuple2<String, Integer>> bindings = keyBindingsMapping.getOrDefault(key,
-                    wildcardBindingsMapping.getOrDefault(key,new HashSet<>()));
-            if(bindings.isEmpty()){
-                // 按照通配符查找
-                for (Map.Entry<String, Set<Tuple2<String, Integer>>> bindingSet : wildcardBindingsMapping.entrySet()) {
-                    if (WildcardMatchUtils.match(key, bindingSet.getKey())) {
-                        bindings.addAll(bindingSet.getValue());
-                    }
-                }
-            }
-            return bindings;
-        }
-
-        public Set<Tuple2<String, Integer>> computeIfAbsent(String bindingWildcard,
-                                                            Function<String, Set<Tuple2<String, Integer>>> mappingFunction) {
-
-            if(WildcardMatchUtils.isWildcard(bindingWildcard)){
-                return wildcardBindingsMapping.computeIfAbsent(bindingWildcard, mappingFunction);
-            }else{
-                return keyBindingsMapping.computeIfAbsent(bindingWildcard, mappingFunction);
-            }
-
-        }
-
-        public void clear() {
-            keyBindingsMapping.clear();
-            wildcardBindingsMapping.clear();
-        }
-    }
 }
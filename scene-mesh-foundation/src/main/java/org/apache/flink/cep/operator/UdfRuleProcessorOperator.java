@@ -18,6 +18,7 @@ import org.apache.flink.cep.context.impl.RuleFunctionContextImpl;
 import org.apache.flink.cep.context.impl.RuleFunctionOnTimerContextImpl;
 import org.apache.flink.cep.event.EventRecord;
 import org.apache.flink.cep.event.RuleUpdated;
+import org.apache.flink.cep.event.RuleUpdatedDelta;
 import org.apache.flink.cep.event.RuleUpdatedEvent;
 import org.apache.flink.cep.functions.AbstractRuleProcessFunction;
 import org.apache.flink.cep.state.ManagedState;
@@ -154,32 +155,37 @@ public class UdfRuleProcessorOperator<KEY, IN, OUT> extends AbstractStreamOperat
     @Override
     public void handleOperatorEvent(OperatorEvent evt) {
         RuleUpdatedEvent updatedEvent = (RuleUpdatedEvent) evt;
-        List<RuleUpdated> updates = updatedEvent.getUpdates();
 
-        List<String> newIds = new ArrayList<>(updates.size());
-        for (RuleUpdated ruleUpdated : updates) {
-            newIds.add(ruleUpdated.getId());
-            if (processors.containsKey(ruleUpdated.getId())) {
-                processors.get(ruleUpdated.getId()).update(ruleUpdated);
-            } else {
-                UdfRuleProcessor<KEY, IN, OUT> processor = new UdfRuleProcessor<>();
-                processor.rule = ruleUpdated;
-                processor.setup(getExecutionConfig(), userLibDir, getUserCodeClassloader());
-                processors.put(ruleUpdated.getId(), processor);
-            }
+        Map<String, Integer> currentVersions = new HashMap<>(processors.size());
+        processors.forEach((id, processor) -> currentVersions.put(id, processor.rule.getVersion()));
+        RuleUpdatedDelta delta = RuleUpdatedDelta.of(currentVersions, updatedEvent.getUpdates());
+        if (delta.isEmpty()) {
+            return;
+        }
+        log.info("Apply rule delta: {}", delta);
+
+        for (RuleUpdated ruleUpdated : delta.getAdded()) {
+            processors.put(ruleUpdated.getId(), createProcessor(ruleUpdated));
+        }
+        for (RuleUpdated ruleUpdated : delta.getModified()) {
+            // 规则内容变化，关闭旧的处理函数后重建
+            processors.get(ruleUpdated.getId()).close();
+            processors.put(ruleUpdated.getId(), createProcessor(ruleUpdated));
         }
         // 清理无用的规则状态
-        Iterator<Map.Entry<String, UdfRuleProcessor<KEY, IN, OUT>>> iterator = processors.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<String, UdfRuleProcessor<KEY, IN, OUT>> entry = iterator.next();
-            if (!newIds.contains(entry.getKey())) {
-                entry.getValue().close();
-                iterator.remove();
-            }
+        for (String removedId : delta.getRemoved()) {
+            processors.remove(removedId).close();
         }
 
     }
 
+    private UdfRuleProcessor<KEY, IN, OUT> createProcessor(RuleUpdated ruleUpdated) {
+        UdfRuleProcessor<KEY, IN, OUT> processor = new UdfRuleProcessor<>();
+        processor.rule = ruleUpdated;
+        processor.setup(getExecutionConfig(), userLibDir, getUserCodeClassloader());
+        return processor;
+    }
+
     @Override
     public void snapshotState(StateSnapshotContext context) throws Exception {
         super.snapshotState(context);
@@ -297,14 +303,6 @@ public class UdfRuleProcessorOperator<KEY, IN, OUT> extends AbstractStreamOperat
             managedStateMap.put(ctx.getCurrentKey(), managedState);
         }
 
-        public void update(RuleUpdated newRule) {
-            // 判断是否过期
-            if (newRule.getVersion() > rule.getVersion()) {
-                close();
-                this.rule = newRule;
-            }
-        }
-
         public void restoreState(ExecutionConfig config, String userLibDir, ClassLoader parent) throws IOException {
             this.setup(config, userLibDir, parent);
             if (serialized != null) {
@@ -0,0 +1,96 @@
+package org.apache.flink.cep.types;
+
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.common.serialization.SerializerConfig;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.TypeSerializer;
+import org.apache.flink.cep.event.EventRecord;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@link EventRecord} 类型信息，使用 {@link EventRecordSerializer} 序列化，
+ * 事件使用上游流的序列化器，替代按 POJO 推断时事件字段退化为 Kryo 泛型字段的方式。
+ */
+public class EventRecordTypeInfo<T> extends TypeInformation<EventRecord<T>> {
+
+    private static final long serialVersionUID = -3453780187245406520L;
+
+    private final TypeInformation<T> eventType;
+
+    public EventRecordTypeInfo(TypeInformation<T> eventType) {
+        this.eventType = Objects.requireNonNull(eventType);
+    }
+
+    public TypeInformation<T> getEventType() {
+        return eventType;
+    }
+
+    @Override
+    public boolean isBasicType() {
+        return false;
+    }
+
+    @Override
+    public boolean isTupleType() {
+        return false;
+    }
+
+    @Override
+    public int getArity() {
+        return 3;
+    }
+
+    @Override
+    public int getTotalFields() {
+        return 3;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Class<EventRecord<T>> getTypeClass() {
+        return (Class) EventRecord.class;
+    }
+
+    @Override
+    public Map<String, TypeInformation<?>> getGenericParameters() {
+        return Collections.singletonMap("T", eventType);
+    }
+
+    @Override
+    public boolean isKeyType() {
+        return false;
+    }
+
+    public TypeSerializer<EventRecord<T>> createSerializer(SerializerConfig config) {
+        return new EventRecordSerializer<>(eventType.createSerializer(config));
+    }
+
+    public TypeSerializer<EventRecord<T>> createSerializer(ExecutionConfig config) {
+        return new EventRecordSerializer<>(eventType.createSerializer(config));
+    }
+
+    @Override
+    public String toString() {
+        return "EventRecord<" + eventType + ">";
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof EventRecordTypeInfo
+                && ((EventRecordTypeInfo<?>) obj).canEqual(this)
+                && eventType.equals(((EventRecordTypeInfo<?>) obj).eventType);
+    }
+
+    @Override
+    public int hashCode() {
+        return eventType.hashCode();
+    }
+
+    @Override
+    public boolean canEqual(Object obj) {
+        return obj instanceof EventRecordTypeInfo;
+    }
+}
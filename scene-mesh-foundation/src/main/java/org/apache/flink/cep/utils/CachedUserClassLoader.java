@@ -1,11 +1,19 @@
 package org.apache.flink.cep.utils;
 
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.flink.util.FlinkUserCodeClassLoader;
 import org.apache.flink.util.FlinkUserCodeClassLoaders;
 
+import java.io.Closeable;
+import java.net.URI;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -13,18 +21,29 @@ import java.util.Set;
  *
  * 
  */
+@Slf4j
 @Getter
-public class CachedUserClassLoader {
+public class CachedUserClassLoader implements Closeable {
     private final int version;
+    /**
+     * 创建时 libs 文件的指纹，见 {@link UserClassLoaderUtils}
+     */
+    private final long fingerprint;
     private final URLClassLoader classLoader;
+    /**
+     * 远程 libs 下载到的临时文件，关闭时删除
+     */
+    private final List<Path> downloaded;
 
-    private CachedUserClassLoader(int version, URLClassLoader classLoader) {
+    private CachedUserClassLoader(int version, long fingerprint, URLClassLoader classLoader, List<Path> downloaded) {
 
         this.version = version;
+        this.fingerprint = fingerprint;
         this.classLoader = classLoader;
+        this.downloaded = downloaded;
     }
 
-    public static CachedUserClassLoader of(String libDir, Set<String> libs, int version, ClassLoader parent) {
+    public static CachedUserClassLoader of(String libDir, Set<String> libs, int version, long fingerprint, ClassLoader parent) {
         URL[] urls = libs.stream().map(lib -> URLUtils.toURL(libDir, lib)).toArray(URL[]::new);
         // 创建URL classloader
         URLClassLoader classLoader = FlinkUserCodeClassLoaders.create(FlinkUserCodeClassLoaders.ResolveOrder.CHILD_FIRST,
@@ -34,7 +53,32 @@ public class CachedUserClassLoader {
                 FlinkUserCodeClassLoader.NOOP_EXCEPTION_HANDLER,
                 false
         );
-        return new CachedUserClassLoader(version, classLoader);
+        List<Path> downloaded = new ArrayList<>();
+        if (URLUtils.isRemote(libDir)) {
+            for (URL url : urls) {
+                downloaded.add(Paths.get(URI.create(url.toString())));
+            }
+        }
+        return new CachedUserClassLoader(version, fingerprint, classLoader, downloaded);
+    }
+
+    /**
+     * 关闭类加载器并删除下载的临时文件
+     */
+    @Override
+    public void close() {
+        try {
+            classLoader.close();
+        } catch (Exception e) {
+            log.warn("Close classloader failed", e);
+        }
+        for (Path path : downloaded) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (Exception e) {
+                log.warn("Delete downloaded lib {} failed", path, e);
+            }
+        }
     }
 
 
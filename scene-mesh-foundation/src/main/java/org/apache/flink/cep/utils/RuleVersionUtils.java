@@ -0,0 +1,54 @@
+package org.apache.flink.cep.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 规则版本工具类
+ * 规则版本由规则内容（pattern、function、libs）计算得出，内容不变则版本不变，
+ * 避免规则发现器每次轮询都产生新的版本，导致算子重建NFA、丢失部分匹配状态。
+ *
+ *
+ */
+public class RuleVersionUtils {
+
+    private static final char SEPARATOR = '\u0000';
+
+    /**
+     * 根据规则内容计算版本号
+     *
+     * @param pattern  规则 pattern json
+     * @param function 规则处理函数类名
+     * @param libs     规则依赖的 jar 列表
+     * @return 非负的内容版本号
+     */
+    public static int contentVersion(String pattern, String function, Set<String> libs) {
+        StringBuilder content = new StringBuilder();
+        content.append(pattern == null ? "" : pattern).append(SEPARATOR);
+        content.append(function == null ? "" : function).append(SEPARATOR);
+        if (libs != null) {
+            // libs 为无序集合，排序后参与计算，保证结果稳定
+            for (String lib : new TreeSet<>(libs)) {
+                content.append(lib).append(SEPARATOR);
+            }
+        }
+
+        byte[] digest = sha256(content.toString().getBytes(StandardCharsets.UTF_8));
+        int version = ((digest[0] & 0xff) << 24)
+                | ((digest[1] & 0xff) << 16)
+                | ((digest[2] & 0xff) << 8)
+                | (digest[3] & 0xff);
+        return version & Integer.MAX_VALUE;
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported.", e);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.nio.file.Files;
@@ -19,9 +20,18 @@ import java.nio.file.StandardCopyOption;
 @Slf4j
 public class URLUtils {
 
+    private static final int HEAD_TIMEOUT_MILLIS = 5_000;
+
+    /**
+     * baseUri 是否为远程地址（http/https），远程 lib 下载到临时文件后加载
+     */
+    public static boolean isRemote(String baseUri) {
+        return baseUri.startsWith("http://") || baseUri.startsWith("https://");
+    }
+
     public static URL toURL(String baseUri, String path) {
         try {
-            if (baseUri.startsWith("http://")) {
+            if (isRemote(baseUri)) {
                 URL url = URI.create(baseUri).resolve(path).toURL();
                 // 读取url中的数据写到临时的jar文件中
                 try (InputStream inputStream = url.openStream()) {
@@ -37,4 +47,40 @@ public class URLUtils {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * 远程 lib 的指纹：HEAD 请求返回的 ETag、Last-Modified 与 Content-Length
+     *
+     * @return 服务端未返回 ETag 与 Last-Modified 或请求失败时返回 fallback
+     */
+    public static long remoteFingerprint(String baseUri, String path, long fallback) {
+        HttpURLConnection connection = null;
+        try {
+            URL url = URI.create(baseUri).resolve(path).toURL();
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("HEAD");
+            connection.setConnectTimeout(HEAD_TIMEOUT_MILLIS);
+            connection.setReadTimeout(HEAD_TIMEOUT_MILLIS);
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                log.warn("Head {} failed, status: {}", url, connection.getResponseCode());
+                return fallback;
+            }
+            String etag = connection.getHeaderField("ETag");
+            long lastModified = connection.getLastModified();
+            if (etag == null && lastModified == 0) {
+                log.warn("Head {} returned neither ETag nor Last-Modified, use fallback fingerprint", url);
+                return fallback;
+            }
+            long fingerprint = etag == null ? 0 : etag.hashCode();
+            fingerprint = 31 * fingerprint + lastModified;
+            return 31 * fingerprint + connection.getContentLengthLong();
+        } catch (Exception e) {
+            log.warn("Head {}{} failed, use fallback fingerprint", baseUri, path, e);
+            return fallback;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
 }
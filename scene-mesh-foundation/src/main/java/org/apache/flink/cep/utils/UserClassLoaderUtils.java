@@ -4,8 +4,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.nio.file.Paths;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -17,14 +20,51 @@ import java.util.concurrent.ConcurrentHashMap;
 public class UserClassLoaderUtils {
     private static final Map<Set<String>, CachedUserClassLoader> CACHED = new ConcurrentHashMap<>(16);
 
+    /**
+     * 按 libs 获取（或创建）用户类加载器
+     * 同一组 libs 在文件指纹不变时共用一个类加载器，避免不同规则之间反复重建；
+     * 同名 jar 被替换（本地文件的修改时间或大小变化，远程文件的 ETag、Last-Modified 或大小变化）后重新创建，
+     * 并关闭被替换的类加载器，释放 jar 句柄与已加载的类。
+     */
     public static ClassLoader getClassLoader(String libDir, Set<String> libs, int version, ClassLoader parent) {
-        return CACHED.compute(libs, (strings, cached) -> {
-            if (cached == null || cached.getVersion() < version) {
+        long fingerprint = fingerprint(libDir, libs, version);
+        CachedUserClassLoader[] replaced = new CachedUserClassLoader[1];
+        ClassLoader classLoader = CACHED.compute(libs, (strings, cached) -> {
+            if (cached == null || cached.getFingerprint() != fingerprint) {
                 log.info("Create classloader from urls: {}", libs);
-                cached = CachedUserClassLoader.of(libDir, libs, version, parent);
+                replaced[0] = cached;
+                cached = CachedUserClassLoader.of(libDir, libs, version, fingerprint, parent);
             }
             return cached;
         }).getClassLoader();
+        if (replaced[0] != null) {
+            log.info("Close replaced classloader of libs: {}", libs);
+            replaced[0].close();
+        }
+        return classLoader;
+    }
+
+    /**
+     * libs 文件的指纹：按文件名排序后合并各文件的修改时间与大小
+     * 远程 libs 使用 HEAD 请求返回的 ETag、Last-Modified 与大小，服务端均未返回时退回规则版本。
+     */
+    static long fingerprint(String libDir, Set<String> libs, int version) {
+        if (libs == null || libs.isEmpty()) {
+            return 0L;
+        }
+        boolean remote = URLUtils.isRemote(libDir);
+        long fingerprint = 1L;
+        for (String lib : new TreeSet<>(libs)) {
+            fingerprint = 31 * fingerprint + lib.hashCode();
+            if (remote) {
+                fingerprint = 31 * fingerprint + URLUtils.remoteFingerprint(libDir, lib, version);
+            } else {
+                File file = Paths.get(libDir).resolve(lib).toFile();
+                fingerprint = 31 * fingerprint + file.lastModified();
+                fingerprint = 31 * fingerprint + file.length();
+            }
+        }
+        return fingerprint;
     }
 
 
@@ -22,7 +22,20 @@ public class WildcardMatchUtils {
             return false;
         }
 
-        final String[] wcs = splitOnTokens(wildcardMatcher);
+        return match(input, splitOnTokens(wildcardMatcher));
+    }
+
+    /**
+     * 将通配符预先拆分为匹配片段，供 {@link #match(String, String[])} 重复使用
+     */
+    public static String[] compile(String wildcardMatcher) {
+        return splitOnTokens(wildcardMatcher);
+    }
+
+    /**
+     * 使用 {@link #compile(String)} 的结果匹配，不再逐次拆分通配符
+     */
+    public static boolean match(String input, String[] wcs) {
         boolean anyChars = false;
         int textIdx = 0;
         int wcsIdx = 0;
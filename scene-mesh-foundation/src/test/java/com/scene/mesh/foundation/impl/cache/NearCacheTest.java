@@ -0,0 +1,327 @@
+package com.scene.mesh.foundation.impl.cache;
+
+import com.scene.mesh.foundation.spec.cache.ICache;
+import com.scene.mesh.foundation.spec.cache.ICacheInvalidationBus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 二级缓存测试：跨实例失效、回源期间失效不回填、LRU 淘汰、最长保留时间、重新订阅与哈希表字段缓存
+ */
+public class NearCacheTest {
+
+    private static final String PREFIX = "product:";
+
+    private static final long MAX_STALENESS_MILLIS = 1000;
+
+    private MapCache remote;
+    private InMemoryBus bus;
+    private AtomicLong ticker;
+
+    @BeforeEach
+    void setUp() {
+        remote = new MapCache();
+        bus = new InMemoryBus();
+        ticker = new AtomicLong();
+    }
+
+    @Test
+    void testInvalidationFromOtherInstanceIsApplied() {
+        NearCache<Object> writer = nearCache(16);
+        NearCache<Object> reader = nearCache(16);
+        remote.set(PREFIX + "p1", "v1");
+
+        assertEquals("v1", reader.get(PREFIX + "p1"));
+        assertEquals("v1", reader.get(PREFIX + "p1"));
+        assertEquals(1, remote.reads.get());
+
+        writer.set(PREFIX + "p1", "v2");
+
+        assertEquals("v2", reader.get(PREFIX + "p1"));
+        assertEquals(2, remote.reads.get());
+    }
+
+    @Test
+    void testValueLoadedDuringInvalidationIsNotBackfilled() {
+        NearCache<Object> writer = nearCache(16);
+        NearCache<Object> reader = nearCache(16);
+        remote.set(PREFIX + "p1", "v1");
+
+        // reader 回源读到 v1 后、回填前，writer 写入 v2 并广播失效
+        remote.afterRead = key -> {
+            remote.afterRead = null;
+            writer.set(key, "v2");
+        };
+        assertEquals("v1", reader.get(PREFIX + "p1"));
+
+        assertEquals(0, reader.size());
+        assertEquals("v2", reader.get(PREFIX + "p1"));
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        NearCache<Object> cache = nearCache(2);
+        remote.set(PREFIX + "p1", "v1");
+        remote.set(PREFIX + "p2", "v2");
+        remote.set(PREFIX + "p3", "v3");
+
+        cache.get(PREFIX + "p1");
+        cache.get(PREFIX + "p2");
+        cache.get(PREFIX + "p1");
+        cache.get(PREFIX + "p3");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        int reads = remote.reads.get();
+        cache.get(PREFIX + "p1");
+        assertEquals(reads, remote.reads.get());
+        cache.get(PREFIX + "p2");
+        assertEquals(reads + 1, remote.reads.get());
+    }
+
+    @Test
+    void testEntryExpiresWhenInvalidationIsLost() {
+        NearCache<Object> cache = nearCache(16);
+        remote.set(PREFIX + "p1", "v1");
+        assertEquals("v1", cache.get(PREFIX + "p1"));
+
+        // 绕过 NearCache 修改 L2，模拟丢失的失效通知
+        remote.set(PREFIX + "p1", "v2");
+        ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(MAX_STALENESS_MILLIS - 1));
+        assertEquals("v1", cache.get(PREFIX + "p1"));
+
+        ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals("v2", cache.get(PREFIX + "p1"));
+    }
+
+    @Test
+    void testResubscribeClearsLocalEntries() {
+        NearCache<Object> cache = nearCache(16);
+        remote.set(PREFIX + "p1", "v1");
+        cache.get(PREFIX + "p1");
+        cache.getAll(PREFIX);
+        assertEquals(1, cache.size());
+
+        remote.set(PREFIX + "p1", "v2");
+        bus.resubscribe();
+
+        assertEquals(0, cache.size());
+        assertEquals("v2", cache.get(PREFIX + "p1"));
+        assertEquals(List.of("v2"), cache.getAll(PREFIX));
+    }
+
+    @Test
+    void testHashFieldsAreInvalidatedByUpdate() {
+        NearCache<Object> writer = nearCache(16);
+        NearCache<Object> reader = nearCache(16);
+        String key = PREFIX + "@index";
+        writer.hashUpdate(key, Map.of("p1", "h1", "p2", "h2"), List.of());
+
+        assertEquals("h1", reader.hashGet(key, "p1"));
+        assertEquals("h1", reader.hashGet(key, "p1"));
+        assertEquals(Map.of("p1", "h1", "p2", "h2"), reader.hashGetAll(key));
+        assertEquals(2, remote.reads.get());
+
+        writer.hashUpdate(key, Map.of("p1", "h3"), List.of("p2"));
+
+        assertEquals("h3", reader.hashGet(key, "p1"));
+        assertNull(reader.hashGet(key, "p2"));
+        assertEquals(Map.of("p1", "h3"), reader.hashGetAll(key));
+    }
+
+    @Test
+    void testExistsIsAnsweredByRemoteCache() {
+        NearCache<Object> cache = nearCache(16);
+        remote.set(PREFIX + "p1", "v1");
+        cache.get(PREFIX + "p1");
+
+        remote.delete(PREFIX + "p1");
+
+        assertFalse(cache.exists(PREFIX + "p1"));
+    }
+
+    @Test
+    void testReadsReturnIndependentCopies() {
+        NearCache<Object> cache = nearCache(16);
+        remote.set(PREFIX + "p1", new Named("v1"));
+        cache.get(PREFIX + "p1");
+        cache.getAll(PREFIX);
+        int reads = remote.reads.get();
+
+        // 本地命中时每次返回新的实例，修改返回值不影响之后的读取
+        Named first = (Named) cache.get(PREFIX + "p1");
+        first.setName("changed");
+        Named second = (Named) cache.multiGet(List.of(PREFIX + "p1")).get(0);
+        assertEquals("v1", second.getName());
+        assertNotSame(first, second);
+
+        ((Named) cache.getAll(PREFIX).get(0)).setName("changed");
+        assertEquals("v1", ((Named) cache.getAll(PREFIX).get(0)).getName());
+        assertEquals(reads, remote.reads.get());
+    }
+
+    private NearCache<Object> nearCache(int maxEntries) {
+        return new NearCache<>(remote, bus, Set.of(PREFIX), maxEntries, MAX_STALENESS_MILLIS, ticker::get);
+    }
+
+    /**
+     * 基于 Map 的 L2 缓存，记录读次数
+     */
+    private static class MapCache implements ICache<String, Object> {
+        private final Map<String, Object> values = new ConcurrentHashMap<>();
+        private final AtomicInteger reads = new AtomicInteger();
+        private volatile Consumer<String> afterRead;
+
+        @Override
+        public boolean set(String key, Object value) {
+            values.put(key, value);
+            return true;
+        }
+
+        @Override
+        public boolean set(String key, Object value, long expireSeconds) {
+            return set(key, value);
+        }
+
+        @Override
+        public Object get(String key) {
+            reads.incrementAndGet();
+            Object value = values.get(key);
+            Consumer<String> hook = afterRead;
+            if (hook != null) {
+                hook.accept(key);
+            }
+            return value;
+        }
+
+        @Override
+        public List<Object> getAll(String keyPrefix) {
+            reads.incrementAndGet();
+            List<Object> result = new ArrayList<>();
+            values.forEach((key, value) -> {
+                if (key.startsWith(keyPrefix)) {
+                    result.add(value);
+                }
+            });
+            return result;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public String hashGet(String key, String field) {
+            reads.incrementAndGet();
+            Object hash = values.get(key);
+            return hash instanceof Map ? ((Map<String, String>) hash).get(field) : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, String> hashGetAll(String key) {
+            reads.incrementAndGet();
+            Object hash = values.get(key);
+            return hash instanceof Map ? (Map<String, String>) hash : Map.of();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean hashUpdate(String key, Map<String, String> puts, Collection<String> removes) {
+            // 整体替换为新的不可变 Map，读取方只会看到更新前或更新后的哈希表
+            values.compute(key, (k, hash) -> {
+                Map<String, String> next = hash instanceof Map ? new HashMap<>((Map<String, String>) hash) : new HashMap<>();
+                next.putAll(puts);
+                removes.forEach(next::remove);
+                return next.isEmpty() ? null : Map.copyOf(next);
+            });
+            return true;
+        }
+
+        @Override
+        public boolean delete(String key) {
+            return values.remove(key) != null;
+        }
+
+        @Override
+        public boolean deleteByKeyPrefix(String keyPrefix) {
+            return values.keySet().removeIf(key -> key.startsWith(keyPrefix));
+        }
+
+        @Override
+        public boolean exists(String key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public boolean expire(String key, long expireSeconds) {
+            return true;
+        }
+
+        @Override
+        public boolean clear() {
+            values.clear();
+            return true;
+        }
+    }
+
+    /**
+     * 进程内广播，同步投递给所有订阅者
+     */
+    private static class InMemoryBus implements ICacheInvalidationBus {
+        private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+        private final List<Runnable> subscribedCallbacks = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(String channel, String message) {
+            for (Consumer<String> listener : listeners) {
+                listener.accept(message);
+            }
+        }
+
+        @Override
+        public void subscribe(String channel, Consumer<String> listener, Runnable onSubscribed) {
+            listeners.add(listener);
+            subscribedCallbacks.add(onSubscribed);
+            onSubscribed.run();
+        }
+
+        /**
+         * 模拟连接断开后重新订阅
+         */
+        void resubscribe() {
+            subscribedCallbacks.forEach(Runnable::run);
+        }
+    }
+
+    public static class Named {
+        private String name;
+
+        public Named() {
+        }
+
+        Named(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
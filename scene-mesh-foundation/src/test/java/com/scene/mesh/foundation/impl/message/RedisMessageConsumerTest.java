@@ -0,0 +1,245 @@
+package com.scene.mesh.foundation.impl.message;
+
+import com.scene.mesh.foundation.spec.message.MessageTopic;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redis Stream 消费者测试，使用嵌入式 Redis
+ */
+public class RedisMessageConsumerTest {
+
+    private static final String GROUP = "sm-group";
+
+    private RedisServer redisServer;
+    private int port;
+    private RedisClient client;
+    private StatefulRedisConnection<String, String> connection;
+    private RedisCommands<String, String> commands;
+    private MessageTopic topic;
+
+    private final List<RedisMessageConsumer> consumers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        client = RedisClient.create("redis://localhost:" + port);
+        connection = client.connect();
+        commands = connection.sync();
+        topic = new MessageTopic("test-stream-" + UUID.randomUUID());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        consumers.forEach(RedisMessageConsumer::shutdown);
+        connection.close();
+        client.shutdown();
+        redisServer.stop();
+    }
+
+    @Test
+    void testBatchAcknowledgeAfterNextReceive() throws Exception {
+        RedisMessageConsumer consumer = newConsumer("consumer-a", 60_000);
+        // 首次消费时创建消费者组
+        assertNull(consumer.receive(topic, Map.class));
+        assertEquals(1, commands.xinfoGroups(topic.getTopicName()).size());
+
+        publish(25);
+        List<Map> first = receiveAll(consumer, 25);
+        assertEquals(25, first.size());
+
+        // 上一批在下一次 receive 时确认
+        consumer.receive(topic, Map.class);
+        assertEquals(0L, commands.xpending(topic.getTopicName(), GROUP).getCount());
+    }
+
+    @Test
+    void testIdlePendingMessagesAreClaimed() throws Exception {
+        RedisMessageConsumer crashed = newConsumer("consumer-a", 60_000);
+        assertNull(crashed.receive(topic, Map.class));
+        publish(5);
+        assertEquals(5, receiveAll(crashed, 5).size());
+        // consumer-a 未再调用 receive，消息保持未确认状态
+        assertEquals(5L, commands.xpending(topic.getTopicName(), GROUP).getCount());
+
+        Thread.sleep(100);
+        RedisMessageConsumer takeover = newConsumer("consumer-b", 50);
+        List<Map> claimed = receiveAll(takeover, 5);
+        assertEquals(5, claimed.size());
+
+        takeover.receive(topic, Map.class);
+        assertEquals(0L, commands.xpending(topic.getTopicName(), GROUP).getCount());
+    }
+
+    @Test
+    void testRestartRedeliversOwnPendingMessages() throws Exception {
+        RedisMessageConsumer before = newConsumer("consumer-a", 60_000);
+        assertNull(before.receive(topic, Map.class));
+        publish(3);
+        assertEquals(3, receiveAll(before, 3).size());
+
+        // 以相同的消费者名称重启
+        RedisMessageConsumer after = newConsumer("consumer-a", 60_000);
+        List<Map> redelivered = after.receive(topic, Map.class);
+        assertNotNull(redelivered);
+        assertEquals(3, redelivered.size());
+    }
+
+    @Test
+    void testSlotOfExitedThreadIsReusedAndRedelivered() throws Exception {
+        RedisMessageConsumer shared = newConsumer("consumer-a", 60_000);
+        assertNull(shared.receive(topic, Map.class));
+        publish(3);
+
+        // 读取线程收到消息后退出，未确认
+        Thread reader = new Thread(() -> {
+            try {
+                receiveAll(shared, 3);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        reader.start();
+        reader.join();
+        assertEquals(3L, commands.xpending(topic.getTopicName(), GROUP).getCount());
+
+        // 新线程租用同一序号，补发退出线程未确认的消息
+        List<List<Map>> redelivered = new ArrayList<>();
+        Thread next = new Thread(() -> {
+            try {
+                redelivered.add(receiveAll(shared, 3));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        next.start();
+        next.join();
+
+        assertEquals(3, redelivered.get(0).size());
+        // 测试线程占用序号 0，两个读取线程先后使用序号 1
+        Set<String> names = new HashSet<>();
+        commands.xinfoConsumers(topic.getTopicName(), GROUP).forEach(info -> names.add(consumerName(info)));
+        assertEquals(Set.of("consumer-a-0", "consumer-a-1"), names);
+    }
+
+    @Test
+    void testExpiredConsumersWithoutPendingAreRemoved() throws Exception {
+        RedisMessageConsumer consumer = newConsumer("consumer-a", 60_000);
+        consumer.setConsumerExpireMillis(50);
+        assertNull(consumer.receive(topic, Map.class));
+        // 其他进程遗留的消费者，没有 pending 消息
+        commands.xreadgroup(io.lettuce.core.Consumer.from(GROUP, "consumer-old-0"),
+                XReadArgs.StreamOffset.lastConsumed(topic.getTopicName()));
+
+        Thread.sleep(100);
+        consumer.receive(topic, Map.class);
+
+        Set<String> names = new HashSet<>();
+        commands.xinfoConsumers(topic.getTopicName(), GROUP).forEach(info -> names.add(consumerName(info)));
+        assertEquals(Set.of("consumer-a-0"), names);
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void testThreadsSharingConsumerGetDisjointMessages() throws Exception {
+        RedisMessageConsumer shared = newConsumer("consumer-a", 60_000);
+        assertNull(shared.receive(topic, Map.class));
+        publish(200);
+
+        Set<Object> received = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                readers.add(executor.submit(() -> {
+                    for (int i = 0; i < 20 && received.size() < 200; i++) {
+                        List<Map> batch = shared.receive(topic, Map.class);
+                        if (batch != null) {
+                            for (Map message : batch) {
+                                if (!received.add(message.get("seq"))) {
+                                    duplicates.incrementAndGet();
+                                }
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> reader : readers) {
+                reader.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(200, received.size());
+        assertEquals(0, duplicates.get());
+        // 每个线程在组内是独立的消费者
+        assertTrue(commands.xinfoConsumers(topic.getTopicName(), GROUP).size() >= 2);
+    }
+
+    private RedisMessageConsumer newConsumer(String name, long claimMinIdleMillis) {
+        RedisMessageConsumer consumer = new RedisMessageConsumer();
+        consumer.setHost("localhost");
+        consumer.setPort(port);
+        consumer.setConsumerName(name);
+        consumer.setClaimMinIdleMillis(claimMinIdleMillis);
+        consumer.setClaimIntervalMillis(0);
+        consumer.setSerializer(new JsonMessageSerializer());
+        consumer.__init__();
+        consumers.add(consumer);
+        return consumer;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String consumerName(Object info) {
+        List<Object> fields = (List<Object>) info;
+        return String.valueOf(fields.get(fields.indexOf("name") + 1));
+    }
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            commands.xadd(topic.getTopicName(), Map.of("data", "{\"seq\":" + i + "}"));
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private List<Map> receiveAll(RedisMessageConsumer consumer, int expected) throws Exception {
+        List<Map> received = new ArrayList<>();
+        for (int i = 0; i < 10 && received.size() < expected; i++) {
+            List<Map> batch = consumer.receive(topic, Map.class);
+            if (batch != null) {
+                received.addAll(batch);
+            }
+        }
+        return received;
+    }
+}
@@ -0,0 +1,155 @@
+package com.scene.mesh.foundation.impl.message;
+
+import com.scene.mesh.foundation.spec.message.MessageTopic;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Redis Stream 生产者测试，使用嵌入式 Redis
+ */
+public class RedisMessageProducerTest {
+
+    private RedisServer redisServer;
+    private int port;
+    private RedisClient client;
+    private StatefulRedisConnection<String, String> connection;
+    private RedisCommands<String, String> commands;
+    private MessageTopic topic;
+    private RedisMessageProducer producer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        client = RedisClient.create("redis://localhost:" + port);
+        connection = client.connect();
+        commands = connection.sync();
+        topic = new MessageTopic("test-stream-" + UUID.randomUUID());
+
+        producer = new RedisMessageProducer();
+        producer.setHost("localhost");
+        producer.setPort(port);
+        producer.setSerializer(new JsonMessageSerializer());
+        producer.__init__();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        producer.shutdown();
+        connection.close();
+        client.shutdown();
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    void testBatchedSendWritesAllMessages() throws Exception {
+        Object[] messages = new Object[600];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = Map.of("seq", i);
+        }
+        producer.send(topic, messages);
+
+        assertEquals(600L, commands.xlen(topic.getTopicName()));
+    }
+
+    @Test
+    void testBatchesPerTopicAndDrainsLingeringBatchOnShutdown() throws Exception {
+        producer.shutdown();
+        producer = new RedisMessageProducer();
+        producer.setHost("localhost");
+        producer.setPort(port);
+        producer.setSerializer(new JsonMessageSerializer());
+        producer.setBatchSize(10);
+        producer.setLingerMillis(60_000);
+        producer.__init__();
+        MessageTopic other = new MessageTopic("test-stream-" + UUID.randomUUID());
+
+        List<CompletableFuture<Void>> lingering = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            lingering.add(producer.sendAsync(other, Map.of("seq", i)));
+        }
+        List<CompletableFuture<Void>> full = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            full.add(producer.sendAsync(topic, Map.of("seq", i)));
+        }
+
+        // 攒满一批的 topic 立即发送，不受另一个 topic 未满的批影响
+        CompletableFuture.allOf(full.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(10L, commands.xlen(topic.getTopicName()));
+        assertEquals(0L, commands.xlen(other.getTopicName()));
+        for (CompletableFuture<Void> future : lingering) {
+            assertFalse(future.isDone());
+        }
+
+        // 关闭时发送完未满的批，而不是以失败结束
+        producer.shutdown();
+        for (CompletableFuture<Void> future : lingering) {
+            assertNull(future.get(1, TimeUnit.SECONDS));
+        }
+        assertEquals(3L, commands.xlen(other.getTopicName()));
+    }
+
+    @Test
+    void testEveryFutureCompletesWhenShutdownRacesWithSend() throws Exception {
+        List<CompletableFuture<Void>> futures = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(1);
+        Thread sender = new Thread(() -> {
+            started.countDown();
+            for (int i = 0; i < 20_000; i++) {
+                futures.add(producer.sendAsync(topic, Map.of("seq", i)));
+            }
+        });
+        sender.start();
+        started.await();
+        producer.shutdown();
+        sender.join();
+
+        // 关闭前入队的消息已发送，关闭后的消息立即失败，不存在永远不完成的 future
+        assertFalse(futures.isEmpty());
+        for (CompletableFuture<Void> future : futures) {
+            assertTrue(future.isDone());
+        }
+    }
+
+    @Test
+    void testSendFailsWithinAckTimeoutWhenRedisIsDown() throws Exception {
+        producer.setAckTimeoutMillis(500);
+        redisServer.stop();
+
+        long start = System.nanoTime();
+        assertThrows(RuntimeException.class, () -> producer.send(topic, Map.of("seq", 1)));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+    }
+
+    @Test
+    void testSendAsyncFailsAfterShutdown() {
+        producer.shutdown();
+
+        CompletableFuture<Void> future = producer.sendAsync(topic, Map.of("seq", 1));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+}
@@ -0,0 +1,44 @@
+package com.scene.mesh.foundation.impl.processor.flink;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointLocatorTest {
+
+    @TempDir
+    Path checkpointDir;
+
+    @Test
+    void returnsNullWithoutCompletedCheckpoint() throws IOException {
+        assertNull(CheckpointLocator.findLatest(checkpointDir.resolve("missing").toString()));
+
+        // 未写入 _metadata 的 checkpoint 不可恢复
+        Files.createDirectories(checkpointDir.resolve("job-a/chk-1"));
+        assertNull(CheckpointLocator.findLatest(checkpointDir.toString()));
+    }
+
+    @Test
+    void findsLatestCompletedCheckpointAcrossJobs() throws IOException {
+        completed("job-a/chk-3", 1_000);
+        completed("job-b/chk-1", 3_000);
+        completed("job-b/chk-2", 2_000);
+        Files.createDirectories(checkpointDir.resolve("job-b/chk-4"));
+
+        String latest = CheckpointLocator.findLatest(checkpointDir.toUri().toString());
+
+        assertEquals(checkpointDir.resolve("job-b/chk-1").toFile(), CheckpointLocator.toFile(latest));
+    }
+
+    private void completed(String checkpoint, long modified) throws IOException {
+        Path dir = Files.createDirectories(checkpointDir.resolve(checkpoint));
+        File metadata = Files.createFile(dir.resolve("_metadata")).toFile();
+        assertTrue(metadata.setLastModified(modified));
+    }
+}
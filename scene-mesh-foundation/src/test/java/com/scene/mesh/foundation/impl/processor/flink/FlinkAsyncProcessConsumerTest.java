@@ -0,0 +1,91 @@
+package com.scene.mesh.foundation.impl.processor.flink;
+
+import com.scene.mesh.foundation.impl.processor.BaseProcessor;
+import com.scene.mesh.foundation.spec.processor.IAsyncProcessor;
+import com.scene.mesh.foundation.spec.processor.IProcessInput;
+import com.scene.mesh.foundation.spec.processor.IProcessOutput;
+import com.scene.mesh.foundation.spec.processor.config.ProcessorNode;
+import org.apache.flink.streaming.api.functions.async.ResultFuture;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 异步节点：输出在 future 完成后交给 Flink，失败与超时时不输出也不使作业失败
+ */
+class FlinkAsyncProcessConsumerTest {
+
+    @Test
+    void outputsAreEmittedWhenProcessingCompletes() throws Exception {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        RecordingResultFuture result = new RecordingResultFuture();
+        consumer(new StubAsyncProcessor(done)).asyncInvoke("in", result);
+
+        assertNull(result.results);
+        done.complete(null);
+        assertEquals(List.of("in-1", "in-2"), List.copyOf(result.results));
+    }
+
+    @Test
+    void failureAndTimeoutCompleteWithoutOutput() throws Exception {
+        RecordingResultFuture failed = new RecordingResultFuture();
+        consumer(new StubAsyncProcessor(CompletableFuture.failedFuture(new IllegalStateException("broken"))))
+                .asyncInvoke("in", failed);
+        assertTrue(failed.results.isEmpty());
+        assertNull(failed.error);
+
+        RecordingResultFuture timedOut = new RecordingResultFuture();
+        consumer(new StubAsyncProcessor(new CompletableFuture<>())).timeout("in", timedOut);
+        assertTrue(timedOut.results.isEmpty());
+        assertNull(timedOut.error);
+    }
+
+    private static FlinkAsyncProcessConsumer consumer(StubAsyncProcessor processor) throws Exception {
+        ProcessorNode node = new ProcessorNode();
+        node.setId("async");
+        node.setComponentId("async");
+        node.setAsyncCapacity(4);
+        FlinkAsyncProcessConsumer consumer = new FlinkAsyncProcessConsumer(node, componentId -> processor);
+        consumer.open();
+        return consumer;
+    }
+
+    /**
+     * 处理时先写出两条输出，再返回指定的 future
+     */
+    private static class StubAsyncProcessor extends BaseProcessor implements IAsyncProcessor {
+
+        private final CompletableFuture<Void> future;
+
+        private StubAsyncProcessor(CompletableFuture<Void> future) {
+            this.future = future;
+        }
+
+        @Override
+        public CompletableFuture<Void> processAsync(IProcessInput input, IProcessOutput output) {
+            output.getCollector().collect(input.getInputObject() + "-1");
+            output.getCollector().collect(input.getInputObject() + "-2");
+            return future;
+        }
+    }
+
+    private static class RecordingResultFuture implements ResultFuture<Object> {
+
+        private Collection<Object> results;
+        private Throwable error;
+
+        @Override
+        public void complete(Collection<Object> result) {
+            this.results = result;
+        }
+
+        @Override
+        public void completeExceptionally(Throwable error) {
+            this.error = error;
+        }
+    }
+}
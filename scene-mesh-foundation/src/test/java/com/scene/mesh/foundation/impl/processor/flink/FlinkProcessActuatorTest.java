@@ -0,0 +1,134 @@
+package com.scene.mesh.foundation.impl.processor.flink;
+
+import com.scene.mesh.foundation.spec.component.IComponentProvider;
+import com.scene.mesh.foundation.spec.processor.config.ProcessorGraph;
+import com.scene.mesh.foundation.spec.processor.config.ProcessorLinkType;
+import com.scene.mesh.foundation.spec.processor.config.ProcessorLinker;
+import com.scene.mesh.foundation.spec.processor.config.ProcessorNode;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.streaming.api.graph.StreamGraph;
+import org.apache.flink.streaming.api.graph.StreamNode;
+import org.apache.flink.streaming.api.operators.async.AsyncWaitOperatorFactory;
+import org.apache.flink.streaming.runtime.partitioner.ForwardPartitioner;
+import org.apache.flink.streaming.runtime.partitioner.KeyGroupStreamPartitioner;
+import org.apache.flink.streaming.runtime.partitioner.RebalancePartitioner;
+import org.apache.flink.streaming.runtime.partitioner.StreamPartitioner;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 由 graph 构建的数据流：连接类型对应的分区方式、算子链接、分区键缺失时的错误
+ */
+class FlinkProcessActuatorTest {
+
+    private static final IComponentProvider NO_COMPONENTS = componentId -> null;
+
+    @Test
+    void linkTypesMapToPartitioners() {
+        StreamGraph streamGraph = build(graph(true, null));
+
+        assertInstanceOf(ForwardPartitioner.class, inputPartitioner(streamGraph, "a"));
+        assertInstanceOf(KeyGroupStreamPartitioner.class, inputPartitioner(streamGraph, "b"));
+        assertInstanceOf(RebalancePartitioner.class, inputPartitioner(streamGraph, "c"));
+    }
+
+    @Test
+    void forwardLinkIsChainedByDefault() {
+        // src 与 a 链接为同一任务，b、c 各自一个任务
+        assertEquals(3, build(graph(true, null)).getJobGraph().getNumberOfVertices());
+    }
+
+    @Test
+    void chainingCanBeDisabledForGraphOrNode() {
+        assertEquals(4, build(graph(false, null)).getJobGraph().getNumberOfVertices());
+        assertEquals(4, build(graph(true, Boolean.FALSE)).getJobGraph().getNumberOfVertices());
+    }
+
+    @Test
+    void asyncNodeRunsAsAsyncWaitOperator() {
+        ProcessorGraph graph = graph(true, null);
+        graph.getNodes().get(2).setAsyncCapacity(8);
+        graph.getNodes().get(2).setAsyncTimeoutMillis(1000);
+        StreamGraph streamGraph = build(graph);
+
+        assertInstanceOf(AsyncWaitOperatorFactory.class, node(streamGraph, "b").getOperatorFactory());
+        assertInstanceOf(KeyGroupStreamPartitioner.class, inputPartitioner(streamGraph, "b"));
+        assertFalse(node(streamGraph, "c").getOperatorFactory() instanceof AsyncWaitOperatorFactory);
+    }
+
+    @Test
+    void keyLinkWithoutKeyPathIsRejected() {
+        ProcessorGraph graph = graph(true, null);
+        graph.getLinkers().get(1).setLinkParameters(null);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> build(graph));
+        assertTrue(e.getMessage().contains(ProcessorLinkType.KEY_PATH_PARAMETER));
+    }
+
+    private static StreamGraph build(ProcessorGraph graph) {
+        FlinkProcessActuator actuator = new FlinkProcessActuator(NO_COMPONENTS, new Configuration());
+        actuator.initialize(graph);
+        return actuator.buildEnvironment().getStreamGraph(false);
+    }
+
+    private static StreamPartitioner<?> inputPartitioner(StreamGraph streamGraph, String nodeId) {
+        StreamNode node = node(streamGraph, nodeId);
+        assertEquals(1, node.getInEdges().size());
+        return node.getInEdges().get(0).getPartitioner();
+    }
+
+    private static StreamNode node(StreamGraph streamGraph, String nodeId) {
+        for (StreamNode node : streamGraph.getStreamNodes()) {
+            if (nodeId.equals(node.getOperatorName())) {
+                return node;
+            }
+        }
+        throw new AssertionError("stream node not found: " + nodeId);
+    }
+
+    /**
+     * src -forward-> a -key(id)-> b -rebalance-> c，src、a 并行度 1（src 为非并行 source），b 并行度 2，c 并行度 1
+     */
+    private static ProcessorGraph graph(boolean operatorChaining, Boolean nodeChaining) {
+        List<ProcessorNode> nodes = new ArrayList<>();
+        nodes.add(node("src", 1, null));
+        nodes.add(node("a", 1, nodeChaining));
+        nodes.add(node("b", 2, null));
+        nodes.add(node("c", 1, null));
+
+        List<ProcessorLinker> linkers = new ArrayList<>();
+        linkers.add(linker("src", "a", "forward", null));
+        linkers.add(linker("a", "b", "key", Map.of(ProcessorLinkType.KEY_PATH_PARAMETER, "id")));
+        linkers.add(linker("b", "c", "rebalance", null));
+
+        ProcessorGraph graph = new ProcessorGraph();
+        graph.setGraphId("test-graph");
+        graph.setNodes(nodes);
+        graph.setLinkers(linkers);
+        graph.setOperatorChaining(operatorChaining);
+        return graph;
+    }
+
+    private static ProcessorNode node(String id, int parallelism, Boolean chaining) {
+        ProcessorNode node = new ProcessorNode();
+        node.setId(id);
+        node.setComponentId(id);
+        node.setParallelism(parallelism);
+        node.setChaining(chaining);
+        return node;
+    }
+
+    private static ProcessorLinker linker(String from, String to, String linkType, Map<String, String> parameters) {
+        ProcessorLinker linker = new ProcessorLinker();
+        linker.setFromNodeId(from);
+        linker.setToNodeId(to);
+        linker.setLinkType(linkType);
+        linker.setLinkParameters(parameters);
+        return linker;
+    }
+}
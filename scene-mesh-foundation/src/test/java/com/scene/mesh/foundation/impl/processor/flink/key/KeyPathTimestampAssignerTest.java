@@ -0,0 +1,77 @@
+package com.scene.mesh.foundation.impl.processor.flink.key;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyPathTimestampAssignerTest {
+
+    private final KeyPathTimestampAssigner assigner = new KeyPathTimestampAssigner("deviceTimestamp", "ingressTimestamp");
+
+    @Test
+    void prefersFirstPathWithValue() {
+        TimedRecord record = new TimedRecord(1_000L, 2_000L);
+        assertEquals(1_000L, assigner.extractTimestamp(record, -1));
+
+        record.deviceTimestamp = null;
+        assertEquals(2_000L, assigner.extractTimestamp(record, -1));
+    }
+
+    @Test
+    void nonPositiveValueFallsThroughToNextPath() {
+        TimedRecord record = new TimedRecord(0L, 2_000L);
+        assertEquals(2_000L, assigner.extractTimestamp(record, -1));
+
+        record.deviceTimestamp = -5L;
+        assertEquals(2_000L, assigner.extractTimestamp(record, -1));
+    }
+
+    @Test
+    void onlyFutureDeviceTimestampIsCapped() {
+        KeyPathTimestampAssigner bounded = new KeyPathTimestampAssigner(500, "deviceTimestamp", "ingressTimestamp");
+
+        assertEquals(10_300L, bounded.extractTimestamp(new TimedRecord(10_300L, 10_000L), -1));
+        // 设备时钟超前超过 500ms 时取接入时间 + 500ms
+        assertEquals(10_500L, bounded.extractTimestamp(new TimedRecord(99_000L, 10_000L), -1));
+        // 离线补传的历史事件保留设备时间，由水位线判定是否迟到
+        assertEquals(1_000L, bounded.extractTimestamp(new TimedRecord(1_000L, 10_000L), -1));
+        // 没有参照时间时不限制
+        assertEquals(99_000L, bounded.extractTimestamp(new TimedRecord(99_000L, 0L), -1));
+    }
+
+    @Test
+    void readsNestedMapPath() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("ts", 42);
+        Map<String, Object> record = new HashMap<>();
+        record.put("payload", payload);
+
+        assertEquals(42L, new KeyPathTimestampAssigner("payload.ts").extractTimestamp(record, -1));
+    }
+
+    @Test
+    void fallsBackToRecordTimestamp() {
+        assertEquals(7L, assigner.extractTimestamp(new HashMap<>(), 7L));
+    }
+
+    public static class TimedRecord {
+        private Long deviceTimestamp;
+        private final long ingressTimestamp;
+
+        TimedRecord(Long deviceTimestamp, long ingressTimestamp) {
+            this.deviceTimestamp = deviceTimestamp;
+            this.ingressTimestamp = ingressTimestamp;
+        }
+
+        public Long getDeviceTimestamp() {
+            return deviceTimestamp;
+        }
+
+        public long getIngressTimestamp() {
+            return ingressTimestamp;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.scene.mesh.foundation.spec.parameter;
+
+import com.scene.mesh.foundation.spec.parameter.data.DoubleParameterDataType;
+import com.scene.mesh.foundation.spec.parameter.data.IntParameterDataType;
+import com.scene.mesh.foundation.spec.parameter.data.StringParameterDataType;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetaParameterValidationPlanTest {
+
+    @Test
+    void acceptsKnownFieldsAndRejectsUnknownOnes() {
+        MetaParameterValidationPlan plan = MetaParameterValidationPlan.compile(collection(100));
+
+        Map<String, Object> payload = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            payload.put("field" + i, "v" + i);
+        }
+        assertNull(plan.check(payload));
+        assertEquals(42, plan.indexOf("field42"));
+        assertEquals(-1, plan.indexOf("unknown"));
+
+        payload.put("unknown", 1);
+        assertTrue(plan.check(payload).contains("unknown"));
+    }
+
+    @Test
+    void defaultCheckOnlyRejectsUnknownFields() {
+        MetaParameterDescriptorCollection collection = collection(1);
+        collection.addParameterDescriptor(new MetaParameterDescriptor("required", "", "", new StringParameterDataType(), true));
+        MetaParameterValidationPlan plan = MetaParameterValidationPlan.compile(collection);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("field0", 12);
+        assertNull(plan.check(payload));
+        assertNull(plan.check(null));
+    }
+
+    @Test
+    void strictCheckRequiresFieldsBeyondFirstWord() {
+        MetaParameterDescriptorCollection collection = collection(70);
+        collection.addParameterDescriptor(new MetaParameterDescriptor("required", "", "", new StringParameterDataType(), true));
+        MetaParameterDescriptor computed = new MetaParameterDescriptor("computed", "", "", new DoubleParameterDataType(), true);
+        computed.setCalculatorDescriptor(new CalculatorDescriptor("length", "required"));
+        collection.addParameterDescriptor(computed);
+        MetaParameterValidationPlan plan = MetaParameterValidationPlan.compile(collection);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("field1", "a");
+        assertTrue(plan.check(payload, true).contains("required"));
+
+        payload.put("required", null);
+        assertNotNull(plan.check(payload, true));
+
+        payload.put("required", "text");
+        assertNull(plan.check(payload, true));
+    }
+
+    @Test
+    void strictCheckRejectsValueOfWrongType() {
+        MetaParameterDescriptorCollection collection = collection(1);
+        collection.addParameterDescriptor(new MetaParameterDescriptor("count", "", "", new IntParameterDataType(), false));
+        collection.addParameterDescriptor(new MetaParameterDescriptor("ratio", "", "", new DoubleParameterDataType(), false));
+        MetaParameterValidationPlan plan = MetaParameterValidationPlan.compile(collection);
+
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("field0", "text");
+        payload.put("count", 3L);
+        payload.put("ratio", 1);
+        assertNull(plan.check(payload, true));
+
+        payload.put("count", 1.5);
+        assertTrue(plan.check(payload, true).contains("count"));
+
+        payload.put("count", 3);
+        payload.put("field0", 12);
+        assertTrue(plan.check(payload, true).contains("field0"));
+    }
+
+    @Test
+    void planTracksCollectionChanges() {
+        MetaParameterDescriptorCollection collection = collection(3);
+        MetaParameterValidationPlan plan = MetaParameterValidationPlan.compile(collection);
+        assertTrue(plan.compiledFrom(collection));
+
+        collection.addParameterDescriptor(new MetaParameterDescriptor("extra", "", "", new StringParameterDataType(), false));
+        assertFalse(plan.compiledFrom(collection));
+        assertNotNull(collection.findParameterDescriptorByName("extra"));
+    }
+
+    private static MetaParameterDescriptorCollection collection(int fields) {
+        MetaParameterDescriptorCollection collection = new MetaParameterDescriptorCollection();
+        for (int i = 0; i < fields; i++) {
+            collection.addParameterDescriptor(
+                    new MetaParameterDescriptor("field" + i, "", "", new StringParameterDataType(), false));
+        }
+        return collection;
+    }
+}
@@ -0,0 +1,105 @@
+package org.apache.flink.cep.discover;
+
+import org.apache.flink.cep.event.Rule;
+import org.apache.flink.cep.utils.RuleVersionUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 规则发现测试：规则内容不变时不重复下发
+ */
+public class PeriodicRuleDiscovererTest {
+
+    private static final String FUNCTION = "com.scene.mesh.engin.processor.when.SceneMatchedProcessor";
+
+    @Test
+    void testUnchangedRulesArePublishedOnce() throws Exception {
+        List<String> patterns = List.of("{\"name\":\"p1\"}", "{\"name\":\"p2\"}", "{\"name\":\"p3\"}");
+        CountDownLatch cycles = new CountDownLatch(5);
+        RecordingRuleManager registry = new RecordingRuleManager();
+
+        // 每个周期都重新构建规则对象，模拟从缓存中重新读取场景
+        PeriodicRuleDiscoverer discoverer = new PeriodicRuleDiscoverer(10L) {
+            @Override
+            public List<Rule> getLatestRules() {
+                List<Rule> rules = buildRules(patterns);
+                cycles.countDown();
+                return rules;
+            }
+        };
+        try {
+            discoverer.discoverRuleUpdates(registry);
+            assertTrue(cycles.await(5, TimeUnit.SECONDS), "discoverer should run at least 5 cycles");
+        } finally {
+            discoverer.close();
+        }
+
+        assertEquals(1, registry.notifications.get(), "unchanged rules should only be published once");
+        assertEquals(patterns.size(), registry.lastRules.size());
+    }
+
+    @Test
+    void testChangedRuleIsPublishedAgain() throws Exception {
+        List<String> patterns = new ArrayList<>(List.of("{\"name\":\"p1\"}", "{\"name\":\"p2\"}"));
+        CountDownLatch cycles = new CountDownLatch(4);
+        RecordingRuleManager registry = new RecordingRuleManager();
+
+        PeriodicRuleDiscoverer discoverer = new PeriodicRuleDiscoverer(10L) {
+            @Override
+            public List<Rule> getLatestRules() {
+                // 第三个周期起修改第二条规则
+                if (cycles.getCount() <= 2) {
+                    patterns.set(1, "{\"name\":\"p2-changed\"}");
+                }
+                List<Rule> rules = buildRules(patterns);
+                cycles.countDown();
+                return rules;
+            }
+        };
+        try {
+            discoverer.discoverRuleUpdates(registry);
+            assertTrue(cycles.await(5, TimeUnit.SECONDS), "discoverer should run at least 4 cycles");
+        } finally {
+            discoverer.close();
+        }
+
+        assertEquals(2, registry.notifications.get());
+        assertEquals("{\"name\":\"p2-changed\"}", registry.lastRules.get(1).getPattern());
+    }
+
+    private static List<Rule> buildRules(List<String> patterns) {
+        List<Rule> rules = new ArrayList<>();
+        for (int i = 0; i < patterns.size(); i++) {
+            Rule rule = new Rule();
+            rule.setId("scene-" + i + ":then-" + i);
+            rule.setFunction(FUNCTION);
+            rule.setParameters("{\"sceneId\":\"scene-" + i + "\",\"thenId\":\"then-" + i + "\"}");
+            rule.setPattern(patterns.get(i));
+            rule.setLibs(new HashSet<>());
+            rule.setBindingKeys(new HashSet<>());
+            rule.setVersion(RuleVersionUtils.contentVersion(rule.getPattern(), rule.getFunction(), rule.getLibs()));
+            rules.add(rule);
+        }
+        return rules;
+    }
+
+    /**
+     * 记录规则下发次数与最近一次下发的规则，增量应用见 RuleDeltaOperatorTest
+     */
+    private static class RecordingRuleManager implements RuleManager {
+        private final AtomicInteger notifications = new AtomicInteger();
+        private volatile List<Rule> lastRules = Collections.emptyList();
+
+        @Override
+        public void onRuleUpdated(List<Rule> rules) {
+            lastRules = rules;
+            notifications.incrementAndGet();
+        }
+    }
+}
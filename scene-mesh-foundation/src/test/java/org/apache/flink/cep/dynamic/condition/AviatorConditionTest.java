@@ -0,0 +1,80 @@
+package org.apache.flink.cep.dynamic.condition;
+
+import org.apache.flink.types.Row;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 变量绑定测试：缺失字段、全部为空、Row 输入以及复用变量 Map 时不串值
+ */
+class AviatorConditionTest {
+
+    @Test
+    void missingFieldEvaluatesToFalse() throws Exception {
+        AviatorCondition<Object> condition = new AviatorCondition<>("a > 1 && b > 1");
+
+        assertTrue(condition.filter(new Both(5, 5)));
+        // 事件类型不含 b 字段
+        assertFalse(condition.filter(new OnlyA(5)));
+        // 切换回原类型后重新解析读取器
+        assertTrue(condition.filter(new Both(5, 5)));
+    }
+
+    @Test
+    void allNullBindingEvaluatesToFalse() throws Exception {
+        AviatorCondition<Object> condition = new AviatorCondition<>("a == nil");
+
+        assertFalse(condition.filter(new Both(null, null)));
+        assertFalse(condition.filter(new OnlyA(null)));
+    }
+
+    @Test
+    void rowBindsByFieldName() throws Exception {
+        AviatorCondition<Object> condition = new AviatorCondition<>("a > 1 && b == 'x'");
+
+        Row row = Row.withNames();
+        row.setField("b", "x");
+        row.setField("a", 5);
+        assertTrue(condition.filter(row));
+
+        row.setField("a", 0);
+        assertFalse(condition.filter(row));
+    }
+
+    @Test
+    void valuesDoNotLeakIntoNextEvaluation() throws Exception {
+        AviatorCondition<Object> condition = new AviatorCondition<>("a > 1 && b == nil");
+
+        assertFalse(condition.filter(new Both(5, 5)));
+        // 上一次绑定的 b 不能残留在复用的变量 Map 中
+        assertTrue(condition.filter(new Both(5, null)));
+
+        Row withB = Row.withNames();
+        withB.setField("a", 5);
+        withB.setField("b", 5);
+        Row withoutB = Row.withNames();
+        withoutB.setField("a", 5);
+        withoutB.setField("b", null);
+        assertFalse(condition.filter(withB));
+        assertTrue(condition.filter(withoutB));
+    }
+
+    public static class Both {
+        private final Integer a;
+        private final Integer b;
+
+        Both(Integer a, Integer b) {
+            this.a = a;
+            this.b = b;
+        }
+    }
+
+    public static class OnlyA {
+        private final Integer a;
+
+        OnlyA(Integer a) {
+            this.a = a;
+        }
+    }
+}
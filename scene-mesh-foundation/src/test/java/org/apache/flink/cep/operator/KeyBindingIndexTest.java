@@ -0,0 +1,91 @@
+package org.apache.flink.cep.operator;
+
+import com.scene.mesh.foundation.impl.processor.flink.key.KeyPathSelector;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.cep.event.RuleBinding;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyBindingIndexTest {
+
+    private final KeyBindingIndex index = new KeyBindingIndex();
+
+    @Test
+    void combinesExactAndWildcardBindings() {
+        index.update(List.of(
+                binding("r1", 1, "terminal-01"),
+                binding("r2", 1, "terminal-*"),
+                binding("r3", 1, "terminal-0?"),
+                binding("r4", 1, "*-01"),
+                binding("r5", 1, "device-*")));
+
+        assertEquals(Set.of("r1", "r2", "r3", "r4"), ruleIds(index.get("terminal-01")));
+        assertEquals(Set.of("r2"), ruleIds(index.get("terminal-100")));
+        assertEquals(Set.of("r4", "r5"), ruleIds(index.get("device-01")));
+        assertTrue(index.get("gateway").isEmpty());
+    }
+
+    @Test
+    void deduplicatesRuleBoundByMultipleKeys() {
+        index.update(List.of(binding("r1", 1, "terminal-01", "terminal-*", "*")));
+
+        assertEquals(1, index.get("terminal-01").size());
+    }
+
+    @Test
+    void resultIsImmutableAndCachedUntilBindingsChange() {
+        List<RuleBinding> bindings = List.of(binding("r1", 1, "terminal-*"));
+        index.update(bindings);
+        List<Tuple2<String, Integer>> first = index.get("terminal-01");
+
+        assertThrows(UnsupportedOperationException.class, () -> first.add(Tuple2.of("x", 1)));
+        assertFalse(index.update(bindings));
+        assertSame(first, index.get("terminal-01"));
+    }
+
+    @Test
+    void appliesVersionAndKeyChangesIncrementally() {
+        index.update(List.of(binding("r1", 1, "terminal-*"), binding("r2", 1, "terminal-01")));
+
+        assertTrue(index.update(List.of(binding("r1", 2, "device-*"), binding("r2", 1, "terminal-01"))));
+
+        assertEquals(List.of(Tuple2.of("r2", 1)), index.get("terminal-01"));
+        assertEquals(List.of(Tuple2.of("r1", 2)), index.get("device-01"));
+
+        index.update(List.of());
+        assertTrue(index.get("terminal-01").isEmpty());
+        assertTrue(index.get("device-01").isEmpty());
+    }
+
+    @Test
+    void productScopedBindingsMatchCompositeKeys() throws Exception {
+        // "when" 图按 productId:terminalId 分区，场景规则绑定 productId:*
+        KeyPathSelector selector = new KeyPathSelector("productId", "terminalId");
+        index.update(List.of(binding("p1-scene", 1, "p1:*"), binding("p2-scene", 1, "p2:*"), binding("global", 1, "*")));
+
+        String key = selector.getKey(Map.of("productId", "p1", "terminalId", "t-01"));
+        assertEquals("p1:t-01", key);
+        assertEquals(Set.of("p1-scene", "global"), ruleIds(index.get(key)));
+        // 未带 productId 的事件只匹配不限产品的规则
+        assertEquals(Set.of("global"), ruleIds(index.get(selector.getKey(Map.of("terminalId", "t-01")))));
+    }
+
+    private static Set<String> ruleIds(List<Tuple2<String, Integer>> rules) {
+        Set<String> ids = new HashSet<>();
+        for (Tuple2<String, Integer> rule : rules) {
+            ids.add(rule.f0);
+        }
+        return ids;
+    }
+
+    private static RuleBinding binding(String id, int version, String... keys) {
+        RuleBinding binding = new RuleBinding();
+        binding.setId(id);
+        binding.setVersion(version);
+        binding.setBindingKeys(new HashSet<>(Arrays.asList(keys)));
+        return binding;
+    }
+}
@@ -0,0 +1,230 @@
+package org.apache.flink.cep.operator;
+
+import org.apache.flink.api.common.typeinfo.TypeHint;
+import org.apache.flink.api.common.typeinfo.TypeInformation;
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.api.java.functions.KeySelector;
+import org.apache.flink.cep.CEPUtils;
+import org.apache.flink.cep.context.RuleFunctionContext;
+import org.apache.flink.cep.dynamic.condition.AviatorCondition;
+import org.apache.flink.cep.dynamic.impl.json.util.CepJsonUtils;
+import org.apache.flink.cep.event.EventRecord;
+import org.apache.flink.cep.event.RuleUpdated;
+import org.apache.flink.cep.event.RuleUpdatedEvent;
+import org.apache.flink.cep.functions.AbstractPatternProcessFunction;
+import org.apache.flink.cep.functions.AbstractRuleProcessFunction;
+import org.apache.flink.cep.pattern.Pattern;
+import org.apache.flink.cep.types.RuleRowKey;
+import org.apache.flink.configuration.Configuration;
+import org.apache.flink.runtime.operators.coordination.OperatorEventHandler;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.util.KeyedOneInputStreamOperatorTestHarness;
+import org.apache.flink.util.Collector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 规则算子按增量应用规则更新：内容未变的规则不重建处理器，只重建版本变化的规则
+ */
+class RuleDeltaOperatorTest {
+
+    private static final KeySelector<String, String> IDENTITY = value -> value;
+
+    private static final AtomicInteger OPENS = new AtomicInteger();
+
+    private static final AtomicInteger CLOSES = new AtomicInteger();
+
+    private static final AtomicInteger FAILED_OPENS = new AtomicInteger();
+
+    @BeforeEach
+    void reset() {
+        OPENS.set(0);
+        CLOSES.set(0);
+        FAILED_OPENS.set(0);
+    }
+
+    @Test
+    void cepOperatorReopensOnlyChangedRules() throws Exception {
+        String pattern = CepJsonUtils.convertPatternToJSONString(
+                Pattern.<String>begin("start").where(new AviatorCondition<>("true")));
+        List<RuleUpdated> rules = List.of(
+                rule("rule-0", 1, CountingPatternFunction.class.getName(), pattern),
+                rule("rule-1", 1, CountingPatternFunction.class.getName(), pattern));
+
+        try (KeyedOneInputStreamOperatorTestHarness<RuleRowKey<String>, EventRecord<String>, Object> harness =
+                     harness(new CepRuleProcessorOperator<>(null, StringSerializer.INSTANCE, true, null, null, "/"))) {
+            assertReopensOnlyChangedRules(harness, rules);
+        }
+    }
+
+    @Test
+    void cepOperatorQuarantinesRuleThatFailsToOpen() throws Exception {
+        String pattern = CepJsonUtils.convertPatternToJSONString(
+                Pattern.<String>begin("start").where(new AviatorCondition<>("true")));
+        List<RuleUpdated> rules = List.of(
+                rule("rule-0", 1, CountingPatternFunction.class.getName(), pattern),
+                rule("rule-bad", 1, FailingPatternFunction.class.getName(), pattern));
+
+        CepRuleProcessorOperator<String, Object> operator =
+                new CepRuleProcessorOperator<>(null, StringSerializer.INSTANCE, true, null, null, "/");
+        try (KeyedOneInputStreamOperatorTestHarness<RuleRowKey<String>, EventRecord<String>, Object> harness =
+                     harness(operator)) {
+            harness.open();
+
+            // 打开失败不抛出，其他规则照常打开并处理事件
+            for (int i = 0; i < 3; i++) {
+                operator.handleOperatorEvent(new RuleUpdatedEvent(copies(rules)));
+                harness.processElement(record("rule-0", "terminal-01"), 0L);
+                harness.processElement(record("rule-bad", "terminal-01"), 0L);
+            }
+            assertEquals(1, OPENS.get());
+            assertEquals(1, FAILED_OPENS.get());
+            assertEquals(1, operator.getNumProcessorOpens().getCount());
+            assertEquals(1, operator.getNumProcessorOpenFailures().getCount());
+            assertEquals(3, harness.extractOutputValues().size());
+
+            // 规则版本变化后重新打开
+            List<RuleUpdated> fixed = copies(rules);
+            fixed.set(1, rule("rule-bad", 2, CountingPatternFunction.class.getName(), pattern));
+            operator.handleOperatorEvent(new RuleUpdatedEvent(fixed));
+            operator.handleOperatorEvent(new RuleUpdatedEvent(copies(fixed)));
+            assertEquals(2, OPENS.get());
+            assertEquals(2, operator.getNumProcessorOpens().getCount());
+            assertEquals(0, CLOSES.get());
+        }
+    }
+
+    @Test
+    void udfOperatorReopensOnlyChangedRules() throws Exception {
+        List<RuleUpdated> rules = List.of(
+                rule("rule-0", 1, CountingRuleFunction.class.getName(), null),
+                rule("rule-1", 1, CountingRuleFunction.class.getName(), null));
+
+        try (KeyedOneInputStreamOperatorTestHarness<RuleRowKey<String>, EventRecord<String>, Object> harness =
+                     harness(new UdfRuleProcessorOperator<String, String, Object>(null, "/"))) {
+            assertReopensOnlyChangedRules(harness, rules);
+        }
+    }
+
+    private static void assertReopensOnlyChangedRules(
+            KeyedOneInputStreamOperatorTestHarness<RuleRowKey<String>, EventRecord<String>, Object> harness,
+            List<RuleUpdated> rules) throws Exception {
+        harness.open();
+        OperatorEventHandler handler = (OperatorEventHandler) harness.getOperator();
+
+        handler.handleOperatorEvent(new RuleUpdatedEvent(new ArrayList<>(rules)));
+        assertEquals(2, OPENS.get());
+
+        // 每个周期重新下发内容相同的规则，不重建任何处理器
+        for (int i = 0; i < 5; i++) {
+            handler.handleOperatorEvent(new RuleUpdatedEvent(copies(rules)));
+            harness.processElement(record("rule-0", "terminal-01"), 0L);
+        }
+        assertEquals(2, OPENS.get());
+        assertEquals(0, CLOSES.get());
+
+        // 修改 rule-1：只重建 rule-1
+        List<RuleUpdated> changed = copies(rules);
+        changed.get(1).setVersion(2);
+        handler.handleOperatorEvent(new RuleUpdatedEvent(changed));
+        assertEquals(3, OPENS.get());
+        assertEquals(1, CLOSES.get());
+
+        // 删除 rule-0
+        handler.handleOperatorEvent(new RuleUpdatedEvent(new ArrayList<>(changed.subList(1, 2))));
+        assertEquals(3, OPENS.get());
+        assertEquals(2, CLOSES.get());
+    }
+
+    private static KeyedOneInputStreamOperatorTestHarness<RuleRowKey<String>, EventRecord<String>, Object> harness(
+            OneInputStreamOperator<EventRecord<String>, Object> operator) throws Exception {
+        return new KeyedOneInputStreamOperatorTestHarness<>(
+                operator, CEPUtils.ruleKeySelector(IDENTITY), TypeInformation.of(new TypeHint<RuleRowKey<String>>() {
+        }));
+    }
+
+    private static EventRecord<String> record(String ruleId, String event) {
+        EventRecord<String> record = new EventRecord<>();
+        record.setRuleId(ruleId);
+        record.setRuleVersion(1);
+        record.setEvent(event);
+        return record;
+    }
+
+    private static RuleUpdated rule(String id, int version, String function, String pattern) {
+        RuleUpdated rule = new RuleUpdated();
+        rule.setId(id);
+        rule.setVersion(version);
+        rule.setParameters("{}");
+        rule.setFunction(function);
+        rule.setPattern(pattern);
+        rule.setLibs(Collections.emptySet());
+        return rule;
+    }
+
+    /**
+     * 每次下发的都是新的规则对象，与从缓存重新读取场景一致
+     */
+    private static List<RuleUpdated> copies(List<RuleUpdated> rules) {
+        List<RuleUpdated> copies = new ArrayList<>(rules.size());
+        for (RuleUpdated rule : rules) {
+            copies.add(rule(rule.getId(), rule.getVersion(), rule.getFunction(), rule.getPattern()));
+        }
+        return copies;
+    }
+
+    public static class CountingPatternFunction extends AbstractPatternProcessFunction<String, Object> {
+
+        @Override
+        public void open(Configuration parameters) throws Exception {
+            OPENS.incrementAndGet();
+        }
+
+        @Override
+        public void close() throws Exception {
+            CLOSES.incrementAndGet();
+        }
+
+        @Override
+        public void processMatch(Map<String, List<String>> match, Context ctx, Collector<Object> out) {
+            out.collect(match.size());
+        }
+    }
+
+    public static class FailingPatternFunction extends AbstractPatternProcessFunction<String, Object> {
+
+        @Override
+        public void open(Configuration parameters) throws Exception {
+            FAILED_OPENS.incrementAndGet();
+            throw new IllegalStateException("broken rule");
+        }
+
+        @Override
+        public void processMatch(Map<String, List<String>> match, Context ctx, Collector<Object> out) {
+            out.collect(match.size());
+        }
+    }
+
+    public static class CountingRuleFunction extends AbstractRuleProcessFunction<String, String, Object> {
+
+        @Override
+        public void open(Configuration configuration) {
+            OPENS.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            CLOSES.incrementAndGet();
+        }
+
+        @Override
+        public void process(String value, RuleFunctionContext<String> ctx, Collector<Object> out) {
+            out.collect(value);
+        }
+    }
+}
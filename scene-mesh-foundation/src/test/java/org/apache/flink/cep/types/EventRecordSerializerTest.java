@@ -0,0 +1,96 @@
+package org.apache.flink.cep.types;
+
+import org.apache.flink.api.common.typeutils.base.StringSerializer;
+import org.apache.flink.api.common.typeutils.base.array.IntPrimitiveArraySerializer;
+import org.apache.flink.cep.event.EventRecord;
+import org.apache.flink.core.memory.DataInputDeserializer;
+import org.apache.flink.core.memory.DataOutputSerializer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRecordSerializerTest {
+
+    private final EventRecordSerializer<String> serializer = new EventRecordSerializer<>(StringSerializer.INSTANCE);
+
+    @Test
+    void roundTripsFannedOutRecords() throws Exception {
+        DataOutputSerializer output = new DataOutputSerializer(64);
+        String event = "event-payload";
+        EventRecord<String> record = new EventRecord<>();
+        for (int i = 0; i < 3; i++) {
+            record.setEvent(event);
+            record.setSameEventAsPrevious(i > 0);
+            record.setRuleId("rule-" + i);
+            record.setRuleVersion(i == 1 ? null : i);
+            serializer.serialize(record, output);
+        }
+        record.setEvent(null);
+        record.setSameEventAsPrevious(false);
+        record.setRuleId("rule-empty");
+        record.setRuleVersion(5);
+        serializer.serialize(record, output);
+
+        DataInputDeserializer input = new DataInputDeserializer(output.getCopyOfBuffer());
+        for (int i = 0; i < 3; i++) {
+            EventRecord<String> result = serializer.deserialize(input);
+            assertEquals("rule-" + i, result.getRuleId());
+            assertEquals(i == 1 ? null : Integer.valueOf(i), result.getRuleVersion());
+            assertEquals(event, result.getEvent());
+        }
+        EventRecord<String> empty = serializer.deserialize(input);
+        assertEquals("rule-empty", empty.getRuleId());
+        assertNull(empty.getEvent());
+    }
+
+    @Test
+    void reusedEventObjectIsSerializedAgainUnlessMarked() throws Exception {
+        // 开启对象复用时上游可能复用并修改同一个事件对象
+        EventRecordSerializer<int[]> arrays = new EventRecordSerializer<>(IntPrimitiveArraySerializer.INSTANCE);
+        DataOutputSerializer output = new DataOutputSerializer(64);
+        int[] event = {1};
+        EventRecord<int[]> record = new EventRecord<>();
+        record.setEvent(event);
+        record.setRuleId("rule-0");
+        arrays.serialize(record, output);
+
+        event[0] = 2;
+        arrays.serialize(record, output);
+
+        // 标记为同一事件但对象不同时同样重新序列化
+        record.setEvent(new int[]{3});
+        record.setSameEventAsPrevious(true);
+        arrays.serialize(record, output);
+
+        DataInputDeserializer input = new DataInputDeserializer(output.getCopyOfBuffer());
+        assertArrayEquals(new int[]{1}, arrays.deserialize(input).getEvent());
+        assertArrayEquals(new int[]{2}, arrays.deserialize(input).getEvent());
+        assertArrayEquals(new int[]{3}, arrays.deserialize(input).getEvent());
+    }
+
+    @Test
+    void copiesSerializedRecordsVerbatim() throws Exception {
+        DataOutputSerializer output = new DataOutputSerializer(64);
+        EventRecord<String> record = new EventRecord<>();
+        record.setEvent("event-payload");
+        record.setRuleId("rule-0");
+        record.setRuleVersion(1);
+        serializer.serialize(record, output);
+        record.setRuleId("rule-1");
+        record.setSameEventAsPrevious(true);
+        serializer.serialize(record, output);
+
+        DataInputDeserializer input = new DataInputDeserializer(output.getCopyOfBuffer());
+        DataOutputSerializer copy = new DataOutputSerializer(64);
+        serializer.copy(input, copy);
+        serializer.copy(input, copy);
+
+        assertArrayEquals(output.getCopyOfBuffer(), copy.getCopyOfBuffer());
+    }
+
+    @Test
+    void duplicateIsIndependentButEqual() {
+        assertNotSame(serializer, serializer.duplicate());
+        assertEquals(serializer, serializer.duplicate());
+    }
+}
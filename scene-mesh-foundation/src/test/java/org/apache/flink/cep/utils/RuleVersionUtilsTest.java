@@ -0,0 +1,25 @@
+package org.apache.flink.cep.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RuleVersionUtilsTest {
+
+    private static final String FUNCTION = "com.scene.mesh.engin.processor.when.SceneMatchedProcessor";
+
+    @Test
+    void contentVersionIsStable() {
+        Set<String> libs = new LinkedHashSet<>(List.of("a.jar", "b.jar"));
+        Set<String> reversedLibs = new LinkedHashSet<>(List.of("b.jar", "a.jar"));
+
+        int version = RuleVersionUtils.contentVersion("{\"name\":\"p\"}", FUNCTION, libs);
+        assertEquals(version, RuleVersionUtils.contentVersion("{\"name\":\"p\"}", FUNCTION, reversedLibs));
+        assertTrue(version >= 0);
+        assertNotEquals(version, RuleVersionUtils.contentVersion("{\"name\":\"q\"}", FUNCTION, libs));
+    }
+}
@@ -0,0 +1,84 @@
+package org.apache.flink.cep.utils;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserClassLoaderUtilsTest {
+
+    @TempDir
+    Path libDir;
+
+    @Test
+    void reusesClassLoaderUntilJarIsReplaced() throws Exception {
+        Path jar = Files.write(libDir.resolve("rule-lib.jar"), new byte[]{1, 2, 3});
+        Set<String> libs = Set.of("rule-lib.jar");
+        ClassLoader parent = getClass().getClassLoader();
+
+        ClassLoader first = UserClassLoaderUtils.getClassLoader(libDir.toString(), libs, 1, parent);
+        // 同一组 libs 的其它规则版本共用类加载器
+        assertSame(first, UserClassLoaderUtils.getClassLoader(libDir.toString(), libs, 2, parent));
+
+        // 同名 jar 被替换
+        Files.write(jar, new byte[]{1, 2, 3, 4});
+        assertTrue(jar.toFile().setLastModified(jar.toFile().lastModified() + 1000));
+        assertNotSame(first, UserClassLoaderUtils.getClassLoader(libDir.toString(), libs, 2, parent));
+    }
+
+    @Test
+    void remoteLibsAreFingerprintedByETagAndReplacedLoaderIsClosed() throws Exception {
+        AtomicReference<String> etag = new AtomicReference<>("\"v1\"");
+        byte[] jar = jarWithEntry("marker.txt");
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/libs/", exchange -> {
+            exchange.getResponseHeaders().set("ETag", etag.get());
+            boolean head = "HEAD".equals(exchange.getRequestMethod());
+            exchange.sendResponseHeaders(200, head ? -1 : jar.length);
+            if (!head) {
+                exchange.getResponseBody().write(jar);
+            }
+            exchange.close();
+        });
+        server.start();
+        try {
+            String remoteDir = "http://127.0.0.1:" + server.getAddress().getPort() + "/libs/";
+            Set<String> libs = Set.of("remote-rule-lib.jar");
+            ClassLoader parent = getClass().getClassLoader();
+
+            ClassLoader first = UserClassLoaderUtils.getClassLoader(remoteDir, libs, 1, parent);
+            assertNotNull(first.getResource("marker.txt"));
+            // ETag 不变时不同规则版本共用类加载器
+            assertSame(first, UserClassLoaderUtils.getClassLoader(remoteDir, libs, 2, parent));
+
+            // 远程 jar 被替换后重新创建，旧的类加载器被关闭
+            etag.set("\"v2\"");
+            ClassLoader second = UserClassLoaderUtils.getClassLoader(remoteDir, libs, 2, parent);
+            assertNotSame(first, second);
+            assertNull(first.getResource("marker.txt"));
+            assertNotNull(second.getResource("marker.txt"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static byte[] jarWithEntry(String name) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JarOutputStream jar = new JarOutputStream(bytes)) {
+            jar.putNextEntry(new JarEntry(name));
+            jar.write(1);
+            jar.closeEntry();
+        }
+        return bytes.toByteArray();
+    }
+}
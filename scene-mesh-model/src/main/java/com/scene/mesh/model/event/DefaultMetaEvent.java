@@ -2,6 +2,7 @@ package com.scene.mesh.model.event;
 
 import com.scene.mesh.foundation.spec.parameter.MetaParameterDescriptor;
 import com.scene.mesh.foundation.spec.parameter.MetaParameterDescriptorCollection;
+import com.scene.mesh.foundation.spec.parameter.MetaParameterValidationPlan;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Map;
@@ -19,6 +20,8 @@ public class DefaultMetaEvent implements IMetaEvent {
     private String description;
     // 元事件参数
     private MetaParameterDescriptorCollection parameterCollection;
+    // 由参数集合编译的校验计划，不参与序列化，反序列化后首次校验时编译
+    private transient volatile MetaParameterValidationPlan validationPlan;
 
     public DefaultMetaEvent() {
     }
@@ -31,17 +34,30 @@ public class DefaultMetaEvent implements IMetaEvent {
     }
 
     @Override
-    public boolean validate(Map<String,Object> dataMap) {
-        for (Map.Entry<String, Object> entry : dataMap.entrySet()) {
-            MetaParameterDescriptor mpd = parameterCollection.findParameterDescriptorByName(entry.getKey());
-            if (mpd == null) {
-                log.error("无法匹配相应的事件元属性: json Key - {} ", entry.getKey());
-                return false;
-            }
+    public boolean validate(Map<String,Object> dataMap, boolean strict) {
+        String violation = validationPlan().check(dataMap, strict);
+        if (violation != null) {
+            log.error("{}, metaEvent - {}", violation, this.uuid);
+            return false;
         }
         return true;
     }
 
+    /**
+     * 当前参数集合的校验计划
+     */
+    public MetaParameterValidationPlan validationPlan() {
+        MetaParameterValidationPlan plan = this.validationPlan;
+        if (plan == null || !plan.compiledFrom(this.parameterCollection)) {
+            if (this.parameterCollection == null) {
+                this.parameterCollection = new MetaParameterDescriptorCollection();
+            }
+            plan = MetaParameterValidationPlan.compile(this.parameterCollection);
+            this.validationPlan = plan;
+        }
+        return plan;
+    }
+
     @Override
     public String getUuid() {
         return this.uuid;
@@ -72,5 +88,6 @@ public class DefaultMetaEvent implements IMetaEvent {
             this.parameterCollection = new MetaParameterDescriptorCollection();
         }
         this.parameterCollection.addParameterDescriptor(parameterDescriptor);
+        this.validationPlan = null;
     }
 }
@@ -20,8 +20,14 @@ public class Event implements Serializable {
     private String type;
     //terminal ID
     private String terminalId;
+    //product ID, resolved from the meta event when the message is accepted
+    private String productId;
     //payload
     private Map<String, Object> payload;
+    //device timestamp (epoch millis), reported by terminal, may be null
+    private Long deviceTimestamp;
+    //ingress timestamp (epoch millis), set when the message is accepted
+    private long ingressTimestamp;
 
     public Event() {
     }
@@ -30,6 +36,7 @@ public class Event implements Serializable {
         this.id = UUID.randomUUID().toString();
         this.type = type;
         this.payload = new HashMap<>();
+        this.ingressTimestamp = System.currentTimeMillis();
     }
 
     public void addPayloadEntry(String key, Object val) {
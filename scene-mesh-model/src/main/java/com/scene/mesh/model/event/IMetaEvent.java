@@ -10,9 +10,18 @@ import java.util.Map;
  */
 public interface IMetaEvent extends IMetaParameterized, Serializable {
 
+    /**
+     * 校验 json 是否符合 MetaEvent 规范，只拒绝未声明的字段
+     * @return
+     */
+    default boolean validate(Map<String, Object> jsonData) {
+        return validate(jsonData, false);
+    }
+
     /**
      * 校验 json 是否符合 MetaEvent 规范
+     * @param strict 是否同时校验必填字段与值的类型
      * @return
      */
-    boolean validate(Map<String, Object> jsonData);
+    boolean validate(Map<String, Object> jsonData, boolean strict);
 }
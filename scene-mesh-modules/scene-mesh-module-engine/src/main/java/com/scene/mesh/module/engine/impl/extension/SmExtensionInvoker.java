@@ -5,23 +5,29 @@ import com.scene.mesh.module.engine.spec.extension.ISmExtensionManager;
 import com.scene.mesh.module.engine.spec.extension.ISmExtensionPlugin;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 扩展调用器实现
  * 负责调用扩展插件的方法
+ * 插件的公共方法在注册表变更后一次性绑定为 {@link MethodHandle}，并按 slot、plugin 建立只读索引；
+ * 单次调用只做索引查找与参数类型检查，不再反射查找方法或拼接缓存 key。
  */
 @Slf4j
 public class SmExtensionInvoker implements ISmExtensionInvoker {
 
     private final ISmExtensionManager extensionManager;
 
-    private final Map<String, Method> methodCache = new ConcurrentHashMap<>();
+    private volatile Bindings bindings = Bindings.EMPTY;
 
     public SmExtensionInvoker(ISmExtensionManager extensionManager) {
         this.extensionManager = extensionManager;
@@ -42,15 +48,31 @@ public class SmExtensionInvoker implements ISmExtensionInvoker {
         return instances;
     }
 
+    @Override
+    public <T> T getExtension(String slotId, String pluginId, Class<T> type) {
+        PluginBinding binding = currentBindings().find(slotId, pluginId);
+        if (binding == null) {
+            throw new IllegalArgumentException("Extension plugin not found: " + pluginId + " in slot: " + slotId);
+        }
+        if (!type.isInstance(binding.instance)) {
+            throw new IllegalArgumentException("Extension plugin " + pluginId + " is not a " + type.getName());
+        }
+        return type.cast(binding.instance);
+    }
+
     @Override
     public List<Object> invokeAllExtensions(String slotId, String methodName, Object... args) {
         List<Object> results = new ArrayList<>();
+        Bindings current = currentBindings();
         List<ISmExtensionPlugin> plugins = extensionManager.findPluginsBySlot(slotId);
 
         for (ISmExtensionPlugin plugin : plugins) {
             try {
-                Object result = invokeExtension(plugin.getId(), methodName, args);
-                results.add(result);
+                PluginBinding binding = current.byId.get(plugin.getId());
+                if (binding == null) {
+                    throw new IllegalArgumentException("Extension plugin not found: " + plugin.getId());
+                }
+                results.add(binding.invoke(methodName, args));
             } catch (Exception e) {
                 // 记录错误但不中断其他插件的调用
                 log.error("Failed to invoke extension plugin - {}, method - {}, message - {}",
@@ -63,159 +85,186 @@ public class SmExtensionInvoker implements ISmExtensionInvoker {
 
     @Override
     public Object invokeExtension(String slotId, String pluginId, String methodName, Object... args) {
-        List<ISmExtensionPlugin> plugins = extensionManager.findPluginsBySlot(slotId);
-        if (plugins == null || plugins.isEmpty()) {
+        Bindings current = currentBindings();
+        if (!current.bySlot.containsKey(slotId)) {
             throw new IllegalArgumentException("Extension plugins not found from slotId: " + slotId);
         }
 
-        ISmExtensionPlugin targetPlugin = null;
-        for (ISmExtensionPlugin plugin : plugins) {
-            if (plugin.getId().equals(pluginId)) {
-                targetPlugin = plugin;
-            }
-        }
-
-        if (targetPlugin == null) {
+        PluginBinding binding = current.find(slotId, pluginId);
+        if (binding == null) {
             throw new IllegalArgumentException("Extension plugin not found: " + pluginId);
         }
 
-        return invokePlugin(methodName, args, targetPlugin);
+        return binding.invoke(methodName, args);
     }
 
     @Override
     public Object invokeExtension(String pluginId, String methodName, Object... args) {
-        ISmExtensionPlugin plugin = extensionManager.findExtensionPlugin(pluginId);
-        if (plugin == null) {
+        PluginBinding binding = currentBindings().byId.get(pluginId);
+        if (binding == null) {
             throw new IllegalArgumentException("Extension plugin not found: " + pluginId);
         }
 
-        return invokePlugin(methodName, args, plugin);
+        return binding.invoke(methodName, args);
     }
 
-    private Object invokePlugin(String methodName, Object[] args, ISmExtensionPlugin plugin) {
-        Object instance = plugin.getPluginInstance();
-        if (instance == null) {
-            throw new IllegalStateException("Extension plugin instance is null: " + plugin.getId());
+    /**
+     * 注册表版本变化时重新绑定全部插件，未变化时直接返回当前绑定
+     */
+    private Bindings currentBindings() {
+        Bindings current = bindings;
+        long version = extensionManager.getVersion();
+        if (current.version == version) {
+            return current;
         }
-
-        try {
-            // 获取方法参数类型
-            Class<?>[] paramTypes = new Class[args.length];
-            for (int i = 0; i < args.length; i++) {
-                paramTypes[i] = args[i] != null ? args[i].getClass() : Object.class;
+        synchronized (this) {
+            current = bindings;
+            if (current.version != version) {
+                current = Bindings.bind(version, extensionManager.getAllExtensionPlugins());
+                bindings = current;
             }
-
-            // 查找方法
-            Method method = findMethod(instance.getClass(), methodName, paramTypes);
-            if (method == null) {
-                throw new NoSuchMethodException("Method not found: " + methodName +
-                        " with parameter types: " + Arrays.toString(paramTypes));
-            }
-
-            // 调用方法
-            method.setAccessible(true);
-            return method.invoke(instance, args);
-
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to invoke extension " + plugin.getId() +
-                    " method " + methodName, e);
+            return current;
         }
     }
 
     /**
-     * 查找方法，支持参数类型匹配和缓存
+     * 某一注册表版本下全部插件的绑定，创建后不再修改
      */
-    private Method findMethod(Class<?> clazz, String methodName, Class<?>[] paramTypes) {
-        // 生成缓存key
-        String cacheKey = generateCacheKey(clazz.getName(), methodName, paramTypes);
+    private static final class Bindings {
 
-        // 先从缓存中查找
-        Method cachedMethod = methodCache.get(cacheKey);
-        if (cachedMethod != null) {
-            return cachedMethod;
-        }
+        private static final Bindings EMPTY = new Bindings(0, Collections.emptyMap(), Collections.emptyMap());
+
+        private final long version;
+
+        private final Map<String, PluginBinding> byId;
 
-        Method method = null;
-        try {
-            // 首先尝试直接匹配
-            method = clazz.getMethod(methodName, paramTypes);
-        } catch (NoSuchMethodException e) {
-            // 如果直接匹配失败，尝试接口类型匹配
-            method = findMethodWithInterfaceMatching(clazz, methodName, paramTypes);
+        private final Map<String, Map<String, PluginBinding>> bySlot;
+
+        private Bindings(long version, Map<String, PluginBinding> byId, Map<String, Map<String, PluginBinding>> bySlot) {
+            this.version = version;
+            this.byId = byId;
+            this.bySlot = bySlot;
         }
 
-        // 将找到的方法放入缓存
-        if (method != null) {
-            methodCache.put(cacheKey, method);
+        private static Bindings bind(long version, List<ISmExtensionPlugin> plugins) {
+            Map<String, PluginBinding> byId = new HashMap<>();
+            Map<String, Map<String, PluginBinding>> bySlot = new HashMap<>();
+            for (ISmExtensionPlugin plugin : plugins) {
+                if (plugin.getPluginInstance() == null) {
+                    log.warn("Extension plugin instance is null: {}", plugin.getId());
+                    continue;
+                }
+                PluginBinding binding = new PluginBinding(plugin);
+                byId.put(plugin.getId(), binding);
+                bySlot.computeIfAbsent(plugin.getExtensionSlotId(), k -> new HashMap<>()).put(plugin.getId(), binding);
+            }
+            bySlot.replaceAll((slotId, slotPlugins) -> Collections.unmodifiableMap(slotPlugins));
+            log.debug("Bound {} extension plugins at registry version {}", byId.size(), version);
+            return new Bindings(version, Collections.unmodifiableMap(byId), Collections.unmodifiableMap(bySlot));
         }
 
-        return method;
+        private PluginBinding find(String slotId, String pluginId) {
+            Map<String, PluginBinding> slotPlugins = bySlot.get(slotId);
+            return slotPlugins != null ? slotPlugins.get(pluginId) : null;
+        }
     }
 
     /**
-     * 使用接口类型匹配查找方法
+     * 单个插件的方法绑定：方法名 -> 已绑定实例、展开参数数组的 MethodHandle
      */
-    private Method findMethodWithInterfaceMatching(Class<?> clazz, String methodName, Class<?>[] paramTypes) {
-        Method[] methods = clazz.getMethods();
-        for (Method method : methods) {
-            if (!method.getName().equals(methodName)) {
-                continue;
+    private static final class PluginBinding {
+
+        private static final MethodType SPREAD_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+        private final String pluginId;
+
+        private final Object instance;
+
+        private final Map<String, BoundMethod[]> methods;
+
+        private PluginBinding(ISmExtensionPlugin plugin) {
+            this.pluginId = plugin.getId();
+            this.instance = plugin.getPluginInstance();
+
+            Map<String, List<BoundMethod>> found = new HashMap<>();
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            for (Method method : instance.getClass().getMethods()) {
+                if (Modifier.isStatic(method.getModifiers()) || method.getDeclaringClass() == Object.class) {
+                    continue;
+                }
+                try {
+                    if (!Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                        // 模块中的非 public 实现类
+                        method.setAccessible(true);
+                    }
+                    MethodHandle handle = lookup.unreflect(method)
+                            .bindTo(instance)
+                            .asSpreader(Object[].class, method.getParameterCount())
+                            .asType(SPREAD_TYPE);
+                    found.computeIfAbsent(method.getName(), k -> new ArrayList<>())
+                            .add(new BoundMethod(method.getParameterTypes(), handle));
+                } catch (IllegalAccessException | RuntimeException e) {
+                    log.warn("Skip extension method {}#{} - {}", pluginId, method.getName(), e.getMessage());
+                }
             }
-            
-            Class<?>[] methodParamTypes = method.getParameterTypes();
-            if (methodParamTypes.length != paramTypes.length) {
-                continue;
+
+            Map<String, BoundMethod[]> methods = new HashMap<>(found.size() * 2);
+            found.forEach((name, candidates) -> methods.put(name, candidates.toArray(new BoundMethod[0])));
+            this.methods = methods;
+        }
+
+        private Object invoke(String methodName, Object[] args) {
+            BoundMethod method = select(methodName, args);
+            if (method == null) {
+                throw new RuntimeException("Failed to invoke extension " + pluginId + " method " + methodName,
+                        new NoSuchMethodException("Method not found: " + methodName + " with " + args.length + " arguments"));
             }
-            
-            boolean match = true;
-            for (int i = 0; i < paramTypes.length; i++) {
-                if (!isAssignableFrom(methodParamTypes[i], paramTypes[i])) {
-                    match = false;
-                    break;
-                }
+            try {
+                return (Object) method.handle.invokeExact(args);
+            } catch (Throwable e) {
+                throw new RuntimeException("Failed to invoke extension " + pluginId + " method " + methodName, e);
             }
-            
-            if (match) {
-                return method;
+        }
+
+        private BoundMethod select(String methodName, Object[] args) {
+            BoundMethod[] candidates = methods.get(methodName);
+            if (candidates == null) {
+                return null;
+            }
+            for (BoundMethod candidate : candidates) {
+                if (candidate.accepts(args)) {
+                    return candidate;
+                }
             }
+            return null;
         }
-        
-        return null;
     }
 
-    /**
-     * 检查类型是否可赋值
-     */
-    private boolean isAssignableFrom(Class<?> target, Class<?> source) {
-        if (target.isAssignableFrom(source)) {
-            return true;
-        }
-        
-        // 特殊处理 Map 接口类型匹配
-        if (target == Map.class && source != null) {
-            return Map.class.isAssignableFrom(source);
+    private static final class BoundMethod {
+
+        private final Class<?>[] parameterTypes;
+
+        private final MethodHandle handle;
+
+        private BoundMethod(Class<?>[] parameterTypes, MethodHandle handle) {
+            this.parameterTypes = new Class<?>[parameterTypes.length];
+            for (int i = 0; i < parameterTypes.length; i++) {
+                // 基本类型参数按包装类型检查
+                this.parameterTypes[i] = MethodType.methodType(parameterTypes[i]).wrap().returnType();
+            }
+            this.handle = handle;
         }
-        
-        return false;
-    }
 
-    /**
-     * 生成缓存key
-     */
-    private String generateCacheKey(String className, String methodName, Class<?>[] paramTypes) {
-        StringBuilder keyBuilder = new StringBuilder();
-        keyBuilder.append(className).append("#").append(methodName);
-
-        if (paramTypes != null && paramTypes.length > 0) {
-            keyBuilder.append("#");
-            for (int i = 0; i < paramTypes.length; i++) {
-                if (i > 0) {
-                    keyBuilder.append(",");
+        private boolean accepts(Object[] args) {
+            if (args.length != parameterTypes.length) {
+                return false;
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (args[i] != null && !parameterTypes[i].isInstance(args[i])) {
+                    return false;
                 }
-                keyBuilder.append(paramTypes[i].getName());
             }
+            return true;
         }
-
-        return keyBuilder.toString();
     }
 }
@@ -6,31 +6,32 @@ import com.scene.mesh.module.engine.spec.extension.ISmExtensionSlot;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.stream.Collectors;
 
 /**
  * 扩展管理器实现
+ * 注册、注销在锁内修改工作索引，完成后发布不可变的 {@link Registry} 快照；
+ * 查询只读取当前快照，不加锁也不复制列表。
  */
 @Slf4j
 public class SmExtensionManager implements ISmExtensionManager {
 
     // 扩展槽存储 - slotId -> ISmExtensionSlot
-    private final Map<String, ISmExtensionSlot> extensionSlots = new ConcurrentHashMap<>();
+    private final Map<String, ISmExtensionSlot> extensionSlots = new LinkedHashMap<>();
 
     // 扩展插件存储 - pluginId -> ISmExtensionPlugin
-    private final Map<String, ISmExtensionPlugin> extensionPlugins = new ConcurrentHashMap<>();
+    private final Map<String, ISmExtensionPlugin> extensionPlugins = new LinkedHashMap<>();
 
     // 按扩展槽索引插件 - slotId -> List<ISmExtensionPlugin>
-    private final Map<String, List<ISmExtensionPlugin>> pluginsBySlot = new ConcurrentHashMap<>();
+    private final Map<String, List<ISmExtensionPlugin>> pluginsBySlot = new HashMap<>();
 
     // 按模块索引插件 - moduleId -> List<ISmExtensionPlugin>
-    private final Map<String, List<ISmExtensionPlugin>> pluginsByModule = new ConcurrentHashMap<>();
+    private final Map<String, List<ISmExtensionPlugin>> pluginsByModule = new HashMap<>();
+
+    // 当前发布的只读快照
+    private volatile Registry registry = Registry.EMPTY;
 
     @Override
-    public boolean registerExtensionSlot(ISmExtensionSlot extensionSlot) {
+    public synchronized boolean registerExtensionSlot(ISmExtensionSlot extensionSlot) {
         if (extensionSlot == null) {
             log.warn("Cannot register null extension slot");
             return false;
@@ -51,6 +52,7 @@ public class SmExtensionManager implements ISmExtensionManager {
 
             // 初始化该槽的插件列表
             pluginsBySlot.put(slotId, new ArrayList<>());
+            publish();
 
             log.info("Successfully registered extension slot: {} with interface: {}",
                     slotId, extensionSlot.getSlotInterfaceClass().getSimpleName());
@@ -63,7 +65,7 @@ public class SmExtensionManager implements ISmExtensionManager {
     }
 
     @Override
-    public boolean unregisterExtensionSlot(String slotId) {
+    public synchronized boolean unregisterExtensionSlot(String slotId) {
         if (slotId == null || slotId.trim().isEmpty()) {
             log.warn("Cannot unregister extension slot with null or empty ID");
             return false;
@@ -97,6 +99,7 @@ public class SmExtensionManager implements ISmExtensionManager {
                 }
             }
 
+            publish();
             log.info("Successfully unregistered extension slot: {}", slotId);
             return true;
 
@@ -107,7 +110,7 @@ public class SmExtensionManager implements ISmExtensionManager {
     }
 
     @Override
-    public boolean registerExtensionPlugin(ISmExtensionPlugin extensionPlugin) {
+    public synchronized boolean registerExtensionPlugin(ISmExtensionPlugin extensionPlugin) {
         if (extensionPlugin == null) {
             log.warn("Cannot register null extension plugin");
             return false;
@@ -150,6 +153,7 @@ public class SmExtensionManager implements ISmExtensionManager {
                 modulePlugins.add(extensionPlugin);
             }
 
+            publish();
             log.info("Successfully registered extension plugin: {} to slot: {} from module: {}",
                     pluginId, slotId, moduleId);
             return true;
@@ -161,7 +165,7 @@ public class SmExtensionManager implements ISmExtensionManager {
     }
 
     @Override
-    public boolean unregisterExtensionPlugin(String pluginId) {
+    public synchronized boolean unregisterExtensionPlugin(String pluginId) {
         if (pluginId == null || pluginId.trim().isEmpty()) {
             log.warn("Cannot unregister extension plugin with null or empty ID");
             return false;
@@ -196,6 +200,7 @@ public class SmExtensionManager implements ISmExtensionManager {
                 }
             }
 
+            publish();
             log.info("Successfully unregistered extension plugin: {}", pluginId);
             return true;
 
@@ -207,47 +212,82 @@ public class SmExtensionManager implements ISmExtensionManager {
 
     @Override
     public ISmExtensionSlot findExtensionSlot(String slotId) {
-        if (slotId == null || slotId.trim().isEmpty()) {
+        if (slotId == null) {
             return null;
         }
-        return extensionSlots.get(slotId);
+        return registry.slots().get(slotId);
     }
 
     @Override
     public List<ISmExtensionSlot> getAllExtensionSlots() {
-        return new ArrayList<>(extensionSlots.values());
+        return registry.slotList();
     }
 
     @Override
     public ISmExtensionPlugin findExtensionPlugin(String pluginId) {
-        if (pluginId == null || pluginId.trim().isEmpty()) {
+        if (pluginId == null) {
             return null;
         }
-        return extensionPlugins.get(pluginId);
+        return registry.plugins().get(pluginId);
     }
 
     @Override
     public List<ISmExtensionPlugin> getAllExtensionPlugins() {
-        return new ArrayList<>(extensionPlugins.values());
+        return registry.pluginList();
     }
 
     @Override
     public List<ISmExtensionPlugin> findPluginsBySlot(String slotId) {
-        if (slotId == null || slotId.trim().isEmpty()) {
+        if (slotId == null) {
             return Collections.emptyList();
         }
-
-        List<ISmExtensionPlugin> plugins = pluginsBySlot.get(slotId);
-        return plugins != null ? new ArrayList<>(plugins) : Collections.emptyList();
+        return registry.pluginsBySlot().getOrDefault(slotId, Collections.emptyList());
     }
 
     @Override
     public List<ISmExtensionPlugin> findPluginsByModule(String moduleId) {
-        if (moduleId == null || moduleId.trim().isEmpty()) {
+        if (moduleId == null) {
             return Collections.emptyList();
         }
+        return registry.pluginsByModule().getOrDefault(moduleId, Collections.emptyList());
+    }
+
+    @Override
+    public long getVersion() {
+        return registry.version();
+    }
+
+    /**
+     * 由工作索引生成新的只读快照并发布，调用方需持有锁
+     */
+    private void publish() {
+        registry = new Registry(
+                registry.version() + 1,
+                Collections.unmodifiableMap(new HashMap<>(extensionSlots)),
+                List.copyOf(extensionSlots.values()),
+                Collections.unmodifiableMap(new HashMap<>(extensionPlugins)),
+                List.copyOf(extensionPlugins.values()),
+                copyIndex(pluginsBySlot),
+                copyIndex(pluginsByModule));
+    }
+
+    private static Map<String, List<ISmExtensionPlugin>> copyIndex(Map<String, List<ISmExtensionPlugin>> index) {
+        Map<String, List<ISmExtensionPlugin>> copy = new HashMap<>(index.size() * 2);
+        index.forEach((key, plugins) -> copy.put(key, List.copyOf(plugins)));
+        return Collections.unmodifiableMap(copy);
+    }
 
-        List<ISmExtensionPlugin> plugins = pluginsByModule.get(moduleId);
-        return plugins != null ? new ArrayList<>(plugins) : Collections.emptyList();
+    /**
+     * 注册表的只读快照
+     */
+    private record Registry(long version,
+                            Map<String, ISmExtensionSlot> slots,
+                            List<ISmExtensionSlot> slotList,
+                            Map<String, ISmExtensionPlugin> plugins,
+                            List<ISmExtensionPlugin> pluginList,
+                            Map<String, List<ISmExtensionPlugin>> pluginsBySlot,
+                            Map<String, List<ISmExtensionPlugin>> pluginsByModule) {
+
+        private static final Registry EMPTY = new Registry(0, Map.of(), List.of(), Map.of(), List.of(), Map.of(), Map.of());
     }
 }
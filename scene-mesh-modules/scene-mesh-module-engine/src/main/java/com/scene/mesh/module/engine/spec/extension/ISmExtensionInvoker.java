@@ -11,6 +11,11 @@ public interface ISmExtensionInvoker {
      */
     List<Object> getExtensionInstances(String slotId);
 
+    /**
+     * 按 slot 获取指定 plugin 的实例，以扩展点接口类型直接调用，不经过反射
+     */
+    <T> T getExtension(String slotId, String pluginId, Class<T> type);
+
     /**
      * 按slot调用所有plugin
      */
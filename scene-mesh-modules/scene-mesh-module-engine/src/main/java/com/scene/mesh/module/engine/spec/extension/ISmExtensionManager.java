@@ -56,4 +56,9 @@ public interface ISmExtensionManager {
      * 按模块查找插件
      */
     List<ISmExtensionPlugin> findPluginsByModule(String moduleId);
+
+    /**
+     * 注册表版本，扩展槽或插件每次注册、注销后递增
+     */
+    long getVersion();
 }
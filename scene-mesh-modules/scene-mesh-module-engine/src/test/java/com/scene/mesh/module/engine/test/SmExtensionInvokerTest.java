@@ -0,0 +1,98 @@
+package com.scene.mesh.module.engine.test;
+
+import com.scene.mesh.module.api.calculate.IParameterCalculator;
+import com.scene.mesh.module.engine.impl.extension.SmExtensionInvoker;
+import com.scene.mesh.module.engine.impl.extension.SmExtensionManager;
+import com.scene.mesh.module.engine.impl.extension.SmExtensionPlugin;
+import com.scene.mesh.module.engine.impl.extension.SmSlotRegistrar;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 测试内存插件的绑定与调用
+ */
+public class SmExtensionInvokerTest {
+
+    private SmExtensionManager extensionManager;
+
+    private SmExtensionInvoker extensionInvoker;
+
+    @BeforeEach
+    void setUp() {
+        extensionManager = new SmExtensionManager();
+        SmSlotRegistrar.registerAllBuiltinSlots(extensionManager);
+        extensionManager.registerExtensionPlugin(lengthPlugin("length"));
+        extensionInvoker = new SmExtensionInvoker(extensionManager);
+    }
+
+    @Test
+    void testInvokeBySlotAndTypedExtension() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("text", "hello");
+
+        extensionInvoker.invokeExtension(SmSlotRegistrar.CALCULATE_SLOT_ID, "length", "calculate", "text", payload);
+        assertEquals(5, payload.get("text_length"));
+
+        payload.put("text", "hello world");
+        extensionInvoker.getExtension(SmSlotRegistrar.CALCULATE_SLOT_ID, "length", IParameterCalculator.class)
+                .calculate("text", payload);
+        assertEquals(11, payload.get("text_length"));
+    }
+
+    @Test
+    void testPrimitiveAndOverloadedMethods() {
+        assertEquals(42, extensionInvoker.invokeExtension("length", "scale", 21));
+        assertEquals("ab", extensionInvoker.invokeExtension(SmSlotRegistrar.CALCULATE_SLOT_ID, "length", "scale", "ab"));
+        assertEquals(List.of(8), extensionInvoker.invokeAllExtensions(SmSlotRegistrar.CALCULATE_SLOT_ID, "scale", 4));
+    }
+
+    @Test
+    void testRebindOnRegistryChange() {
+        assertTrue(extensionManager.unregisterExtensionPlugin("length"));
+        assertThrows(IllegalArgumentException.class,
+                () -> extensionInvoker.invokeExtension(SmSlotRegistrar.CALCULATE_SLOT_ID, "length", "calculate", "text", new HashMap<>()));
+
+        extensionManager.registerExtensionPlugin(lengthPlugin("length-v2"));
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("text", "abc");
+        extensionInvoker.invokeExtension(SmSlotRegistrar.CALCULATE_SLOT_ID, "length-v2", "calculate", "text", payload);
+        assertEquals(3, payload.get("text_length"));
+        assertEquals(1, extensionManager.findPluginsBySlot(SmSlotRegistrar.CALCULATE_SLOT_ID).size());
+    }
+
+    @Test
+    void testMethodNotFound() {
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> extensionInvoker.invokeExtension(SmSlotRegistrar.CALCULATE_SLOT_ID, "length", "calculate", "text"));
+        assertInstanceOf(NoSuchMethodException.class, e.getCause());
+        assertThrows(IllegalArgumentException.class,
+                () -> extensionInvoker.getExtension(SmSlotRegistrar.VALIDATOR_SLOT_ID, "length", IParameterCalculator.class));
+    }
+
+    private static SmExtensionPlugin lengthPlugin(String id) {
+        return new SmExtensionPlugin(id, "Length Calculator", SmSlotRegistrar.CALCULATE_SLOT_ID,
+                "test-module", new LengthCalculator(), IParameterCalculator.class);
+    }
+
+    public static class LengthCalculator implements IParameterCalculator {
+
+        @Override
+        public void calculate(String sourceField, Map<String, Object> payload) {
+            payload.put(sourceField + "_length", String.valueOf(payload.get(sourceField)).length());
+        }
+
+        public int scale(int value) {
+            return value * 2;
+        }
+
+        public String scale(String value) {
+            return value;
+        }
+    }
+}
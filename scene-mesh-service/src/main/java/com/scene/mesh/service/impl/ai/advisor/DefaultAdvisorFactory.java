@@ -41,6 +41,8 @@ public class DefaultAdvisorFactory implements IAdvisorFactory {
             return new ArrayList<>();
         }
 
+        // 每次请求使用独立的列表，避免默认列表被并发的请求修改
+        List<Advisor> advisors = new ArrayList<>(this.advisors);
         if (advisorsInput.containsKey("knowledgeBase")) {
             Pair[] kps = (Pair[]) advisorsInput.get("knowledgeBase");
             Advisor knowledgeAdvisor = getKnowledgeAdvisor(kps);
@@ -57,6 +59,7 @@ public class DefaultAdvisorFactory implements IAdvisorFactory {
         }
 
         List<Pair<Integer, VectorStore>> vectorStores = new ArrayList<>();
+        List<String> storeNames = new ArrayList<>();
         for (Pair<String, Integer> knowledgeBasePair : knowledgeBases) {
             String kbId = knowledgeBasePair.getLeft();
             Integer priority = knowledgeBasePair.getRight();
@@ -73,7 +76,13 @@ public class DefaultAdvisorFactory implements IAdvisorFactory {
                 continue;
             }
             vectorStores.add(Pair.of(priority, vs));
+            storeNames.add(kbId);
         }
-        return new MultiKnowledgeQuestionAnswerAdvisor(vectorStores);
+        if (vectorStores.isEmpty()) {
+            return null;
+        }
+        return MultiKnowledgeQuestionAnswerAdvisor.builder(vectorStores)
+                .storeNames(storeNames)
+                .build();
     }
 }
@@ -16,12 +16,23 @@
 
 package com.scene.mesh.service.impl.ai.rag;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
@@ -42,10 +53,18 @@ import org.springframework.lang.Nullable;
 import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
+/**
+ * 多知识库问答 advisor
+ * 各知识库在有界线程池中并发检索，整体受单次请求的截止时间约束；
+ * 截止时间内返回的结果按优先级与相关性合并，超时或失败的知识库记录在 {@link #MISSED_STORES} 中，
+ * 超时的检索被取消并中断检索线程，慢知识库不会长期占用共享线程池。
+ */
+@Slf4j
 public class MultiKnowledgeQuestionAnswerAdvisor implements BaseAdvisor {
 
     public static final String RETRIEVED_DOCUMENTS = "qa_retrieved_documents";
     public static final String FILTER_EXPRESSION = "qa_filter_expression";
+    public static final String MISSED_STORES = "qa_missed_stores";
 
     private static final PromptTemplate DEFAULT_PROMPT_TEMPLATE = new PromptTemplate("""
             {query}
@@ -63,30 +82,65 @@ public class MultiKnowledgeQuestionAnswerAdvisor implements BaseAdvisor {
 
     private static final int DEFAULT_ORDER = 0;
 
+    private static final Duration DEFAULT_DEADLINE = Duration.ofSeconds(2);
+
+    /**
+     * 默认的检索线程池，所有 advisor 共享；队列满时拒绝提交，对应知识库记为未命中
+     */
+    private static final ExecutorService DEFAULT_RETRIEVAL_EXECUTOR = newRetrievalExecutor(16, 256);
+
     private final List<Pair<Integer, VectorStore>> vectorStores;
+    private final List<String> storeNames;
     private final PromptTemplate promptTemplate;
     private final SearchRequest searchRequest;
     private final Scheduler scheduler;
+    private final ExecutorService retrievalExecutor;
+    private final Duration deadline;
     private final int order;
 
     public MultiKnowledgeQuestionAnswerAdvisor(List<Pair<Integer, VectorStore>> vectorStores) {
-        this(vectorStores, SearchRequest.builder().build(), DEFAULT_PROMPT_TEMPLATE, BaseAdvisor.DEFAULT_SCHEDULER,
-                DEFAULT_ORDER);
+        this(vectorStores, null, SearchRequest.builder().build(), DEFAULT_PROMPT_TEMPLATE, BaseAdvisor.DEFAULT_SCHEDULER,
+                DEFAULT_RETRIEVAL_EXECUTOR, DEFAULT_DEADLINE, DEFAULT_ORDER);
     }
 
-    MultiKnowledgeQuestionAnswerAdvisor(List<Pair<Integer, VectorStore>> vectorStores, SearchRequest searchRequest, @Nullable PromptTemplate promptTemplate,
-                                        @Nullable Scheduler scheduler, int order) {
+    MultiKnowledgeQuestionAnswerAdvisor(List<Pair<Integer, VectorStore>> vectorStores, @Nullable List<String> storeNames,
+                                        SearchRequest searchRequest, @Nullable PromptTemplate promptTemplate,
+                                        @Nullable Scheduler scheduler, @Nullable ExecutorService retrievalExecutor,
+                                        @Nullable Duration deadline, int order) {
         Assert.notNull(vectorStores, "vectorStores cannot be null");
         Assert.notEmpty(vectorStores, "vectorStores cannot be empty");
         Assert.notNull(searchRequest, "searchRequest cannot be null");
+        Assert.isTrue(storeNames == null || storeNames.size() == vectorStores.size(),
+                "storeNames must match vectorStores");
 
         this.vectorStores = new ArrayList<>(vectorStores);
+        this.storeNames = new ArrayList<>();
+        for (int i = 0; i < vectorStores.size(); i++) {
+            this.storeNames.add(storeNames != null ? storeNames.get(i) : vectorStores.get(i).getRight().getName() + "#" + i);
+        }
         this.searchRequest = searchRequest;
         this.promptTemplate = promptTemplate != null ? promptTemplate : DEFAULT_PROMPT_TEMPLATE;
         this.scheduler = scheduler != null ? scheduler : BaseAdvisor.DEFAULT_SCHEDULER;
+        this.retrievalExecutor = retrievalExecutor != null ? retrievalExecutor : DEFAULT_RETRIEVAL_EXECUTOR;
+        this.deadline = deadline != null ? deadline : DEFAULT_DEADLINE;
         this.order = order;
     }
 
+    /**
+     * 创建有界的检索线程池
+     *
+     * @param threads   线程数
+     * @param queueSize 等待队列长度
+     */
+    public static ExecutorService newRetrievalExecutor(int threads, int queueSize) {
+        AtomicInteger index = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize), r -> {
+            Thread t = new Thread(r, "knowledge-retrieval-" + index.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
     public static Builder builder(List<Pair<Integer, VectorStore>> vectorStores) {
         return new Builder(vectorStores);
     }
@@ -104,24 +158,53 @@ public class MultiKnowledgeQuestionAnswerAdvisor implements BaseAdvisor {
                 .build();
 
         List<Document> allDocuments = new ArrayList<>();
+        List<String> missedStores = new ArrayList<>();
 
-        // 根据优先级搜索并标记文档
+        // 并发检索各知识库；使用线程池返回的 Future，超时取消时能中断正在检索的线程并释放
+        List<Future<List<Document>>> searches = new ArrayList<>(vectorStores.size());
         for (Pair<Integer, VectorStore> storePair : vectorStores) {
-            int priority = storePair.getLeft();
             VectorStore vectorStore = storePair.getRight();
+            Future<List<Document>> search;
+            try {
+                search = this.retrievalExecutor.submit(() -> vectorStore.similaritySearch(searchRequestToUse));
+            } catch (Exception e) {
+                search = CompletableFuture.failedFuture(e);
+            }
+            searches.add(search);
+        }
 
+        // 合并截止时间内返回的结果，并标记优先级
+        long deadlineNanos = System.nanoTime() + this.deadline.toNanos();
+        for (int i = 0; i < searches.size(); i++) {
+            int priority = vectorStores.get(i).getLeft();
+            Future<List<Document>> search = searches.get(i);
+            List<Document> documents;
             try {
-                List<Document> documents = vectorStore.similaritySearch(searchRequestToUse);
-                if (documents != null) {
-                    // 为每个文档添加优先级信息
-                    documents.forEach(doc -> {
-                        doc.getMetadata().put("priority", priority);
-                        doc.getMetadata().put("source_priority", priority);
-                    });
-                    allDocuments.addAll(documents);
+                documents = search.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | InterruptedException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    // 调用方被中断，不再等待剩余的知识库
+                    deadlineNanos = System.nanoTime();
                 }
-            } catch (Exception e) {
-                // Continue with other vector stores
+                search.cancel(true);
+                missedStores.add(this.storeNames.get(i));
+                log.warn("knowledge retrieval missed deadline, store: {}, deadline: {}ms",
+                        this.storeNames.get(i), this.deadline.toMillis());
+                continue;
+            } catch (ExecutionException e) {
+                missedStores.add(this.storeNames.get(i));
+                log.warn("knowledge retrieval failed, store: {}, error: {}", this.storeNames.get(i),
+                        e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                continue;
+            }
+            if (documents != null) {
+                // 为每个文档添加优先级信息
+                documents.forEach(doc -> {
+                    doc.getMetadata().put("priority", priority);
+                    doc.getMetadata().put("source_priority", priority);
+                });
+                allDocuments.addAll(documents);
             }
         }
 
@@ -143,6 +226,7 @@ public class MultiKnowledgeQuestionAnswerAdvisor implements BaseAdvisor {
 
         Map<String, Object> context = new HashMap<>(chatClientRequest.context());
         context.put(RETRIEVED_DOCUMENTS, allDocuments);
+        context.put(MISSED_STORES, missedStores);
 
         String documentContext = allDocuments.isEmpty() ? ""
                 : allDocuments.stream().map(Document::getText).collect(Collectors.joining(System.lineSeparator()));
@@ -167,6 +251,10 @@ public class MultiKnowledgeQuestionAnswerAdvisor implements BaseAdvisor {
             chatResponseBuilder = ChatResponse.builder().from(chatClientResponse.chatResponse());
         }
         chatResponseBuilder.metadata(RETRIEVED_DOCUMENTS, chatClientResponse.context().get(RETRIEVED_DOCUMENTS));
+        Object missedStores = chatClientResponse.context().get(MISSED_STORES);
+        if (missedStores != null) {
+            chatResponseBuilder.metadata(MISSED_STORES, missedStores);
+        }
         return ChatClientResponse.builder()
                 .chatResponse(chatResponseBuilder.build())
                 .context(chatClientResponse.context())
@@ -188,6 +276,9 @@ public class MultiKnowledgeQuestionAnswerAdvisor implements BaseAdvisor {
     }
 
     private Double getDocumentScore(Document document) {
+        if (document.getScore() != null) {
+            return document.getScore();
+        }
         try {
             Object score = document.getMetadata().get("score");
             if (score instanceof Number) {
@@ -202,9 +293,12 @@ public class MultiKnowledgeQuestionAnswerAdvisor implements BaseAdvisor {
     public static final class Builder {
 
         private final List<Pair<Integer, VectorStore>> vectorStores;
+        private List<String> storeNames;
         private SearchRequest searchRequest = SearchRequest.builder().build();
         private PromptTemplate promptTemplate;
         private Scheduler scheduler;
+        private ExecutorService retrievalExecutor;
+        private Duration deadline;
         private int order = DEFAULT_ORDER;
 
         private Builder(List<Pair<Integer, VectorStore>> vectorStores) {
@@ -235,14 +329,36 @@ public class MultiKnowledgeQuestionAnswerAdvisor implements BaseAdvisor {
             return this;
         }
 
+        /**
+         * 各知识库的名称，与 vectorStores 一一对应，用于报告未命中的知识库
+         */
+        public Builder storeNames(List<String> storeNames) {
+            this.storeNames = storeNames;
+            return this;
+        }
+
+        public Builder retrievalExecutor(ExecutorService retrievalExecutor) {
+            this.retrievalExecutor = retrievalExecutor;
+            return this;
+        }
+
+        /**
+         * 单次请求检索所有知识库的截止时间
+         */
+        public Builder deadline(Duration deadline) {
+            Assert.isTrue(deadline != null && !deadline.isNegative() && !deadline.isZero(), "deadline must be positive");
+            this.deadline = deadline;
+            return this;
+        }
+
         public Builder order(int order) {
             this.order = order;
             return this;
         }
 
         public MultiKnowledgeQuestionAnswerAdvisor build() {
-            return new MultiKnowledgeQuestionAnswerAdvisor(this.vectorStores, this.searchRequest, this.promptTemplate, this.scheduler,
-                    this.order);
+            return new MultiKnowledgeQuestionAnswerAdvisor(this.vectorStores, this.storeNames, this.searchRequest,
+                    this.promptTemplate, this.scheduler, this.retrievalExecutor, this.deadline, this.order);
         }
     }
 }
\ No newline at end of file
@@ -4,31 +4,36 @@ import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.action.IMetaAction;
 import com.scene.mesh.model.event.IMetaEvent;
 import com.scene.mesh.service.impl.cache.event.MetaEventCache;
+import com.scene.mesh.service.spec.cache.CacheRefreshResult;
 import com.scene.mesh.service.spec.cache.ICacheProvider;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 import com.scene.mesh.service.spec.event.IMetaEventService;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class MetaActionCacheProvider implements ICacheProvider<MetaActionCache, IMetaAction> {
 
-    private final ICache<String, IMetaAction> cache;
+    private final VersionedCacheNamespace<IMetaAction> namespace;
 
     public MetaActionCacheProvider(ICache cache) {
-        this.cache = cache;
+        this.namespace = new VersionedCacheNamespace<>(cache, MetaActionCache.KEY_PREFIX);
     }
 
     @Override
     public MetaActionCache generateCacheObject() {
-        return new MetaActionCache(cache);
+        return new MetaActionCache(namespace);
     }
 
     @Override
-    public MetaActionCache refreshCacheObject(List<IMetaAction>  metaActions) {
-        if (metaActions.isEmpty()) {return new MetaActionCache(cache);}
-
-        for (IMetaAction metaAction: metaActions) {
-            this.cache.set(MetaActionCache.KEY_PREFIX + metaAction.getUuid(), metaAction);
+    public CacheRefreshResult refresh(List<IMetaAction> metaActions) {
+        Map<String, IMetaAction> entries = new LinkedHashMap<>();
+        if (metaActions != null) {
+            for (IMetaAction metaAction : metaActions) {
+                entries.put(metaAction.getUuid(), metaAction);
+            }
         }
-        return new MetaActionCache(cache);
+        return this.namespace.publish(entries);
     }
 }
@@ -4,32 +4,37 @@ import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.event.IMetaEvent;
 import com.scene.mesh.model.product.Product;
 import com.scene.mesh.service.impl.cache.product.ProductCache;
+import com.scene.mesh.service.spec.cache.CacheRefreshResult;
 import com.scene.mesh.service.spec.cache.ICacheProvider;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 import com.scene.mesh.service.spec.event.IMetaEventService;
 import com.scene.mesh.service.spec.product.IProductService;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-public class MetaEventCacheProvider implements ICacheProvider<MetaEventCache,IMetaEvent> {
+public class MetaEventCacheProvider implements ICacheProvider<MetaEventCache, IMetaEvent> {
 
-    private final ICache<String, IMetaEvent> cache;
+    private final VersionedCacheNamespace<IMetaEvent> namespace;
 
     public MetaEventCacheProvider(ICache cache) {
-        this.cache = cache;
+        this.namespace = new VersionedCacheNamespace<>(cache, MetaEventCache.KEY_PREFIX);
     }
 
     @Override
     public MetaEventCache generateCacheObject() {
-        return new MetaEventCache(cache);
+        return new MetaEventCache(namespace);
     }
 
     @Override
-    public MetaEventCache refreshCacheObject(List<IMetaEvent>  metaEvents) {
-        if (metaEvents.isEmpty()) {return new MetaEventCache(cache);}
-
-        for (IMetaEvent metaEvent: metaEvents) {
-            this.cache.set(MetaEventCache.KEY_PREFIX + metaEvent.getUuid(), metaEvent);
+    public CacheRefreshResult refresh(List<IMetaEvent> metaEvents) {
+        Map<String, IMetaEvent> entries = new LinkedHashMap<>();
+        if (metaEvents != null) {
+            for (IMetaEvent metaEvent : metaEvents) {
+                entries.put(metaEvent.getUuid(), metaEvent);
+            }
         }
-        return new MetaEventCache(cache);
+        return this.namespace.publish(entries);
     }
 }
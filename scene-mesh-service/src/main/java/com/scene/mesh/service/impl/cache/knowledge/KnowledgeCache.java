@@ -1,31 +1,31 @@
 package com.scene.mesh.service.impl.cache.knowledge;
 
-import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.knowledge.KnowledgeBase;
 import com.scene.mesh.service.spec.cache.IDisposed;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 
 import java.util.List;
 
 public class KnowledgeCache implements IDisposed {
 
-    private final ICache<String, KnowledgeBase> cache;
+    private final VersionedCacheNamespace<KnowledgeBase> namespace;
 
     public static String KEY_PREFIX = "knowledge:";
 
-    public KnowledgeCache(ICache<String, KnowledgeBase> cache) {
-        this.cache = cache;
+    public KnowledgeCache(VersionedCacheNamespace<KnowledgeBase> namespace) {
+        this.namespace = namespace;
     }
 
     @Override
     public void dispose() {
-        this.cache.deleteByKeyPrefix(KEY_PREFIX + "*");
+        this.namespace.clear();
     }
 
     public List<KnowledgeBase> getAllKnowledgeBases() {
-        return this.cache.getAll(KEY_PREFIX + "*");
+        return this.namespace.getAll();
     }
 
     public KnowledgeBase getKnowledge(String kbId) {
-        return this.cache.get(KEY_PREFIX + kbId);
+        return this.namespace.get(kbId);
     }
 }
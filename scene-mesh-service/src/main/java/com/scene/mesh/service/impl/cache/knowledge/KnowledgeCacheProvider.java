@@ -2,30 +2,35 @@ package com.scene.mesh.service.impl.cache.knowledge;
 
 import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.knowledge.KnowledgeBase;
+import com.scene.mesh.service.spec.cache.CacheRefreshResult;
 import com.scene.mesh.service.spec.cache.ICacheProvider;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class KnowledgeCacheProvider implements ICacheProvider<KnowledgeCache, KnowledgeBase> {
 
-    private final ICache<String, KnowledgeBase> cache;
+    private final VersionedCacheNamespace<KnowledgeBase> namespace;
 
     public KnowledgeCacheProvider(ICache cache) {
-        this.cache = cache;
+        this.namespace = new VersionedCacheNamespace<>(cache, KnowledgeCache.KEY_PREFIX);
     }
 
     @Override
     public KnowledgeCache generateCacheObject() {
-        return new KnowledgeCache(cache);
+        return new KnowledgeCache(namespace);
     }
 
     @Override
-    public KnowledgeCache refreshCacheObject(List<KnowledgeBase> knowledgeBases) {
-        if (knowledgeBases.isEmpty()) {return new KnowledgeCache(cache);}
-
-        for (KnowledgeBase knowledgeBase: knowledgeBases) {
-            this.cache.set(KnowledgeCache.KEY_PREFIX + knowledgeBase.getId(), knowledgeBase);
+    public CacheRefreshResult refresh(List<KnowledgeBase> knowledgeBases) {
+        Map<String, KnowledgeBase> entries = new LinkedHashMap<>();
+        if (knowledgeBases != null) {
+            for (KnowledgeBase knowledgeBase : knowledgeBases) {
+                entries.put(knowledgeBase.getId(), knowledgeBase);
+            }
         }
-        return new KnowledgeCache(cache);
+        return this.namespace.publish(entries);
     }
 }
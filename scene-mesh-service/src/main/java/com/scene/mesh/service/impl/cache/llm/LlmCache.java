@@ -1,29 +1,29 @@
 package com.scene.mesh.service.impl.cache.llm;
 
-import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.event.IMetaEvent;
 import com.scene.mesh.model.llm.LanguageModelProvider;
 import com.scene.mesh.service.spec.cache.IDisposed;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 
 import java.util.List;
 
 public class LlmCache implements IDisposed {
 
-    private final ICache<String, LanguageModelProvider> cache;
+    private final VersionedCacheNamespace<LanguageModelProvider> namespace;
 
     public static String KEY_PREFIX = "lmp:";
 
-    public LlmCache(ICache<String, LanguageModelProvider> cache) {
-        this.cache = cache;
+    public LlmCache(VersionedCacheNamespace<LanguageModelProvider> namespace) {
+        this.namespace = namespace;
     }
 
     @Override
     public void dispose() {
-        this.cache.deleteByKeyPrefix(KEY_PREFIX + "*");
+        this.namespace.clear();
     }
 
     public List<LanguageModelProvider> getAllLanguageModelProviders() {
-        return this.cache.getAll(KEY_PREFIX + "*");
+        return this.namespace.getAll();
     }
 
 }
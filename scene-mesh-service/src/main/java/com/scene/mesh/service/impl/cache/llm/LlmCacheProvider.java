@@ -2,30 +2,35 @@ package com.scene.mesh.service.impl.cache.llm;
 
 import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.llm.LanguageModelProvider;
+import com.scene.mesh.service.spec.cache.CacheRefreshResult;
 import com.scene.mesh.service.spec.cache.ICacheProvider;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class LlmCacheProvider implements ICacheProvider<LlmCache, LanguageModelProvider> {
 
-    private final ICache<String, LanguageModelProvider> cache;
+    private final VersionedCacheNamespace<LanguageModelProvider> namespace;
 
     public LlmCacheProvider(ICache cache) {
-        this.cache = cache;
+        this.namespace = new VersionedCacheNamespace<>(cache, LlmCache.KEY_PREFIX);
     }
 
     @Override
     public LlmCache generateCacheObject() {
-        return new LlmCache(cache);
+        return new LlmCache(namespace);
     }
 
     @Override
-    public LlmCache refreshCacheObject(List<LanguageModelProvider> lmps) {
-        if (lmps.isEmpty()) {return new LlmCache(cache);}
-
-        for (LanguageModelProvider lmp: lmps) {
-            this.cache.set(LlmCache.KEY_PREFIX + lmp.getId(), lmp);
+    public CacheRefreshResult refresh(List<LanguageModelProvider> languageModelProviders) {
+        Map<String, LanguageModelProvider> entries = new LinkedHashMap<>();
+        if (languageModelProviders != null) {
+            for (LanguageModelProvider languageModelProvider : languageModelProviders) {
+                entries.put(languageModelProvider.getId(), languageModelProvider);
+            }
         }
-        return new LlmCache(cache);
+        return this.namespace.publish(entries);
     }
 }
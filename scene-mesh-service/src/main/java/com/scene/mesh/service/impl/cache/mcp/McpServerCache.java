@@ -1,29 +1,29 @@
 package com.scene.mesh.service.impl.cache.mcp;
 
-import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.llm.LanguageModelProvider;
 import com.scene.mesh.model.mcp.McpServer;
 import com.scene.mesh.service.spec.cache.IDisposed;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 
 import java.util.List;
 
 public class McpServerCache implements IDisposed {
 
-    private final ICache<String, McpServer> cache;
+    private final VersionedCacheNamespace<McpServer> namespace;
 
     public static String KEY_PREFIX = "mcp:";
 
-    public McpServerCache(ICache<String, McpServer> cache) {
-        this.cache = cache;
+    public McpServerCache(VersionedCacheNamespace<McpServer> namespace) {
+        this.namespace = namespace;
     }
 
     @Override
     public void dispose() {
-        this.cache.deleteByKeyPrefix(KEY_PREFIX + "*");
+        this.namespace.clear();
     }
 
     public List<McpServer> getAllMcpServers() {
-        return this.cache.getAll(KEY_PREFIX + "*");
+        return this.namespace.getAll();
     }
 
 }
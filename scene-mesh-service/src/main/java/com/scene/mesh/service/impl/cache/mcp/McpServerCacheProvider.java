@@ -4,30 +4,35 @@ import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.llm.LanguageModelProvider;
 import com.scene.mesh.model.mcp.McpServer;
 import com.scene.mesh.service.impl.cache.llm.LlmCache;
+import com.scene.mesh.service.spec.cache.CacheRefreshResult;
 import com.scene.mesh.service.spec.cache.ICacheProvider;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class McpServerCacheProvider implements ICacheProvider<McpServerCache, McpServer> {
 
-    private final ICache<String, McpServer> cache;
+    private final VersionedCacheNamespace<McpServer> namespace;
 
     public McpServerCacheProvider(ICache cache) {
-        this.cache = cache;
+        this.namespace = new VersionedCacheNamespace<>(cache, McpServerCache.KEY_PREFIX);
     }
 
     @Override
     public McpServerCache generateCacheObject() {
-        return new McpServerCache(cache);
+        return new McpServerCache(namespace);
     }
 
     @Override
-    public McpServerCache refreshCacheObject(List<McpServer> mcpServers) {
-        if (mcpServers.isEmpty()) {return new McpServerCache(cache);}
-
-        for (McpServer mcpServer: mcpServers) {
-            this.cache.set(McpServerCache.KEY_PREFIX + mcpServer.getId(), mcpServer);
+    public CacheRefreshResult refresh(List<McpServer> mcpServers) {
+        Map<String, McpServer> entries = new LinkedHashMap<>();
+        if (mcpServers != null) {
+            for (McpServer mcpServer : mcpServers) {
+                entries.put(mcpServer.getId(), mcpServer);
+            }
         }
-        return new McpServerCache(cache);
+        return this.namespace.publish(entries);
     }
 }
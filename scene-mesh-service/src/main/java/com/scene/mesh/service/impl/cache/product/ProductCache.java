@@ -1,31 +1,31 @@
 package com.scene.mesh.service.impl.cache.product;
 
-import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.product.Product;
 import com.scene.mesh.service.spec.cache.IDisposed;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 
 import java.util.List;
 
 public class ProductCache implements IDisposed {
 
-    private final ICache<String, Product> cache;
+    private final VersionedCacheNamespace<Product> namespace;
 
     public static String KEY_PREFIX = "product:";
 
-    public ProductCache(ICache<String, Product> cache) {
-        this.cache = cache;
+    public ProductCache(VersionedCacheNamespace<Product> namespace) {
+        this.namespace = namespace;
     }
 
     public Product getProduct(String productId) {
-        return cache.get(KEY_PREFIX + productId);
+        return this.namespace.get(productId);
     }
 
     @Override
     public void dispose() {
-        this.cache.deleteByKeyPrefix(KEY_PREFIX + "*");
+        this.namespace.clear();
     }
 
     public List<Product> getAllProducts() {
-        return this.cache.getAll(KEY_PREFIX + "*");
+        return this.namespace.getAll();
     }
 }
@@ -2,31 +2,36 @@ package com.scene.mesh.service.impl.cache.product;
 
 import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.product.Product;
+import com.scene.mesh.service.spec.cache.CacheRefreshResult;
 import com.scene.mesh.service.spec.cache.ICacheProvider;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 import com.scene.mesh.service.spec.product.IProductService;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
-public class ProductCacheProvider implements ICacheProvider<ProductCache,Product> {
+public class ProductCacheProvider implements ICacheProvider<ProductCache, Product> {
 
-    private final ICache<String, Product> cache;
+    private final VersionedCacheNamespace<Product> namespace;
 
     public ProductCacheProvider(ICache cache) {
-        this.cache = cache;
+        this.namespace = new VersionedCacheNamespace<>(cache, ProductCache.KEY_PREFIX);
     }
 
     @Override
     public ProductCache generateCacheObject() {
-        return new ProductCache(cache);
+        return new ProductCache(namespace);
     }
 
     @Override
-    public ProductCache refreshCacheObject(List<Product> products) {
-        if (products.isEmpty()) {return new ProductCache(cache);}
-
-        for (Product product : products) {
-            this.cache.set(ProductCache.KEY_PREFIX + product.getId(), product);
+    public CacheRefreshResult refresh(List<Product> products) {
+        Map<String, Product> entries = new LinkedHashMap<>();
+        if (products != null) {
+            for (Product product : products) {
+                entries.put(product.getId(), product);
+            }
         }
-        return new ProductCache(cache);
+        return this.namespace.publish(entries);
     }
 }
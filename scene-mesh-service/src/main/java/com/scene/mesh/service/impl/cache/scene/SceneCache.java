@@ -1,31 +1,31 @@
 package com.scene.mesh.service.impl.cache.scene;
 
-import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.scene.Scene;
 import com.scene.mesh.service.spec.cache.IDisposed;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 
 import java.util.List;
 
 public class SceneCache implements IDisposed {
 
-    private final ICache<String, Scene> cache;
+    private final VersionedCacheNamespace<Scene> namespace;
 
     public static String KEY_PREFIX = "scene:";
 
-    public SceneCache(ICache<String, Scene> cache) {
-        this.cache = cache;
+    public SceneCache(VersionedCacheNamespace<Scene> namespace) {
+        this.namespace = namespace;
     }
 
     public Scene getScene(String sceneId) {
-        return cache.get(KEY_PREFIX + sceneId);
+        return this.namespace.get(sceneId);
     }
 
     @Override
     public void dispose() {
-        this.cache.deleteByKeyPrefix(KEY_PREFIX + "*");
+        this.namespace.clear();
     }
 
     public List<Scene> getScenes() {
-        return cache.getAll(KEY_PREFIX + "*");
+        return this.namespace.getAll();
     }
 }
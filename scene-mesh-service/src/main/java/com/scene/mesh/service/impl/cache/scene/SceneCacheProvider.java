@@ -3,31 +3,36 @@ package com.scene.mesh.service.impl.cache.scene;
 import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.scene.Scene;
 import com.scene.mesh.service.impl.cache.event.MetaEventCache;
+import com.scene.mesh.service.spec.cache.CacheRefreshResult;
 import com.scene.mesh.service.spec.cache.ICacheProvider;
+import com.scene.mesh.service.spec.cache.VersionedCacheNamespace;
 import com.scene.mesh.service.spec.scene.ISceneService;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class SceneCacheProvider implements ICacheProvider<SceneCache, Scene> {
 
-    private final ICache<String, Scene> cache;
+    private final VersionedCacheNamespace<Scene> namespace;
 
     public SceneCacheProvider(ICache cache) {
-        this.cache = cache;
+        this.namespace = new VersionedCacheNamespace<>(cache, SceneCache.KEY_PREFIX);
     }
 
     @Override
     public SceneCache generateCacheObject() {
-        return new SceneCache(cache);
+        return new SceneCache(namespace);
     }
 
     @Override
-    public SceneCache refreshCacheObject(List<Scene> scenes) {
-        if (scenes.isEmpty()) {return new SceneCache(cache);}
-
-        for (Scene scene: scenes) {
-            this.cache.set(SceneCache.KEY_PREFIX + scene.getId(), scene);
+    public CacheRefreshResult refresh(List<Scene> scenes) {
+        Map<String, Scene> entries = new LinkedHashMap<>();
+        if (scenes != null) {
+            for (Scene scene : scenes) {
+                entries.put(scene.getId(), scene);
+            }
         }
-        return new SceneCache(cache);
+        return this.namespace.publish(entries);
     }
 }
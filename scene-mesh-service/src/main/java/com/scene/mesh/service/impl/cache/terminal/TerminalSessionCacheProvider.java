@@ -2,6 +2,7 @@ package com.scene.mesh.service.impl.cache.terminal;
 
 import com.scene.mesh.foundation.spec.cache.ICache;
 import com.scene.mesh.model.session.TerminalSession;
+import com.scene.mesh.service.spec.cache.CacheRefreshResult;
 import com.scene.mesh.service.spec.cache.ICacheProvider;
 
 import java.util.List;
@@ -20,7 +21,7 @@ public class TerminalSessionCacheProvider implements ICacheProvider<TerminalSess
     }
 
     @Override
-    public TerminalSessionCache refreshCacheObject(List<TerminalSession> objects) {
+    public CacheRefreshResult refresh(List<TerminalSession> objects) {
         return null;
     }
 }
@@ -1,32 +1,82 @@
-//package com.scene.mesh.service.impl.event;
-//
-//import com.scene.mesh.foundation.spec.parameter.MetaParameterDescriptor;
-//import com.scene.mesh.foundation.spec.parameter.data.calculate.BaseParameterCalculator;
-//import com.scene.mesh.service.spec.speech.ISpeechService;
-//
-//import java.util.Map;
-//
-//public class SttParameterCalculator extends BaseParameterCalculator {
-//
-//    private final ISpeechService speechService;
-//
-//    public SttParameterCalculator(ISpeechService speechService) {
-//        this.speechService = speechService;
-//    }
-//
-//    @Override
-//    public CalculateType getCalculateType() {
-//        return CalculateType.STT;
-//    }
-//
-//    @Override
-//    public void calculate(String terminalId, Map<String,Object> payload, MetaParameterDescriptor calculatedField) {
-//        if (payload.get("audio") == null || !(payload.get("audio") instanceof String base64Audio)) {
-//            throw new RuntimeException("Can not find calculate audio parameter in payload.");
-//        }
-//
-//        String text = this.speechService.stt(terminalId, base64Audio);
-//
-//        payload.put(calculatedField.getName(), text);
-//    }
-//}
+package com.scene.mesh.service.impl.event;
+
+import com.scene.mesh.service.spec.speech.ISpeechService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+
+/**
+ * 语音转文本字段计算
+ * 来源字段为 base64 编码的 opus 音频。消息不带 audioStream 字段时按整段音频识别；
+ * 带 audioStream 字段时按流式识别处理：start 开始新的一段语音，continue 追加一帧，
+ * end 追加最后一帧（可以没有音频）并结束本段语音。
+ * 只有整段音频和 end 会写入计算字段，start、continue 消息只是音频帧，不产生事件。
+ * 载荷中的未知字段会被入站校验拒绝，使用流式识别的元事件需声明非必填的字符串参数 audioStream。
+ */
+@Slf4j
+public class SttParameterCalculator {
+
+    public static final String CALCULATOR_TYPE = "STT";
+
+    public static final String STREAM_STATE_FIELD = "audioStream";
+
+    public static final String STREAM_START = "start";
+
+    public static final String STREAM_CONTINUE = "continue";
+
+    public static final String STREAM_END = "end";
+
+    private final ISpeechService speechService;
+
+    public SttParameterCalculator(ISpeechService speechService) {
+        this.speechService = speechService;
+    }
+
+    /**
+     * 计算识别文本
+     *
+     * @param terminalId      终端 id
+     * @param sourceField     音频字段
+     * @param calculatedField 识别文本写入的字段
+     * @param payload         消息负载
+     * @return 是否已得到识别文本，流式识别的中间帧返回 false
+     */
+    public boolean calculate(String terminalId, String sourceField, String calculatedField, Map<String, Object> payload) {
+        Object audio = payload.get(sourceField);
+        if (audio != null && !(audio instanceof String)) {
+            throw new RuntimeException("The audio field " + sourceField + " must be a base64 string.");
+        }
+        String base64Audio = (String) audio;
+        Object state = payload.get(STREAM_STATE_FIELD);
+
+        if (state == null) {
+            if (base64Audio == null) {
+                throw new RuntimeException("Can not find calculate audio parameter " + sourceField + " in payload.");
+            }
+            payload.put(calculatedField, this.speechService.stt(terminalId, base64Audio));
+            return true;
+        }
+
+        switch (state.toString()) {
+            case STREAM_START:
+                this.speechService.startSttStream(terminalId, null);
+                feed(terminalId, base64Audio);
+                return false;
+            case STREAM_CONTINUE:
+                feed(terminalId, base64Audio);
+                return false;
+            case STREAM_END:
+                feed(terminalId, base64Audio);
+                payload.put(calculatedField, this.speechService.finishSttStream(terminalId));
+                return true;
+            default:
+                throw new RuntimeException("Unknown audio stream state " + state + ", terminalId: " + terminalId);
+        }
+    }
+
+    private void feed(String terminalId, String base64Audio) {
+        if (base64Audio != null && !base64Audio.isEmpty()) {
+            this.speechService.feedSttStream(terminalId, base64Audio);
+        }
+    }
+}
@@ -3,16 +3,22 @@ package com.scene.mesh.service.impl.scene;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
 import com.scene.mesh.foundation.impl.processor.flink.cep.discover.IRuleDiscoverer;
+import com.scene.mesh.foundation.impl.processor.flink.key.KeyPathSelector;
 import com.scene.mesh.model.scene.Scene;
 import com.scene.mesh.model.scene.WhenThen;
 import com.scene.mesh.service.spec.cache.MutableCacheService;
 import com.scene.mesh.service.spec.scene.ISceneService;
 import org.apache.flink.cep.event.Rule;
+import org.apache.flink.cep.utils.RuleVersionUtils;
 
 import java.util.*;
 
 public class DefaultSceneService implements ISceneService, IRuleDiscoverer {
 
+    private static final String SCENE_MATCHED_FUNCTION = "com.scene.mesh.engin.processor.when.SceneMatchedProcessor";
+
+    private static final String WILDCARD = "*";
+
     private final MutableCacheService mutableCacheService;
 
     public DefaultSceneService(MutableCacheService mutableCacheService) {
@@ -48,16 +54,17 @@ public class DefaultSceneService implements ISceneService, IRuleDiscoverer {
                 WhenThen.Then then = whenThen.getThen();
 
                 Rule rule = new Rule();
-                rule.setId(UUID.randomUUID().toString());
-                rule.setFunction("com.scene.mesh.engin.processor.when.SceneMatchedProcessor");
-                Map<String, Object> params = new HashMap<>();
+                // 规则id由场景id与then id确定，版本由规则内容计算，场景未变化时规则保持不变
+                rule.setId(ruleIdOf(scene, then));
+                rule.setFunction(SCENE_MATCHED_FUNCTION);
+                Map<String, Object> params = new TreeMap<>();
                 params.put("thenId", then.getId());
                 params.put("sceneId", scene.getId());
                 rule.setParameters(SimpleObjectHelper.map2json(params));
                 rule.setPattern(when);
-                rule.setBindingKeys(new HashSet<>());
-                rule.setVersion(1);
+                rule.setBindingKeys(bindingKeysOf(scene));
                 rule.setLibs(new HashSet<>());
+                rule.setVersion(RuleVersionUtils.contentVersion(rule.getPattern(), rule.getFunction(), rule.getLibs()));
 
                 rules.add(rule);
             }
@@ -65,6 +72,22 @@ public class DefaultSceneService implements ISceneService, IRuleDiscoverer {
         return rules;
     }
 
+    /**
+     * 场景规则绑定的分区键，"when" 图按 productId:terminalId 分区，场景只匹配所属产品的终端事件；
+     * 未指定产品的场景匹配所有终端
+     */
+    static Set<String> bindingKeysOf(Scene scene) {
+        String productId = scene.getProductId();
+        if (productId == null || productId.isEmpty()) {
+            return new HashSet<>(Set.of(WILDCARD));
+        }
+        return new HashSet<>(Set.of(productId + KeyPathSelector.KEY_SEPARATOR + WILDCARD));
+    }
+
+    private String ruleIdOf(Scene scene, WhenThen.Then then) {
+        return scene.getId() + ":" + then.getId();
+    }
+
     private String extractCleanJson(String escapedJson) {
         try {
             ObjectMapper mapper = new ObjectMapper();
@@ -1,8 +1,6 @@
 package com.scene.mesh.service.impl.speech;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.scene.mesh.foundation.impl.helper.DateHelper;
-import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
 import com.scene.mesh.service.spec.speech.ISttProcessor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -21,12 +19,13 @@ public abstract class BaseSttProcessor implements ISttProcessor {
         long endTime = System.currentTimeMillis();
         double duration = DateHelper.calculateDuration(startTime, endTime);
         log.info("stt recognition completed，It took {} seconds", duration);
-        try {
-            return (String) SimpleObjectHelper.json2map(result).get("text");
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        }
+        return result;
     }
 
+    /**
+     * 识别完整的一段语音
+     *
+     * @return 识别文本，失败时返回 null
+     */
     protected abstract String doRecognition(byte[] audioData);
 }
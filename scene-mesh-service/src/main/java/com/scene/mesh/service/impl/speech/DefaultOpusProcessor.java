@@ -1,7 +1,6 @@
 package com.scene.mesh.service.impl.speech;
 
 import com.scene.mesh.service.spec.speech.IOpusProcessor;
-import io.github.jaredmdobson.concentus.OpusApplication;
 import io.github.jaredmdobson.concentus.OpusDecoder;
 import io.github.jaredmdobson.concentus.OpusEncoder;
 import io.github.jaredmdobson.concentus.OpusException;
@@ -9,68 +8,55 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @Component
 public class DefaultOpusProcessor implements IOpusProcessor {
 
-    // 默认的帧大小
-    private static final int FRAME_SIZE = 320; // Opus典型帧大小
-    
-    // 缓存解码器实例 (按终端ID)
-    private final ConcurrentHashMap<String, OpusDecoder> decoderCache = new ConcurrentHashMap<>();
-    
-    // 缓存编码器实例 (按终端ID)
-    private final ConcurrentHashMap<String, OpusEncoder> encoderCache = new ConcurrentHashMap<>();
-    
     // 默认配置
     private static final int DEFAULT_SAMPLE_RATE = 16000;
     private static final int DEFAULT_CHANNELS = 1;
     private static final int DEFAULT_BITRATE = 16000;
 
-    private OpusDecoder getOrCreateDecoder(String terminalId) throws OpusException {
-        return decoderCache.computeIfAbsent(terminalId, key -> {
-            try {
-                log.debug("Creating new OpusDecoder for terminal: {}", terminalId);
-                return new OpusDecoder(DEFAULT_SAMPLE_RATE, DEFAULT_CHANNELS);
-            } catch (OpusException e) {
-                log.error("Failed to create OpusDecoder for terminal: {}", terminalId, e);
-                throw new RuntimeException(e);
-            }
-        });
+    // 缓存的终端数上限与空闲过期时间
+    private static final int DEFAULT_MAX_TERMINALS = 1024;
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+
+    // 编解码器实例 (按终端ID)
+    private final OpusCodecPool codecPool;
+
+    public DefaultOpusProcessor() {
+        this(DEFAULT_MAX_TERMINALS, DEFAULT_IDLE_TIMEOUT_MILLIS);
     }
 
-    private OpusEncoder getOrCreateEncoder(String terminalId, int sampleRate, int channels) throws OpusException {
-        return encoderCache.computeIfAbsent(terminalId, key -> {
-            try {
-                log.debug("Creating new OpusEncoder for terminal: {} ({}Hz, {} channels)", 
-                         terminalId, sampleRate, channels);
-                OpusEncoder encoder = new OpusEncoder(sampleRate, channels, OpusApplication.OPUS_APPLICATION_VOIP);
-                encoder.setBitrate(DEFAULT_BITRATE);
-                return encoder;
-            } catch (OpusException e) {
-                log.error("Failed to create OpusEncoder for terminal: {} ({}Hz, {} channels)", 
-                         terminalId, sampleRate, channels, e);
-                throw new RuntimeException(e);
-            }
-        });
+    public DefaultOpusProcessor(int maxTerminals, long idleTimeoutMillis) {
+        this.codecPool = new OpusCodecPool(DEFAULT_SAMPLE_RATE, DEFAULT_CHANNELS, DEFAULT_BITRATE,
+                maxTerminals, idleTimeoutMillis);
     }
 
     public byte[] decodeOpusFrameToPcm(String terminalId, byte[] opusData) throws OpusException {
-        OpusDecoder decoder = getOrCreateDecoder(terminalId);
-        short[] pcmBuffer = new short[FRAME_SIZE];
-        int samplesDecoded = decoder.decode(opusData, 0, opusData.length, pcmBuffer, 0, FRAME_SIZE, false);
-
-        // 转换为字节数组
-        byte[] pcmBytes = new byte[samplesDecoded * 2];
-        for (int i = 0; i < samplesDecoded; i++) {
-            pcmBytes[i * 2] = (byte) (pcmBuffer[i] & 0xFF);
-            pcmBytes[i * 2 + 1] = (byte) ((pcmBuffer[i] >> 8) & 0xFF);
+        try (OpusCodecPool.Lease lease = codecPool.checkout(terminalId)) {
+            short[] pcmBuffer = lease.pcmSamples(OpusCodecPool.MAX_FRAME_SAMPLES);
+            int samplesDecoded = lease.decoder().decode(opusData, 0, opusData.length,
+                    pcmBuffer, 0, OpusCodecPool.MAX_FRAME_SAMPLES, false);
+            byte[] pcmBytes = new byte[samplesDecoded * 2];
+            toLittleEndian(pcmBuffer, samplesDecoded, pcmBytes, 0);
+            return pcmBytes;
         }
+    }
 
-        return pcmBytes;
+    @Override
+    public int decodeOpusFrameToPcm(String terminalId, byte[] opusData, int offset, int length,
+                                    byte[] pcmOut, int pcmOffset) throws OpusException {
+        try (OpusCodecPool.Lease lease = codecPool.checkout(terminalId)) {
+            short[] pcmBuffer = lease.pcmSamples(OpusCodecPool.MAX_FRAME_SAMPLES);
+            int maxSamples = Math.min(OpusCodecPool.MAX_FRAME_SAMPLES, (pcmOut.length - pcmOffset) / 2);
+            int samplesDecoded = lease.decoder().decode(opusData, offset, length, pcmBuffer, 0, maxSamples, false);
+            toLittleEndian(pcmBuffer, samplesDecoded, pcmOut, pcmOffset);
+            return samplesDecoded * 2;
+        }
     }
 
     @Override
@@ -80,159 +66,119 @@ public class DefaultOpusProcessor implements IOpusProcessor {
             return new byte[0];
         }
 
-        log.info("开始解码完整Opus流，数据大小: {} 字节", opusStreamData.length);
+        log.debug("开始解码完整Opus流，数据大小: {} 字节", opusStreamData.length);
+
+        try (OpusCodecPool.Lease lease = codecPool.checkout(terminalId)) {
+            OpusDecoder decoder = lease.decoder();
+            short[] pcmFrame = lease.pcmSamples(OpusCodecPool.MAX_FRAME_SAMPLES);
+            byte[] pcmData = lease.streamBuffer(OpusCodecPool.MAX_FRAME_SAMPLES * 2, 0);
+            int pcmLength = 0;
 
-        OpusDecoder decoder = getOrCreateDecoder(terminalId);
-        List<short[]> pcmFrames = new ArrayList<>();
-        
-        try {
             // 解析带长度前缀的标准Opus流
             int offset = 0;
             int frameCount = 0;
-            
+
             while (offset < opusStreamData.length - 1) {
                 // 读取2字节长度前缀（小端序）
-                if (offset + 2 > opusStreamData.length) {
-                    log.warn("数据不足，无法读取帧长度前缀，剩余字节: {}", opusStreamData.length - offset);
-                    break;
-                }
-                
-                int frameLength = (opusStreamData[offset] & 0xFF) | 
-                                ((opusStreamData[offset + 1] & 0xFF) << 8);
+                int frameLength = (opusStreamData[offset] & 0xFF) |
+                        ((opusStreamData[offset + 1] & 0xFF) << 8);
                 offset += 2;
-                
+
                 // 验证帧长度合理性
-                if (frameLength <= 0 || frameLength > 1275) {
+                if (frameLength <= 0 || frameLength > OpusCodecPool.MAX_PACKET_BYTES) {
                     log.warn("检测到异常帧长度: {} 字节，跳过", frameLength);
                     break;
                 }
-                
+
                 // 检查是否有足够的数据
                 if (offset + frameLength > opusStreamData.length) {
-                    log.warn("数据不足，期望 {} 字节，实际剩余 {} 字节", 
+                    log.warn("数据不足，期望 {} 字节，实际剩余 {} 字节",
                             frameLength, opusStreamData.length - offset);
                     break;
                 }
-                
-                // 提取帧数据
-                byte[] frameData = new byte[frameLength];
-                System.arraycopy(opusStreamData, offset, frameData, 0, frameLength);
-                offset += frameLength;
-                
-                // 解码帧
+
+                // 直接从流中解码帧，写入复用的 PCM 缓冲区
                 try {
-                                         short[] pcmFrame = new short[FRAME_SIZE];
-                     int decodedSamples = decoder.decode(frameData, 0, frameLength, pcmFrame, 0, FRAME_SIZE, false);
-                    
+                    int decodedSamples = decoder.decode(opusStreamData, offset, frameLength,
+                            pcmFrame, 0, OpusCodecPool.MAX_FRAME_SAMPLES, false);
                     if (decodedSamples > 0) {
-                        // 只保留有效样本
-                        short[] validPcm = new short[decodedSamples];
-                        System.arraycopy(pcmFrame, 0, validPcm, 0, decodedSamples);
-                        pcmFrames.add(validPcm);
+                        pcmData = lease.streamBuffer(pcmLength + decodedSamples * 2, pcmLength);
+                        toLittleEndian(pcmFrame, decodedSamples, pcmData, pcmLength);
+                        pcmLength += decodedSamples * 2;
                         frameCount++;
                     } else {
                         log.warn("第 {} 帧解码失败，返回样本数: {}", frameCount + 1, decodedSamples);
                     }
-                    
                 } catch (Exception e) {
                     log.warn("第 {} 帧解码异常: {}", frameCount + 1, e.getMessage());
                     // 继续处理下一帧
                 }
+                offset += frameLength;
             }
-            
-            log.info("标准Opus流解码完成:");
-            log.info("- 成功解码帧数: {}", frameCount);
-            log.info("- 总样本数: {}", pcmFrames.stream().mapToInt(f -> f.length).sum());
-            
-            if (pcmFrames.isEmpty()) {
+
+            if (pcmLength == 0) {
                 log.warn("没有成功解码任何帧");
                 return new byte[0];
             }
-            
-            // 合并所有PCM帧
-            int totalSamples = pcmFrames.stream().mapToInt(f -> f.length).sum();
-            byte[] pcmData = new byte[totalSamples * 2]; // 16位PCM，每样本2字节
-            int pcmOffset = 0;
-            
-            for (short[] frame : pcmFrames) {
-                for (short sample : frame) {
-                    // 转换为小端序字节
-                    pcmData[pcmOffset++] = (byte)(sample & 0xFF);
-                    pcmData[pcmOffset++] = (byte)((sample >> 8) & 0xFF);
-                }
-            }
-            
-            log.info("PCM数据生成完成，总大小: {} 字节", pcmData.length);
-            return pcmData;
-            
+
+            log.debug("标准Opus流解码完成，帧数: {}, PCM 大小: {} 字节", frameCount, pcmLength);
+            return Arrays.copyOf(pcmData, pcmLength);
         } catch (Exception e) {
             log.error("解码完整Opus流时发生异常", e);
             return new byte[0];
         }
     }
-    
-    /**
-     * 智能分割合并的Opus帧数据
-     * 改进的分割算法，基于Opus帧结构和统计分析
-     */
-
 
     public List<byte[]> encodePcmToOpus(String terminalId, byte[] pcmData, int sampleRate, int channels, int frameDurationMs)
             throws OpusException {
-        // 使用按会话缓存的编码器
-        OpusEncoder encoder = getOrCreateEncoder(terminalId, sampleRate, channels);
-
         // 每帧样本数
         int frameSize = sampleRate * frameDurationMs / 1000;
-
-        // 处理PCM数据
-        List<byte[]> opusFrames = new ArrayList<>();
-        short[] shortBuffer = new short[frameSize * channels];
-
-        for (int i = 0; i < pcmData.length / 2; i += frameSize * channels) {
-            // 将字节数据转换为short
-            for (int j = 0; j < frameSize * channels && (i + j) < pcmData.length / 2; j++) {
-                int byteIndex = (i + j) * 2;
-                if (byteIndex + 1 < pcmData.length) {
+        int frameSamples = frameSize * channels;
+        int totalSamples = pcmData.length / 2;
+
+        List<byte[]> opusFrames = new ArrayList<>(totalSamples / frameSamples + 1);
+        try (OpusCodecPool.Lease lease = codecPool.checkout(terminalId)) {
+            // 使用按终端缓存的编码器与缓冲区
+            OpusEncoder encoder = lease.encoder(sampleRate, channels);
+            short[] shortBuffer = lease.pcmSamples(frameSamples);
+            byte[] opusBuffer = lease.packetBuffer();
+
+            for (int i = 0; i < totalSamples; i += frameSamples) {
+                // 将字节数据转换为short，最后一帧不足时补零
+                int samples = Math.min(frameSamples, totalSamples - i);
+                for (int j = 0; j < samples; j++) {
+                    int byteIndex = (i + j) * 2;
                     shortBuffer[j] = (short) ((pcmData[byteIndex] & 0xFF) | (pcmData[byteIndex + 1] << 8));
                 }
-            }
-
-            // 编码
-            byte[] opusBuffer = new byte[1275]; // 最大Opus帧大小
-            int opusLength = encoder.encode(shortBuffer, 0, frameSize, opusBuffer, 0, opusBuffer.length);
+                Arrays.fill(shortBuffer, samples, frameSamples, (short) 0);
 
-            // 创建正确大小的帧并添加到列表
-            byte[] opusFrame = new byte[opusLength];
-            System.arraycopy(opusBuffer, 0, opusFrame, 0, opusLength);
-            opusFrames.add(opusFrame);
+                // 编码
+                int opusLength = encoder.encode(shortBuffer, 0, frameSize, opusBuffer, 0, opusBuffer.length);
+                opusFrames.add(Arrays.copyOf(opusBuffer, opusLength));
+            }
         }
-
         return opusFrames;
     }
 
     public void cleanupOpusCoderForTerminal(String terminalId) {
-        OpusDecoder decoder = decoderCache.remove(terminalId);
-        OpusEncoder encoder = encoderCache.remove(terminalId);
-        
-        if (decoder != null || encoder != null) {
-            log.debug("Cleaned up OpusDecoder and OpusEncoder for terminal: {}", terminalId);
-        }
+        codecPool.release(terminalId);
     }
 
     public void cleanupAllOpusCoders() {
-        int decoderCount = decoderCache.size();
-        int encoderCount = encoderCache.size();
-        
-        decoderCache.clear();
-        encoderCache.clear();
-        
-        log.info("Cleaned up {} decoders and {} encoders", decoderCount, encoderCount);
+        int count = codecPool.size();
+        codecPool.clear();
+        log.info("Cleaned up opus codecs for {} terminals", count);
     }
 
     public String getCacheStatus() {
-        return String.format("Decoders: %d, Encoders: %d", 
-                decoderCache.size(), encoderCache.size());
+        return String.format("Terminals: %d/%d, Evictions: %d",
+                codecPool.size(), codecPool.getMaxEntries(), codecPool.getEvictionCount());
     }
 
-}
\ No newline at end of file
+    private static void toLittleEndian(short[] samples, int count, byte[] out, int offset) {
+        for (int i = 0; i < count; i++) {
+            out[offset++] = (byte) (samples[i] & 0xFF);
+            out[offset++] = (byte) ((samples[i] >> 8) & 0xFF);
+        }
+    }
+}
@@ -7,11 +7,15 @@ import com.scene.mesh.service.spec.speech.AudioProcessorManager;
 import com.scene.mesh.service.spec.speech.IOpusProcessor;
 import com.scene.mesh.service.spec.speech.ISpeechService;
 import com.scene.mesh.service.spec.speech.ISttProcessor;
+import com.scene.mesh.service.spec.speech.ISttResultListener;
+import com.scene.mesh.service.spec.speech.ISttSession;
 import com.scene.mesh.service.spec.terminal.ITerminalService;
 import io.github.jaredmdobson.concentus.OpusException;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public class DefaultSpeechService implements ISpeechService {
@@ -22,6 +26,16 @@ public class DefaultSpeechService implements ISpeechService {
 
     private final ITerminalService terminalService;
 
+    /**
+     * 单帧解码后的最大 PCM 字节数
+     */
+    private static final int MAX_FRAME_PCM_BYTES = OpusCodecPool.MAX_FRAME_SAMPLES * 2;
+
+    /**
+     * 进行中的流式识别，按终端 id
+     */
+    private final Map<String, SttStream> sttStreams = new ConcurrentHashMap<>();
+
     public DefaultSpeechService(AudioProcessorManager audioProcessorManager, IProductService productService, ITerminalService terminalService) {
         this.audioProcessorManager = audioProcessorManager;
         this.productService = productService;
@@ -30,14 +44,7 @@ public class DefaultSpeechService implements ISpeechService {
 
     @Override
     public String stt(String terminalId, String base64audioStr) {
-        // Prepare the necessary tools
-        Terminal terminal= this.terminalService.getTerminalWithTerminalId(terminalId);
-        if (terminal == null) throw new RuntimeException("Can not find terminal with id " + terminalId);
-        Product product = this.productService.getProduct(terminal.getProductId());
-        if (product == null) throw new RuntimeException("Can not find product by id " + terminal.getProductId());
-        String sttProcessorConfig = product.getSettings().getSttProcessor();
-        ISttProcessor sttProcessor = this.audioProcessorManager.getSttProcessor(sttProcessorConfig);
-        if (sttProcessor == null) throw new RuntimeException("sttProcessor not configured or cannot find matched processor.");
+        ISttProcessor sttProcessor = this.resolveSttProcessor(terminalId);
 
         // opus 编码音频
         byte[] opusBytes = Base64.getDecoder().decode(base64audioStr);
@@ -66,6 +73,72 @@ public class DefaultSpeechService implements ISpeechService {
         return sttProcessor.recognition(pcmBytes);
     }
     
+    @Override
+    public void startSttStream(String terminalId, ISttResultListener listener) {
+        ISttProcessor sttProcessor = this.resolveSttProcessor(terminalId);
+        SttStream previous = this.sttStreams.put(terminalId, new SttStream(sttProcessor.openSession(terminalId, listener)));
+        if (previous != null) {
+            log.warn("Discarding unfinished stt stream for terminal: {}", terminalId);
+            synchronized (previous) {
+                previous.session.close();
+            }
+        }
+    }
+
+    @Override
+    public void feedSttStream(String terminalId, String base64OpusFrame) {
+        SttStream stream = this.sttStreams.get(terminalId);
+        if (stream == null) {
+            throw new IllegalStateException("No stt stream started for terminal " + terminalId);
+        }
+        byte[] opusBytes = Base64.getDecoder().decode(base64OpusFrame);
+        synchronized (stream) {
+            int pcmLength;
+            try {
+                // 解码到会话复用的 PCM 缓冲区
+                pcmLength = this.audioProcessorManager.getOpusProcessor()
+                        .decodeOpusFrameToPcm(terminalId, opusBytes, 0, opusBytes.length, stream.pcmBuffer, 0);
+            } catch (OpusException e) {
+                log.error("Failed to decode Opus frame for terminal: {}", terminalId, e);
+                throw new RuntimeException(e);
+            }
+            stream.session.accept(stream.pcmBuffer, 0, pcmLength);
+        }
+    }
+
+    @Override
+    public String finishSttStream(String terminalId) {
+        SttStream stream = this.sttStreams.remove(terminalId);
+        if (stream == null) {
+            return null;
+        }
+        synchronized (stream) {
+            return stream.session.finish();
+        }
+    }
+
+    @Override
+    public void release(String terminalId) {
+        SttStream stream = this.sttStreams.remove(terminalId);
+        if (stream != null) {
+            synchronized (stream) {
+                stream.session.close();
+            }
+        }
+        this.audioProcessorManager.getOpusProcessor().cleanupOpusCoderForTerminal(terminalId);
+    }
+
+    private ISttProcessor resolveSttProcessor(String terminalId) {
+        Terminal terminal= this.terminalService.getTerminalWithTerminalId(terminalId);
+        if (terminal == null) throw new RuntimeException("Can not find terminal with id " + terminalId);
+        Product product = this.productService.getProduct(terminal.getProductId());
+        if (product == null) throw new RuntimeException("Can not find product by id " + terminal.getProductId());
+        String sttProcessorConfig = product.getSettings().getSttProcessor();
+        ISttProcessor sttProcessor = this.audioProcessorManager.getSttProcessor(sttProcessorConfig);
+        if (sttProcessor == null) throw new RuntimeException("sttProcessor not configured or cannot find matched processor.");
+        return sttProcessor;
+    }
+
     /**
      * 判断是否为完整音频流（多帧合并）还是单帧
      * 基于数据大小的启发式判断
@@ -87,4 +160,16 @@ public class DefaultSpeechService implements ISpeechService {
 
         return "";
     }
+
+    /**
+     * 终端的流式识别会话与解码缓冲区
+     */
+    private static final class SttStream {
+        private final ISttSession session;
+        private final byte[] pcmBuffer = new byte[MAX_FRAME_PCM_BYTES];
+
+        private SttStream(ISttSession session) {
+            this.session = session;
+        }
+    }
 }
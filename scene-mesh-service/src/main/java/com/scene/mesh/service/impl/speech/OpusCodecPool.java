@@ -0,0 +1,241 @@
+package com.scene.mesh.service.impl.speech;
+
+import io.github.jaredmdobson.concentus.OpusApplication;
+import io.github.jaredmdobson.concentus.OpusDecoder;
+import io.github.jaredmdobson.concentus.OpusEncoder;
+import io.github.jaredmdobson.concentus.OpusException;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 按终端缓存的 Opus 编解码器池
+ * 1. 每个终端一组编解码器与工作缓冲区，通过 {@link #checkout(String)} 独占使用，同一终端的并发调用依次执行；
+ * 2. 超过 maxEntries 时淘汰最久未使用的终端，超过 idleTimeoutMillis 未使用的终端在下次借用时清理；
+ * 3. 终端断开时调用 {@link #release(String)} 立即释放。
+ * 被淘汰时仍在使用中的编解码器不受影响，归还后随条目一起回收。
+ */
+@Slf4j
+public class OpusCodecPool {
+
+    /**
+     * 单帧最大样本数：16kHz 单声道 120ms
+     */
+    public static final int MAX_FRAME_SAMPLES = 1920;
+
+    /**
+     * Opus 单帧最大字节数
+     */
+    public static final int MAX_PACKET_BYTES = 1275;
+
+    /**
+     * 归还时保留的整段 PCM 缓冲区上限，超过的缓冲区不再复用
+     */
+    private static final int MAX_RETAINED_STREAM_BYTES = 1 << 20;
+
+    private final int decoderSampleRate;
+
+    private final int decoderChannels;
+
+    private final int bitrate;
+
+    @Getter
+    private final int maxEntries;
+
+    @Getter
+    private final long idleTimeoutMillis;
+
+    private final LinkedHashMap<String, Entry> entries;
+
+    private long lastSweepMillis = System.currentTimeMillis();
+
+    private long evictionCount;
+
+    public OpusCodecPool(int decoderSampleRate, int decoderChannels, int bitrate, int maxEntries, long idleTimeoutMillis) {
+        this.decoderSampleRate = decoderSampleRate;
+        this.decoderChannels = decoderChannels;
+        this.bitrate = bitrate;
+        this.maxEntries = maxEntries;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > OpusCodecPool.this.maxEntries) {
+                    eldest.getValue().evicted = true;
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 独占借用终端的编解码器，使用完后关闭返回的 {@link Lease}
+     */
+    public Lease checkout(String terminalId) {
+        while (true) {
+            Entry entry;
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                sweepIdle(now);
+                entry = entries.get(terminalId);
+                if (entry == null) {
+                    entry = new Entry();
+                    entries.put(terminalId, entry);
+                }
+                entry.lastAccessMillis = now;
+            }
+            entry.lock.lock();
+            if (!entry.evicted) {
+                return new Lease(entry);
+            }
+            // 等待期间条目被淘汰，重新获取
+            entry.lock.unlock();
+        }
+    }
+
+    /**
+     * 释放终端的编解码器
+     */
+    public synchronized void release(String terminalId) {
+        Entry entry = entries.remove(terminalId);
+        if (entry != null) {
+            entry.evicted = true;
+            log.debug("Released opus codecs for terminal: {}", terminalId);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.values().forEach(entry -> entry.evicted = true);
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    private void sweepIdle(long now) {
+        if (now - lastSweepMillis < Math.min(idleTimeoutMillis, 1_000)) {
+            return;
+        }
+        lastSweepMillis = now;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            // 按访问顺序排列，遇到未过期的条目即可停止
+            if (now - entry.lastAccessMillis < idleTimeoutMillis) {
+                break;
+            }
+            entry.evicted = true;
+            evictionCount++;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 单个终端的编解码器与缓冲区
+     */
+    private static final class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile boolean evicted;
+        private long lastAccessMillis;
+        private OpusDecoder decoder;
+        private OpusEncoder encoder;
+        private int encoderSampleRate;
+        private int encoderChannels;
+        private short[] pcmSamples;
+        private byte[] packetBuffer;
+        private byte[] streamBuffer;
+    }
+
+    /**
+     * 对终端编解码器的独占使用
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final Entry entry;
+
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public OpusDecoder decoder() throws OpusException {
+            if (entry.decoder == null) {
+                entry.decoder = new OpusDecoder(decoderSampleRate, decoderChannels);
+            }
+            return entry.decoder;
+        }
+
+        /**
+         * 编码器，采样率或声道数变化时重新创建
+         */
+        public OpusEncoder encoder(int sampleRate, int channels) throws OpusException {
+            if (entry.encoder == null || entry.encoderSampleRate != sampleRate || entry.encoderChannels != channels) {
+                OpusEncoder encoder = new OpusEncoder(sampleRate, channels, OpusApplication.OPUS_APPLICATION_VOIP);
+                encoder.setBitrate(bitrate);
+                entry.encoder = encoder;
+                entry.encoderSampleRate = sampleRate;
+                entry.encoderChannels = channels;
+            }
+            return entry.encoder;
+        }
+
+        /**
+         * 复用的样本缓冲区，长度至少为 minSamples
+         */
+        public short[] pcmSamples(int minSamples) {
+            if (entry.pcmSamples == null || entry.pcmSamples.length < minSamples) {
+                entry.pcmSamples = new short[Math.max(minSamples, MAX_FRAME_SAMPLES)];
+            }
+            return entry.pcmSamples;
+        }
+
+        /**
+         * 复用的 Opus 包缓冲区
+         */
+        public byte[] packetBuffer() {
+            if (entry.packetBuffer == null) {
+                entry.packetBuffer = new byte[MAX_PACKET_BYTES];
+            }
+            return entry.packetBuffer;
+        }
+
+        /**
+         * 复用的整段 PCM 缓冲区，保留已有的前 keepBytes 字节
+         */
+        public byte[] streamBuffer(int minBytes, int keepBytes) {
+            byte[] buffer = entry.streamBuffer;
+            if (buffer == null || buffer.length < minBytes) {
+                byte[] grown = new byte[Math.max(minBytes, buffer == null ? 8192 : buffer.length * 2)];
+                if (buffer != null && keepBytes > 0) {
+                    System.arraycopy(buffer, 0, grown, 0, keepBytes);
+                }
+                entry.streamBuffer = grown;
+            }
+            return entry.streamBuffer;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (entry.streamBuffer != null && entry.streamBuffer.length > MAX_RETAINED_STREAM_BYTES) {
+                entry.streamBuffer = null;
+            }
+            entry.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.scene.mesh.service.impl.speech;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.vosk.Model;
+import org.vosk.Recognizer;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vosk 识别器池
+ * 识别器按需创建，最多 maxSize 个，归还时重置状态后复用，避免每次识别重复初始化解码图。
+ * 池满时借用方最多等待 borrowTimeoutMillis。
+ */
+@Slf4j
+public class VoskRecognizerPool implements AutoCloseable {
+
+    private final Model model;
+
+    @Getter
+    private final float sampleRate;
+
+    @Getter
+    private final int maxSize;
+
+    private final long borrowTimeoutMillis;
+
+    private final Semaphore permits;
+
+    private final BlockingQueue<Recognizer> idle;
+
+    private volatile boolean closed;
+
+    public VoskRecognizerPool(Model model, float sampleRate, int maxSize, long borrowTimeoutMillis) {
+        this.model = model;
+        this.sampleRate = sampleRate;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(maxSize);
+        this.idle = new ArrayBlockingQueue<>(maxSize);
+    }
+
+    /**
+     * 借用识别器，用完后必须调用 {@link #release(Recognizer)}
+     */
+    public Recognizer borrow() {
+        if (closed) {
+            throw new IllegalStateException("recognizer pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("no idle recognizer within " + borrowTimeoutMillis + "ms, pool size: " + maxSize);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+
+        Recognizer recognizer = idle.poll();
+        if (recognizer != null) {
+            return recognizer;
+        }
+        try {
+            log.debug("creating vosk recognizer, sampleRate: {}", sampleRate);
+            return new Recognizer(model, sampleRate);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw new IllegalStateException("failed to create vosk recognizer", e);
+        }
+    }
+
+    /**
+     * 归还识别器
+     */
+    public void release(Recognizer recognizer) {
+        try {
+            if (closed) {
+                recognizer.close();
+                return;
+            }
+            recognizer.reset();
+            if (!idle.offer(recognizer)) {
+                recognizer.close();
+            }
+        } catch (RuntimeException e) {
+            log.warn("discarding vosk recognizer: {}", e.getMessage());
+            recognizer.close();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 空闲的识别器数
+     */
+    public int idleCount() {
+        return idle.size();
+    }
+
+    /**
+     * 已借出的识别器数
+     */
+    public int activeCount() {
+        return maxSize - permits.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Recognizer recognizer;
+        while ((recognizer = idle.poll()) != null) {
+            recognizer.close();
+        }
+    }
+}
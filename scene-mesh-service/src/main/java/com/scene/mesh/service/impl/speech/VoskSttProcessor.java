@@ -1,49 +1,62 @@
 package com.scene.mesh.service.impl.speech;
 
-import com.scene.mesh.service.spec.speech.ISttProcessor;
+import com.scene.mesh.service.spec.speech.ISttResultListener;
+import com.scene.mesh.service.spec.speech.ISttSession;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
 import org.vosk.Model;
-import org.vosk.Recognizer;
-
-import java.io.ByteArrayInputStream;
 
 @Slf4j
 public class VoskSttProcessor extends BaseSttProcessor {
 
-    private final Model model;
+    private static final float SAMPLE_RATE = 16000;
 
-    public VoskSttProcessor(Model model) {
-        this.model = model;
-    }
+    private static final int DEFAULT_POOL_SIZE = 4;
 
-    @Override
-    protected String doRecognition(byte[] audioData) {
+    private static final long DEFAULT_BORROW_TIMEOUT_MILLIS = 1_000;
 
-        try (Recognizer recognizer = new Recognizer(model, 16000)) { // 16000 是采样率
-            ByteArrayInputStream audioStream = new ByteArrayInputStream(audioData);
+    private static final int CHUNK_SIZE = 4096;
 
-            byte[] buffer = new byte[4096];
-            int bytesRead;
+    private final VoskRecognizerPool recognizerPool;
 
-            while ((bytesRead = audioStream.read(buffer)) != -1) {
-                if (recognizer.acceptWaveForm(buffer, bytesRead)) {
-                    // 如果识别到完整的结果
-                    return recognizer.getResult();
-                }
-            }
+    public VoskSttProcessor(Model model) {
+        this(model, DEFAULT_POOL_SIZE);
+    }
 
-            // 返回最终的识别结果
-            return recognizer.getFinalResult();
+    public VoskSttProcessor(Model model, int poolSize) {
+        this(model, poolSize, DEFAULT_BORROW_TIMEOUT_MILLIS);
+    }
 
+    /**
+     * @param borrowTimeoutMillis 识别器全部借出时打开会话的最长等待时间
+     */
+    public VoskSttProcessor(Model model, int poolSize, long borrowTimeoutMillis) {
+        this.recognizerPool = new VoskRecognizerPool(model, SAMPLE_RATE, poolSize, borrowTimeoutMillis);
+    }
+
+    @Override
+    protected String doRecognition(byte[] audioData) {
+        try (ISttSession session = openSession(null, null)) {
+            for (int offset = 0; offset < audioData.length; offset += CHUNK_SIZE) {
+                session.accept(audioData, offset, Math.min(CHUNK_SIZE, audioData.length - offset));
+            }
+            return session.finish();
         } catch (Exception e) {
             log.error("处理音频时发生错误！", e);
             return null;
         }
     }
 
+    @Override
+    public ISttSession openSession(String terminalId, ISttResultListener listener) {
+        return new VoskSttSession(terminalId, recognizerPool, listener);
+    }
+
     @Override
     public SttProcessorType processorType() {
         return SttProcessorType.VOSK;
     }
+
+    public VoskRecognizerPool getRecognizerPool() {
+        return recognizerPool;
+    }
 }
@@ -0,0 +1,114 @@
+package com.scene.mesh.service.impl.speech;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
+import com.scene.mesh.service.spec.speech.ISttResultListener;
+import com.scene.mesh.service.spec.speech.ISttSession;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.vosk.Recognizer;
+
+/**
+ * Vosk 流式识别会话，持有池中借出的识别器直到 {@link #finish()} 或 {@link #close()}
+ */
+@Slf4j
+public class VoskSttSession implements ISttSession {
+
+    @Getter
+    private final String terminalId;
+
+    private final VoskRecognizerPool pool;
+
+    private final ISttResultListener listener;
+
+    private final StringBuilder text = new StringBuilder();
+
+    private Recognizer recognizer;
+
+    private String lastPartial = "";
+
+    private byte[] scratch;
+
+    public VoskSttSession(String terminalId, VoskRecognizerPool pool, ISttResultListener listener) {
+        this.terminalId = terminalId;
+        this.pool = pool;
+        this.listener = listener;
+        this.recognizer = pool.borrow();
+    }
+
+    @Override
+    public void accept(byte[] pcm, int offset, int length) {
+        if (recognizer == null) {
+            throw new IllegalStateException("stt session already finished, terminalId: " + terminalId);
+        }
+        if (length <= 0) {
+            return;
+        }
+        byte[] data = pcm;
+        if (offset != 0) {
+            // acceptWaveForm 不支持偏移量，复制到复用的缓冲区
+            if (scratch == null || scratch.length < length) {
+                scratch = new byte[length];
+            }
+            System.arraycopy(pcm, offset, scratch, 0, length);
+            data = scratch;
+        }
+
+        if (recognizer.acceptWaveForm(data, length)) {
+            appendSegment(recognizer.getResult());
+        } else if (listener != null) {
+            String partial = field(recognizer.getPartialResult(), "partial");
+            if (partial != null && !partial.isEmpty() && !partial.equals(lastPartial)) {
+                lastPartial = partial;
+                listener.onPartial(terminalId, partial);
+            }
+        }
+    }
+
+    @Override
+    public String finish() {
+        if (recognizer == null) {
+            return text.toString();
+        }
+        try {
+            appendSegment(recognizer.getFinalResult());
+        } finally {
+            close();
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void close() {
+        if (recognizer != null) {
+            Recognizer released = recognizer;
+            recognizer = null;
+            pool.release(released);
+        }
+    }
+
+    private void appendSegment(String result) {
+        lastPartial = "";
+        String segment = field(result, "text");
+        if (segment == null || segment.isEmpty()) {
+            return;
+        }
+        if (!text.isEmpty()) {
+            text.append(' ');
+        }
+        text.append(segment);
+        if (listener != null) {
+            listener.onFinal(terminalId, segment);
+        }
+    }
+
+    private static String field(String json, String name) {
+        try {
+            Object value = SimpleObjectHelper.json2map(json).get(name);
+            return value == null ? null : value.toString();
+        } catch (JsonProcessingException e) {
+            log.warn("invalid vosk result: {}", json);
+            return null;
+        }
+    }
+}
@@ -18,12 +18,26 @@ public class DefaultTerminalService implements ITerminalService {
 
     private final TerminalRepository terminalRepository;
 
+    /**
+     * 不为空时状态更新交给后台批量写入，调用方不等待数据库
+     */
+    private final TerminalStatusWriter statusWriter;
+
     public DefaultTerminalService(TerminalRepository terminalRepository) {
+        this(terminalRepository, null);
+    }
+
+    public DefaultTerminalService(TerminalRepository terminalRepository, TerminalStatusWriter statusWriter) {
         this.terminalRepository = terminalRepository;
+        this.statusWriter = statusWriter;
     }
 
     @Override
     public void updateStatus(String productId, String terminalId, TerminalStatus terminalStatus) {
+        if (this.statusWriter != null) {
+            this.statusWriter.submit(productId, terminalId, terminalStatus);
+            return;
+        }
         Terminal terminal = this.getTerminalWithProductId(productId, terminalId);
         if (terminal == null) {
             log.error("terminal not found - productId:{}, terminalId:{}", productId, terminalId);
@@ -0,0 +1,230 @@
+package com.scene.mesh.service.impl.terminal;
+
+import com.scene.mesh.model.terminal.TerminalStatus;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 终端状态的延迟批量写入
+ * 1. {@link #submit} 只记录终端的最新状态，同一终端在两次刷写之间的多次变更合并为一次写入，调用方（如 MQTT broker 线程）不访问数据库，也不抛出异常；
+ * 2. 后台线程每 flushIntervalMillis 或待写入条目达到 batchSize 时，以 JDBC batch 按 batchSize 分批更新；
+ * 3. 待写入条目达到 maxPending 时丢弃最早提交的条目并计数，内存占用有上限；
+ * 4. {@link #close()} 停止后台线程并刷写剩余条目，关闭后提交的状态丢弃并计数。
+ * 写入失败的条目重新放回（不覆盖期间提交的更新状态），在下次刷写时重试。
+ */
+@Slf4j
+public class TerminalStatusWriter implements AutoCloseable {
+
+    private static final String UPDATE_SQL =
+            "UPDATE terminal SET status = ?, updated_at = ? WHERE product_id = ? AND terminal_id = ?";
+
+    @Getter
+    private final int batchSize;
+
+    @Getter
+    private final int maxPending;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 按首次提交顺序排列的待写入条目，访问需同步在自身上
+     */
+    private final LinkedHashMap<Key, TerminalStatus> pending;
+
+    /**
+     * 队列已满或已关闭时丢弃的状态数
+     */
+    private final LongAdder droppedCount = new LongAdder();
+
+    /**
+     * 保证刷写串行执行，先取出的状态先写入，避免旧状态覆盖新状态
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final ScheduledExecutorService executor;
+
+    private volatile boolean closed;
+
+    public TerminalStatusWriter(JdbcTemplate jdbcTemplate, int batchSize, int maxPending, long flushIntervalMillis) {
+        if (batchSize <= 0 || maxPending < batchSize) {
+            throw new IllegalArgumentException("invalid terminal status writer size - batchSize:" + batchSize + ", maxPending:" + maxPending);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.pending = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, TerminalStatus> eldest) {
+                if (size() <= TerminalStatusWriter.this.maxPending) {
+                    return false;
+                }
+                onDropped(eldest.getKey(), "pending full");
+                return true;
+            }
+        };
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "terminal-status-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.executor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录终端的最新状态，等待后台批量写入
+     */
+    public void submit(String productId, String terminalId, TerminalStatus status) {
+        Key key = new Key(productId, terminalId);
+        if (this.closed) {
+            onDropped(key, "writer closed");
+            return;
+        }
+
+        int size;
+        synchronized (this.pending) {
+            this.pending.put(key, status);
+            size = this.pending.size();
+        }
+        if (size >= this.batchSize && this.flushRequested.compareAndSet(false, true)) {
+            try {
+                this.executor.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // 并发关闭，剩余条目由 close 刷写
+                this.flushRequested.set(false);
+            }
+        }
+    }
+
+    public int pendingCount() {
+        synchronized (this.pending) {
+            return this.pending.size();
+        }
+    }
+
+    public long getDroppedCount() {
+        return this.droppedCount.sum();
+    }
+
+    /**
+     * 写入当前所有待写入条目
+     */
+    public void flush() {
+        this.flushLock.lock();
+        try {
+            this.flushRequested.set(false);
+            // 每批只在取出时持有锁，写库期间提交方不受影响；只写入本次刷写开始时已有的条目
+            int remaining = this.pendingCount();
+            while (remaining > 0) {
+                List<Map.Entry<Key, TerminalStatus>> batch = this.takeBatch(Math.min(remaining, this.batchSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                remaining -= batch.size();
+                this.write(batch);
+            }
+        } finally {
+            this.flushLock.unlock();
+        }
+    }
+
+    private List<Map.Entry<Key, TerminalStatus>> takeBatch(int size) {
+        List<Map.Entry<Key, TerminalStatus>> batch = new ArrayList<>(size);
+        synchronized (this.pending) {
+            Iterator<Map.Entry<Key, TerminalStatus>> entries = this.pending.entrySet().iterator();
+            while (entries.hasNext() && batch.size() < size) {
+                Map.Entry<Key, TerminalStatus> entry = entries.next();
+                batch.add(Map.entry(entry.getKey(), entry.getValue()));
+                entries.remove();
+            }
+        }
+        return batch;
+    }
+
+    private void onDropped(Key key, String reason) {
+        this.droppedCount.increment();
+        long dropped = this.droppedCount.sum();
+        // 积压时每条都打印会放大故障，只周期性告警
+        if (dropped == 1 || dropped % 10_000 == 0) {
+            log.warn("terminal status dropped ({}) - productId:{}, terminalId:{}, dropped:{}",
+                    reason, key.productId(), key.terminalId(), dropped);
+        } else {
+            log.debug("terminal status dropped ({}) - productId:{}, terminalId:{}", reason, key.productId(), key.terminalId());
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            this.flush();
+        } catch (Exception e) {
+            log.error("terminal status flush failed - pending:{}", this.pendingCount(), e);
+        }
+    }
+
+    private void write(List<Map.Entry<Key, TerminalStatus>> batch) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> args = new ArrayList<>(batch.size());
+        for (Map.Entry<Key, TerminalStatus> entry : batch) {
+            args.add(new Object[]{entry.getValue().name(), now, entry.getKey().productId(), entry.getKey().terminalId()});
+        }
+
+        int[] counts;
+        try {
+            counts = this.jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+        } catch (RuntimeException e) {
+            synchronized (this.pending) {
+                for (Map.Entry<Key, TerminalStatus> entry : batch) {
+                    this.pending.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+            throw e;
+        }
+
+        for (int i = 0; i < counts.length && i < batch.size(); i++) {
+            if (counts[i] == 0) {
+                Key key = batch.get(i).getKey();
+                log.error("terminal not found - productId:{}, terminalId:{}", key.productId(), key.terminalId());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("terminal status writer did not stop in 5 seconds");
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.executor.shutdownNow();
+        }
+        this.flush();
+        log.info("terminal status writer closed");
+    }
+
+    private record Key(String productId, String terminalId) {
+    }
+}
@@ -10,7 +10,7 @@ import java.util.List;
 public abstract class CacheObjectContainer<T, C> {
 
     private final ICacheProvider<T, C> provider;
-    private T cacheObject;
+    private volatile T cacheObject;
 
     public CacheObjectContainer(ICacheProvider<T, C> provider, boolean waitRefresh) {
         this.provider = provider;
@@ -28,12 +28,16 @@ public abstract class CacheObjectContainer<T, C> {
         return cacheObject;
     }
 
-    public void refresh(List<C> objects) {
-        if (this.cacheObject instanceof IDisposed) {
-            ((IDisposed) this.cacheObject).dispose();
-        }
-        this.cacheObject = this.provider.refreshCacheObject(objects);
-        this.updateCacheObject(this.cacheObject);
+    /**
+     * 刷新缓存，由 provider 写入新数据后直接替换缓存对象。
+     * 旧的缓存对象不再 dispose，避免刷新期间读取方看到被清空的缓存
+     *
+     * @return 本次刷新的结果，provider 不支持时为 null
+     */
+    public CacheRefreshResult refresh(List<C> objects) {
+        CacheRefreshResult result = this.provider.refresh(objects);
+        this.updateCacheObject(this.provider.generateCacheObject());
+        return result;
     }
 
     public abstract boolean isExpire();
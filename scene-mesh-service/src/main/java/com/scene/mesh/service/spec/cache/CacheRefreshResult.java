@@ -0,0 +1,41 @@
+package com.scene.mesh.service.spec.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 一次缓存刷新的结果
+ */
+@Getter
+@AllArgsConstructor
+public class CacheRefreshResult {
+
+    /**
+     * 缓存命名空间（键前缀）
+     */
+    private final String namespace;
+
+    /**
+     * 新增或内容变化、重新写入的对象数
+     */
+    private final int changed;
+
+    /**
+     * 内容未变化、未写入的对象数
+     */
+    private final int unchanged;
+
+    /**
+     * 已删除的对象数
+     */
+    private final int removed;
+
+    public boolean hasChanges() {
+        return changed > 0 || removed > 0;
+    }
+
+    @Override
+    public String toString() {
+        return namespace + " changed=" + changed + ", unchanged=" + unchanged + ", removed=" + removed;
+    }
+}
@@ -9,5 +9,10 @@ public interface ICacheProvider<T,C> {
 
     T generateCacheObject();
 
-    T refreshCacheObject(List<C> objects);
+    /**
+     * 写入新数据
+     *
+     * @return 本次刷新的变化、未变化与删除数量，不支持时返回 null
+     */
+    CacheRefreshResult refresh(List<C> objects);
 }
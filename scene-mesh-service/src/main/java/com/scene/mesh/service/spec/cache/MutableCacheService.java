@@ -1,9 +1,11 @@
 package com.scene.mesh.service.spec.cache;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.scene.mesh.foundation.impl.cache.NearCache;
 import com.scene.mesh.foundation.impl.helper.SimpleObjectHelper;
 import com.scene.mesh.foundation.spec.api.ApiClient;
 import com.scene.mesh.foundation.spec.cache.ICache;
+import com.scene.mesh.foundation.spec.cache.ICacheInvalidationBus;
 import com.scene.mesh.foundation.spec.parameter.CalculatorDescriptor;
 import com.scene.mesh.foundation.spec.parameter.MetaParameterDescriptor;
 import com.scene.mesh.foundation.spec.parameter.data.*;
@@ -45,14 +47,21 @@ import com.scene.mesh.service.impl.cache.terminal.TerminalSessionCacheProvider;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 缓存服务
  */
 public class MutableCacheService {
 
+    /**
+     * 本地缓存每个前缀的最大条目数
+     */
+    private static final int NEAR_CACHE_MAX_ENTRIES = 10_000;
+
     private final CacheObjectContainer<TerminalSessionCache, TerminalSession> terminalSessionCacheContainer;
 
     private final CacheObjectContainer<ProductCache, Product> productCacheContainer;
@@ -71,33 +80,60 @@ public class MutableCacheService {
 
     private final ApiClient apiClient;
 
+    private final NearCache<Object> nearCache;
+
     public MutableCacheService(ICache cache, ApiClient apiClient) {
 
         this.apiClient = apiClient;
 
+        // 元数据读多写少，在远端缓存前增加进程内缓存；终端会话频繁变更，直接读写远端缓存
+        this.nearCache = cache instanceof ICacheInvalidationBus
+                ? new NearCache<Object>(cache, (ICacheInvalidationBus) cache, metadataKeyPrefixes(), NEAR_CACHE_MAX_ENTRIES)
+                : null;
+        ICache metadataCache = this.nearCache != null ? this.nearCache : cache;
+
         terminalSessionCacheContainer =
                 new NonExpiringCacheObjectContainer<>(new TerminalSessionCacheProvider(cache), false);
 
         productCacheContainer =
-                new NonExpiringCacheObjectContainer<>(new ProductCacheProvider(cache), true);
+                new NonExpiringCacheObjectContainer<>(new ProductCacheProvider(metadataCache), true);
 
         metaEventCacheContainer =
-                new NonExpiringCacheObjectContainer<>(new MetaEventCacheProvider(cache), true);
+                new NonExpiringCacheObjectContainer<>(new MetaEventCacheProvider(metadataCache), true);
 
         sceneCacheContainer =
-                new NonExpiringCacheObjectContainer<>(new SceneCacheProvider(cache), true);
+                new NonExpiringCacheObjectContainer<>(new SceneCacheProvider(metadataCache), true);
 
         metaActionCacheContainer =
-                new NonExpiringCacheObjectContainer<>(new MetaActionCacheProvider(cache), true);
+                new NonExpiringCacheObjectContainer<>(new MetaActionCacheProvider(metadataCache), true);
 
         llmCacheContainerProvider =
-                new NonExpiringCacheObjectContainer<>(new LlmCacheProvider(cache), true);
+                new NonExpiringCacheObjectContainer<>(new LlmCacheProvider(metadataCache), true);
 
         mcpServerCacheContainerProvider =
-                new NonExpiringCacheObjectContainer<>(new McpServerCacheProvider(cache), true);
+                new NonExpiringCacheObjectContainer<>(new McpServerCacheProvider(metadataCache), true);
 
         knowledgeCacheContainerProvider =
-                new NonExpiringCacheObjectContainer<>(new KnowledgeCacheProvider(cache), true);
+                new NonExpiringCacheObjectContainer<>(new KnowledgeCacheProvider(metadataCache), true);
+    }
+
+    private static Set<String> metadataKeyPrefixes() {
+        Set<String> prefixes = new LinkedHashSet<>();
+        prefixes.add(ProductCache.KEY_PREFIX);
+        prefixes.add(MetaEventCache.KEY_PREFIX);
+        prefixes.add(SceneCache.KEY_PREFIX);
+        prefixes.add(MetaActionCache.KEY_PREFIX);
+        prefixes.add(LlmCache.KEY_PREFIX);
+        prefixes.add(McpServerCache.KEY_PREFIX);
+        prefixes.add(KnowledgeCache.KEY_PREFIX);
+        return prefixes;
+    }
+
+    /**
+     * 本地缓存，可用于获取命中率与条目数，远端缓存不支持失效通知时为 null
+     */
+    public NearCache<Object> getNearCache() {
+        return nearCache;
     }
 
     public TerminalSession getTerminalSessionByTerminalId(String terminalId) {
@@ -114,36 +150,42 @@ public class MutableCacheService {
         return true;
     }
 
-    public boolean refreshAll() {
+    /**
+     * 刷新所有元数据缓存
+     *
+     * @return 各缓存的变化、未变化与删除数量
+     */
+    public List<CacheRefreshResult> refreshAll() {
         // refresh product related
         List<OriginalProduct> originalProducts = this.getAllOriginalProducts();
         List<Product> products = this.extractProducts(originalProducts);
         List<IMetaEvent> metaEvents = this.extractMetaEvents(originalProducts);
         List<Scene> scenes = this.extractScenes(originalProducts);
         List<IMetaAction> metaActions = this.extractMetaActions(originalProducts);
-        this.productCacheContainer.refresh(products);
-        this.metaEventCacheContainer.refresh(metaEvents);
-        this.sceneCacheContainer.refresh(scenes);
-        this.metaActionCacheContainer.refresh(metaActions);
+        List<CacheRefreshResult> results = new ArrayList<>();
+        results.add(this.productCacheContainer.refresh(products));
+        results.add(this.metaEventCacheContainer.refresh(metaEvents));
+        results.add(this.sceneCacheContainer.refresh(scenes));
+        results.add(this.metaActionCacheContainer.refresh(metaActions));
 
         // refresh llm related
         List<OriginalLanguageModelProvider> originalLanguageModelProviders =
                 this.getAllOriginalLanguageModelProviders();
         List<LanguageModelProvider> languageModelProviders = this.extractLanguageModelProviders(originalLanguageModelProviders);
-        this.llmCacheContainerProvider.refresh(languageModelProviders);
+        results.add(this.llmCacheContainerProvider.refresh(languageModelProviders));
 
         // refresh mcp servers related
         List<OriginalMcpServer> originalMcpServers =
                 this.getAllOriginalMcpServers();
         List<McpServer> mcpServers = this.extractMcpServers(originalMcpServers);
-        this.mcpServerCacheContainerProvider.refresh(mcpServers);
+        results.add(this.mcpServerCacheContainerProvider.refresh(mcpServers));
 
         // refresh knowledgeBase
         List<OriginalKnowledgeBase> originalKnowledgeBases = this.getAllOriginalKnowledgeBases();
         List<KnowledgeBase> knowledgeBases = this.extractKnowledgeBases(originalKnowledgeBases);
-        this.knowledgeCacheContainerProvider.refresh(knowledgeBases);
+        results.add(this.knowledgeCacheContainerProvider.refresh(knowledgeBases));
 
-        return true;
+        return results;
     }
 
     private List<KnowledgeBase> extractKnowledgeBases(List<OriginalKnowledgeBase> originalKnowledgeBases) {
@@ -0,0 +1,232 @@
+package com.scene.mesh.service.spec.cache;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.scene.mesh.foundation.impl.cache.NearCache;
+import com.scene.mesh.foundation.spec.cache.ICache;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带版本的缓存命名空间
+ * 每个对象按内容摘要写入独立的键 {prefix}{id}@{hash}，当前可见的对象由清单哈希表 {prefix}@index（id -> hash）描述，
+ * 读取单个对象只需 HGET 清单中的一个字段。
+ * 刷新时只写入摘要发生变化的对象，写入完成后再在一个事务中更新清单的变化字段，读取方始终通过清单定位到一份完整的快照，
+ * 不会读到写入中或被清空的数据；内容没有变化时不产生任何写入。
+ * 被替换或删除的对象在后台延迟删除。
+ * 第一次发布到空的命名空间时（如从不带版本的 {prefix}{id} 键迁移后），延迟删除这些 id 的不带版本的旧键。
+ *
+ * @param <V> 缓存值类型
+ */
+@Slf4j
+public class VersionedCacheNamespace<V> {
+
+    /**
+     * 清单哈希表
+     */
+    private static final String MANIFEST_KEY = "@index";
+
+    private static final String HASH_SEPARATOR = "@";
+
+    private static final ScheduledExecutorService GC_EXECUTOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cache-snapshot-gc");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * 计算摘要使用的序列化，属性与 Map 键排序后相同内容得到相同摘要
+     */
+    private static final ObjectMapper DIGEST_MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+            .build();
+
+    /**
+     * 默认延迟删除时间：读取方经 {@link NearCache} 读到的清单最多旧 maxStalenessMillis，
+     * 在此基础上再留 30 秒，保证旧清单引用的对象在其过期前仍可读取
+     */
+    public static final long DEFAULT_GC_DELAY_MILLIS = NearCache.DEFAULT_MAX_STALENESS_MILLIS + 30_000;
+
+    /**
+     * 旧对象的延迟删除时间（毫秒），给仍在读取旧清单的调用方留出时间，不应小于本地缓存的最长保留时间
+     */
+    private static volatile long gcDelayMillis = DEFAULT_GC_DELAY_MILLIS;
+
+    private final ICache<String, Object> cache;
+
+    @Getter
+    private final String keyPrefix;
+
+    public static void setGcDelayMillis(long delayMillis) {
+        gcDelayMillis = delayMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    public VersionedCacheNamespace(ICache<String, ?> cache, String keyPrefix) {
+        this.cache = (ICache<String, Object>) cache;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(String id) {
+        String hash = cache.hashGet(manifestKey(), id);
+        return hash == null ? null : (V) cache.get(entryKey(id, hash));
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<V> getAll() {
+        Map<String, String> manifest = manifest();
+        if (manifest.isEmpty()) {
+            return null;
+        }
+        List<String> keys = new ArrayList<>(manifest.size());
+        manifest.forEach((id, hash) -> keys.add(entryKey(id, hash)));
+        return (List<V>) cache.multiGet(keys);
+    }
+
+    /**
+     * 发布新的快照，只写入内容变化的对象
+     *
+     * @param entries id -> 缓存值
+     * @return 变化、未变化与删除的对象数
+     */
+    public synchronized CacheRefreshResult publish(Map<String, V> entries) {
+        Map<String, String> current = manifest();
+        Map<String, String> changedHashes = new HashMap<>();
+        Map<String, Object> changed = new LinkedHashMap<>();
+        List<String> removedIds = new ArrayList<>();
+        List<String> retired = new ArrayList<>();
+
+        for (Map.Entry<String, V> entry : entries.entrySet()) {
+            String id = entry.getKey();
+            String hash = digest(id, entry.getValue());
+            String previous = current.get(id);
+            if (!hash.equals(previous)) {
+                changedHashes.put(id, hash);
+                changed.put(entryKey(id, hash), entry.getValue());
+                if (previous != null) {
+                    retired.add(entryKey(id, previous));
+                }
+            }
+        }
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            if (!entries.containsKey(entry.getKey())) {
+                removedIds.add(entry.getKey());
+                retired.add(entryKey(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        CacheRefreshResult result = new CacheRefreshResult(keyPrefix, changed.size(),
+                entries.size() - changed.size(), removedIds.size());
+        if (!result.hasChanges()) {
+            return result;
+        }
+
+        if (!cache.multiSet(changed)) {
+            throw new IllegalStateException("写入缓存失败, namespace: " + keyPrefix);
+        }
+        // 更新清单，读取方切换到新的快照
+        if (!cache.hashUpdate(manifestKey(), changedHashes, removedIds)) {
+            throw new IllegalStateException("写入缓存清单失败, namespace: " + keyPrefix);
+        }
+        log.debug("缓存 {} 发布新快照, {}", keyPrefix, result);
+
+        if (!retired.isEmpty()) {
+            GC_EXECUTOR.schedule(() -> collectGarbage(retired), gcDelayMillis, TimeUnit.MILLISECONDS);
+        }
+        if (current.isEmpty()) {
+            // 迁移后第一次发布：仍在运行的旧版本进程可能还在读取不带版本的键，延迟后删除一次
+            List<String> legacyKeys = new ArrayList<>(entries.size());
+            entries.keySet().forEach(id -> legacyKeys.add(keyPrefix + id));
+            GC_EXECUTOR.schedule(() -> deleteLegacyKeys(legacyKeys), gcDelayMillis, TimeUnit.MILLISECONDS);
+        }
+        return result;
+    }
+
+    /**
+     * 删除清单及其引用的所有对象
+     */
+    public synchronized void clear() {
+        manifest().forEach((id, hash) -> cache.delete(entryKey(id, hash)));
+        cache.delete(manifestKey());
+    }
+
+    /**
+     * 当前清单，尚未发布过时返回空清单；返回的实例可能被本地缓存共享，调用方不能修改
+     */
+    private Map<String, String> manifest() {
+        Map<String, String> manifest = cache.hashGetAll(manifestKey());
+        return manifest != null ? manifest : Map.of();
+    }
+
+    private String manifestKey() {
+        return keyPrefix + MANIFEST_KEY;
+    }
+
+    private String entryKey(String id, String hash) {
+        return keyPrefix + id + HASH_SEPARATOR + hash;
+    }
+
+    private synchronized void collectGarbage(List<String> retired) {
+        try {
+            // 对象可能在之后的刷新中恢复为相同的内容，仍被当前清单引用的键不删除
+            Map<String, String> manifest = manifest();
+            int deleted = 0;
+            for (String key : retired) {
+                int index = key.lastIndexOf(HASH_SEPARATOR);
+                String id = key.substring(keyPrefix.length(), index);
+                if (!key.substring(index + 1).equals(manifest.get(id))) {
+                    cache.delete(key);
+                    deleted++;
+                }
+            }
+            log.debug("缓存 {} 回收 {} 个旧对象", keyPrefix, deleted);
+        } catch (Exception e) {
+            log.error("回收缓存旧对象失败, namespace: {}, error: {}", keyPrefix, e.getMessage());
+        }
+    }
+
+    private void deleteLegacyKeys(List<String> legacyKeys) {
+        try {
+            int deleted = 0;
+            for (String key : legacyKeys) {
+                if (cache.delete(key)) {
+                    deleted++;
+                }
+            }
+            log.info("缓存 {} 删除 {} 个不带版本的旧键", keyPrefix, deleted);
+        } catch (Exception e) {
+            log.error("删除缓存不带版本的旧键失败, namespace: {}, error: {}", keyPrefix, e.getMessage());
+        }
+    }
+
+    /**
+     * 无法序列化的对象无法判断是否变化，本次刷新失败，不发布新快照
+     */
+    private String digest(String id, Object value) {
+        try {
+            byte[] json = DIGEST_MAPPER.writeValueAsBytes(value);
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (Exception e) {
+            throw new IllegalStateException("计算缓存对象摘要失败, namespace: " + keyPrefix + ", id: " + id, e);
+        }
+    }
+}
@@ -8,6 +8,19 @@ public interface IOpusProcessor {
 
     byte[] decodeOpusFrameToPcm(String terminalId, byte[] opusData) throws OpusException;
 
+    /**
+     * 解码单帧 Opus 数据，写入调用方提供的 PCM 缓冲区
+     * @param terminalId 终端ID
+     * @param opusData Opus 数据
+     * @param offset 帧起始位置
+     * @param length 帧长度
+     * @param pcmOut PCM 输出缓冲区（16位小端）
+     * @param pcmOffset 输出起始位置
+     * @return 写入的字节数
+     */
+    int decodeOpusFrameToPcm(String terminalId, byte[] opusData, int offset, int length, byte[] pcmOut, int pcmOffset)
+            throws OpusException;
+
     /**
      * 解码完整的音频流（多帧合并的Opus数据）为PCM
      * @param terminalId 终端ID
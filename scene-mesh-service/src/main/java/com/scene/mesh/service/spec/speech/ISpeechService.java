@@ -9,6 +9,33 @@ public interface ISpeechService {
      */
     String stt(String terminalId, String base64audioStr);
 
+    /**
+     * 开始终端的流式识别，已有未结束的识别时先丢弃
+     * @param terminalId 终端 id
+     * @param listener 中间结果与分段结果的监听
+     */
+    void startSttStream(String terminalId, ISttResultListener listener);
+
+    /**
+     * 输入一帧 opus 音频
+     * @param terminalId 终端 id
+     * @param base64OpusFrame opus base64 frame
+     */
+    void feedSttStream(String terminalId, String base64OpusFrame);
+
+    /**
+     * 结束本段语音，返回完整的识别文本
+     * @param terminalId 终端 id
+     * @return 识别文本，没有进行中的识别时返回 null
+     */
+    String finishSttStream(String terminalId);
+
+    /**
+     * 终端断开时释放其识别会话与编解码器
+     * @param terminalId 终端 id
+     */
+    void release(String terminalId);
+
     /**
      * opus text -> opus base64
      * @param audioText
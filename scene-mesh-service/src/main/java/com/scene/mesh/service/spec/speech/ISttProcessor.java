@@ -6,6 +6,14 @@ public interface ISttProcessor {
 
     String recognition(byte[] audioData);
 
+    /**
+     * 打开流式识别会话
+     *
+     * @param terminalId 终端 id
+     * @param listener   结果监听，可以为 null
+     */
+    ISttSession openSession(String terminalId, ISttResultListener listener);
+
     enum SttProcessorType{
         VOSK,
     }
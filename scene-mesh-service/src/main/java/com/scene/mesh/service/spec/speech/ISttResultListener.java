@@ -0,0 +1,18 @@
+package com.scene.mesh.service.spec.speech;
+
+/**
+ * 流式语音识别结果监听
+ */
+public interface ISttResultListener {
+
+    /**
+     * 中间结果，后续可能被修正
+     */
+    default void onPartial(String terminalId, String text) {
+    }
+
+    /**
+     * 识别器检测到一句话结束时的分段结果
+     */
+    void onFinal(String terminalId, String text);
+}
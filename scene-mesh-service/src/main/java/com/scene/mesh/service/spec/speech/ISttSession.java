@@ -0,0 +1,31 @@
+package com.scene.mesh.service.spec.speech;
+
+/**
+ * 流式语音识别会话
+ * 按帧输入 16 位单声道 PCM，识别过程中通过 {@link ISttResultListener} 输出中间结果与分段结果，
+ * {@link #finish()} 结束本段语音并释放识别器。会话不是线程安全的，同一时刻只能由一个线程输入。
+ */
+public interface ISttSession extends AutoCloseable {
+
+    String getTerminalId();
+
+    /**
+     * 输入一段 PCM 数据
+     *
+     * @param pcm    PCM 数据
+     * @param offset 起始位置
+     * @param length 长度（字节）
+     */
+    void accept(byte[] pcm, int offset, int length);
+
+    /**
+     * 结束本段语音，返回完整的识别文本并释放识别器
+     */
+    String finish();
+
+    /**
+     * 放弃本段语音并释放识别器
+     */
+    @Override
+    void close();
+}
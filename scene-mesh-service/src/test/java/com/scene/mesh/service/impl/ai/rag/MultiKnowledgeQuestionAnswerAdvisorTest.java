@@ -0,0 +1,153 @@
+package com.scene.mesh.service.impl.ai.rag;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多知识库并发检索测试
+ */
+public class MultiKnowledgeQuestionAnswerAdvisorTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testParallelRetrievalWithDeadline() throws Exception {
+        List<Pair<Integer, VectorStore>> stores = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            stores.add(Pair.of(i + 1, new StubVectorStore("kb-" + i, 100, 0.5 + i * 0.1)));
+        }
+        StubVectorStore slowStore = new StubVectorStore("kb-slow", 5_000, 1.0);
+        stores.add(Pair.of(0, slowStore));
+
+        MultiKnowledgeQuestionAnswerAdvisor advisor = MultiKnowledgeQuestionAnswerAdvisor.builder(stores)
+                .storeNames(List.of("kb-0", "kb-1", "kb-2", "kb-3", "kb-4", "kb-slow"))
+                .deadline(Duration.ofMillis(300))
+                .build();
+
+        long start = System.nanoTime();
+        ChatClientRequest request = advisor.before(ChatClientRequest.builder()
+                .prompt(new Prompt(new UserMessage("question")))
+                .context(Map.of())
+                .build(), null);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // 并发检索，耗时接近单个知识库而不是总和
+        assertTrue(elapsedMillis < 450, "elapsed " + elapsedMillis + "ms");
+        assertEquals(List.of("kb-slow"), request.context().get(MultiKnowledgeQuestionAnswerAdvisor.MISSED_STORES));
+        assertTrue(slowStore.interrupted.await(1, TimeUnit.SECONDS), "missed store should be interrupted");
+
+        List<Document> documents = (List<Document>) request.context().get(MultiKnowledgeQuestionAnswerAdvisor.RETRIEVED_DOCUMENTS);
+        assertEquals(10, documents.size());
+        // 优先级高的知识库在前，同一知识库内按分数降序
+        assertEquals("kb-0-high", documents.get(0).getText());
+        assertEquals("kb-0-low", documents.get(1).getText());
+        assertEquals("kb-4-low", documents.get(9).getText());
+    }
+
+    @Test
+    void testMissedStoreReleasesRetrievalThread() throws Exception {
+        StubVectorStore slowStore = new StubVectorStore("kb-slow", 60_000, 1.0);
+        ExecutorService executor = MultiKnowledgeQuestionAnswerAdvisor.newRetrievalExecutor(1, 4);
+        try {
+            MultiKnowledgeQuestionAnswerAdvisor advisor = MultiKnowledgeQuestionAnswerAdvisor.builder(
+                            List.of(Pair.of(1, slowStore)))
+                    .storeNames(List.of("kb-slow"))
+                    .retrievalExecutor(executor)
+                    .deadline(Duration.ofMillis(100))
+                    .build();
+            ChatClientRequest request = advisor.before(ChatClientRequest.builder()
+                    .prompt(new Prompt(new UserMessage("question")))
+                    .context(Map.of())
+                    .build(), null);
+            assertEquals(List.of("kb-slow"), request.context().get(MultiKnowledgeQuestionAnswerAdvisor.MISSED_STORES));
+
+            // 超时的检索被中断，唯一的检索线程可以继续处理后续请求
+            assertTrue(slowStore.interrupted.await(1, TimeUnit.SECONDS));
+            assertEquals("ok", executor.submit(() -> "ok").get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFailedStoreIsReported() {
+        List<Pair<Integer, VectorStore>> stores = List.of(
+                Pair.of(1, new StubVectorStore("kb-ok", 10, 0.5)),
+                Pair.of(2, new StubVectorStore("kb-broken", -1, 0.5)));
+        MultiKnowledgeQuestionAnswerAdvisor advisor = MultiKnowledgeQuestionAnswerAdvisor.builder(stores)
+                .storeNames(List.of("kb-ok", "kb-broken"))
+                .build();
+
+        ChatClientRequest request = advisor.before(ChatClientRequest.builder()
+                .prompt(new Prompt(new UserMessage("question")))
+                .context(Map.of())
+                .build(), null);
+
+        assertEquals(List.of("kb-broken"), request.context().get(MultiKnowledgeQuestionAnswerAdvisor.MISSED_STORES));
+        assertEquals(2, ((List<Document>) request.context().get(MultiKnowledgeQuestionAnswerAdvisor.RETRIEVED_DOCUMENTS)).size());
+    }
+
+    /**
+     * 固定延迟的向量库，每次返回高低分两条文档；延迟小于 0 时抛出异常
+     */
+    private static class StubVectorStore implements VectorStore {
+
+        private final String name;
+        private final long latencyMillis;
+        private final double score;
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        private StubVectorStore(String name, long latencyMillis, double score) {
+            this.name = name;
+            this.latencyMillis = latencyMillis;
+            this.score = score;
+        }
+
+        @Override
+        public List<Document> similaritySearch(SearchRequest request) {
+            if (latencyMillis < 0) {
+                throw new IllegalStateException("store unavailable");
+            }
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                Thread.currentThread().interrupt();
+                return List.of();
+            }
+            List<Document> documents = new ArrayList<>();
+            documents.add(Document.builder().text(name + "-low").score(score - 0.1).build());
+            documents.add(Document.builder().text(name + "-high").score(score).build());
+            return documents;
+        }
+
+        @Override
+        public void add(List<Document> documents) {
+        }
+
+        @Override
+        public void delete(List<String> idList) {
+        }
+
+        @Override
+        public void delete(Filter.Expression filterExpression) {
+        }
+    }
+}
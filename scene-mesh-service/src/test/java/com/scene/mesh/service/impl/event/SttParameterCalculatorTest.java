@@ -0,0 +1,97 @@
+package com.scene.mesh.service.impl.event;
+
+import com.scene.mesh.service.spec.speech.ISpeechService;
+import com.scene.mesh.service.spec.speech.ISttResultListener;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 语音转文本字段计算测试：整段音频与流式识别
+ */
+public class SttParameterCalculatorTest {
+
+    private final RecordingSpeechService speechService = new RecordingSpeechService();
+
+    private final SttParameterCalculator calculator = new SttParameterCalculator(speechService);
+
+    @Test
+    void testCompleteAudioIsRecognizedAtOnce() {
+        Map<String, Object> payload = new HashMap<>(Map.of("audio", "a1"));
+
+        assertTrue(calculator.calculate("t-1", "audio", "text", payload));
+
+        assertEquals("batch:a1", payload.get("text"));
+        assertEquals(List.of("stt:t-1:a1"), speechService.calls);
+    }
+
+    @Test
+    void testStreamFramesAreFedToOneSession() {
+        Map<String, Object> start = new HashMap<>(Map.of("audio", "f1", "audioStream", "start"));
+        Map<String, Object> frame = new HashMap<>(Map.of("audio", "f2", "audioStream", "continue"));
+        Map<String, Object> end = new HashMap<>(Map.of("audioStream", "end"));
+
+        assertFalse(calculator.calculate("t-1", "audio", "text", start));
+        assertFalse(calculator.calculate("t-1", "audio", "text", frame));
+        assertTrue(calculator.calculate("t-1", "audio", "text", end));
+
+        assertFalse(start.containsKey("text"));
+        assertFalse(frame.containsKey("text"));
+        assertEquals("f1 f2", end.get("text"));
+        assertEquals(List.of("start:t-1", "feed:t-1:f1", "feed:t-1:f2", "finish:t-1"), speechService.calls);
+    }
+
+    @Test
+    void testMissingAudioIsRejected() {
+        assertThrows(RuntimeException.class,
+                () -> calculator.calculate("t-1", "audio", "text", new HashMap<>()));
+        assertThrows(RuntimeException.class,
+                () -> calculator.calculate("t-1", "audio", "text", new HashMap<>(Map.of("audioStream", "pause"))));
+    }
+
+    /**
+     * 记录调用顺序，流式识别结果为输入帧按空格拼接
+     */
+    private static class RecordingSpeechService implements ISpeechService {
+        private final List<String> calls = new ArrayList<>();
+        private final List<String> frames = new ArrayList<>();
+
+        @Override
+        public String stt(String terminalId, String base64audioStr) {
+            calls.add("stt:" + terminalId + ":" + base64audioStr);
+            return "batch:" + base64audioStr;
+        }
+
+        @Override
+        public void startSttStream(String terminalId, ISttResultListener listener) {
+            calls.add("start:" + terminalId);
+            frames.clear();
+        }
+
+        @Override
+        public void feedSttStream(String terminalId, String base64OpusFrame) {
+            calls.add("feed:" + terminalId + ":" + base64OpusFrame);
+            frames.add(base64OpusFrame);
+        }
+
+        @Override
+        public String finishSttStream(String terminalId) {
+            calls.add("finish:" + terminalId);
+            return String.join(" ", frames);
+        }
+
+        @Override
+        public void release(String terminalId) {
+        }
+
+        @Override
+        public String tts(String terminalId, String audioText) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.scene.mesh.service.impl.speech;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Opus 编解码器池测试
+ */
+public class DefaultOpusProcessorTest {
+
+    private static final int SAMPLE_RATE = 16000;
+
+    @Test
+    void testRoundTripIntoCallerBuffer() throws Exception {
+        DefaultOpusProcessor processor = new DefaultOpusProcessor();
+        List<byte[]> frames = processor.encodePcmToOpus("t-1", sine(200), SAMPLE_RATE, 1, 20);
+        assertEquals(10, frames.size());
+
+        byte[] pcm = new byte[OpusCodecPool.MAX_FRAME_SAMPLES * 2];
+        for (byte[] frame : frames) {
+            assertEquals(640, processor.decodeOpusFrameToPcm("t-1", frame, 0, frame.length, pcm, 0));
+        }
+        assertEquals(640, processor.decodeOpusFrameToPcm("t-2", frames.get(0)).length);
+    }
+
+    @Test
+    void testCompleteStreamDecodesAllFrames() throws Exception {
+        DefaultOpusProcessor processor = new DefaultOpusProcessor();
+        List<byte[]> frames = processor.encodePcmToOpus("t-1", sine(1_000), SAMPLE_RATE, 1, 20);
+
+        int total = frames.stream().mapToInt(f -> f.length + 2).sum();
+        byte[] stream = new byte[total];
+        int offset = 0;
+        for (byte[] frame : frames) {
+            stream[offset++] = (byte) (frame.length & 0xFF);
+            stream[offset++] = (byte) ((frame.length >> 8) & 0xFF);
+            System.arraycopy(frame, 0, stream, offset, frame.length);
+            offset += frame.length;
+        }
+
+        assertEquals(frames.size() * 640, processor.decodeCompleteOpusStreamToPcm("t-2", stream).length);
+    }
+
+    @Test
+    void testPoolIsBoundedAndReleasedOnDisconnect() throws Exception {
+        DefaultOpusProcessor processor = new DefaultOpusProcessor(8, 60_000);
+        byte[] frame = processor.encodePcmToOpus("encoder", sine(20), SAMPLE_RATE, 1, 20).get(0);
+        for (int i = 0; i < 100; i++) {
+            processor.decodeOpusFrameToPcm("t-" + i, frame);
+        }
+        assertTrue(processor.getCacheStatus().startsWith("Terminals: 8/8"), processor.getCacheStatus());
+
+        processor.cleanupOpusCoderForTerminal("t-99");
+        assertTrue(processor.getCacheStatus().startsWith("Terminals: 7/8"), processor.getCacheStatus());
+    }
+
+    @Test
+    void testIdleTerminalsAreEvicted() throws Exception {
+        OpusCodecPool pool = new OpusCodecPool(SAMPLE_RATE, 1, 16000, 100, 20);
+        pool.checkout("t-1").close();
+        pool.checkout("t-2").close();
+        Thread.sleep(50);
+        pool.checkout("t-3").close();
+        assertEquals(1, pool.size());
+        assertEquals(2, pool.getEvictionCount());
+    }
+
+    @Test
+    void testCheckoutIsExclusivePerTerminal() throws Exception {
+        OpusCodecPool pool = new OpusCodecPool(SAMPLE_RATE, 1, 16000, 100, 60_000);
+        AtomicInteger holders = new AtomicInteger();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        int threads = 8;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            new Thread(() -> {
+                try {
+                    for (int j = 0; j < 200; j++) {
+                        try (OpusCodecPool.Lease lease = pool.checkout("shared")) {
+                            if (holders.incrementAndGet() > 1) {
+                                overlapped.set(true);
+                            }
+                            lease.pcmSamples(320)[0] = 1;
+                            holders.decrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertFalse(overlapped.get());
+    }
+
+    private static byte[] sine(int millis) {
+        int samples = SAMPLE_RATE * millis / 1000;
+        byte[] pcm = new byte[samples * 2];
+        for (int i = 0; i < samples; i++) {
+            short value = (short) (Math.sin(2 * Math.PI * 440 * i / SAMPLE_RATE) * 8000);
+            pcm[i * 2] = (byte) (value & 0xFF);
+            pcm[i * 2 + 1] = (byte) ((value >> 8) & 0xFF);
+        }
+        return pcm;
+    }
+}
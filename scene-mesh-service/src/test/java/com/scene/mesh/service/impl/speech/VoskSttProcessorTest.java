@@ -0,0 +1,102 @@
+package com.scene.mesh.service.impl.speech;
+
+import com.scene.mesh.service.spec.speech.ISttResultListener;
+import com.scene.mesh.service.spec.speech.ISttSession;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.vosk.Model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Vosk 流式识别测试
+ * 需要本地的小模型（如 vosk-model-small-cn-0.22），通过 -Dvosk.model=/path/to/model 指定，未指定时跳过
+ */
+public class VoskSttProcessorTest {
+
+    private static final int FRAME_BYTES = 640; // 20ms, 16kHz, 16bit
+
+    private static Model model;
+
+    @BeforeAll
+    static void loadModel() throws Exception {
+        String path = System.getProperty("vosk.model", System.getenv("VOSK_MODEL"));
+        assumeTrue(path != null && new File(path).isDirectory(), "vosk model not configured");
+        model = new Model(path);
+    }
+
+    @AfterAll
+    static void closeModel() {
+        if (model != null) {
+            model.close();
+        }
+    }
+
+    @Test
+    void testRecognizersAreReused() {
+        VoskSttProcessor processor = new VoskSttProcessor(model, 2);
+        VoskRecognizerPool pool = processor.getRecognizerPool();
+
+        for (int i = 0; i < 5; i++) {
+            try (ISttSession session = processor.openSession("t-1", null)) {
+                feed(session, silence(500));
+                assertNotNull(session.finish());
+            }
+        }
+        assertEquals(0, pool.activeCount());
+        assertEquals(1, pool.idleCount());
+    }
+
+    @Test
+    void testConcurrentSessionsAreBounded() {
+        VoskSttProcessor processor = new VoskSttProcessor(model, 2);
+        ISttSession first = processor.openSession("t-1", null);
+        ISttSession second = processor.openSession("t-2", null);
+        assertEquals(2, processor.getRecognizerPool().activeCount());
+
+        first.finish();
+        // 归还后其他终端可以借到
+        ISttSession third = processor.openSession("t-3", null);
+        assertEquals(2, processor.getRecognizerPool().activeCount());
+        second.close();
+        third.close();
+        assertEquals(0, processor.getRecognizerPool().activeCount());
+    }
+
+    @Test
+    void testStreamingMatchesBatch() {
+        VoskSttProcessor processor = new VoskSttProcessor(model, 1);
+        byte[] audio = silence(1_000);
+
+        List<String> finals = new ArrayList<>();
+        String streamed;
+        try (ISttSession session = processor.openSession("t-1", new ISttResultListener() {
+            @Override
+            public void onFinal(String terminalId, String text) {
+                finals.add(text);
+            }
+        })) {
+            feed(session, audio);
+            streamed = session.finish();
+        }
+
+        assertEquals(processor.recognition(audio), streamed);
+        assertEquals(String.join(" ", finals), streamed);
+    }
+
+    private static void feed(ISttSession session, byte[] audio) {
+        for (int offset = 0; offset < audio.length; offset += FRAME_BYTES) {
+            session.accept(audio, offset, Math.min(FRAME_BYTES, audio.length - offset));
+        }
+    }
+
+    private static byte[] silence(int millis) {
+        return new byte[16_000 * 2 * millis / 1000];
+    }
+}
@@ -0,0 +1,183 @@
+package com.scene.mesh.service.impl.terminal;
+
+import com.scene.mesh.model.terminal.TerminalStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TerminalStatusWriterTest {
+
+    private static final long NO_SCHEDULED_FLUSH = 60_000;
+
+    @Test
+    void coalescesUpdatesToLatestStatus() {
+        RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate();
+        try (TerminalStatusWriter writer = new TerminalStatusWriter(jdbc, 10, 100, NO_SCHEDULED_FLUSH)) {
+            writer.submit("p1", "t1", TerminalStatus.ONLINE);
+            writer.submit("p1", "t1", TerminalStatus.OFFLINE);
+            writer.submit("p1", "t1", TerminalStatus.ONLINE);
+            writer.submit("p1", "t2", TerminalStatus.OFFLINE);
+            assertEquals(2, writer.pendingCount());
+
+            writer.flush();
+        }
+
+        assertEquals(1, jdbc.batches.size());
+        List<Object[]> rows = jdbc.batches.get(0);
+        assertEquals(2, rows.size());
+        for (Object[] row : rows) {
+            assertEquals("t1".equals(row[3]) ? "ONLINE" : "OFFLINE", row[0]);
+        }
+    }
+
+    @Test
+    void wakesFlusherWhenBatchSizeIsReached() throws Exception {
+        RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate();
+        try (TerminalStatusWriter writer = new TerminalStatusWriter(jdbc, 2, 5, NO_SCHEDULED_FLUSH)) {
+            writer.submit("p1", "t0", TerminalStatus.ONLINE);
+            writer.submit("p1", "t1", TerminalStatus.ONLINE);
+
+            assertTrue(awaitRows(jdbc, 2));
+            assertEquals(0, writer.pendingCount());
+            assertTrue(jdbc.batches.stream().allMatch(batch -> batch.size() <= 2));
+        }
+    }
+
+    @Test
+    void dropsOldestWhenFullWithoutWaitingForDatabase() throws Exception {
+        RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate();
+        jdbc.blocked = new CountDownLatch(1);
+        TerminalStatusWriter writer = new TerminalStatusWriter(jdbc, 2, 3, NO_SCHEDULED_FLUSH);
+        try {
+            writer.submit("p1", "t0", TerminalStatus.ONLINE);
+            writer.submit("p1", "t1", TerminalStatus.ONLINE);
+            // 后台线程取出 t0、t1 后阻塞在数据库上
+            assertTrue(jdbc.entered.await(5, TimeUnit.SECONDS));
+
+            for (int i = 2; i < 6; i++) {
+                writer.submit("p1", "t" + i, TerminalStatus.ONLINE);
+            }
+            // 同一终端的更新合并，不占用额外条目
+            writer.submit("p1", "t5", TerminalStatus.OFFLINE);
+
+            assertEquals(3, writer.pendingCount());
+            assertEquals(1, writer.getDroppedCount());
+        } finally {
+            jdbc.blocked.countDown();
+            writer.close();
+        }
+
+        List<Object> terminals = jdbc.batches.stream().flatMap(List::stream).map(row -> row[3]).toList();
+        assertEquals(5, terminals.size());
+        assertFalse(terminals.contains("t2"));
+    }
+
+    @Test
+    void submitNeverThrowsWhenDatabaseFails() {
+        RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate();
+        jdbc.failing = true;
+        try (TerminalStatusWriter writer = new TerminalStatusWriter(jdbc, 1, 2, NO_SCHEDULED_FLUSH)) {
+            for (int i = 0; i < 100; i++) {
+                writer.submit("p1", "t" + (i % 4), TerminalStatus.ONLINE);
+            }
+            assertTrue(writer.pendingCount() <= 2);
+
+            jdbc.failing = false;
+            writer.flush();
+            assertEquals(0, writer.pendingCount());
+        }
+    }
+
+    @Test
+    void closeFlushesPendingUpdates() {
+        RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate();
+        TerminalStatusWriter writer = new TerminalStatusWriter(jdbc, 10, 100, NO_SCHEDULED_FLUSH);
+        writer.submit("p1", "t1", TerminalStatus.OFFLINE);
+        assertEquals(0, jdbc.rowCount());
+
+        writer.close();
+
+        assertEquals(1, jdbc.rowCount());
+        assertEquals(0, writer.pendingCount());
+    }
+
+    @Test
+    void failedBatchIsRetainedWithoutOverwritingNewerStatus() {
+        RecordingJdbcTemplate jdbc = new RecordingJdbcTemplate();
+        jdbc.failing = true;
+        try (TerminalStatusWriter writer = new TerminalStatusWriter(jdbc, 10, 100, NO_SCHEDULED_FLUSH)) {
+            writer.submit("p1", "t1", TerminalStatus.ONLINE);
+            writer.submit("p1", "t2", TerminalStatus.ONLINE);
+            assertThrows(DataAccessResourceFailureException.class, writer::flush);
+            assertEquals(2, writer.pendingCount());
+
+            writer.submit("p1", "t1", TerminalStatus.OFFLINE);
+            jdbc.failing = false;
+            writer.flush();
+        }
+
+        List<Object[]> rows = jdbc.batches.get(0);
+        assertEquals(2, rows.size());
+        for (Object[] row : rows) {
+            assertEquals("t1".equals(row[3]) ? "OFFLINE" : "ONLINE", row[0]);
+        }
+    }
+
+    private static boolean awaitRows(RecordingJdbcTemplate jdbc, int rows) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jdbc.rowCount() < rows) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final List<List<Object[]>> batches = new ArrayList<>();
+
+        private volatile boolean failing;
+
+        private volatile CountDownLatch blocked;
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            entered.countDown();
+            CountDownLatch latch = blocked;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return record(batchArgs);
+        }
+
+        private synchronized int[] record(List<Object[]> batchArgs) {
+            if (failing) {
+                throw new DataAccessResourceFailureException("database unavailable");
+            }
+            batches.add(new ArrayList<>(batchArgs));
+            int[] counts = new int[batchArgs.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        }
+
+        private synchronized int rowCount() {
+            return batches.stream().mapToInt(List::size).sum();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.scene.mesh.service.spec.cache;
+
+import com.scene.mesh.foundation.spec.cache.ICache;
+import com.scene.mesh.model.scene.Scene;
+import com.scene.mesh.service.impl.cache.scene.SceneCache;
+import com.scene.mesh.service.impl.cache.scene.SceneCacheProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 带版本的缓存刷新测试：刷新过程中读取方不会看到部分或空的缓存，内容未变化的对象不重复写入
+ */
+public class VersionedCacheNamespaceTest {
+
+    private static final int SCENE_COUNT = 50;
+
+    private InMemoryCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new InMemoryCache();
+        VersionedCacheNamespace.setGcDelayMillis(50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        VersionedCacheNamespace.setGcDelayMillis(VersionedCacheNamespace.DEFAULT_GC_DELAY_MILLIS);
+    }
+
+    @Test
+    void testReadersNeverSeePartialCache() throws Exception {
+        CacheObjectContainer<SceneCache, Scene> writer =
+                new NonExpiringCacheObjectContainer<>(new SceneCacheProvider(cache), true);
+        // 读取方使用独立的容器，模拟其他进程只读缓存
+        CacheObjectContainer<SceneCache, Scene> reader =
+                new NonExpiringCacheObjectContainer<>(new SceneCacheProvider(cache), true);
+
+        writer.refresh(scenes(0));
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger violations = new AtomicInteger();
+        AtomicLong reads = new AtomicLong();
+        int readerCount = 4;
+        CountDownLatch done = new CountDownLatch(readerCount);
+
+        for (int i = 0; i < readerCount; i++) {
+            Thread t = new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        List<Scene> all = reader.read().getScenes();
+                        if (all == null || all.size() != SCENE_COUNT) {
+                            violations.incrementAndGet();
+                        }
+                        if (reader.read().getScene("scene-" + (reads.get() % SCENE_COUNT)) == null) {
+                            violations.incrementAndGet();
+                        }
+                        reads.incrementAndGet();
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+            t.setDaemon(true);
+            t.start();
+        }
+
+        for (int round = 1; round <= 200; round++) {
+            writer.refresh(scenes(round));
+        }
+        // 等待后台回收旧对象
+        Thread.sleep(300);
+        running.set(false);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+
+        assertTrue(reads.get() > 0);
+        assertEquals(0, violations.get(), "readers must never see a partial or empty cache");
+
+        // 被替换的旧对象已回收
+        long entryKeys = cache.store.keySet().stream()
+                .filter(k -> k.startsWith(SceneCache.KEY_PREFIX + "scene-"))
+                .count();
+        assertTrue(entryKeys <= 2L * SCENE_COUNT, "replaced entries should be collected: " + entryKeys);
+        assertEquals("round-200", reader.read().getScene("scene-0").getDescription());
+    }
+
+    @Test
+    void testUnchangedRefreshWritesNothing() {
+        CacheObjectContainer<SceneCache, Scene> container =
+                new NonExpiringCacheObjectContainer<>(new SceneCacheProvider(cache), true);
+        CacheRefreshResult first = container.refresh(scenes(0));
+        assertEquals(SCENE_COUNT, first.getChanged());
+
+        int writes = cache.writes.get();
+        CacheRefreshResult unchanged = container.refresh(scenes(0));
+        assertEquals(0, unchanged.getChanged());
+        assertEquals(SCENE_COUNT, unchanged.getUnchanged());
+        assertEquals(0, unchanged.getRemoved());
+        assertEquals(writes, cache.writes.get(), "unchanged refresh must not write");
+
+        // 修改一个、删除一个
+        List<Scene> next = scenes(0);
+        next.get(0).setDescription("changed");
+        next.remove(next.size() - 1);
+        CacheRefreshResult delta = container.refresh(next);
+        assertEquals(1, delta.getChanged());
+        assertEquals(SCENE_COUNT - 2, delta.getUnchanged());
+        assertEquals(1, delta.getRemoved());
+        // 一个对象加上清单
+        assertEquals(writes + 2, cache.writes.get());
+        assertEquals("changed", container.read().getScene("scene-0").getDescription());
+        assertNull(container.read().getScene("scene-" + (SCENE_COUNT - 1)));
+        assertEquals(SCENE_COUNT - 1, container.read().getScenes().size());
+    }
+
+    @Test
+    void testEmptyRefreshPublishesEmptySnapshot() {
+        CacheObjectContainer<SceneCache, Scene> container =
+                new NonExpiringCacheObjectContainer<>(new SceneCacheProvider(cache), true);
+        assertNull(container.read().getScenes());
+
+        container.refresh(scenes(0));
+        assertEquals(SCENE_COUNT, container.read().getScenes().size());
+
+        // 场景全部删除后，读取方应看到空缓存而不是旧数据
+        container.refresh(new ArrayList<>());
+        assertNull(container.read().getScenes());
+        assertNull(container.read().getScene("scene-0"));
+    }
+
+    @Test
+    void testGetReadsSingleManifestField() {
+        CacheObjectContainer<SceneCache, Scene> container =
+                new NonExpiringCacheObjectContainer<>(new SceneCacheProvider(cache), true);
+        container.refresh(scenes(0));
+
+        int manifestReads = cache.manifestReads.get();
+        for (int i = 0; i < SCENE_COUNT; i++) {
+            assertEquals("scene-" + i, container.read().getScene("scene-" + i).getId());
+        }
+        assertEquals(manifestReads, cache.manifestReads.get(), "get(id) must not read the whole manifest");
+    }
+
+    @Test
+    void testLegacyKeysAreDeletedAfterFirstPublish() throws Exception {
+        // 迁移前不带版本写入的键
+        cache.set(SceneCache.KEY_PREFIX + "scene-0", new Scene());
+        cache.set(SceneCache.KEY_PREFIX + "scene-1", new Scene());
+        CacheObjectContainer<SceneCache, Scene> container =
+                new NonExpiringCacheObjectContainer<>(new SceneCacheProvider(cache), true);
+        container.refresh(scenes(0));
+
+        Thread.sleep(300);
+        assertFalse(cache.exists(SceneCache.KEY_PREFIX + "scene-0"));
+        assertFalse(cache.exists(SceneCache.KEY_PREFIX + "scene-1"));
+        assertEquals("round-0", container.read().getScene("scene-0").getDescription());
+        assertEquals(SCENE_COUNT, container.read().getScenes().size());
+    }
+
+    @Test
+    void testUnserializableEntryFailsRefresh() {
+        VersionedCacheNamespace<Object> namespace = new VersionedCacheNamespace<>(cache, "test:");
+        namespace.publish(Map.of("a", "value-a"));
+        int writes = cache.writes.get();
+
+        assertThrows(IllegalStateException.class,
+                () -> namespace.publish(Map.of("a", "value-b", "b", new Unserializable())));
+
+        // 刷新失败时不写入任何数据，读取方仍看到上一份快照
+        assertEquals(writes, cache.writes.get());
+        assertEquals("value-a", namespace.get("a"));
+        assertNull(namespace.get("b"));
+    }
+
+    private static List<Scene> scenes(int round) {
+        List<Scene> scenes = new ArrayList<>();
+        for (int i = 0; i < SCENE_COUNT; i++) {
+            Scene scene = new Scene();
+            scene.setId("scene-" + i);
+            scene.setDescription("round-" + round);
+            scenes.add(scene);
+        }
+        return scenes;
+    }
+
+    public static class Unserializable {
+        public String getValue() {
+            throw new IllegalStateException("not serializable");
+        }
+    }
+
+    /**
+     * 内存缓存，逐条写入以放大刷新窗口
+     */
+    private static class InMemoryCache implements ICache<String, Object> {
+
+        private final Map<String, Object> store = new ConcurrentHashMap<>();
+
+        private final AtomicInteger writes = new AtomicInteger();
+
+        private final AtomicInteger manifestReads = new AtomicInteger();
+
+        @Override
+        public boolean set(String key, Object value) {
+            writes.incrementAndGet();
+            store.put(key, value);
+            Thread.yield();
+            return true;
+        }
+
+        @Override
+        public boolean set(String key, Object value, long expireSeconds) {
+            return set(key, value);
+        }
+
+        @Override
+        public Object get(String key) {
+            return store.get(key);
+        }
+
+        @Override
+        public List<Object> getAll(String keyPrefix) {
+            String prefix = keyPrefix.substring(0, keyPrefix.length() - 1);
+            List<Object> values = new ArrayList<>();
+            store.forEach((k, v) -> {
+                if (k.startsWith(prefix)) {
+                    values.add(v);
+                }
+            });
+            return values.isEmpty() ? null : values;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public String hashGet(String key, String field) {
+            Object hash = store.get(key);
+            return hash instanceof Map ? ((Map<String, String>) hash).get(field) : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, String> hashGetAll(String key) {
+            manifestReads.incrementAndGet();
+            Object hash = store.get(key);
+            return hash instanceof Map ? (Map<String, String>) hash : Map.of();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public boolean hashUpdate(String key, Map<String, String> puts, Collection<String> removes) {
+            writes.incrementAndGet();
+            // 整体替换为新的不可变 Map，读取方只会看到更新前或更新后的哈希表
+            store.compute(key, (k, hash) -> {
+                Map<String, String> next = hash instanceof Map ? new HashMap<>((Map<String, String>) hash) : new HashMap<>();
+                next.putAll(puts);
+                removes.forEach(next::remove);
+                return next.isEmpty() ? null : Map.copyOf(next);
+            });
+            return true;
+        }
+
+        @Override
+        public boolean delete(String key) {
+            return store.remove(key) != null;
+        }
+
+        @Override
+        public boolean deleteByKeyPrefix(String keyPrefix) {
+            String prefix = keyPrefix.substring(0, keyPrefix.length() - 1);
+            return store.keySet().removeIf(k -> k.startsWith(prefix));
+        }
+
+        @Override
+        public boolean exists(String key) {
+            return store.containsKey(key);
+        }
+
+        @Override
+        public boolean expire(String key, long expireSeconds) {
+            return store.containsKey(key);
+        }
+
+        @Override
+        public boolean clear() {
+            store.clear();
+            return true;
+        }
+    }
+}